@@ -97,6 +97,9 @@ KW_ALL: 'ALL';
 
 KW_WATERMARK_EMBEDDING : 'WATERMARK_EMBEDDING';
 
+KW_TTL : 'TTL';
+KW_UNSET : 'UNSET';
+
 QUOTE : '\'' ;
 
 DOT : '.'; // generated as a part of Number rule
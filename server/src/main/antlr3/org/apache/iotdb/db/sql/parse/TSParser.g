@@ -82,6 +82,9 @@ TOK_FLOAT_COMB;
 TOK_GRANT_WATERMARK_EMBEDDING;
 TOK_REVOKE_WATERMARK_EMBEDDING;
 
+TOK_SET_TTL;
+TOK_UNSET_TTL;
+
 /*
   BELOW IS THE METADATA TOKEN
 */
@@ -212,6 +215,9 @@ ArrayList<ParseError> errors = new ArrayList<ParseError>();
         xlateMap.put("KW_LIST", "LIST");
 
         xlateMap.put("KW_WATERMARK_EMBEDDING", "WATERMARK_EMBEDDING");
+
+        xlateMap.put("KW_TTL", "TTL");
+        xlateMap.put("KW_UNSET", "UNSET");
     }
 
     public static Collection<String> getKeywords() {
@@ -357,6 +363,7 @@ execStatement
     | insertStatement
     | queryStatement
     | metadataStatement
+    | ttlStatement
     | mergeStatement
 //    | loadStatement
     | indexStatement
@@ -482,6 +489,21 @@ crud & author
 *************
 ****
 */
+ttlStatement
+    : setTTLStatement
+    | unsetTTLStatement
+    ;
+
+setTTLStatement
+    : KW_SET KW_TTL KW_TO prefixPath time=nonNegativeInteger
+    -> ^(TOK_SET_TTL prefixPath $time)
+    ;
+
+unsetTTLStatement
+    : KW_UNSET KW_TTL KW_TO prefixPath
+    -> ^(TOK_UNSET_TTL prefixPath)
+    ;
+
 mergeStatement
     :
     KW_MERGE
@@ -33,9 +33,14 @@ public enum ThreadName {
   STAT_MONITOR("StatMonitor-ServerServiceImpl"),
   FLUSH_SERVICE("Flush-ServerServiceImpl"),
   FLUSH_SUB_TASK_SERVICE("Flush-SubTask-ServerServiceImpl"),
+  STORAGE_GROUP_RECOVER("StorageGroup-Recover"),
+  TTL_CHECK_SERVICE("TTL-Check"),
+  WAL_REPLAY("WAL-Replay"),
   WAL_DAEMON("IoTDB-MultiFileLogNodeManager-Sync-Thread"),
   WAL_FORCE_DAEMON("IoTDB-MultiFileLogNodeManager-Force-Thread"),
   INDEX_SERVICE("Index-ServerServiceImpl"),
+  CHUNK_PREFETCH_SERVICE("Chunk-Prefetch-ServerServiceImpl"),
+  METADATA_SNAPSHOT("IoTDB-Metadata-Snapshot-Thread"),
   SYNC_CLIENT("Sync-Client"),
   SYNC_SERVER("Sync-Server"),
   SYNC_MONITOR("Sync-Monitor"),
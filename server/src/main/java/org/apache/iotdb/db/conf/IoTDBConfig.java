@@ -22,13 +22,17 @@ import java.io.File;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.iotdb.db.engine.merge.selector.MergeFileStrategy;
+import org.apache.iotdb.db.engine.merge.selector.SeqCompactionStrategy;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.service.TSServiceImpl;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.fileSystem.FSType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -94,6 +98,30 @@ public class IoTDBConfig {
    */
   private String timestampPrecision = "ms";
 
+  /**
+   * Whether the data of a storage group is divided into time partitions, each of which has its own
+   * TsFiles, merges and versions. It can not be changed once data is written.
+   */
+  private boolean enablePartition = false;
+
+  /**
+   * The time range covered by a time partition in seconds. It can not be changed once data is
+   * written.
+   */
+  private long partitionInterval = 604800;
+
+  /**
+   * The max number of time partitions of a storage group that have working TsFiles at the same
+   * time, each of them holds a sequence and an unsequence memtable.
+   */
+  private int concurrentWritingTimePartition = 1;
+
+  /**
+   * The TsFiles whose data is all expired by the TTL of their storage groups are removed each such
+   * interval. Unit: second.
+   */
+  private long ttlCheckIntervalSec = 3600L;
+
   /**
    * The cycle when write ahead log is periodically forced to be written to disk(in milliseconds) If
    * set this parameter to 0 it means call outputStream.force(true) after every each insert
@@ -156,6 +184,25 @@ public class IoTDBConfig {
    */
   private int concurrentFlushThread = Runtime.getRuntime().availableProcessors();
 
+  /**
+   * How many storage groups can be recovered concurrently at startup. When <= 0, use CPU core
+   * number.
+   */
+  private int concurrentRecoveryThread = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Whether IoTDB serves requests before every storage group is recovered at startup. If so, a
+   * storage group that fails to recover fails its own requests, otherwise IoTDB waits for all
+   * storage groups at startup and stops if any of them fails.
+   */
+  private boolean enablePartialRecovery = false;
+
+  /**
+   * How many threads redo the WAL of an unsealed TsFile at recovery, the devices are partitioned
+   * among them. When <= 0, use CPU core number.
+   */
+  private int concurrentWalReplayThread = Runtime.getRuntime().availableProcessors();
+
   private ZoneId zoneID = ZoneId.systemDefault();
 
   /**
@@ -182,6 +229,12 @@ public class IoTDBConfig {
    */
   private long allocateMemoryForChumkMetaDataCache = allocateMemoryForRead * 6 / 19;
 
+  /**
+   * Memory allocated for the device time indexes of sealed TsFiles, the indexes of the least
+   * recently used files are dropped and read from their .resource files again when needed.
+   */
+  private long timeIndexCacheMemory = 128L * 1024 * 1024;
+
   /**
    * The statMonitor writes statistics info into IoTDB every backLoopPeriodSec secs. The default
    * value is 5s.
@@ -206,6 +259,19 @@ public class IoTDBConfig {
    */
   private int mManagerCacheSize = 400000;
 
+  /**
+   * A binary snapshot of the metadata is taken in the background after this many entries are
+   * appended to the metadata log, so that a restart only replays the log after the snapshot. Non
+   * positive value disables the snapshot.
+   */
+  private int metadataSnapshotInterval = 100000;
+
+  /**
+   * Whether a metadata operation returns only after its log entry is synced to the disk. Concurrent
+   * operations share one fsync.
+   */
+  private boolean forceMetadataLog = true;
+
   /**
    * Is this IoTDB instance a receiver of sync or not.
    */
@@ -231,6 +297,17 @@ public class IoTDBConfig {
    */
   private long cacheFileReaderClearPeriod = 100000;
 
+  /**
+   * How many chunks a sequential series reader reads ahead of the chunk being decoded. When <= 0,
+   * chunks are read synchronously one at a time.
+   */
+  private int chunkPrefetchNum = 4;
+
+  /**
+   * How many threads perform the chunk reads issued by read-ahead.
+   */
+  private int chunkPrefetchThreadNum = 4;
+
   /**
    * Replace implementation class of JDBC service
    */
@@ -310,6 +387,20 @@ public class IoTDBConfig {
    */
   private long mergeIntervalSec = 2 * 3600L;
 
+  /**
+   * A storage group is merged before the next global merge when the unseqFiles and the seqFiles
+   * they overlap, which its queries have read since its last merge, exceed this number. The
+   * storage groups with more such reads are merged first. When less than or equal to 0, merges
+   * are not triggered by queries.
+   */
+  private long readAmplificationMergeThreshold = 0;
+
+  /**
+   * The interval of checking the read amplification of the storage groups, see
+   * readAmplificationMergeThreshold. Unit: second.
+   */
+  private long readAmplificationCheckIntervalSec = 60;
+
   /**
    * When set to true, all merges becomes full merge (the whole SeqFiles are re-written despite how
    * much they are overflowed). This may increase merge overhead depending on how much the SeqFiles
@@ -324,6 +415,81 @@ public class IoTDBConfig {
    */
   private int chunkMergePointThreshold = 20480;
 
+  /**
+   * When a merge is performed, adjacent sealed sequence TsFiles each smaller than this (in byte)
+   * are compacted into one whose size does not exceed tsFileSizeThreshold. When less than or equal
+   * to 0, sequence compaction is disabled, which is the default.
+   */
+  private long seqFileCompactionThreshold = 0;
+
+  /**
+   * How the sequence TsFiles to be compacted are selected, see SeqCompactionStrategy.
+   */
+  private SeqCompactionStrategy seqCompactionStrategy = SeqCompactionStrategy.SIZE_TIERED;
+
+  /**
+   * The key is a storage group and the value is the SeqCompactionStrategy of it. The storage groups
+   * not in it use seqCompactionStrategy.
+   */
+  private Map<String, SeqCompactionStrategy> storageGroupSeqCompactionStrategies =
+      Collections.emptyMap();
+
+  /**
+   * With SIZE_TIERED, the least number of adjacent sequence TsFiles of similar sizes to be
+   * compacted. With LEVELED, the number of adjacent sequence TsFiles of a level that are compacted
+   * into one of the next level.
+   */
+  private int seqCompactionFileNum = 4;
+
+  /**
+   * When true, unseqFiles are merged by several tasks, each of which merges a slice of the series
+   * sized by the merge memory budget and publishes it when it ends, instead of by one task that
+   * merges all series.
+   */
+  private boolean enableIncrementalMerge = false;
+
+  /**
+   * The total throughput of the reads and writes of merges and compactions. When less than or
+   * equal to 0, merges are not limited unless they back off.
+   */
+  private int mergeIOThroughputMBPerSec = 0;
+
+  /**
+   * The throughput merges and compactions back off to when flushes are queuing up or queries are
+   * slow. When less than or equal to 0, merges never back off.
+   */
+  private int mergeIOBackoffThroughputMBPerSec = 16;
+
+  /**
+   * Merges back off when this number of flush tasks are waiting. When less than or equal to 0,
+   * flushes do not cause merges to back off.
+   */
+  private int mergeBackoffFlushPendingNum = 2;
+
+  /**
+   * Merges back off for a while after a query takes longer than this (in ms). When less than or
+   * equal to 0, queries do not cause merges to back off.
+   */
+  private long mergeBackoffQueryLatencyMs = 1000;
+
+  /**
+   * The key is a storage group and the value is the age (in second) after which its data is cold.
+   * Merges and compactions rewrite the TsFiles whose data are all cold with coldDataCompressor and
+   * coldDataPageSizeInByte. The storage groups not in it have no cold data.
+   */
+  private Map<String, Long> coldDataAgeThresholds = Collections.emptyMap();
+
+  /**
+   * The compressor of cold data, which is usually stronger but slower than the one it is written
+   * with.
+   */
+  private CompressionType coldDataCompressor = CompressionType.GZIP;
+
+  /**
+   * The page size of cold data, larger pages compress better.
+   */
+  private int coldDataPageSizeInByte = 1024 * 1024;
+
   private MergeFileStrategy mergeFileStrategy = MergeFileStrategy.MAX_SERIES_NUM;
 
   /**
@@ -441,6 +607,38 @@ public class IoTDBConfig {
     return timestampPrecision;
   }
 
+  public boolean isEnablePartition() {
+    return enablePartition;
+  }
+
+  public void setEnablePartition(boolean enablePartition) {
+    this.enablePartition = enablePartition;
+  }
+
+  public long getPartitionInterval() {
+    return partitionInterval;
+  }
+
+  public void setPartitionInterval(long partitionInterval) {
+    this.partitionInterval = partitionInterval;
+  }
+
+  public int getConcurrentWritingTimePartition() {
+    return concurrentWritingTimePartition;
+  }
+
+  public void setConcurrentWritingTimePartition(int concurrentWritingTimePartition) {
+    this.concurrentWritingTimePartition = concurrentWritingTimePartition;
+  }
+
+  public long getTtlCheckIntervalSec() {
+    return ttlCheckIntervalSec;
+  }
+
+  public void setTtlCheckIntervalSec(long ttlCheckIntervalSec) {
+    this.ttlCheckIntervalSec = ttlCheckIntervalSec;
+  }
+
   public boolean isEnableWal() {
     return enableWal;
   }
@@ -533,6 +731,30 @@ public class IoTDBConfig {
     this.concurrentFlushThread = concurrentFlushThread;
   }
 
+  public int getConcurrentRecoveryThread() {
+    return concurrentRecoveryThread;
+  }
+
+  public void setConcurrentRecoveryThread(int concurrentRecoveryThread) {
+    this.concurrentRecoveryThread = concurrentRecoveryThread;
+  }
+
+  public boolean isEnablePartialRecovery() {
+    return enablePartialRecovery;
+  }
+
+  public void setEnablePartialRecovery(boolean enablePartialRecovery) {
+    this.enablePartialRecovery = enablePartialRecovery;
+  }
+
+  public int getConcurrentWalReplayThread() {
+    return concurrentWalReplayThread;
+  }
+
+  public void setConcurrentWalReplayThread(int concurrentWalReplayThread) {
+    this.concurrentWalReplayThread = concurrentWalReplayThread;
+  }
+
   void setZoneID(ZoneId zoneID) {
     this.zoneID = zoneID;
   }
@@ -593,6 +815,22 @@ public class IoTDBConfig {
     this.mManagerCacheSize = mManagerCacheSize;
   }
 
+  public int getMetadataSnapshotInterval() {
+    return metadataSnapshotInterval;
+  }
+
+  public void setMetadataSnapshotInterval(int metadataSnapshotInterval) {
+    this.metadataSnapshotInterval = metadataSnapshotInterval;
+  }
+
+  public boolean isForceMetadataLog() {
+    return forceMetadataLog;
+  }
+
+  public void setForceMetadataLog(boolean forceMetadataLog) {
+    this.forceMetadataLog = forceMetadataLog;
+  }
+
   public boolean isSyncEnable() {
     return isSyncEnable;
   }
@@ -649,6 +887,22 @@ public class IoTDBConfig {
     this.cacheFileReaderClearPeriod = cacheFileReaderClearPeriod;
   }
 
+  public int getChunkPrefetchNum() {
+    return chunkPrefetchNum;
+  }
+
+  public void setChunkPrefetchNum(int chunkPrefetchNum) {
+    this.chunkPrefetchNum = chunkPrefetchNum;
+  }
+
+  public int getChunkPrefetchThreadNum() {
+    return chunkPrefetchThreadNum;
+  }
+
+  public void setChunkPrefetchThreadNum(int chunkPrefetchThreadNum) {
+    this.chunkPrefetchThreadNum = chunkPrefetchThreadNum;
+  }
+
   public boolean isReadOnly() {
     return readOnly;
   }
@@ -713,6 +967,22 @@ public class IoTDBConfig {
     this.mergeIntervalSec = mergeIntervalSec;
   }
 
+  public long getReadAmplificationMergeThreshold() {
+    return readAmplificationMergeThreshold;
+  }
+
+  public void setReadAmplificationMergeThreshold(long readAmplificationMergeThreshold) {
+    this.readAmplificationMergeThreshold = readAmplificationMergeThreshold;
+  }
+
+  public long getReadAmplificationCheckIntervalSec() {
+    return readAmplificationCheckIntervalSec;
+  }
+
+  public void setReadAmplificationCheckIntervalSec(long readAmplificationCheckIntervalSec) {
+    this.readAmplificationCheckIntervalSec = readAmplificationCheckIntervalSec;
+  }
+
   public boolean isEnableParameterAdapter() {
     return enableParameterAdapter;
   }
@@ -777,6 +1047,107 @@ public class IoTDBConfig {
     this.chunkMergePointThreshold = chunkMergePointThreshold;
   }
 
+  public long getSeqFileCompactionThreshold() {
+    return seqFileCompactionThreshold;
+  }
+
+  public void setSeqFileCompactionThreshold(long seqFileCompactionThreshold) {
+    this.seqFileCompactionThreshold = seqFileCompactionThreshold;
+  }
+
+  public SeqCompactionStrategy getSeqCompactionStrategy() {
+    return seqCompactionStrategy;
+  }
+
+  public void setSeqCompactionStrategy(SeqCompactionStrategy seqCompactionStrategy) {
+    this.seqCompactionStrategy = seqCompactionStrategy;
+  }
+
+  public SeqCompactionStrategy getSeqCompactionStrategy(String storageGroup) {
+    return storageGroupSeqCompactionStrategies.getOrDefault(storageGroup, seqCompactionStrategy);
+  }
+
+  public Map<String, SeqCompactionStrategy> getStorageGroupSeqCompactionStrategies() {
+    return storageGroupSeqCompactionStrategies;
+  }
+
+  public void setStorageGroupSeqCompactionStrategies(
+      Map<String, SeqCompactionStrategy> storageGroupSeqCompactionStrategies) {
+    this.storageGroupSeqCompactionStrategies = storageGroupSeqCompactionStrategies;
+  }
+
+  public int getSeqCompactionFileNum() {
+    return seqCompactionFileNum;
+  }
+
+  public void setSeqCompactionFileNum(int seqCompactionFileNum) {
+    this.seqCompactionFileNum = seqCompactionFileNum;
+  }
+
+  public boolean isEnableIncrementalMerge() {
+    return enableIncrementalMerge;
+  }
+
+  public void setEnableIncrementalMerge(boolean enableIncrementalMerge) {
+    this.enableIncrementalMerge = enableIncrementalMerge;
+  }
+
+  public int getMergeIOThroughputMBPerSec() {
+    return mergeIOThroughputMBPerSec;
+  }
+
+  public void setMergeIOThroughputMBPerSec(int mergeIOThroughputMBPerSec) {
+    this.mergeIOThroughputMBPerSec = mergeIOThroughputMBPerSec;
+  }
+
+  public int getMergeIOBackoffThroughputMBPerSec() {
+    return mergeIOBackoffThroughputMBPerSec;
+  }
+
+  public void setMergeIOBackoffThroughputMBPerSec(int mergeIOBackoffThroughputMBPerSec) {
+    this.mergeIOBackoffThroughputMBPerSec = mergeIOBackoffThroughputMBPerSec;
+  }
+
+  public int getMergeBackoffFlushPendingNum() {
+    return mergeBackoffFlushPendingNum;
+  }
+
+  public void setMergeBackoffFlushPendingNum(int mergeBackoffFlushPendingNum) {
+    this.mergeBackoffFlushPendingNum = mergeBackoffFlushPendingNum;
+  }
+
+  public long getMergeBackoffQueryLatencyMs() {
+    return mergeBackoffQueryLatencyMs;
+  }
+
+  public void setMergeBackoffQueryLatencyMs(long mergeBackoffQueryLatencyMs) {
+    this.mergeBackoffQueryLatencyMs = mergeBackoffQueryLatencyMs;
+  }
+
+  public Map<String, Long> getColdDataAgeThresholds() {
+    return coldDataAgeThresholds;
+  }
+
+  public void setColdDataAgeThresholds(Map<String, Long> coldDataAgeThresholds) {
+    this.coldDataAgeThresholds = coldDataAgeThresholds;
+  }
+
+  public CompressionType getColdDataCompressor() {
+    return coldDataCompressor;
+  }
+
+  public void setColdDataCompressor(CompressionType coldDataCompressor) {
+    this.coldDataCompressor = coldDataCompressor;
+  }
+
+  public int getColdDataPageSizeInByte() {
+    return coldDataPageSizeInByte;
+  }
+
+  public void setColdDataPageSizeInByte(int coldDataPageSizeInByte) {
+    this.coldDataPageSizeInByte = coldDataPageSizeInByte;
+  }
+
   public long getMemtableSizeThreshold() {
     return memtableSizeThreshold;
   }
@@ -842,6 +1213,14 @@ public class IoTDBConfig {
     this.allocateMemoryForChumkMetaDataCache = allocateMemoryForChumkMetaDataCache;
   }
 
+  public long getTimeIndexCacheMemory() {
+    return timeIndexCacheMemory;
+  }
+
+  void setTimeIndexCacheMemory(long timeIndexCacheMemory) {
+    this.timeIndexCacheMemory = timeIndexCacheMemory;
+  }
+
   public boolean isEnableWatermark() {
     return enableWatermark;
   }
@@ -40,6 +40,8 @@ public class IoTDBConfigCheck {
   private Properties properties = new Properties();
   // this is a initial parameter.
   private static String TIMESTAMP_PRECISION = "ms";
+  private static boolean ENABLE_PARTITION = false;
+  private static long PARTITION_INTERVAL = 604800;
 
   public static final IoTDBConfigCheck getInstance() {
     return IoTDBConfigCheck.INSTANCE;
@@ -47,6 +49,8 @@ public class IoTDBConfigCheck {
 
   public void checkConfig() {
     TIMESTAMP_PRECISION = IoTDBDescriptor.getInstance().getConfig().getTimestampPrecision();
+    ENABLE_PARTITION = IoTDBDescriptor.getInstance().getConfig().isEnablePartition();
+    PARTITION_INTERVAL = IoTDBDescriptor.getInstance().getConfig().getPartitionInterval();
     createDir(SCHEMA_DIR);
     checkFile(SCHEMA_DIR);
     logger.info("System configuration is ok.");
@@ -70,6 +74,8 @@ public class IoTDBConfigCheck {
         logger.info(" {} has been created.", file.getAbsolutePath());
         try (FileOutputStream outputStream = new FileOutputStream(file.toString())) {
           properties.setProperty("timestamp_precision", TIMESTAMP_PRECISION);
+          properties.setProperty("enable_partition", String.valueOf(ENABLE_PARTITION));
+          properties.setProperty("partition_interval", String.valueOf(PARTITION_INTERVAL));
           properties.store(outputStream, "System properties:");
         }
       }
@@ -85,10 +91,38 @@ public class IoTDBConfigCheck {
             .getProperty("timestamp_precision") + " !");
         System.exit(-1);
       }
+      checkPartitionProperties(file);
     } catch (IOException e) {
       logger.error("Load system.properties from {} failed.", file.getAbsolutePath(), e);
     }
   }
+
+  /**
+   * the time partitions of the data on disk are decided by the partition properties when they are
+   * written, so they can not be changed. They are added to a system_properties written by an older
+   * version.
+   */
+  private void checkPartitionProperties(File file) throws IOException {
+    if (properties.getProperty("enable_partition") == null
+        || properties.getProperty("partition_interval") == null) {
+      properties.setProperty("enable_partition", String.valueOf(ENABLE_PARTITION));
+      properties.setProperty("partition_interval", String.valueOf(PARTITION_INTERVAL));
+      try (FileOutputStream outputStream = new FileOutputStream(file.toString())) {
+        properties.store(outputStream, "System properties:");
+      }
+      return;
+    }
+    if (Boolean.parseBoolean(properties.getProperty("enable_partition")) != ENABLE_PARTITION) {
+      logger.error("Wrong enable_partition, please set as: " + properties
+          .getProperty("enable_partition") + " !");
+      System.exit(-1);
+    }
+    if (Long.parseLong(properties.getProperty("partition_interval")) != PARTITION_INTERVAL) {
+      logger.error("Wrong partition_interval, please set as: " + properties
+          .getProperty("partition_interval") + " !");
+      System.exit(-1);
+    }
+  }
 }
 
 
@@ -18,12 +18,16 @@
  */
 package org.apache.iotdb.db.conf;
 
+import org.apache.iotdb.db.engine.merge.selector.SeqCompactionStrategy;
 import org.apache.iotdb.db.utils.FilePathUtils;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 public class IoTDBDescriptor {
@@ -126,6 +130,18 @@ public class IoTDBDescriptor {
       conf.setTimestampPrecision(properties.getProperty("timestamp_precision",
           conf.getTimestampPrecision()));
 
+      conf.setEnablePartition(Boolean.parseBoolean(properties.getProperty("enable_partition",
+          Boolean.toString(conf.isEnablePartition()))));
+
+      conf.setPartitionInterval(Long.parseLong(properties.getProperty("partition_interval",
+          Long.toString(conf.getPartitionInterval()))));
+
+      conf.setConcurrentWritingTimePartition(Integer.parseInt(properties.getProperty(
+          "concurrent_writing_time_partition",
+          Integer.toString(conf.getConcurrentWritingTimePartition()))));
+      conf.setTtlCheckIntervalSec(Long.parseLong(properties.getProperty(
+          "ttl_check_interval_sec", Long.toString(conf.getTtlCheckIntervalSec()))));
+
       conf.setEnableParameterAdapter(
           Boolean.parseBoolean(properties.getProperty("enable_parameter_adapter",
               Boolean.toString(conf.isEnableParameterAdapter()))));
@@ -136,6 +152,10 @@ public class IoTDBDescriptor {
 
       initMemoryAllocate(properties);
 
+      conf.setTimeIndexCacheMemory(Long.parseLong(properties
+          .getProperty("time_index_cache_memory_in_mb",
+              Long.toString(conf.getTimeIndexCacheMemory() / 1024 / 1024)).trim()) * 1024 * 1024);
+
       conf.setEnableWal(Boolean.parseBoolean(properties.getProperty("enable_wal",
           Boolean.toString(conf.isEnableWal()))));
 
@@ -170,6 +190,13 @@ public class IoTDBDescriptor {
       conf.setFetchSize(Integer.parseInt(properties.getProperty("fetch_size",
           Integer.toString(conf.getFetchSize()))));
 
+      conf.setChunkPrefetchNum(Integer.parseInt(properties.getProperty("chunk_prefetch_num",
+          Integer.toString(conf.getChunkPrefetchNum())).trim()));
+
+      conf.setChunkPrefetchThreadNum(Integer.parseInt(properties
+          .getProperty("chunk_prefetch_thread_num",
+              Integer.toString(conf.getChunkPrefetchThreadNum())).trim()));
+
       long tsfileSizeThreshold = Long.parseLong(properties
           .getProperty("tsfile_size_threshold",
               Long.toString(conf.getTsFileSizeThreshold())).trim());
@@ -205,10 +232,37 @@ public class IoTDBDescriptor {
         conf.setConcurrentFlushThread(Runtime.getRuntime().availableProcessors());
       }
 
+      conf.setConcurrentRecoveryThread(Integer
+          .parseInt(properties.getProperty("concurrent_recovery_thread",
+              Integer.toString(conf.getConcurrentRecoveryThread())).trim()));
+
+      if (conf.getConcurrentRecoveryThread() <= 0) {
+        conf.setConcurrentRecoveryThread(Runtime.getRuntime().availableProcessors());
+      }
+
+      conf.setEnablePartialRecovery(Boolean.parseBoolean(properties
+          .getProperty("enable_partial_recovery",
+              Boolean.toString(conf.isEnablePartialRecovery())).trim()));
+
+      conf.setConcurrentWalReplayThread(Integer
+          .parseInt(properties.getProperty("concurrent_wal_replay_thread",
+              Integer.toString(conf.getConcurrentWalReplayThread())).trim()));
+
+      if (conf.getConcurrentWalReplayThread() <= 0) {
+        conf.setConcurrentWalReplayThread(Runtime.getRuntime().availableProcessors());
+      }
+
       conf.setmManagerCacheSize(Integer
           .parseInt(properties.getProperty("schema_manager_cache_size",
               Integer.toString(conf.getmManagerCacheSize())).trim()));
 
+      conf.setMetadataSnapshotInterval(Integer
+          .parseInt(properties.getProperty("metadata_snapshot_interval",
+              Integer.toString(conf.getMetadataSnapshotInterval())).trim()));
+
+      conf.setForceMetadataLog(Boolean.parseBoolean(properties.getProperty("force_metadata_log",
+          Boolean.toString(conf.isForceMetadataLog())).trim()));
+
       conf.setLanguageVersion(properties.getProperty("language_version",
           conf.getLanguageVersion()).trim());
 
@@ -234,10 +288,43 @@ public class IoTDBDescriptor {
           Long.toString(conf.getMergeFileSelectionTimeBudget()))));
       conf.setMergeIntervalSec(Long.parseLong(properties.getProperty("merge_interval_sec",
           Long.toString(conf.getMergeIntervalSec()))));
+      conf.setReadAmplificationMergeThreshold(Long.parseLong(properties.getProperty(
+          "read_amplification_merge_threshold",
+          Long.toString(conf.getReadAmplificationMergeThreshold()))));
+      conf.setReadAmplificationCheckIntervalSec(Long.parseLong(properties.getProperty(
+          "read_amplification_check_interval_sec",
+          Long.toString(conf.getReadAmplificationCheckIntervalSec()))));
       conf.setForceFullMerge(Boolean.parseBoolean(properties.getProperty("force_full_merge",
           Boolean.toString(conf.isForceFullMerge()))));
       conf.setChunkMergePointThreshold(Integer.parseInt(properties.getProperty(
           "chunk_merge_point_threshold", Integer.toString(conf.getChunkMergePointThreshold()))));
+      conf.setSeqFileCompactionThreshold(Long.parseLong(properties.getProperty(
+          "seq_file_compaction_threshold", Long.toString(conf.getSeqFileCompactionThreshold()))));
+      conf.setSeqCompactionStrategy(SeqCompactionStrategy.valueOf(properties.getProperty(
+          "seq_compaction_strategy", conf.getSeqCompactionStrategy().name()).trim()));
+      conf.setStorageGroupSeqCompactionStrategies(parseSeqCompactionStrategies(
+          properties.getProperty("storage_group_seq_compaction_strategy", "")));
+      conf.setSeqCompactionFileNum(Integer.parseInt(properties.getProperty(
+          "seq_compaction_file_num", Integer.toString(conf.getSeqCompactionFileNum()))));
+      conf.setEnableIncrementalMerge(Boolean.parseBoolean(properties.getProperty(
+          "enable_incremental_merge", Boolean.toString(conf.isEnableIncrementalMerge()))));
+      conf.setMergeIOThroughputMBPerSec(Integer.parseInt(properties.getProperty(
+          "merge_io_throughput_mb_per_sec",
+          Integer.toString(conf.getMergeIOThroughputMBPerSec()))));
+      conf.setMergeIOBackoffThroughputMBPerSec(Integer.parseInt(properties.getProperty(
+          "merge_io_backoff_throughput_mb_per_sec",
+          Integer.toString(conf.getMergeIOBackoffThroughputMBPerSec()))));
+      conf.setMergeBackoffFlushPendingNum(Integer.parseInt(properties.getProperty(
+          "merge_backoff_flush_pending_num",
+          Integer.toString(conf.getMergeBackoffFlushPendingNum()))));
+      conf.setMergeBackoffQueryLatencyMs(Long.parseLong(properties.getProperty(
+          "merge_backoff_query_latency_ms", Long.toString(conf.getMergeBackoffQueryLatencyMs()))));
+      conf.setColdDataAgeThresholds(parseColdDataAgeThresholds(properties.getProperty(
+          "cold_data_age_threshold_sec", "")));
+      conf.setColdDataCompressor(CompressionType.valueOf(properties.getProperty(
+          "cold_data_compressor", conf.getColdDataCompressor().name()).trim()));
+      conf.setColdDataPageSizeInByte(Integer.parseInt(properties.getProperty(
+          "cold_data_page_size_in_byte", Integer.toString(conf.getColdDataPageSizeInByte()))));
 
       conf.setEnablePerformanceStat(Boolean
           .parseBoolean(properties.getProperty("enable_performance_stat",
@@ -284,6 +371,43 @@ public class IoTDBDescriptor {
     }
   }
 
+  /**
+   * @param value in the form of "root.sg1=LEVELED,root.sg2=SIZE_TIERED"
+   */
+  private static Map<String, SeqCompactionStrategy> parseSeqCompactionStrategies(String value) {
+    Map<String, SeqCompactionStrategy> strategies = new HashMap<>();
+    for (String entry : value.split(",")) {
+      if (entry.trim().isEmpty()) {
+        continue;
+      }
+      String[] pair = entry.split("=");
+      if (pair.length != 2) {
+        throw new IllegalArgumentException(
+            "Illegal storage_group_seq_compaction_strategy " + value);
+      }
+      strategies.put(pair[0].trim(), SeqCompactionStrategy.valueOf(pair[1].trim()));
+    }
+    return strategies;
+  }
+
+  /**
+   * @param value in the form of "root.sg1=86400,root.sg2=604800"
+   */
+  private static Map<String, Long> parseColdDataAgeThresholds(String value) {
+    Map<String, Long> thresholds = new HashMap<>();
+    for (String entry : value.split(",")) {
+      if (entry.trim().isEmpty()) {
+        continue;
+      }
+      String[] pair = entry.split("=");
+      if (pair.length != 2) {
+        throw new IllegalArgumentException("Illegal cold_data_age_threshold_sec " + value);
+      }
+      thresholds.put(pair[0].trim(), Long.parseLong(pair[1].trim()));
+    }
+    return thresholds;
+  }
+
   private void initMemoryAllocate(Properties properties) {
     String memoryAllocateProportion = properties.getProperty("write_read_free_memory_proportion");
     if (memoryAllocateProportion != null) {
@@ -46,6 +46,8 @@ public class CompressionRatio {
 
   static final String COMPRESSION_RATIO_DIR = "compression_ratio";
 
+  static final String COLD_DATA_COMPRESSION_RATIO_DIR = "cold_data_compression_ratio";
+
   private static final String FILE_PREFIX = "Ratio-";
 
   private static final String SEPARATOR = "-";
@@ -66,9 +68,15 @@ public class CompressionRatio {
 
   private File directory;
 
-  private CompressionRatio() {
+  /**
+   * whether the ratio is used by IoTDBConfigDynamicAdapter to adjust the parameters.
+   */
+  private boolean adaptParameters;
+
+  private CompressionRatio(String directoryName, boolean adaptParameters) {
     directory = new File(
-        FilePathUtils.regularizePath(CONFIG.getSystemDir()) + COMPRESSION_RATIO_DIR);
+        FilePathUtils.regularizePath(CONFIG.getSystemDir()) + directoryName);
+    this.adaptParameters = adaptParameters;
     restore();
   }
 
@@ -89,7 +97,7 @@ public class CompressionRatio {
     if (LOGGER.isInfoEnabled()) {
       LOGGER.info("Compression ratio is {}", getRatio());
     }
-    if (CONFIG.isEnableParameterAdapter()) {
+    if (adaptParameters && CONFIG.isEnableParameterAdapter()) {
       if (LOGGER.isInfoEnabled()) {
         LOGGER.info(
             "After updating compression ratio, trying to adjust parameters, the original parameters: "
@@ -188,9 +196,22 @@ public class CompressionRatio {
     return CompressionRatioHolder.INSTANCE;
   }
 
+  /**
+   * The ratio of the size of cold files before and after they are re-encoded by the
+   * ColdDataPolicy in merges. It is kept apart from the ratio of flushing, which is used to
+   * adjust the parameters.
+   */
+  public static CompressionRatio getColdDataInstance() {
+    return CompressionRatioHolder.COLD_DATA_INSTANCE;
+  }
+
   private static class CompressionRatioHolder {
 
-    private static final CompressionRatio INSTANCE = new CompressionRatio();
+    private static final CompressionRatio INSTANCE = new CompressionRatio(COMPRESSION_RATIO_DIR,
+        true);
+
+    private static final CompressionRatio COLD_DATA_INSTANCE = new CompressionRatio(
+        COLD_DATA_COMPRESSION_RATIO_DIR, false);
 
     private CompressionRatioHolder() {
 
@@ -214,14 +214,15 @@ public class IoTDBConfigDynamicAdapter implements IDynamicAdapter {
   @Override
   public void addOrDeleteStorageGroup(int diff) throws ConfigAdjusterException {
     totalStorageGroup += diff;
-    maxMemTableNum += 4 * diff;
+    // each time partition being written in a storage group uses memtables of its own
+    maxMemTableNum += 4 * CONFIG.getConcurrentWritingTimePartition() * diff;
     if(!CONFIG.isEnableParameterAdapter()){
       CONFIG.setMaxMemtableNumber(maxMemTableNum);
       return;
     }
     if (!tryToAdaptParameters()) {
       totalStorageGroup -= diff;
-      maxMemTableNum -= 4 * diff;
+      maxMemTableNum -= 4 * CONFIG.getConcurrentWritingTimePartition() * diff;
       throw new ConfigAdjusterException(
           "The IoTDB system load is too large to create storage group.");
     }
@@ -20,12 +20,23 @@ package org.apache.iotdb.db.engine;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
@@ -34,9 +45,11 @@ import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.exception.MetadataErrorException;
 import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.exception.StartupException;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.StorageEngineFailureException;
 import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.metadata.MetaUtils;
 import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
@@ -68,12 +81,69 @@ public class StorageEngine implements IService {
    */
   private final ConcurrentHashMap<String, StorageGroupProcessor> processorMap = new ConcurrentHashMap<>();
 
+  /**
+   * storage group name -> the recovery of the storage group at startup. A request to a storage
+   * group that is not recovered yet waits for its recovery.
+   */
+  private final Map<String, Future<StorageGroupProcessor>> recoveryFutures = new ConcurrentHashMap<>();
+
+  /**
+   * the time range covered by a time partition, in the precision of timestamps.
+   */
+  private static long timePartitionInterval = convertToTimePrecision(
+      config.getPartitionInterval() * 1000L);
+
+  /**
+   * removes the TsFiles whose data is all expired periodically.
+   */
+  private ScheduledExecutorService ttlCheckThread;
+
   private static final StorageEngine INSTANCE = new StorageEngine();
 
   public static StorageEngine getInstance() {
     return INSTANCE;
   }
 
+  /**
+   * @return the time in the precision of timestamps.
+   */
+  public static long convertToTimePrecision(long millis) {
+    switch (config.getTimestampPrecision()) {
+      case "us":
+        return millis * 1000L;
+      case "ns":
+        return millis * 1000_000L;
+      default:
+        return millis;
+    }
+  }
+
+  /**
+   * @return the current time in the precision of timestamps.
+   */
+  public static long getCurrentTime() {
+    return convertToTimePrecision(System.currentTimeMillis());
+  }
+
+  /**
+   * @return the id of the time partition that the time belongs to, it is always 0 when time
+   * partitioning is disabled.
+   */
+  public static long getTimePartition(long time) {
+    return config.isEnablePartition() ? Math.floorDiv(time, timePartitionInterval) : 0;
+  }
+
+  public static long getTimePartitionInterval() {
+    return timePartitionInterval;
+  }
+
+  /**
+   * only for test
+   */
+  public static void setTimePartitionInterval(long timePartitionInterval) {
+    StorageEngine.timePartitionInterval = timePartitionInterval;
+  }
+
   private StorageEngine() {
     systemDir = FilePathUtils.regularizePath(config.getSystemDir()) + "storage_groups";
     // create systemDir
@@ -87,28 +157,142 @@ public class StorageEngine implements IService {
      * recover all storage group processors.
      */
     try {
-      List<String> storageGroups = MManager.getInstance().getAllStorageGroupNames();
-      for (String storageGroup : storageGroups) {
-        StorageGroupProcessor processor = new StorageGroupProcessor(systemDir, storageGroup);
-        logger.info("Storage Group Processor {} is recovered successfully", storageGroup);
-        processorMap.put(storageGroup, processor);
-      }
-    } catch (ProcessorException | MetadataErrorException e) {
+      recoverStorageGroups(MManager.getInstance().getAllStorageGroupNames());
+    } catch (MetadataErrorException e) {
       logger.error("init a storage group processor failed. ", e);
       throw new StorageEngineFailureException(e);
     }
   }
 
+  /**
+   * recover the storage groups in parallel without waiting for them. start() waits for them unless
+   * partial recovery is enabled, in which case the storage groups that are recovered early can be
+   * read and written while the others are still being recovered.
+   */
+  private void recoverStorageGroups(List<String> storageGroups) {
+    if (storageGroups.isEmpty()) {
+      return;
+    }
+    ExecutorService recoveryPool = IoTDBThreadPoolFactory.newFixedThreadPool(
+        Math.min(config.getConcurrentRecoveryThread(), storageGroups.size()),
+        ThreadName.STORAGE_GROUP_RECOVER.getName());
+    long startTime = System.currentTimeMillis();
+    AtomicInteger finishedNum = new AtomicInteger();
+    for (String storageGroup : storageGroups) {
+      recoveryFutures.put(storageGroup, recoveryPool.submit(() -> {
+        long recoverStartTime = System.currentTimeMillis();
+        try {
+          StorageGroupProcessor processor = new StorageGroupProcessor(systemDir, storageGroup);
+          processor.setDataTTL(MManager.getInstance().getTTL(storageGroup));
+          processorMap.put(storageGroup, processor);
+          logger.info("Storage Group Processor {} is recovered successfully in {}ms", storageGroup,
+              System.currentTimeMillis() - recoverStartTime);
+          return processor;
+        } catch (ProcessorException | MetadataErrorException | RuntimeException e) {
+          logger.error("Storage Group Processor {} cannot be recovered", storageGroup, e);
+          throw e;
+        } finally {
+          int num = finishedNum.incrementAndGet();
+          logger.info("{}/{} storage groups are recovered", num, storageGroups.size());
+          if (num == storageGroups.size()) {
+            logger.info("The recovery of {} storage groups ends in {}ms", num,
+                System.currentTimeMillis() - startTime);
+          }
+        }
+      }));
+    }
+    // the threads exit after all storage groups are recovered
+    recoveryPool.shutdown();
+  }
+
+  /**
+   * @return the processor of a storage group recovered at startup, or null if the storage group
+   * does not exist when the engine starts.
+   */
+  private StorageGroupProcessor waitForRecovery(String storageGroupName)
+      throws StorageEngineException {
+    Future<StorageGroupProcessor> future = recoveryFutures.get(storageGroupName);
+    if (future == null) {
+      return null;
+    }
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new StorageEngineException(
+          String.format("Interrupted when waiting for the recovery of %s", storageGroupName), e);
+    } catch (ExecutionException e) {
+      throw new StorageEngineException(
+          String.format("Storage group %s cannot be recovered", storageGroupName), e.getCause());
+    }
+  }
+
+  /**
+   * wait until the recovery of every storage group ends.
+   *
+   * @throws StorageEngineException if a storage group cannot be recovered
+   */
+  private void checkAllRecovery() throws StorageEngineException {
+    for (String storageGroupName : recoveryFutures.keySet()) {
+      waitForRecovery(storageGroupName);
+    }
+  }
+
+  /**
+   * wait until the recovery of every storage group ends, the failed ones are not in the
+   * processorMap.
+   */
+  private void waitForAllRecovery() {
+    for (String storageGroupName : recoveryFutures.keySet()) {
+      try {
+        waitForRecovery(storageGroupName);
+      } catch (StorageEngineException e) {
+        // logged when the recovery fails
+      }
+    }
+  }
+
   @Override
-  public void start() {
-    // nothing to be done
+  public void start() throws StartupException {
+    if (!config.isEnablePartialRecovery()) {
+      try {
+        checkAllRecovery();
+      } catch (StorageEngineException e) {
+        throw new StartupException(e.getMessage(), e);
+      }
+    }
+    long ttlCheckInterval = config.getTtlCheckIntervalSec();
+    if (ttlCheckInterval > 0) {
+      ttlCheckThread = IoTDBThreadPoolFactory
+          .newSingleThreadScheduledExecutor(ThreadName.TTL_CHECK_SERVICE.getName());
+      ttlCheckThread.scheduleAtFixedRate(this::checkTTL, ttlCheckInterval, ttlCheckInterval,
+          TimeUnit.SECONDS);
+    }
   }
 
   @Override
   public void stop() {
+    if (ttlCheckThread != null) {
+      ttlCheckThread.shutdownNow();
+      ttlCheckThread = null;
+    }
     syncCloseAllProcessor();
   }
 
+  /**
+   * remove the TsFiles whose data is all expired by the TTL of their storage groups.
+   */
+  private void checkTTL() {
+    try {
+      for (StorageGroupProcessor processor : processorMap.values()) {
+        processor.checkFilesTTL();
+      }
+    } catch (RuntimeException e) {
+      // an exception would cancel the following checks
+      logger.error("An error occurred when checking TTL", e);
+    }
+  }
+
   @Override
   public ServiceType getID() {
     return ServiceType.STORAGE_ENGINE_SERVICE;
@@ -116,11 +300,21 @@ public class StorageEngine implements IService {
 
 
   private StorageGroupProcessor getProcessor(String path) throws StorageEngineException {
+    return getProcessor(MetaUtils.getNodeNames(path));
+  }
+
+  /**
+   * @param pathNodes the nodes of a path, e.g., the device nodes kept by an insert plan
+   */
+  private StorageGroupProcessor getProcessor(String[] pathNodes) throws StorageEngineException {
     String storageGroupName = "";
     try {
-      storageGroupName = MManager.getInstance().getStorageGroupNameByPath(path);
+      storageGroupName = MManager.getInstance().getStorageGroupNameByPath(pathNodes);
       StorageGroupProcessor processor;
       processor = processorMap.get(storageGroupName);
+      if (processor == null) {
+        processor = waitForRecovery(storageGroupName);
+      }
       if (processor == null) {
         storageGroupName = storageGroupName.intern();
         synchronized (storageGroupName) {
@@ -129,12 +323,13 @@ public class StorageEngine implements IService {
             logger.debug("construct a processor instance, the storage group is {}, Thread is {}",
                 storageGroupName, Thread.currentThread().getId());
             processor = new StorageGroupProcessor(systemDir, storageGroupName);
+            processor.setDataTTL(MManager.getInstance().getTTL(storageGroupName));
             processorMap.put(storageGroupName, processor);
           }
         }
       }
       return processor;
-    } catch (PathErrorException | ProcessorException e) {
+    } catch (PathErrorException | ProcessorException | MetadataErrorException e) {
       logger.error("Fail to get StorageGroupProcessor {}", storageGroupName, e);
       throw new StorageEngineException(e);
     }
@@ -145,9 +340,19 @@ public class StorageEngine implements IService {
    * This function is just for unit test.
    */
   public synchronized void reset() {
+    waitForAllRecovery();
+    recoveryFutures.clear();
     processorMap.clear();
   }
 
+  /**
+   * This function is just for unit test.
+   */
+  public synchronized void recover() throws MetadataErrorException {
+    reset();
+    recoverStorageGroups(MManager.getInstance().getAllStorageGroupNames());
+  }
+
 
   /**
    * insert an InsertPlan to a storage group.
@@ -159,7 +364,7 @@ public class StorageEngine implements IService {
 
     StorageGroupProcessor storageGroupProcessor;
     try {
-      storageGroupProcessor = getProcessor(insertPlan.getDeviceId());
+      storageGroupProcessor = getProcessor(insertPlan.getDeviceNodes());
     } catch (Exception e) {
       logger.warn("get StorageGroupProcessor of device {} failed, because {}",
           insertPlan.getDeviceId(),
@@ -167,6 +372,12 @@ public class StorageEngine implements IService {
       throw new StorageEngineException(e);
     }
 
+    if (!storageGroupProcessor.isAlive(insertPlan.getTime())) {
+      throw new StorageEngineException(String.format(
+          "Insertion time [%d] of %s is expired by the TTL [%d] of its storage group",
+          insertPlan.getTime(), insertPlan.getDeviceId(), storageGroupProcessor.getDataTTL()));
+    }
+
     // TODO monitor: update statistics
     return storageGroupProcessor.insert(insertPlan);
   }
@@ -178,7 +389,7 @@ public class StorageEngine implements IService {
   public Integer[] insertBatch(BatchInsertPlan batchInsertPlan) throws StorageEngineException {
     StorageGroupProcessor storageGroupProcessor;
     try {
-      storageGroupProcessor = getProcessor(batchInsertPlan.getDeviceId());
+      storageGroupProcessor = getProcessor(batchInsertPlan.getDeviceNodes());
     } catch (Exception e) {
       logger.warn("get StorageGroupProcessor of device {} failed, because {}",
           batchInsertPlan.getDeviceId(),
@@ -194,6 +405,7 @@ public class StorageEngine implements IService {
    * only for unit test
    */
   public void asyncFlushAndSealAllFiles() {
+    waitForAllRecovery();
     for (StorageGroupProcessor storageGroupProcessor : processorMap.values()) {
       storageGroupProcessor.putAllWorkingTsFileProcessorIntoClosingList();
     }
@@ -204,6 +416,7 @@ public class StorageEngine implements IService {
    */
   public void syncCloseAllProcessor() {
     logger.info("Start closing all storage group processor");
+    waitForAllRecovery();
     for (StorageGroupProcessor processor : processorMap.values()) {
       processor.waitForAllCurrentTsFileProcessorsClosed();
     }
@@ -240,7 +453,22 @@ public class StorageEngine implements IService {
     String deviceId = seriesExpression.getSeriesPath().getDevice();
     String measurementId = seriesExpression.getSeriesPath().getMeasurement();
     StorageGroupProcessor storageGroupProcessor = getProcessor(deviceId);
-    return storageGroupProcessor.query(deviceId, measurementId, context, filePathsManager);
+    try {
+      return storageGroupProcessor.query(deviceId, measurementId, context, filePathsManager,
+          seriesExpression.getFilter());
+    } catch (IOException e) {
+      throw new StorageEngineException(e);
+    }
+  }
+
+  /**
+   * set the TTL of a storage group, the data older than it can no longer be queried and will be
+   * removed.
+   *
+   * @param dataTTL in the precision of timestamps, Long.MAX_VALUE means the data never expires
+   */
+  public void setTTL(String storageGroup, long dataTTL) throws StorageEngineException {
+    getProcessor(storageGroup).setDataTTL(dataTTL);
   }
 
   /**
@@ -289,16 +517,53 @@ public class StorageEngine implements IService {
     if (IoTDBDescriptor.getInstance().getConfig().isReadOnly()) {
       throw new StorageEngineException("Current system mode is read only, does not support merge");
     }
+    waitForAllRecovery();
     for (StorageGroupProcessor storageGroupProcessor : processorMap.values()) {
       storageGroupProcessor.merge(fullMerge);
     }
   }
 
+  /**
+   * merge the storage groups whose queries have read more unseqFiles and overlapped seqFiles than
+   * the threshold since their last merges, the ones with more such reads are merged first.
+   *
+   * @throws StorageEngineException StorageEngineException
+   */
+  public void mergeReadAmplified(long threshold, boolean fullMerge)
+      throws StorageEngineException {
+    if (IoTDBDescriptor.getInstance().getConfig().isReadOnly()) {
+      throw new StorageEngineException("Current system mode is read only, does not support merge");
+    }
+    waitForAllRecovery();
+    Map<String, Long> extraFileReads = new HashMap<>();
+    for (Entry<String, StorageGroupProcessor> entry : processorMap.entrySet()) {
+      long reads = entry.getValue().getReadAmplificationRecorder().getExtraFileReads();
+      if (reads > threshold) {
+        extraFileReads.put(entry.getKey(), reads);
+      }
+    }
+    List<String> storageGroups = new ArrayList<>(extraFileReads.keySet());
+    storageGroups.sort((a, b) -> Long.compare(extraFileReads.get(b), extraFileReads.get(a)));
+    for (String storageGroup : storageGroups) {
+      StorageGroupProcessor storageGroupProcessor = processorMap.get(storageGroup);
+      if (storageGroupProcessor != null) {
+        logger.info("{} is merged as its queries read {} unseq and overlapped files",
+            storageGroup, extraFileReads.get(storageGroup));
+        storageGroupProcessor.merge(fullMerge);
+      }
+    }
+  }
+
   /**
    * delete all data files (both memory data and file on disk) in a storage group. It is used when
    * there is no timeseries (which are all deleted) in this storage group)
    */
   public void deleteAllDataFilesInOneStorageGroup(String storageGroupName) {
+    try {
+      waitForRecovery(storageGroupName);
+    } catch (StorageEngineException e) {
+      // logged when the recovery fails
+    }
     if (processorMap.containsKey(storageGroupName)) {
       syncDeleteDataFiles(storageGroupName);
     }
@@ -31,7 +31,7 @@ import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadata;
-import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
+import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadataIndex;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -89,9 +89,13 @@ public class DeviceMetaDataCache {
   public List<ChunkMetaData> get(TsFileResource resource, Path seriesPath)
       throws IOException {
     if (!cacheEnable) {
-      TsFileMetaData fileMetaData = TsFileMetaDataCache.getInstance().get(resource);
-      TsDeviceMetadata deviceMetaData = TsFileMetadataUtils
-          .getTsDeviceMetaData(resource, seriesPath, fileMetaData);
+      if (!TsFileMetaDataCache.getInstance()
+          .containsMeasurement(resource, seriesPath.getMeasurement())) {
+        return new ArrayList<>();
+      }
+      TsDeviceMetadataIndex index = TsFileMetaDataCache.getInstance()
+          .getDeviceMetadataIndex(resource, seriesPath.getDevice());
+      TsDeviceMetadata deviceMetaData = TsFileMetadataUtils.getTsDeviceMetaData(resource, index);
       // If measurement isn't included in the tsfile, empty list is returned.
       if (deviceMetaData == null) {
         return new ArrayList<>();
@@ -129,9 +133,13 @@ public class DeviceMetaDataCache {
         logger.debug("Cache didn't hit: the number of requests for cache is {}",
             cacheRequestNum.get());
       }
-      TsFileMetaData fileMetaData = TsFileMetaDataCache.getInstance().get(resource);
-      TsDeviceMetadata deviceMetaData = TsFileMetadataUtils
-          .getTsDeviceMetaData(resource, seriesPath, fileMetaData);
+      if (!TsFileMetaDataCache.getInstance()
+          .containsMeasurement(resource, seriesPath.getMeasurement())) {
+        return new ArrayList<>();
+      }
+      TsDeviceMetadataIndex index = TsFileMetaDataCache.getInstance()
+          .getDeviceMetadataIndex(resource, seriesPath.getDevice());
+      TsDeviceMetadata deviceMetaData = TsFileMetadataUtils.getTsDeviceMetaData(resource, index);
       // If measurement isn't included in the tsfile, empty list is returned.
       if (deviceMetaData == null) {
         return new ArrayList<>();
@@ -0,0 +1,208 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.storagegroup.DeviceTimeIndex;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class caches the DeviceTimeIndex of sealed TsFiles, which is read from their .resource
+ * files when they are used. Indexes are evicted when their total size exceeds the
+ * time_index_cache_memory_in_mb, so the time maps of cold files do not stay in memory.
+ * <p>
+ * The time maps of a sealed file are read through this cache by every query and merge selection,
+ * so hits only read a ConcurrentHashMap and mark the entry as used. The eviction goes over the
+ * entries in the order they are loaded like a clock and spares each used entry once (the CLOCK
+ * approximation of LRU).
+ */
+public class TimeIndexCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(TimeIndexCache.class);
+  private static final long MEMORY_THRESHOLD_IN_B = IoTDBDescriptor.getInstance().getConfig()
+      .getTimeIndexCacheMemory();
+
+  /**
+   * key: path of the .resource file. value: the index read from it.
+   */
+  private Map<String, CachedIndex> cache = new ConcurrentHashMap<>();
+  /**
+   * the cached entries in the order they are loaded, entries removed from the cache are dropped
+   * when the eviction reaches them or when they outnumber the cached ones.
+   */
+  private Queue<CachedIndex> clock = new ConcurrentLinkedQueue<>();
+  private AtomicLong staleNum = new AtomicLong();
+  private AtomicLong usedMemInB = new AtomicLong();
+  private final Object evictionLock = new Object();
+
+  private AtomicLong cacheHitNum = new AtomicLong();
+  private AtomicLong cacheRequestNum = new AtomicLong();
+
+  private TimeIndexCache() {
+  }
+
+  public static TimeIndexCache getInstance() {
+    return TimeIndexCacheHolder.INSTANCE;
+  }
+
+  /**
+   * get the index of a sealed TsFile, read it from the .resource file if it is not cached.
+   */
+  public DeviceTimeIndex get(TsFileResource tsFileResource) throws IOException {
+    String path = tsFileResource.getResourceFilePath();
+    cacheRequestNum.incrementAndGet();
+    CachedIndex cachedIndex = cache.get(path);
+    if (cachedIndex != null) {
+      cacheHitNum.incrementAndGet();
+      cachedIndex.used = true;
+      return cachedIndex.index;
+    }
+    DeviceTimeIndex index;
+    synchronized (path.intern()) {
+      cachedIndex = cache.get(path);
+      if (cachedIndex != null) {
+        cacheHitNum.incrementAndGet();
+        cachedIndex.used = true;
+        return cachedIndex.index;
+      }
+      if (logger.isDebugEnabled()) {
+        logger.debug("Cache didn't hit: the number of requests for cache is {}",
+            cacheRequestNum.get());
+      }
+      index = tsFileResource.readTimeIndex();
+      cache(path, index);
+    }
+    evict();
+    return index;
+  }
+
+  /**
+   * remove the index of a TsFile whose .resource file is rewritten or removed. It waits for the
+   * loading of the file so an index read before the change will not be put after it.
+   */
+  public void remove(TsFileResource tsFileResource) {
+    String path = tsFileResource.getResourceFilePath();
+    synchronized (path.intern()) {
+      CachedIndex removed = cache.remove(path);
+      if (removed != null) {
+        usedMemInB.addAndGet(-removed.size);
+        staleNum.incrementAndGet();
+      }
+    }
+    purge();
+  }
+
+  public void clear() {
+    synchronized (evictionLock) {
+      clock.clear();
+      cache.clear();
+      usedMemInB.set(0);
+      staleNum.set(0);
+    }
+  }
+
+  /**
+   * called with the lock of the path held.
+   */
+  private void cache(String path, DeviceTimeIndex index) {
+    CachedIndex cachedIndex = new CachedIndex(path, index);
+    CachedIndex replaced = cache.put(path, cachedIndex);
+    usedMemInB.addAndGet(cachedIndex.size);
+    if (replaced != null) {
+      usedMemInB.addAndGet(-replaced.size);
+      staleNum.incrementAndGet();
+    }
+    clock.offer(cachedIndex);
+  }
+
+  private void evict() {
+    if (usedMemInB.get() <= MEMORY_THRESHOLD_IN_B) {
+      return;
+    }
+    synchronized (evictionLock) {
+      // each used entry is spared at most once per call, so hits cannot keep it looping
+      long spared = cache.size();
+      while (usedMemInB.get() > MEMORY_THRESHOLD_IN_B) {
+        CachedIndex cachedIndex = clock.poll();
+        if (cachedIndex == null) {
+          return;
+        }
+        if (cache.get(cachedIndex.path) != cachedIndex) {
+          // removed or replaced
+          staleNum.decrementAndGet();
+          continue;
+        }
+        if (cachedIndex.used && spared-- > 0) {
+          cachedIndex.used = false;
+          clock.offer(cachedIndex);
+        } else if (cache.remove(cachedIndex.path, cachedIndex)) {
+          usedMemInB.addAndGet(-cachedIndex.size);
+        }
+      }
+    }
+  }
+
+  /**
+   * drop the removed entries from the clock once they outnumber the cached ones, they hold the
+   * removed indexes in memory.
+   */
+  private void purge() {
+    if (staleNum.get() <= cache.size()) {
+      return;
+    }
+    synchronized (evictionLock) {
+      clock.removeIf(cachedIndex -> cache.get(cachedIndex.path) != cachedIndex);
+      staleNum.set(0);
+    }
+  }
+
+  private static class CachedIndex {
+
+    private final String path;
+    private final DeviceTimeIndex index;
+    private final long size;
+    // set by hits and cleared by the eviction
+    private volatile boolean used;
+
+    private CachedIndex(String path, DeviceTimeIndex index) {
+      this.path = path;
+      this.index = index;
+      this.size = path.length() * 2L + index.getRamSize();
+    }
+  }
+
+  /**
+   * Singleton pattern
+   */
+  private static class TimeIndexCacheHolder {
+
+    private TimeIndexCacheHolder() {
+    }
+
+    private static final TimeIndexCache INSTANCE = new TimeIndexCache();
+  }
+}
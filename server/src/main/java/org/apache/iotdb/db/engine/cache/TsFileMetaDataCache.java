@@ -19,17 +19,25 @@
 package org.apache.iotdb.db.engine.cache;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.tsfile.file.metadata.DeviceIndexDirectory;
+import org.apache.iotdb.tsfile.file.metadata.DeviceIndexPage;
+import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadataIndex;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
-import org.apache.iotdb.tsfile.read.common.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This class is used to cache <code>TsFileMetaData</code> of tsfile in IoTDB.
+ * This class is used to cache the device index of tsfile in IoTDB. For a file written with a sorted
+ * device index, the directory of the index and the index pages that have been looked up are
+ * cached. For a file written without it, the whole <code>TsFileMetaData</code> is cached.
  */
 public class TsFileMetaDataCache {
 
@@ -39,12 +47,24 @@ public class TsFileMetaDataCache {
   private static boolean cacheEnable = config.isMetaDataCacheEnable();
   private static final long MEMORY_THRESHOLD_IN_B = config.getAllocateMemoryForFileMetaDataCache();
   /**
-   * key: Tsfile path. value: TsFileMetaData
+   * key: Tsfile path. value: DeviceIndexDirectory, or TsFileMetaData if the file has no device
+   * index.
+   * <p>
+   * key: PageKey. value: DeviceIndexPage.
    */
-  private LRULinkedHashMap<TsFileResource, TsFileMetaData> cache;
+  private LRULinkedHashMap<Object, Object> cache;
+  /**
+   * key: Tsfile path. value: the keys of its cached index pages, so that they are removed with the
+   * file without scanning the cache. It is guarded by the lock of the cache.
+   */
+  private Map<String, Set<PageKey>> cachedPages = new HashMap<>();
   private AtomicLong cacheHitNum = new AtomicLong();
   private AtomicLong cacheRequestNum = new AtomicLong();
 
+  /**
+   * estimated size of a device in a DeviceIndexPage.
+   */
+  private long deviceIndexEntrySize = 0;
   /**
    * estimated size of a deviceIndexMap entry in TsFileMetaData.
    */
@@ -62,44 +82,135 @@ public class TsFileMetaDataCache {
     if (!cacheEnable) {
       return;
     }
-    cache = new LRULinkedHashMap<TsFileResource, TsFileMetaData>(MEMORY_THRESHOLD_IN_B, true) {
+    cache = new LRULinkedHashMap<Object, Object>(MEMORY_THRESHOLD_IN_B, true) {
       @Override
-      protected long calEntrySize(TsFileResource key, TsFileMetaData value) {
-        if (deviceIndexMapEntrySize == 0 && value.getDeviceMap().size() > 0) {
-          deviceIndexMapEntrySize = RamUsageEstimator
-              .sizeOf(value.getDeviceMap().entrySet().iterator().next());
+      protected long calEntrySize(Object key, Object value) {
+        long valueSize;
+        if (value instanceof DeviceIndexPage) {
+          DeviceIndexPage page = (DeviceIndexPage) value;
+          if (deviceIndexEntrySize == 0 && page.size() > 0) {
+            String deviceId = page.getDeviceIds()[0];
+            deviceIndexEntrySize = RamUsageEstimator.sizeOf(deviceId)
+                + RamUsageEstimator.sizeOf(page.get(deviceId));
+          }
+          valueSize = page.size() * deviceIndexEntrySize;
+        } else if (value instanceof DeviceIndexDirectory) {
+          // a directory only holds one device id and offset per page, so it is measured directly
+          valueSize = RamUsageEstimator.sizeOf(value);
+        } else {
+          valueSize = calFileMetaDataSize((TsFileMetaData) value);
         }
-        if (measurementSchemaEntrySize == 0 && value.getMeasurementSchema().size() > 0) {
-          measurementSchemaEntrySize = RamUsageEstimator
-              .sizeOf(value.getMeasurementSchema().entrySet().iterator().next());
+        long keySize = key instanceof PageKey ? ((PageKey) key).path.length() * 2 + 4
+            : ((String) key).length() * 2;
+        return keySize + valueSize;
+      }
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+        boolean evicted = super.removeEldestEntry(eldest);
+        if (evicted && eldest.getKey() instanceof PageKey) {
+          PageKey pageKey = (PageKey) eldest.getKey();
+          Set<PageKey> pages = cachedPages.get(pageKey.path);
+          if (pages != null) {
+            pages.remove(pageKey);
+            if (pages.isEmpty()) {
+              cachedPages.remove(pageKey.path);
+            }
+          }
         }
-        long valueSize = value.getDeviceMap().size() * deviceIndexMapEntrySize
-            + measurementSchemaEntrySize * value.getMeasurementSchema().size()
-            + versionAndCreatebySize;
-        return key.getFile().getPath().length() * 2 + valueSize;
+        return evicted;
       }
     };
   }
 
+  private long calFileMetaDataSize(TsFileMetaData value) {
+    if (deviceIndexMapEntrySize == 0 && value.getDeviceMap().size() > 0) {
+      deviceIndexMapEntrySize = RamUsageEstimator
+          .sizeOf(value.getDeviceMap().entrySet().iterator().next());
+    }
+    if (measurementSchemaEntrySize == 0 && value.getMeasurementSchema().size() > 0) {
+      measurementSchemaEntrySize = RamUsageEstimator
+          .sizeOf(value.getMeasurementSchema().entrySet().iterator().next());
+    }
+    return value.getDeviceMap().size() * deviceIndexMapEntrySize
+        + measurementSchemaEntrySize * value.getMeasurementSchema().size()
+        + versionAndCreatebySize;
+  }
+
   public static TsFileMetaDataCache getInstance() {
     return TsFileMetaDataCacheHolder.INSTANCE;
   }
 
   /**
-   * get the TsFileMetaData for given TsFile.
+   * get the TsDeviceMetadataIndex of a device in the given TsFile.
+   *
+   * @param tsFileResource -given TsFile
+   * @param deviceId -device to look up
+   * @return -the index, or null if the device is not in the file
+   */
+  public TsDeviceMetadataIndex getDeviceMetadataIndex(TsFileResource tsFileResource,
+      String deviceId) throws IOException {
+    if (!cacheEnable) {
+      return TsFileMetadataUtils.getDeviceMetadataIndex(tsFileResource, deviceId);
+    }
+
+    String path = tsFileResource.getFile().getPath();
+    Object fileIndex = getFileIndex(tsFileResource);
+    if (fileIndex instanceof TsFileMetaData) {
+      return ((TsFileMetaData) fileIndex).getDeviceMetadataIndex(deviceId);
+    }
+
+    DeviceIndexDirectory directory = (DeviceIndexDirectory) fileIndex;
+    int page = directory.findPage(deviceId);
+    if (page < 0) {
+      return null;
+    }
+    DeviceIndexPage indexPage = (DeviceIndexPage) get(new PageKey(path, page), path,
+        () -> TsFileMetadataUtils.getDeviceIndexPage(tsFileResource, directory, page));
+    return indexPage.get(deviceId);
+  }
+
+  /**
+   * whether the given TsFile has a measurement, which is answered without reading any page of the
+   * device index.
    *
    * @param tsFileResource -given TsFile
+   * @param measurementId -measurement to look up
    */
-  public TsFileMetaData get(TsFileResource tsFileResource) throws IOException {
+  public boolean containsMeasurement(TsFileResource tsFileResource, String measurementId)
+      throws IOException {
     if (!cacheEnable) {
-      return TsFileMetadataUtils.getTsFileMetaData(tsFileResource);
+      return TsFileMetadataUtils.containsMeasurement(tsFileResource, measurementId);
+    }
+
+    Object fileIndex = getFileIndex(tsFileResource);
+    if (fileIndex instanceof TsFileMetaData) {
+      return ((TsFileMetaData) fileIndex).getMeasurementSchema().containsKey(measurementId);
     }
+    return ((DeviceIndexDirectory) fileIndex).containsMeasurement(measurementId);
+  }
 
+  /**
+   * @return -the DeviceIndexDirectory of the TsFile, or its TsFileMetaData if the file has no
+   * device index
+   */
+  private Object getFileIndex(TsFileResource tsFileResource) throws IOException {
     String path = tsFileResource.getFile().getPath();
-    Object internPath = path.intern();
+    return get(path, path, () -> {
+      DeviceIndexDirectory directory = TsFileMetadataUtils
+          .getDeviceIndexDirectory(tsFileResource);
+      return directory != null ? directory
+          : TsFileMetadataUtils.getTsFileMetaData(tsFileResource);
+    });
+  }
+
+  /**
+   * @param path the Tsfile that the key belongs to, the loading of a file is serialized.
+   */
+  private Object get(Object key, String path, CacheLoader loader) throws IOException {
     cacheRequestNum.incrementAndGet();
     synchronized (cache) {
-      if (cache.containsKey(path)) {
+      if (cache.containsKey(key)) {
         cacheHitNum.incrementAndGet();
         if (logger.isDebugEnabled()) {
           logger.debug(
@@ -107,44 +218,103 @@ public class TsFileMetaDataCache {
                   + "the number of hints for cache is {}",
               cacheRequestNum.get(), cacheHitNum.get());
         }
-        return cache.get(path);
+        return cache.get(key);
       }
     }
-    synchronized (internPath) {
+    synchronized (path.intern()) {
       synchronized (cache) {
-        if (cache.containsKey(path)) {
+        if (cache.containsKey(key)) {
           cacheHitNum.incrementAndGet();
-          return cache.get(path);
+          return cache.get(key);
         }
       }
       if (logger.isDebugEnabled()) {
         logger.debug("Cache didn't hit: the number of requests for cache is {}",
             cacheRequestNum.get());
       }
-      TsFileMetaData fileMetaData = TsFileMetadataUtils.getTsFileMetaData(tsFileResource);
+      Object value = loader.load();
       synchronized (cache) {
-        cache.put(tsFileResource, fileMetaData);
-        return fileMetaData;
+        cache.put(key, value);
+        if (key instanceof PageKey) {
+          cachedPages.computeIfAbsent(path, p -> new HashSet<>()).add((PageKey) key);
+        }
+        return value;
       }
     }
   }
 
   public void remove(TsFileResource resource) {
+    if (cache == null) {
+      return;
+    }
+    String path = resource.getFile().getPath();
     synchronized (cache) {
-      if (cache != null) {
-        cache.remove(resource);
+      cache.remove(path);
+      Set<PageKey> pages = cachedPages.remove(path);
+      if (pages != null) {
+        for (PageKey page : pages) {
+          cache.remove(page);
+        }
       }
     }
   }
 
+  /**
+   * Only for test
+   */
+  int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
   public void clear() {
+    if (cache == null) {
+      return;
+    }
     synchronized (cache) {
-      if (cache != null) {
-        cache.clear();
+      cache.clear();
+      cachedPages.clear();
+    }
+  }
+
+  /**
+   * the key of an index page of a Tsfile.
+   */
+  private static class PageKey {
+
+    private final String path;
+    private final int page;
+
+    private PageKey(String path, int page) {
+      this.path = path;
+      this.page = page;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
       }
+      PageKey pageKey = (PageKey) o;
+      return page == pageKey.page && path.equals(pageKey.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * path.hashCode() + page;
     }
   }
 
+  @FunctionalInterface
+  private interface CacheLoader {
+
+    Object load() throws IOException;
+  }
+
   /**
    * Singleton pattern
    */
@@ -29,6 +29,8 @@ import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.DeviceIndexDirectory;
+import org.apache.iotdb.tsfile.file.metadata.DeviceIndexPage;
 import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadata;
 import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadataIndex;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
@@ -56,25 +58,70 @@ public class TsFileMetadataUtils {
     return reader.readFileMetadata();
   }
 
+  /**
+   * get the directory of the device index of a tsfile.
+   *
+   * @param resource -given TsFile
+   * @return -the directory, or null if the file is written without a device index
+   */
+  public static DeviceIndexDirectory getDeviceIndexDirectory(TsFileResource resource)
+      throws IOException {
+    TsFileSequenceReader reader = FileReaderManager.getInstance().get(resource, true);
+    return reader.readDeviceIndexDirectory();
+  }
+
+  /**
+   * get one page of the device index of a tsfile.
+   */
+  public static DeviceIndexPage getDeviceIndexPage(TsFileResource resource,
+      DeviceIndexDirectory directory, int page) throws IOException {
+    TsFileSequenceReader reader = FileReaderManager.getInstance().get(resource, true);
+    return reader.readDeviceIndexPage(directory, page);
+  }
+
+  /**
+   * whether a tsfile has the measurement, without caching.
+   *
+   * @param resource -given TsFile
+   * @param measurementId -measurement to look up
+   */
+  public static boolean containsMeasurement(TsFileResource resource, String measurementId)
+      throws IOException {
+    DeviceIndexDirectory directory = getDeviceIndexDirectory(resource);
+    if (directory != null) {
+      return directory.containsMeasurement(measurementId);
+    }
+    return getTsFileMetaData(resource).getMeasurementSchema().containsKey(measurementId);
+  }
+
+  /**
+   * get the index information of TsDeviceMetadata without caching.
+   *
+   * @param resource -given TsFile
+   * @param deviceId -device to look up
+   * @return -the index, or null if the device is not in the file
+   */
+  public static TsDeviceMetadataIndex getDeviceMetadataIndex(TsFileResource resource,
+      String deviceId) throws IOException {
+    TsFileSequenceReader reader = FileReaderManager.getInstance().get(resource, true);
+    return reader.readDeviceMetadataIndex(deviceId);
+  }
+
   /**
    * get row group block meta data.
    *
    * @param resource -TsFile
-   * @param seriesPath -series path
-   * @param fileMetaData -tsfile meta data
-   * @return -device meta data
+   * @param index -the index information of TsDeviceMetadata, may be null
+   * @return -device meta data, or null if the device is not in the file
    */
-  public static TsDeviceMetadata getTsDeviceMetaData(TsFileResource resource, Path seriesPath,
-      TsFileMetaData fileMetaData) throws IOException {
-    if (!fileMetaData.getMeasurementSchema().containsKey(seriesPath.getMeasurement())) {
+  public static TsDeviceMetadata getTsDeviceMetaData(TsFileResource resource,
+      TsDeviceMetadataIndex index) throws IOException {
+    if (index == null) {
       return null;
-    } else {
-      // get the index information of TsDeviceMetadata
-      TsDeviceMetadataIndex index = fileMetaData.getDeviceMetadataIndex(seriesPath.getDevice());
-      TsFileSequenceReader tsFileReader = FileReaderManager.getInstance().get(resource, true);
-      // read TsDeviceMetadata from file
-      return tsFileReader.readTsDeviceMetaData(index);
     }
+    TsFileSequenceReader tsFileReader = FileReaderManager.getInstance().get(resource, true);
+    // read TsDeviceMetadata from file
+    return tsFileReader.readTsDeviceMetaData(index);
   }
 
   /**
@@ -26,6 +26,7 @@ import org.apache.iotdb.db.exception.FlushRunTimeException;
 import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.write.chunk.ChunkBuffer;
 import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
@@ -40,6 +41,8 @@ public class MemTableFlushTask {
 
   private static final Logger logger = LoggerFactory.getLogger(MemTableFlushTask.class);
   private static final int PAGE_SIZE_THRESHOLD = TSFileConfig.pageSizeInByte;
+  // max number of points handed to a chunk writer at once when encoding a series
+  private static final int ENCODING_BATCH_SIZE = 1024;
   private static final FlushSubTaskPoolManager subTaskPoolManager = FlushSubTaskPoolManager
       .getInstance();
   private Future ioTaskFuture;
@@ -99,43 +102,112 @@ public class MemTableFlushTask {
 
 
   private Runnable encodingTask = new Runnable() {
+    /**
+     * write the sorted points of one series into the chunk writer in batches, so that the chunk
+     * writer encodes a batch into its pages and updates the statistics once per batch.
+     */
     private void writeOneSeries(TVList tvPairs, IChunkWriter seriesWriterImpl,
         TSDataType dataType){
-      for (int i = 0; i < tvPairs.size(); i++) {
-        long time = tvPairs.getTime(i);
-
-        // skip duplicated data
-        if ((i+1 < tvPairs.size() && (time == tvPairs.getTime(i+1)))) {
-          continue;
+      int size = tvPairs.size();
+      int batchSize = Math.min(size, ENCODING_BATCH_SIZE);
+      Object values = newValueArray(dataType, batchSize);
+      if (values == null) {
+        logger.error("Storage group {} does not support data type: {}", storageGroup,
+            dataType);
+        return;
+      }
+      long[] times = new long[batchSize];
+      // positions in tvPairs of the points in the current batch
+      int[] indexes = new int[batchSize];
+      int i = 0;
+      while (i < size) {
+        int n = 0;
+        for (; i < size && n < batchSize; i++) {
+          long time = tvPairs.getTime(i);
+          // skip duplicated data
+          if (i + 1 < size && time == tvPairs.getTime(i + 1)) {
+            continue;
+          }
+          times[n] = time;
+          indexes[n++] = i;
         }
-
-        switch (dataType) {
-          case BOOLEAN:
-            seriesWriterImpl.write(time, tvPairs.getBoolean(i));
-            break;
-          case INT32:
-            seriesWriterImpl.write(time, tvPairs.getInt(i));
-            break;
-          case INT64:
-            seriesWriterImpl.write(time, tvPairs.getLong(i));
-            break;
-          case FLOAT:
-            seriesWriterImpl.write(time, tvPairs.getFloat(i));
-            break;
-          case DOUBLE:
-            seriesWriterImpl.write(time, tvPairs.getDouble(i));
-            break;
-          case TEXT:
-            seriesWriterImpl.write(time, tvPairs.getBinary(i));
-            break;
-          default:
-            logger.error("Storage group {} does not support data type: {}", storageGroup,
-                dataType);
-            break;
+        if (n > 0) {
+          writeBatch(tvPairs, seriesWriterImpl, dataType, times, values, indexes, n);
         }
       }
     }
 
+    private Object newValueArray(TSDataType dataType, int batchSize) {
+      switch (dataType) {
+        case BOOLEAN:
+          return new boolean[batchSize];
+        case INT32:
+          return new int[batchSize];
+        case INT64:
+          return new long[batchSize];
+        case FLOAT:
+          return new float[batchSize];
+        case DOUBLE:
+          return new double[batchSize];
+        case TEXT:
+          return new Binary[batchSize];
+        default:
+          return null;
+      }
+    }
+
+    private void writeBatch(TVList tvPairs, IChunkWriter seriesWriterImpl, TSDataType dataType,
+        long[] times, Object values, int[] indexes, int n) {
+      switch (dataType) {
+        case BOOLEAN:
+          boolean[] booleans = (boolean[]) values;
+          for (int j = 0; j < n; j++) {
+            booleans[j] = tvPairs.getBoolean(indexes[j]);
+          }
+          seriesWriterImpl.write(times, booleans, n);
+          break;
+        case INT32:
+          int[] ints = (int[]) values;
+          for (int j = 0; j < n; j++) {
+            ints[j] = tvPairs.getInt(indexes[j]);
+          }
+          seriesWriterImpl.write(times, ints, n);
+          break;
+        case INT64:
+          long[] longs = (long[]) values;
+          for (int j = 0; j < n; j++) {
+            longs[j] = tvPairs.getLong(indexes[j]);
+          }
+          seriesWriterImpl.write(times, longs, n);
+          break;
+        case FLOAT:
+          float[] floats = (float[]) values;
+          for (int j = 0; j < n; j++) {
+            floats[j] = tvPairs.getFloat(indexes[j]);
+          }
+          seriesWriterImpl.write(times, floats, n);
+          break;
+        case DOUBLE:
+          double[] doubles = (double[]) values;
+          for (int j = 0; j < n; j++) {
+            doubles[j] = tvPairs.getDouble(indexes[j]);
+          }
+          seriesWriterImpl.write(times, doubles, n);
+          break;
+        case TEXT:
+          Binary[] binaries = (Binary[]) values;
+          for (int j = 0; j < n; j++) {
+            binaries[j] = tvPairs.getBinary(indexes[j]);
+          }
+          seriesWriterImpl.write(times, binaries, n);
+          break;
+        default:
+          logger.error("Storage group {} does not support data type: {}", storageGroup,
+              dataType);
+          break;
+      }
+    }
+
     @Override
     public void run() {
       long memSerializeTime = 0;
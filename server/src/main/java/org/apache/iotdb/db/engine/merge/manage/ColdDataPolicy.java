@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge.manage;
+
+import java.io.IOException;
+import java.util.Map;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+/**
+ * ColdDataPolicy decides which TsFiles of a storage group are cold, that is, all of their data
+ * are older than the age threshold of the storage group, and how merges and compactions re-encode
+ * the chunks of the cold TsFiles: with the cold data compressor and larger pages, as cold data is
+ * rarely read and saving disk matters more.
+ */
+public class ColdDataPolicy {
+
+  /**
+   * in the precision of timestamps.
+   */
+  private final long ageThreshold;
+  private final CompressionType compressor;
+  private final int pageSizeInByte;
+
+  public ColdDataPolicy(long ageThreshold, CompressionType compressor, int pageSizeInByte) {
+    this.ageThreshold = ageThreshold;
+    this.compressor = compressor;
+    this.pageSizeInByte = pageSizeInByte;
+  }
+
+  /**
+   * @return the policy of the storage group in the configuration, or null if it has no cold data.
+   */
+  public static ColdDataPolicy getPolicy(String storageGroupName) {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    Long ageThresholdSec = config.getColdDataAgeThresholds().get(storageGroupName);
+    if (ageThresholdSec == null || ageThresholdSec < 0) {
+      return null;
+    }
+    return new ColdDataPolicy(StorageEngine.convertToTimePrecision(ageThresholdSec * 1000L),
+        config.getColdDataCompressor(), config.getColdDataPageSizeInByte());
+  }
+
+  /**
+   * @return true if the TsFile is sealed and all of its data are older than the age threshold.
+   */
+  public boolean isCold(TsFileResource tsFileResource) throws IOException {
+    if (!tsFileResource.isClosed()) {
+      return false;
+    }
+    long coldTimeBound = StorageEngine.getCurrentTime() - ageThreshold;
+    Map<String, Long> endTimes = tsFileResource.getEndTimeMap();
+    if (endTimes.isEmpty()) {
+      return false;
+    }
+    for (Long endTime : endTimes.values()) {
+      if (endTime >= coldTimeBound) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the schema that the cold chunks of the timeseries are written with.
+   */
+  public MeasurementSchema getColdSchema(MeasurementSchema schema) {
+    return new MeasurementSchema(schema.getMeasurementId(), schema.getType(),
+        schema.getEncodingType(), compressor, schema.getProps());
+  }
+
+  public CompressionType getCompressor() {
+    return compressor;
+  }
+
+  public int getPageSizeInByte() {
+    return pageSizeInByte;
+  }
+}
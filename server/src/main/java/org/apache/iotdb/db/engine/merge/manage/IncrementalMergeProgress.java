@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge.manage;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.tsfile.read.common.Path;
+
+/**
+ * IncrementalMergeProgress records an incremental merge of a storage group, which merges the same
+ * seqFiles and unseqFiles by several tasks, each of which merges the next slice of the series.
+ * The series are those of the storage group when the merge starts, as the unseqFiles are sealed
+ * and cannot contain series created later. A slice is only consumed after its task succeeds, so
+ * a failed slice is merged again by the next task.
+ */
+public class IncrementalMergeProgress {
+
+  private List<TsFileResource> seqFiles;
+  private List<TsFileResource> unseqFiles;
+  private List<Path> series;
+  private int sliceSeriesNum;
+  private int mergedSeriesNum = 0;
+  private int nextSliceEnd = 0;
+
+  public IncrementalMergeProgress(List<TsFileResource> seqFiles,
+      List<TsFileResource> unseqFiles, List<Path> series, int sliceSeriesNum) {
+    this.seqFiles = new ArrayList<>(seqFiles);
+    this.unseqFiles = new ArrayList<>(unseqFiles);
+    this.series = series;
+    this.sliceSeriesNum = sliceSeriesNum;
+  }
+
+  public List<TsFileResource> getSeqFiles() {
+    return seqFiles;
+  }
+
+  public List<TsFileResource> getUnseqFiles() {
+    return unseqFiles;
+  }
+
+  /**
+   * @return the series to be merged by the next task, which are not consumed until
+   * onSliceMerged() is called
+   */
+  public List<Path> nextSlice() {
+    nextSliceEnd = (int) Math.min(series.size(), (long) mergedSeriesNum + sliceSeriesNum);
+    return new ArrayList<>(series.subList(mergedSeriesNum, nextSliceEnd));
+  }
+
+  /**
+   * consume the slice returned by the last nextSlice().
+   */
+  public void onSliceMerged() {
+    mergedSeriesNum = Math.max(mergedSeriesNum, nextSliceEnd);
+  }
+
+  public boolean isFinished() {
+    return mergedSeriesNum >= series.size();
+  }
+
+  public int getMergedSeriesNum() {
+    return mergedSeriesNum;
+  }
+
+  public int getTotalSeriesNum() {
+    return series.size();
+  }
+}
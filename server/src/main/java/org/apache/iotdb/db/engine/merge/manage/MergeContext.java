@@ -38,6 +38,8 @@ public class MergeContext {
 
   private AtomicInteger totalChunkWritten = new AtomicInteger();
   private AtomicLong totalPointWritten = new AtomicLong();
+  // pages of overflowed chunks that are copied without being decoded
+  private AtomicInteger totalPageCopied = new AtomicInteger();
 
   public void clear() {
     mergedChunkCnt.clear();
@@ -80,6 +82,14 @@ public class MergeContext {
     this.totalChunkWritten.incrementAndGet();
   }
 
+  public int getTotalPageCopied() {
+    return totalPageCopied.get();
+  }
+
+  public void incTotalPageCopied() {
+    this.totalPageCopied.incrementAndGet();
+  }
+
   public void incTotalPointWritten(long increment) {
     totalPointWritten.addAndGet(increment);
   }
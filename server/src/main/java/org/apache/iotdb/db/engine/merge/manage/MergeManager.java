@@ -26,20 +26,25 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.StorageEngine;
-import org.apache.iotdb.db.engine.merge.task.MergeTask;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
 import org.apache.iotdb.db.service.ServiceType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * MergeManager provides a ThreadPool to queue and run all merge tasks to restrain the total
- * resources occupied by merge and manages a Timer to periodically issue a global merge.
+ * resources occupied by merge and manages a Timer to periodically issue a global merge and the
+ * merges of the storage groups whose queries suffer from unseq data the most. It also
+ * counts the bytes flushed and merged and the files read by queries, which tell the write and
+ * read amplification of the chosen compaction strategy.
  */
-public class MergeManager implements IService {
+public class MergeManager implements IService, MergeManagerMBean {
 
   private static final Logger logger = LoggerFactory.getLogger(MergeManager.class);
   private static final MergeManager INSTANCE = new MergeManager();
@@ -49,6 +54,13 @@ public class MergeManager implements IService {
   private ThreadPoolExecutor mergeChunkSubTaskPool;
   private ScheduledExecutorService timedMergeThreadPool;
 
+  private MergeRateLimiter rateLimiter = new MergeRateLimiter();
+
+  private AtomicLong flushedBytes = new AtomicLong();
+  private AtomicLong mergeWrittenBytes = new AtomicLong();
+  private AtomicLong seriesQueryNum = new AtomicLong();
+  private AtomicLong queriedFileNum = new AtomicLong();
+
   private MergeManager() {
   }
 
@@ -56,7 +68,10 @@ public class MergeManager implements IService {
     return INSTANCE;
   }
 
-  public void submitMainTask(MergeTask mergeTask) {
+  /**
+   * submit a MergeTask or a SeqCompactionTask, they share the threads of merge_thread_num.
+   */
+  public void submitMainTask(Callable<Void> mergeTask) {
     mergeTaskPool.submit(mergeTask);
   }
 
@@ -64,6 +79,77 @@ public class MergeManager implements IService {
     return mergeChunkSubTaskPool.submit(callable);
   }
 
+  public MergeRateLimiter getRateLimiter() {
+    return rateLimiter;
+  }
+
+  @Override
+  public int getMergeIOThroughputMBPerSec() {
+    return rateLimiter.getThroughputMBPerSec();
+  }
+
+  @Override
+  public void setMergeIOThroughputMBPerSec(int throughputMBPerSec) {
+    rateLimiter.setThroughputMBPerSec(throughputMBPerSec);
+    logger.info("The merge IO throughput is set to {}MB/s", throughputMBPerSec);
+  }
+
+  @Override
+  public int getMergeIOBackoffThroughputMBPerSec() {
+    return rateLimiter.getBackoffThroughputMBPerSec();
+  }
+
+  @Override
+  public void setMergeIOBackoffThroughputMBPerSec(int throughputMBPerSec) {
+    rateLimiter.setBackoffThroughputMBPerSec(throughputMBPerSec);
+    logger.info("The merge IO backoff throughput is set to {}MB/s", throughputMBPerSec);
+  }
+
+  @Override
+  public boolean isMergeIOBackingOff() {
+    return rateLimiter.isBackingOff();
+  }
+
+  public void recordFlushedBytes(long bytes) {
+    flushedBytes.addAndGet(bytes);
+  }
+
+  public void recordMergeWrittenBytes(long bytes) {
+    mergeWrittenBytes.addAndGet(bytes);
+  }
+
+  public void recordSeriesQuery(int fileNum) {
+    seriesQueryNum.incrementAndGet();
+    queriedFileNum.addAndGet(fileNum);
+  }
+
+  @Override
+  public long getFlushedBytes() {
+    return flushedBytes.get();
+  }
+
+  @Override
+  public long getMergeWrittenBytes() {
+    return mergeWrittenBytes.get();
+  }
+
+  @Override
+  public double getWriteAmplification() {
+    long flushed = flushedBytes.get();
+    return flushed == 0 ? 1.0 : (double) (flushed + mergeWrittenBytes.get()) / flushed;
+  }
+
+  @Override
+  public long getSeriesQueryNum() {
+    return seriesQueryNum.get();
+  }
+
+  @Override
+  public double getReadAmplification() {
+    long queryNum = seriesQueryNum.get();
+    return queryNum == 0 ? 0.0 : (double) queriedFileNum.get() / queryNum;
+  }
+
   @Override
   public void start() {
     if (mergeTaskPool == null) {
@@ -84,12 +170,23 @@ public class MergeManager implements IService {
           (ThreadPoolExecutor) Executors.newFixedThreadPool(threadNum * chunkSubThreadNum,
               r -> new Thread(r, "MergeChunkSubThread-" + threadCnt.getAndIncrement()));
       long mergeInterval = IoTDBDescriptor.getInstance().getConfig().getMergeIntervalSec();
-      if (mergeInterval > 0) {
+      long readAmplificationCheckInterval = IoTDBDescriptor.getInstance().getConfig()
+          .getReadAmplificationCheckIntervalSec();
+      boolean mergeByReadAmplification = IoTDBDescriptor.getInstance().getConfig()
+          .getReadAmplificationMergeThreshold() > 0 && readAmplificationCheckInterval > 0;
+      if (mergeInterval > 0 || mergeByReadAmplification) {
         timedMergeThreadPool = Executors.newSingleThreadScheduledExecutor( r -> new Thread(r,
             "TimedMergeThread"));
+      }
+      if (mergeInterval > 0) {
         timedMergeThreadPool.scheduleAtFixedRate(this::mergeAll, mergeInterval,
             mergeInterval, TimeUnit.SECONDS);
       }
+      if (mergeByReadAmplification) {
+        timedMergeThreadPool.scheduleAtFixedRate(this::mergeReadAmplified,
+            readAmplificationCheckInterval, readAmplificationCheckInterval, TimeUnit.SECONDS);
+      }
+      JMXService.registerMBean(this, ServiceType.MERGE_SERVICE.getJmxName());
       logger.info("MergeManager started");
     }
   }
@@ -108,6 +205,7 @@ public class MergeManager implements IService {
         // wait
       }
       mergeTaskPool = null;
+      JMXService.deregisterMBean(ServiceType.MERGE_SERVICE.getJmxName());
       logger.info("MergeManager stopped");
     }
   }
@@ -124,4 +222,14 @@ public class MergeManager implements IService {
       logger.error("Cannot perform a global merge because", e);
     }
   }
+
+  private void mergeReadAmplified() {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    try {
+      StorageEngine.getInstance().mergeReadAmplified(config.getReadAmplificationMergeThreshold(),
+          config.isForceFullMerge());
+    } catch (StorageEngineException e) {
+      logger.error("Cannot merge the storage groups with high read amplification because", e);
+    }
+  }
 }
@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge.manage;
+
+public interface MergeManagerMBean {
+
+  /**
+   * @return the bytes of the TsFiles sealed after flushes
+   */
+  long getFlushedBytes();
+
+  /**
+   * @return the bytes written by merges and compactions
+   */
+  long getMergeWrittenBytes();
+
+  /**
+   * @return how many bytes are written to disk for each byte flushed
+   */
+  double getWriteAmplification();
+
+  long getSeriesQueryNum();
+
+  /**
+   * @return the average number of TsFiles read by a query of a timeseries
+   */
+  double getReadAmplification();
+
+  /**
+   * @return the throughput limit of the reads and writes of merges, non-positive if unlimited
+   */
+  int getMergeIOThroughputMBPerSec();
+
+  void setMergeIOThroughputMBPerSec(int throughputMBPerSec);
+
+  int getMergeIOBackoffThroughputMBPerSec();
+
+  void setMergeIOBackoffThroughputMBPerSec(int throughputMBPerSec);
+
+  /**
+   * @return whether merges are slowed down for flushes or queries now
+   */
+  boolean isMergeIOBackingOff();
+}
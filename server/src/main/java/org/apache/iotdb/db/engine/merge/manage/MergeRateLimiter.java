@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge.manage;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.flush.FlushManager;
+
+/**
+ * MergeRateLimiter is a token bucket shared by the reads and writes of all merges and
+ * compactions, so that they leave disk bandwidth to flushes and queries. Its rate is
+ * merge_io_throughput_mb_per_sec, and it is lowered to merge_io_backoff_throughput_mb_per_sec
+ * while flush tasks are queuing up or a query has been slow recently. The bucket holds at most
+ * one second of tokens, and a thread that takes more bytes than the bucket holds sleeps until
+ * the debt is paid off.
+ */
+public class MergeRateLimiter {
+
+  private static final long BYTES_PER_MB = 1024 * 1024L;
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  /**
+   * how long the merges keep backing off after a slow query.
+   */
+  private static final long QUERY_BACKOFF_MS = 5000;
+
+  private volatile long bytesPerSec;
+  private volatile long backoffBytesPerSec;
+  private volatile int backoffFlushPendingNum;
+  private volatile long backoffQueryLatencyMs;
+
+  private volatile long lastSlowQueryTime = 0;
+
+  private double storedTokens = 0;
+  private long lastRefillNanos = System.nanoTime();
+
+  MergeRateLimiter() {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    setThroughputMBPerSec(config.getMergeIOThroughputMBPerSec());
+    setBackoffThroughputMBPerSec(config.getMergeIOBackoffThroughputMBPerSec());
+    backoffFlushPendingNum = config.getMergeBackoffFlushPendingNum();
+    backoffQueryLatencyMs = config.getMergeBackoffQueryLatencyMs();
+  }
+
+  /**
+   * take the tokens of some bytes read or written by a merge, wait if there are not enough
+   * tokens.
+   */
+  public void acquire(long bytes) {
+    long rate = getCurrentBytesPerSec();
+    if (rate <= 0 || bytes <= 0) {
+      return;
+    }
+    long waitNanos;
+    synchronized (this) {
+      long now = System.nanoTime();
+      storedTokens = Math.min(rate,
+          storedTokens + (double) (now - lastRefillNanos) * rate / NANOS_PER_SECOND);
+      lastRefillNanos = now;
+      storedTokens -= bytes;
+      waitNanos = storedTokens >= 0 ? 0 : (long) (-storedTokens * NANOS_PER_SECOND / rate);
+    }
+    if (waitNanos > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * @return the rate currently applied, non-positive if the merges are not limited
+   */
+  public long getCurrentBytesPerSec() {
+    long rate = bytesPerSec;
+    if (isBackingOff()) {
+      rate = rate <= 0 ? backoffBytesPerSec : Math.min(rate, backoffBytesPerSec);
+    }
+    return rate;
+  }
+
+  public boolean isBackingOff() {
+    if (backoffBytesPerSec <= 0) {
+      return false;
+    }
+    if (backoffFlushPendingNum > 0
+        && FlushManager.getInstance().getNumberOfPendingTasks() >= backoffFlushPendingNum) {
+      return true;
+    }
+    return backoffQueryLatencyMs > 0
+        && System.currentTimeMillis() - lastSlowQueryTime < QUERY_BACKOFF_MS;
+  }
+
+  /**
+   * called when a query finishes, the merges back off for a while if it is slow.
+   */
+  public void recordQueryLatency(long latencyMs) {
+    if (backoffQueryLatencyMs > 0 && latencyMs >= backoffQueryLatencyMs) {
+      lastSlowQueryTime = System.currentTimeMillis();
+    }
+  }
+
+  public int getThroughputMBPerSec() {
+    return (int) (bytesPerSec / BYTES_PER_MB);
+  }
+
+  public void setThroughputMBPerSec(int throughputMBPerSec) {
+    this.bytesPerSec = throughputMBPerSec * BYTES_PER_MB;
+  }
+
+  public int getBackoffThroughputMBPerSec() {
+    return (int) (backoffBytesPerSec / BYTES_PER_MB);
+  }
+
+  public void setBackoffThroughputMBPerSec(int backoffThroughputMBPerSec) {
+    this.backoffBytesPerSec = backoffThroughputMBPerSec * BYTES_PER_MB;
+  }
+
+  public void setBackoffFlushPendingNum(int backoffFlushPendingNum) {
+    this.backoffFlushPendingNum = backoffFlushPendingNum;
+  }
+
+  public void setBackoffQueryLatencyMs(long backoffQueryLatencyMs) {
+    this.backoffQueryLatencyMs = backoffQueryLatencyMs;
+  }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.iotdb.db.engine.merge.manage;
 
+import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.reader.IPointReader;
@@ -65,6 +66,18 @@ public class MergeResource {
   private Map<MeasurementSchema, IChunkWriter> chunkWriterCache = new ConcurrentHashMap<>();
 
   private boolean cacheDeviceMeta = false;
+  /**
+   * the data before this time is expired by the TTL of the storage group and is removed from the
+   * merged files. Long.MIN_VALUE means no data is expired.
+   */
+  private long ttlLowerBound = Long.MIN_VALUE;
+
+  /**
+   * the ColdDataPolicy of the storage group, null if it has no cold data.
+   */
+  private ColdDataPolicy coldDataPolicy;
+  private Map<TsFileResource, Boolean> coldFiles = new ConcurrentHashMap<>();
+  private Map<MeasurementSchema, IChunkWriter> coldChunkWriterCache = new ConcurrentHashMap<>();
 
   public MergeResource(List<TsFileResource> seqFiles, List<TsFileResource> unseqFiles) {
     this.seqFiles = seqFiles.stream().filter(TsFileResource::isClosed).collect(Collectors.toList());
@@ -82,6 +95,8 @@ public class MergeResource {
     modificationCache.clear();
     measurementSchemaMap.clear();
     chunkWriterCache.clear();
+    coldChunkWriterCache.clear();
+    coldFiles.clear();
   }
 
   public MeasurementSchema getSchema(String measurementId) {
@@ -98,7 +113,7 @@ public class MergeResource {
   public RestorableTsFileIOWriter getMergeFileWriter(TsFileResource resource) throws IOException {
     RestorableTsFileIOWriter writer = fileWriterCache.get(resource);
     if (writer == null) {
-      writer = new RestorableTsFileIOWriter(TSFileFactory.INSTANCE
+      writer = new RateLimitedTsFileIOWriter(TSFileFactory.INSTANCE
           .getFile(resource.getFile().getPath() + MERGE_SUFFIX));
       fileWriterCache.put(resource, writer);
     }
@@ -127,7 +142,8 @@ public class MergeResource {
   public TsFileSequenceReader getFileReader(TsFileResource tsFileResource) throws IOException {
     TsFileSequenceReader reader = fileReaderCache.get(tsFileResource);
     if (reader == null) {
-      reader = new TsFileSequenceReader(tsFileResource.getFile().getPath(), true, cacheDeviceMeta);
+      reader = new RateLimitedTsFileSequenceReader(tsFileResource.getFile().getPath(), true,
+          cacheDeviceMeta);
       fileReaderCache.put(tsFileResource, reader);
     }
     return reader;
@@ -161,6 +177,36 @@ public class MergeResource {
         schema -> new ChunkWriterImpl(new ChunkBuffer(schema), TSFileConfig.pageCheckSizeThreshold));
   }
 
+  /**
+   * @param cold whether the chunks are of a cold file, which are written with the compressor and
+   * page size of the ColdDataPolicy
+   */
+  public IChunkWriter getChunkWriter(MeasurementSchema measurementSchema, boolean cold) {
+    if (!cold) {
+      return getChunkWriter(measurementSchema);
+    }
+    return coldChunkWriterCache.computeIfAbsent(measurementSchema,
+        schema -> new ChunkWriterImpl(new ChunkBuffer(coldDataPolicy.getColdSchema(schema)),
+            coldDataPolicy.getPageSizeInByte()));
+  }
+
+  /**
+   * @return whether all data of the file are cold by the ColdDataPolicy, the result of a file
+   * does not change within a merge.
+   */
+  public boolean isColdFile(TsFileResource tsFileResource) throws IOException {
+    if (coldDataPolicy == null) {
+      return false;
+    }
+    Boolean cold = coldFiles.get(tsFileResource);
+    if (cold == null) {
+      // the first result is kept if two threads check the file at the same time
+      Boolean prev = coldFiles.putIfAbsent(tsFileResource, coldDataPolicy.isCold(tsFileResource));
+      cold = prev != null ? prev : coldFiles.get(tsFileResource);
+    }
+    return cold;
+  }
+
   /**
    * Get the modifications of a timeseries in the ModificationFile of a TsFile. Once the
    * modifications of the timeseries are found out, they will be removed from the list to boost
@@ -183,6 +229,10 @@ public class MergeResource {
         modificationIterator.remove();
       }
     }
+    if (ttlLowerBound != Long.MIN_VALUE) {
+      // newer than all chunks so it is applied to each of them
+      pathModifications.add(new Deletion(path, Long.MAX_VALUE, ttlLowerBound - 1));
+    }
     return pathModifications;
   }
 
@@ -251,6 +301,14 @@ public class MergeResource {
     this.cacheDeviceMeta = cacheDeviceMeta;
   }
 
+  public void setTTLLowerBound(long ttlLowerBound) {
+    this.ttlLowerBound = ttlLowerBound;
+  }
+
+  public void setColdDataPolicy(ColdDataPolicy coldDataPolicy) {
+    this.coldDataPolicy = coldDataPolicy;
+  }
+
   public void addMeasurements(List<MeasurementSchema> measurementSchemas) {
     for (MeasurementSchema measurementSchema : measurementSchemas) {
       measurementSchemaMap.put(measurementSchema.getMeasurementId(), measurementSchema);
@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge.manage;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
+
+/**
+ * RateLimitedTsFileIOWriter writes the files of merges, whose chunks are counted by the
+ * MergeRateLimiter.
+ */
+public class RateLimitedTsFileIOWriter extends RestorableTsFileIOWriter {
+
+  private MergeRateLimiter rateLimiter = MergeManager.getINSTANCE().getRateLimiter();
+
+  public RateLimitedTsFileIOWriter(File file) throws IOException {
+    super(file);
+  }
+
+  @Override
+  public void writeBytesToStream(PublicBAOS bytes) throws IOException {
+    rateLimiter.acquire(bytes.size());
+    super.writeBytesToStream(bytes);
+  }
+
+  @Override
+  public void writeChunk(Chunk chunk, ChunkMetaData chunkMetadata) throws IOException {
+    rateLimiter.acquire(chunk.getData().remaining());
+    super.writeChunk(chunk, chunkMetadata);
+  }
+}
@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge.manage;
+
+import java.io.IOException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+
+/**
+ * RateLimitedTsFileSequenceReader reads the files of merges, whose chunks are counted by the
+ * MergeRateLimiter.
+ */
+public class RateLimitedTsFileSequenceReader extends TsFileSequenceReader {
+
+  private MergeRateLimiter rateLimiter = MergeManager.getINSTANCE().getRateLimiter();
+
+  public RateLimitedTsFileSequenceReader(String file, boolean loadMetadata,
+      boolean cacheDeviceMetadata) throws IOException {
+    super(file, loadMetadata, cacheDeviceMetadata);
+  }
+
+  @Override
+  public Chunk readMemChunk(ChunkMetaData metaData) throws IOException {
+    Chunk chunk = super.readMemChunk(metaData);
+    rateLimiter.acquire(chunk.getData().remaining());
+    return chunk;
+  }
+}
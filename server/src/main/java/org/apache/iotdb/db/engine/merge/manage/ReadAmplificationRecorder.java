@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.merge.manage;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongPredicate;
+
+/**
+ * ReadAmplificationRecorder counts, for each time partition and device of a storage group, the
+ * unseqFiles that series queries read and the seqFiles overlapped by them, which must be merged
+ * with the unseq data while reading. These extra file reads since the last merge of a partition
+ * tell how much queries suffer from the unseq data, so the storage groups and partitions with the
+ * most extra reads are merged first.
+ */
+public class ReadAmplificationRecorder {
+
+  /**
+   * time partition -> device -> counter.
+   */
+  private Map<Long, Map<String, DeviceReadCounter>> partitionCounters = new ConcurrentHashMap<>();
+
+  /**
+   * record a series query of the device that reads unseqFileNum unseqFiles and
+   * overlappedSeqFileNum seqFiles overlapped by them in the time partition.
+   */
+  public void record(long timePartition, String deviceId, int unseqFileNum,
+      int overlappedSeqFileNum) {
+    if (unseqFileNum == 0) {
+      return;
+    }
+    DeviceReadCounter counter = partitionCounters
+        .computeIfAbsent(timePartition, p -> new ConcurrentHashMap<>())
+        .computeIfAbsent(deviceId, d -> new DeviceReadCounter());
+    counter.queryNum.increment();
+    counter.unseqFileNum.add(unseqFileNum);
+    counter.overlappedSeqFileNum.add(overlappedSeqFileNum);
+  }
+
+  /**
+   * @return the unseqFiles and overlapped seqFiles read by the queries of the partition since it
+   * was merged.
+   */
+  public long getExtraFileReads(long timePartition) {
+    long extraFileReads = 0;
+    for (DeviceReadCounter counter : getDeviceCounters(timePartition).values()) {
+      extraFileReads += counter.getExtraFileReads();
+    }
+    return extraFileReads;
+  }
+
+  /**
+   * @return the extra file reads of all partitions.
+   */
+  public long getExtraFileReads() {
+    long extraFileReads = 0;
+    for (Long timePartition : partitionCounters.keySet()) {
+      extraFileReads += getExtraFileReads(timePartition);
+    }
+    return extraFileReads;
+  }
+
+  public Map<String, DeviceReadCounter> getDeviceCounters(long timePartition) {
+    return partitionCounters.getOrDefault(timePartition, Collections.emptyMap());
+  }
+
+  /**
+   * reset the counters of a partition after its unseqFiles are merged, or when none of them can
+   * be merged.
+   */
+  public void clear(long timePartition) {
+    partitionCounters.remove(timePartition);
+  }
+
+  /**
+   * reset the counters of the partitions that cannot be merged.
+   */
+  public void retain(LongPredicate mergeable) {
+    partitionCounters.keySet().removeIf(timePartition -> !mergeable.test(timePartition));
+  }
+
+  public static class DeviceReadCounter {
+
+    private LongAdder queryNum = new LongAdder();
+    private LongAdder unseqFileNum = new LongAdder();
+    private LongAdder overlappedSeqFileNum = new LongAdder();
+
+    public long getQueryNum() {
+      return queryNum.sum();
+    }
+
+    public long getUnseqFileNum() {
+      return unseqFileNum.sum();
+    }
+
+    public long getOverlappedSeqFileNum() {
+      return overlappedSeqFileNum.sum();
+    }
+
+    long getExtraFileReads() {
+      return unseqFileNum.sum() + overlappedSeqFileNum.sum();
+    }
+  }
+}
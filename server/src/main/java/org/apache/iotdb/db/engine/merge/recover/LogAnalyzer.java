@@ -55,6 +55,8 @@ import org.slf4j.LoggerFactory;
  * server/0seq.tsfile 145462
  * end
  * merge end
+ * A slice of an incremental merge lists its series between "timeseries" and "merge start", and
+ * only these series are merged when it is resumed.
  */
 public class LogAnalyzer {
 
@@ -70,6 +72,7 @@ public class LogAnalyzer {
 
   private List<Path> mergedPaths = new ArrayList<>();
   private List<Path> unmergedPaths;
+  private List<Path> seriesSlice;
   private List<TsFileResource> unmergedFiles;
   private String currLine;
 
@@ -97,10 +100,17 @@ public class LogAnalyzer {
 
         analyzeUnseqFiles(bufferedReader);
 
-        List<String> storageGroupPaths = MManager.getInstance().getPaths(storageGroupName + ".*");
+        analyzeSeriesSlice(bufferedReader);
+
         unmergedPaths = new ArrayList<>();
-        for (String path : storageGroupPaths) {
-          unmergedPaths.add(new Path(path));
+        if (seriesSlice != null) {
+          unmergedPaths.addAll(seriesSlice);
+        } else {
+          List<String> storageGroupPaths = MManager.getInstance()
+              .getPaths(storageGroupName + ".*");
+          for (String path : storageGroupPaths) {
+            unmergedPaths.add(new Path(path));
+          }
         }
 
         analyzeMergedSeries(bufferedReader, unmergedPaths);
@@ -146,7 +156,7 @@ public class LogAnalyzer {
     long startTime = System.currentTimeMillis();
     List<TsFileResource> mergeUnseqFiles = new ArrayList<>();
     while ((currLine = bufferedReader.readLine()) != null) {
-      if (currLine.equals(STR_TIMESERIES)) {
+      if (currLine.equals(STR_TIMESERIES) || currLine.equals(STR_MERGE_START)) {
         break;
       }
       Iterator<TsFileResource> iterator = resource.getUnseqFiles().iterator();
@@ -167,6 +177,19 @@ public class LogAnalyzer {
     resource.setUnseqFiles(mergeUnseqFiles);
   }
 
+  private void analyzeSeriesSlice(BufferedReader bufferedReader) throws IOException {
+    if (!STR_TIMESERIES.equals(currLine)) {
+      return;
+    }
+    seriesSlice = new ArrayList<>();
+    while ((currLine = bufferedReader.readLine()) != null) {
+      if (STR_MERGE_START.equals(currLine)) {
+        break;
+      }
+      seriesSlice.add(new Path(currLine));
+    }
+  }
+
   private void analyzeMergedSeries(BufferedReader bufferedReader, List<Path> unmergedPaths) throws IOException {
     if (!STR_MERGE_START.equals(currLine)) {
       return;
@@ -279,6 +302,14 @@ public class LogAnalyzer {
     this.mergedPaths = mergedPaths;
   }
 
+  /**
+   * @return the series merged by the last merge if it is a slice of an incremental merge, or null
+   * if it merges all series.
+   */
+  public List<Path> getSeriesSlice() {
+    return seriesSlice;
+  }
+
   public Map<File, Long> getFileLastPositions() {
     return fileLastPositions;
   }
@@ -124,6 +124,16 @@ public class MergeLogger {
     logStream.flush();
   }
 
+  public void logSeriesSlice(List<Path> seriesSlice) throws IOException {
+    logStream.write(STR_TIMESERIES);
+    logStream.newLine();
+    for (Path path : seriesSlice) {
+      logStream.write(path.getFullPath());
+      logStream.newLine();
+    }
+    logStream.flush();
+  }
+
   public void logMergeStart() throws IOException {
     logStream.write(STR_MERGE_START);
     logStream.newLine();
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge.selector;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+
+/**
+ * AbstractSeqCompactionSelector slides a window over the seqFiles and selects the first window
+ * of adjacent sealed files that are each smaller than candidateFileSize, are no larger than
+ * targetFileSize altogether and satisfy the strategy of the subclass.
+ */
+public abstract class AbstractSeqCompactionSelector implements ISeqCompactionSelector {
+
+  private long candidateFileSize;
+  private long targetFileSize;
+  int minFileNum;
+
+  AbstractSeqCompactionSelector(long candidateFileSize, long targetFileSize, int minFileNum) {
+    this.candidateFileSize = candidateFileSize;
+    this.targetFileSize = targetFileSize;
+    this.minFileNum = Math.max(minFileNum, 2);
+  }
+
+  @Override
+  public List<TsFileResource> select(List<TsFileResource> seqFiles) throws IOException {
+    List<TsFileResource> window = new ArrayList<>();
+    long windowSize = 0;
+    for (TsFileResource seqFile : seqFiles) {
+      long fileSize = seqFile.getFileSize();
+      if (!seqFile.isClosed() || fileSize >= candidateFileSize) {
+        if (isEnough(window)) {
+          return window;
+        }
+        window.clear();
+        windowSize = 0;
+        continue;
+      }
+      // drop the oldest files until the new file can be compacted with the remaining ones
+      while (!window.isEmpty() && (windowSize + fileSize > targetFileSize
+          || !canCompact(window, seqFile))) {
+        if (isEnough(window)) {
+          return window;
+        }
+        windowSize -= window.remove(0).getFileSize();
+      }
+      window.add(seqFile);
+      windowSize += fileSize;
+      if (isFull(window)) {
+        return window;
+      }
+    }
+    return isEnough(window) ? window : Collections.emptyList();
+  }
+
+  /**
+   * @return whether seqFile can be compacted together with the files in the window
+   */
+  abstract boolean canCompact(List<TsFileResource> window, TsFileResource seqFile)
+      throws IOException;
+
+  boolean isEnough(List<TsFileResource> window) {
+    return window.size() >= minFileNum;
+  }
+
+  /**
+   * @return whether the window should be compacted without trying to add more files
+   */
+  abstract boolean isFull(List<TsFileResource> window);
+}
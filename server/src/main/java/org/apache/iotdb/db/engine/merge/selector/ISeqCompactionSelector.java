@@ -0,0 +1,39 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge.selector;
+
+import java.io.IOException;
+import java.util.List;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+
+/**
+ * ISeqCompactionSelector decides which adjacent seqFiles of a storage group are compacted into
+ * one, so different strategies can trade the write amplification of compactions for the number
+ * of files a query reads.
+ */
+public interface ISeqCompactionSelector {
+
+  /**
+   * @param seqFiles all seqFiles of a storage group in the order of time
+   * @return adjacent sealed seqFiles to be compacted, or an empty list if no files should be
+   * compacted
+   * @throws IOException if the metadata of a seqFile cannot be read
+   */
+  List<TsFileResource> select(List<TsFileResource> seqFiles) throws IOException;
+}
@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge.selector;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.merge.manage.MergeResource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.MergeException;
+import org.apache.iotdb.db.utils.MergeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * IncrementalMergeFileSelector selects the files of an incremental merge, which merges the
+ * selected unseqFiles into their overlapped seqFiles by several tasks, each of which merges a
+ * slice of the series. As the new files of a task only contain the metadata of its slice, the
+ * memory cost of a task is the tight cost of reading one series from each file plus the cost of
+ * writing the metadata of the slice, and the slice is made as large as the budget allows.
+ * UnseqFiles are selected in order as long as one series of them can still be merged under the
+ * budget, so a large backlog of unseqFiles is merged by several incremental merges.
+ */
+public class IncrementalMergeFileSelector implements IMergeFileSelector {
+
+  private static final Logger logger = LoggerFactory.getLogger(IncrementalMergeFileSelector.class);
+
+  private MergeResource resource;
+  private long memoryBudget;
+
+  private List<TsFileResource> selectedSeqFiles = new ArrayList<>();
+  private List<TsFileResource> selectedUnseqFiles = new ArrayList<>();
+  private boolean[] seqSelected;
+
+  private long unseqReadCost;
+  private long maxSeqReadCost;
+  private long seqWriteCostPerSeries;
+  private int sliceSeriesNum;
+
+  public IncrementalMergeFileSelector(MergeResource resource, long memoryBudget) {
+    this.resource = resource;
+    this.memoryBudget = memoryBudget;
+  }
+
+  @Override
+  public List[] select() throws MergeException {
+    long startTime = System.currentTimeMillis();
+    try {
+      logger.info("Selecting incremental merge candidates from {} seqFile, {} unseqFiles",
+          resource.getSeqFiles().size(), resource.getUnseqFiles().size());
+      doSelect();
+      resource.setSeqFiles(selectedSeqFiles);
+      resource.setUnseqFiles(selectedUnseqFiles);
+      resource.removeOutdatedSeqReaders();
+      if (selectedUnseqFiles.isEmpty()) {
+        logger.info("No incremental merge candidates are found");
+        return new List[0];
+      }
+    } catch (IOException e) {
+      throw new MergeException(e);
+    }
+    if (logger.isInfoEnabled()) {
+      logger.info("Selected incremental merge candidates, {} seqFiles, {} unseqFiles, {} series "
+              + "per slice, time consumption {}ms", selectedSeqFiles.size(),
+          selectedUnseqFiles.size(), sliceSeriesNum, System.currentTimeMillis() - startTime);
+    }
+    return new List[]{selectedSeqFiles, selectedUnseqFiles};
+  }
+
+  private void doSelect() throws IOException {
+    seqSelected = new boolean[resource.getSeqFiles().size()];
+    long startTime = System.currentTimeMillis();
+    long timeLimit = IoTDBDescriptor.getInstance().getConfig().getMergeFileSelectionTimeBudget();
+    if (timeLimit < 0) {
+      timeLimit = Long.MAX_VALUE;
+    }
+    for (TsFileResource unseqFile : resource.getUnseqFiles()) {
+      if (System.currentTimeMillis() - startTime >= timeLimit) {
+        break;
+      }
+      List<Integer> overlappedSeqFiles = selectOverlappedSeqFiles(unseqFile);
+      long newUnseqReadCost = unseqReadCost + calculateSingleSeriesCost(unseqFile,
+          unseqFile.getFileSize());
+      long newMaxSeqReadCost = maxSeqReadCost;
+      long newSeqWriteCost = seqWriteCostPerSeries;
+      for (Integer seqIdx : overlappedSeqFiles) {
+        TsFileResource seqFile = resource.getSeqFiles().get(seqIdx);
+        long seriesCost = calculateSingleSeriesCost(seqFile,
+            MergeUtils.getFileMetaSize(seqFile, resource.getFileReader(seqFile)));
+        newMaxSeqReadCost = Math.max(newMaxSeqReadCost, seriesCost);
+        newSeqWriteCost += seriesCost;
+      }
+      if (newUnseqReadCost + newMaxSeqReadCost + newSeqWriteCost > memoryBudget) {
+        // later unseqFiles are left to the next incremental merge so the order is kept
+        break;
+      }
+      selectedUnseqFiles.add(unseqFile);
+      for (Integer seqIdx : overlappedSeqFiles) {
+        seqSelected[seqIdx] = true;
+        selectedSeqFiles.add(resource.getSeqFiles().get(seqIdx));
+      }
+      unseqReadCost = newUnseqReadCost;
+      maxSeqReadCost = newMaxSeqReadCost;
+      seqWriteCostPerSeries = newSeqWriteCost;
+    }
+    selectedSeqFiles.sort((o1, o2) -> Integer.compare(resource.getSeqFiles().indexOf(o1),
+        resource.getSeqFiles().indexOf(o2)));
+
+    if (selectedUnseqFiles.isEmpty()) {
+      return;
+    }
+    long remainingBudget = memoryBudget - unseqReadCost - maxSeqReadCost;
+    sliceSeriesNum = seqWriteCostPerSeries <= 0 ? Integer.MAX_VALUE
+        : (int) Math.min(Integer.MAX_VALUE, remainingBudget / seqWriteCostPerSeries);
+    sliceSeriesNum = Math.max(1, sliceSeriesNum);
+  }
+
+  private List<Integer> selectOverlappedSeqFiles(TsFileResource unseqFile)
+      throws IOException {
+    List<Integer> overlappedSeqFiles = new ArrayList<>();
+    for (Entry<String, Long> deviceStartTimeEntry : unseqFile.getStartTimeMap().entrySet()) {
+      String deviceId = deviceStartTimeEntry.getKey();
+      long unseqStartTime = deviceStartTimeEntry.getValue();
+      Long unseqEndTime = unseqFile.getEndTimeMap().get(deviceId);
+      for (int i = 0; i < resource.getSeqFiles().size(); i++) {
+        TsFileResource seqFile = resource.getSeqFiles().get(i);
+        Long seqEndTime = seqFile.getEndTimeMap().get(deviceId);
+        if (seqEndTime == null || unseqStartTime > seqEndTime) {
+          continue;
+        }
+        if (!seqSelected[i] && !overlappedSeqFiles.contains(i)) {
+          overlappedSeqFiles.add(i);
+        }
+        if (unseqEndTime == null || unseqEndTime <= seqEndTime) {
+          // the device of the unseqFile can not merge with later seqFiles
+          break;
+        }
+      }
+    }
+    return overlappedSeqFiles;
+  }
+
+  // the cost of one series is estimated by the proportion of the series with the most chunks
+  private long calculateSingleSeriesCost(TsFileResource tsFile, long fileCost)
+      throws IOException {
+    long[] chunkNums = MergeUtils.findTotalAndLargestSeriesChunkNum(tsFile,
+        resource.getFileReader(tsFile));
+    long totalChunkNum = chunkNums[0];
+    long maxChunkNum = chunkNums[1];
+    return totalChunkNum <= 0 ? fileCost : fileCost * maxChunkNum / totalChunkNum;
+  }
+
+  /**
+   * @return the number of series each task of the incremental merge should merge
+   */
+  public int getSliceSeriesNum() {
+    return sliceSeriesNum;
+  }
+
+  @Override
+  public int getConcurrentMergeNum() {
+    return 1;
+  }
+}
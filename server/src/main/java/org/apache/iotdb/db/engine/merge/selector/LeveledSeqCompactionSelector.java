@@ -0,0 +1,52 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge.selector;
+
+import java.io.IOException;
+import java.util.List;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+
+/**
+ * LeveledSeqCompactionSelector compacts exactly minFileNum adjacent files of the same level into
+ * a file of the next level, so the data is rewritten once per level and the number of files a
+ * query reads grows with the number of levels.
+ */
+public class LeveledSeqCompactionSelector extends AbstractSeqCompactionSelector {
+
+  public LeveledSeqCompactionSelector(long candidateFileSize, long targetFileSize,
+      int fileNumPerLevel) {
+    super(candidateFileSize, targetFileSize, fileNumPerLevel);
+  }
+
+  @Override
+  boolean canCompact(List<TsFileResource> window, TsFileResource seqFile)
+      throws IOException {
+    return window.get(0).getLevel() == seqFile.getLevel();
+  }
+
+  @Override
+  boolean isEnough(List<TsFileResource> window) {
+    return isFull(window);
+  }
+
+  @Override
+  boolean isFull(List<TsFileResource> window) {
+    return window.size() >= minFileNum;
+  }
+}
@@ -180,7 +180,7 @@ public class MaxFileMergeFileSelector implements IMergeFileSelector {
     }
   }
 
-  private void selectOverlappedSeqFiles(TsFileResource unseqFile) {
+  private void selectOverlappedSeqFiles(TsFileResource unseqFile) throws IOException {
     if (seqSelectedNum == resource.getSeqFiles().size()) {
       return;
     }
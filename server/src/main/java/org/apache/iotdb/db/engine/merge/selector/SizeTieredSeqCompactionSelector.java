@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge.selector;
+
+import java.util.List;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+
+/**
+ * SizeTieredSeqCompactionSelector compacts as many adjacent files of similar sizes as possible,
+ * so a small file is not rewritten together with a much larger one again and again. The sizes of
+ * the files in a compaction differ by no more than TIER_SIZE_RATIO times.
+ */
+public class SizeTieredSeqCompactionSelector extends AbstractSeqCompactionSelector {
+
+  static final long TIER_SIZE_RATIO = 4;
+
+  public SizeTieredSeqCompactionSelector(long candidateFileSize, long targetFileSize,
+      int minFileNum) {
+    super(candidateFileSize, targetFileSize, minFileNum);
+  }
+
+  @Override
+  boolean canCompact(List<TsFileResource> window, TsFileResource seqFile) {
+    long minSize = seqFile.getFileSize();
+    long maxSize = minSize;
+    for (TsFileResource file : window) {
+      minSize = Math.min(minSize, file.getFileSize());
+      maxSize = Math.max(maxSize, file.getFileSize());
+    }
+    return maxSize <= minSize * TIER_SIZE_RATIO;
+  }
+
+  @Override
+  boolean isFull(List<TsFileResource> window) {
+    return false;
+  }
+}
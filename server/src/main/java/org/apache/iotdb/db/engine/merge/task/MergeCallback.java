@@ -22,6 +22,7 @@ package org.apache.iotdb.db.engine.merge.task;
 import java.io.File;
 import java.util.List;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.tsfile.read.common.Path;
 
 @FunctionalInterface
 public interface MergeCallback {
@@ -33,8 +34,13 @@ public interface MergeCallback {
    *    2. remove the unseqFiles since they have been merged into new files.
    *    3. remove the merge log file
    *    4. exit merging status
+   * If only a slice of the series is merged, only the modifications of these series are replaced
+   * in step 1, and in step 2 the data of these series in the unseqFiles is marked as merged
+   * instead, until all series of the unseqFiles are merged.
    * @param seqFiles
    * @param unseqFiles
+   * @param seriesSlice the merged series, or null if all series are merged
    */
-  void call(List<TsFileResource> seqFiles, List<TsFileResource> unseqFiles, File logFile);
+  void call(List<TsFileResource> seqFiles, List<TsFileResource> unseqFiles,
+      List<Path> seriesSlice, File logFile);
 }
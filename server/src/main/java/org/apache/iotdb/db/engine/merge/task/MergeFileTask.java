@@ -20,22 +20,30 @@
 package org.apache.iotdb.db.engine.merge.task;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
 import org.apache.iotdb.db.engine.cache.TsFileMetaDataCache;
 import org.apache.iotdb.db.engine.merge.manage.MergeContext;
+import org.apache.iotdb.db.engine.merge.manage.MergeManager;
 import org.apache.iotdb.db.engine.merge.manage.MergeResource;
+import org.apache.iotdb.db.engine.merge.manage.RateLimitedTsFileSequenceReader;
 import org.apache.iotdb.db.engine.merge.recover.MergeLogger;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.utils.MergeUtils;
 import org.apache.iotdb.tsfile.exception.write.TsFileNotCompleteException;
 import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.write.schema.Schema;
 import org.apache.iotdb.tsfile.write.writer.ForceAppendTsFileWriter;
 import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
@@ -57,14 +65,20 @@ class MergeFileTask {
   private MergeLogger mergeLogger;
   private MergeResource resource;
   private List<TsFileResource> unmergedFiles;
+  /**
+   * whether only a slice of the series is merged, so the chunks of the other series should be
+   * kept when the unmerged chunks are moved to the new files.
+   */
+  private boolean sliceMerged;
 
   MergeFileTask(String taskName, MergeContext context, MergeLogger mergeLogger,
-      MergeResource resource, List<TsFileResource> unmergedSeqFiles) {
+      MergeResource resource, List<TsFileResource> unmergedSeqFiles, boolean sliceMerged) {
     this.taskName = taskName;
     this.context = context;
     this.mergeLogger = mergeLogger;
     this.resource = resource;
     this.unmergedFiles = unmergedSeqFiles;
+    this.sliceMerged = sliceMerged;
   }
 
   void mergeFiles() throws IOException {
@@ -78,6 +92,12 @@ class MergeFileTask {
     for (TsFileResource seqFile : unmergedFiles) {
       int mergedChunkNum = context.getMergedChunkCnt().getOrDefault(seqFile, 0);
       int unmergedChunkNum = context.getUnmergedChunkCnt().getOrDefault(seqFile, 0);
+      if (sliceMerged) {
+        // the chunks of the series out of the slice are also moved if the new file is used
+        long totalChunkNum = MergeUtils.findTotalAndLargestSeriesChunkNum(seqFile,
+            resource.getFileReader(seqFile))[0];
+        unmergedChunkNum += (int) Math.max(0, totalChunkNum - mergedChunkNum - unmergedChunkNum);
+      }
       if (mergedChunkNum >= unmergedChunkNum) {
         // move the unmerged data to the new file
         if (logger.isInfoEnabled()) {
@@ -131,8 +151,8 @@ class MergeFileTask {
 
       RestorableTsFileIOWriter newFileWriter = resource.getMergeFileWriter(seqFile);
       newFileWriter.close();
-      try (TsFileSequenceReader newFileReader =
-          new TsFileSequenceReader(newFileWriter.getFile().getPath())) {
+      try (TsFileSequenceReader newFileReader = new RateLimitedTsFileSequenceReader(
+          newFileWriter.getFile().getPath(), true, false)) {
         List<ChunkGroupMetaData> chunkGroupMetadataList = newFileWriter.getChunkGroupMetaDatas();
         if (logger.isDebugEnabled()) {
           logger.debug("{} find {} merged chunk groups", taskName, chunkGroupMetadataList.size());
@@ -141,8 +161,14 @@ class MergeFileTask {
           writeMergedChunkGroup(chunkGroupMetaData, newFileReader, oldFileWriter);
         }
       }
-      oldFileWriter.endFile(new Schema(newFileWriter.getKnownSchema()));
+      // the unmerged series of a slice merge stay in the old file and keep their schemas
+      Map<String, MeasurementSchema> schemas = new HashMap<>(oldFileWriter.getKnownSchema());
+      schemas.putAll(newFileWriter.getKnownSchema());
+      oldFileWriter.endFile(new Schema(schemas));
+      // the merged chunks are written to the temp file and then appended to the old file
+      MergeManager.getINSTANCE().recordMergeWrittenBytes(2 * newFileWriter.getFile().length());
 
+      updateColdEncoded(seqFile);
       seqFile.serialize();
       mergeLogger.logFileMergeEnd();
       logger.debug("{} moved merged chunks of {} to the old file", taskName, seqFile);
@@ -153,6 +179,16 @@ class MergeFileTask {
     }
   }
 
+  /**
+   * after all series of a cold file are merged, its chunks are either rewritten with the
+   * ColdDataPolicy or already in the cold format, so it needs no more cold compaction.
+   */
+  private void updateColdEncoded(TsFileResource seqFile) throws IOException {
+    if (!sliceMerged && resource.isColdFile(seqFile)) {
+      seqFile.setColdEncoded(true);
+    }
+  }
+
   private void writeMergedChunkGroup(ChunkGroupMetaData chunkGroupMetaData,
       TsFileSequenceReader reader, TsFileIOWriter fileWriter)
       throws IOException {
@@ -160,6 +196,7 @@ class MergeFileTask {
     long version = chunkGroupMetaData.getVersion();
     for (ChunkMetaData chunkMetaData : chunkGroupMetaData.getChunkMetaDataList()) {
       Chunk chunk = reader.readMemChunk(chunkMetaData);
+      MergeManager.getINSTANCE().getRateLimiter().acquire(chunk.getData().remaining());
       fileWriter.writeChunk(chunk, chunkMetaData);
       context.incTotalPointWritten(chunkMetaData.getNumOfPoints());
     }
@@ -196,9 +233,14 @@ class MergeFileTask {
         fileWriter.endChunkGroup(maxVersion + 1);
       }
     }
+    if (sliceMerged) {
+      moveOtherSeriesToNew(seqFile, fileUnmergedChunkStartTimes, fileWriter);
+    }
 
     fileWriter.endFile(new Schema(fileWriter.getKnownSchema()));
+    MergeManager.getINSTANCE().recordMergeWrittenBytes(fileWriter.getFile().length());
 
+    updateColdEncoded(seqFile);
     seqFile.serialize();
     mergeLogger.logFileMergeEnd();
     logger.debug("{} moved unmerged chunks of {} to the new file", taskName, seqFile);
@@ -215,6 +257,46 @@ class MergeFileTask {
     }
   }
 
+  /**
+   * The modifications of the series out of the slice are kept for the new file, so their chunks
+   * are moved with the versions they have in the seqFile, in one chunk group for each device and
+   * version, or the deletions would no longer apply to them.
+   */
+  private void moveOtherSeriesToNew(TsFileResource seqFile,
+      Map<Path, List<Long>> fileUnmergedChunkStartTimes, RestorableTsFileIOWriter fileWriter)
+      throws IOException {
+    TsFileSequenceReader reader = resource.getFileReader(seqFile);
+    Map<String, MeasurementSchema> fileSchema = reader.readFileMetadata().getMeasurementSchema();
+    // device -> version -> chunks
+    Map<String, Map<Long, List<ChunkMetaData>>> deviceChunks = new LinkedHashMap<>();
+    for (Path path : MergeUtils.collectFileSeries(reader)) {
+      if (fileUnmergedChunkStartTimes.containsKey(path)) {
+        continue;
+      }
+      List<ChunkMetaData> chunkMetaDataList = reader.getChunkMetadataList(path);
+      if (chunkMetaDataList.isEmpty()) {
+        continue;
+      }
+      fileWriter.addSchema(fileSchema.get(path.getMeasurement()));
+      Map<Long, List<ChunkMetaData>> versionChunks = deviceChunks
+          .computeIfAbsent(path.getDevice(), d -> new TreeMap<>());
+      for (ChunkMetaData metaData : chunkMetaDataList) {
+        versionChunks.computeIfAbsent(metaData.getVersion(), v -> new ArrayList<>())
+            .add(metaData);
+      }
+    }
+    for (Entry<String, Map<Long, List<ChunkMetaData>>> deviceEntry : deviceChunks.entrySet()) {
+      for (Entry<Long, List<ChunkMetaData>> versionEntry : deviceEntry.getValue().entrySet()) {
+        fileWriter.startChunkGroup(deviceEntry.getKey());
+        for (ChunkMetaData metaData : versionEntry.getValue()) {
+          Chunk chunk = reader.readMemChunk(metaData);
+          fileWriter.writeChunk(chunk, metaData);
+        }
+        fileWriter.endChunkGroup(versionEntry.getKey());
+      }
+    }
+  }
+
   private long writeUnmergedChunks(List<Long> chunkStartTimes,
       List<ChunkMetaData> chunkMetaDataList, TsFileSequenceReader reader,
       RestorableTsFileIOWriter fileWriter) throws IOException {
@@ -44,6 +44,8 @@ import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.utils.MergeUtils;
 import org.apache.iotdb.db.utils.MergeUtils.MetaListEntry;
 import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.exception.write.PageException;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.BatchData;
@@ -196,7 +198,7 @@ class MergeMultiChunkTask {
     if (dataWritten) {
       mergeFileWriter.endChunkGroup(0);
       mergeLogger.logFilePosition(mergeFileWriter.getFile());
-      currTsFile.getStartTimeMap().put(deviceId, currDeviceMinTime);
+      currTsFile.updateStartTime(deviceId, currDeviceMinTime);
     }
   }
 
@@ -276,7 +278,8 @@ class MergeMultiChunkTask {
       boolean isLastChunk = !metaListEntry.hasNext();
       Path path = currMergingPaths.get(pathIdx);
       MeasurementSchema measurementSchema = resource.getSchema(path.getMeasurement());
-      IChunkWriter chunkWriter = resource.getChunkWriter(measurementSchema);
+      boolean coldFile = resource.isColdFile(currFile);
+      IChunkWriter chunkWriter = resource.getChunkWriter(measurementSchema, coldFile);
 
       boolean chunkOverflowed = MergeUtils.isChunkOverflowed(currTimeValuePairs[pathIdx], currMeta);
       boolean chunkTooSmall = MergeUtils
@@ -286,7 +289,10 @@ class MergeMultiChunkTask {
       synchronized (reader) {
         chunk = reader.readMemChunk(currMeta);
       }
-      ptWrittens[pathIdx] = mergeChunkV2(currMeta, chunkOverflowed, chunkTooSmall, chunk,
+      // a chunk of a cold file that is not yet in the cold format is rewritten like a small one
+      boolean chunkReencoded = coldFile && !MergeUtils.isPageCopyable(chunk, chunkWriter);
+      ptWrittens[pathIdx] = mergeChunkV2(currMeta, chunkOverflowed,
+              chunkTooSmall || chunkReencoded, chunk,
               ptWrittens[pathIdx], pathIdx, mergeFileWriter, unseqReaders[pathIdx], chunkWriter,
               currFile);
 
@@ -398,11 +404,34 @@ class MergeMultiChunkTask {
     return ptWritten;
   }
 
+  /**
+   * merge an overflowed sequence chunk with the unseq data page by page. A page that no unseq
+   * point falls in and no deletion touches is copied to the new chunk as it is, only the pages
+   * overlapped by unseq points are uncompressed, decoded and rewritten.
+   */
   private int writeChunkWithUnseq(Chunk chunk, IChunkWriter chunkWriter, IPointReader unseqReader,
       long chunkLimitTime, int pathIdx) throws IOException {
     int cnt = 0;
+    boolean pageCopyable = MergeUtils.isPageCopyable(chunk, chunkWriter);
     ChunkReader chunkReader = new ChunkReaderWithoutFilter(chunk);
     while (chunkReader.hasNextBatch()) {
+      PageHeader pageHeader = chunkReader.nextPageHeader();
+      if (pageCopyable && pageHeader.getMinTimestamp() > chunk.getDeletedAt()) {
+        // the unseq points before the page are written ahead of it
+        cnt += writeRemainingUnseq(chunkWriter, unseqReader, pageHeader.getMinTimestamp(),
+            pathIdx);
+        if (currTimeValuePairs[pathIdx] == null
+            || currTimeValuePairs[pathIdx].getTimestamp() > pageHeader.getMaxTimestamp()) {
+          try {
+            chunkWriter.writePage(chunkReader.readPageDataWithoutUncompressing(), pageHeader);
+          } catch (PageException e) {
+            throw new IOException(e);
+          }
+          cnt += pageHeader.getNumOfValues();
+          mergeContext.incTotalPageCopied();
+          continue;
+        }
+      }
       BatchData batchData = chunkReader.nextBatch();
       cnt += mergeWriteBatch(batchData, chunkWriter, unseqReader, pathIdx);
     }
@@ -59,6 +59,11 @@ public class MergeTask implements Callable<Void> {
   int concurrentMergeSeriesNum;
   String taskName;
   boolean fullMerge;
+  /**
+   * the series merged by this task if it is a slice of an incremental merge, null if all series
+   * of the storage group are merged.
+   */
+  List<Path> seriesSlice;
 
   MergeTask(List<TsFileResource> seqFiles,
       List<TsFileResource> unseqFiles, String storageGroupSysDir, MergeCallback callback,
@@ -92,7 +97,8 @@ public class MergeTask implements Callable<Void> {
       cleanUp(false);
       // call the callback to make sure the StorageGroup exit merging status, but passing 2
       // empty file lists to avoid files being deleted.
-      callback.call(Collections.emptyList(), Collections.emptyList(), new File(storageGroupSysDir, MergeLogger.MERGE_LOG_NAME));
+      callback.call(Collections.emptyList(), Collections.emptyList(), seriesSlice,
+          new File(storageGroupSysDir, MergeLogger.MERGE_LOG_NAME));
       throw e;
     }
     return null;
@@ -114,10 +120,15 @@ public class MergeTask implements Callable<Void> {
         .getSchemaForStorageGroup(storageGroupName);
     resource.addMeasurements(measurementSchemas);
 
-    List<String> storageGroupPaths = MManager.getInstance().getPaths(storageGroupName + ".*");
     List<Path> unmergedSeries = new ArrayList<>();
-    for (String path : storageGroupPaths) {
-      unmergedSeries.add(new Path(path));
+    if (seriesSlice != null) {
+      mergeLogger.logSeriesSlice(seriesSlice);
+      unmergedSeries.addAll(seriesSlice);
+    } else {
+      List<String> storageGroupPaths = MManager.getInstance().getPaths(storageGroupName + ".*");
+      for (String path : storageGroupPaths) {
+        unmergedSeries.add(new Path(path));
+      }
     }
 
     mergeLogger.logMergeStart();
@@ -127,7 +138,7 @@ public class MergeTask implements Callable<Void> {
     mergeChunkTask.mergeSeries();
 
     MergeFileTask mergeFileTask = new MergeFileTask(taskName, mergeContext, mergeLogger, resource,
-        resource.getSeqFiles());
+        resource.getSeqFiles(), seriesSlice != null);
     mergeFileTask.mergeFiles();
 
     cleanUp(true);
@@ -140,11 +151,20 @@ public class MergeTask implements Callable<Void> {
           (resource.getSeqFiles().size() + resource.getUnseqFiles().size()) / elapsedTime;
       double ptRate = mergeContext.getTotalPointWritten() / elapsedTime;
       logger.info("{} ends after {}s, byteRate: {}MB/s, seriesRate {}/s, chunkRate: {}/s, "
-              + "fileRate: {}/s, ptRate: {}/s",
-          taskName, elapsedTime, byteRate, seriesRate, chunkRate, fileRate, ptRate);
+              + "fileRate: {}/s, ptRate: {}/s, pagesCopied: {}",
+          taskName, elapsedTime, byteRate, seriesRate, chunkRate, fileRate, ptRate,
+          mergeContext.getTotalPageCopied());
     }
   }
 
+  /**
+   * Only merge the given series instead of all series of the storage group, so the unseqFiles
+   * are merged incrementally by several tasks.
+   */
+  public void setSeriesSlice(List<Path> seriesSlice) {
+    this.seriesSlice = seriesSlice;
+  }
+
   void cleanUp(boolean executeCallback) throws IOException {
     logger.info("{} is cleaning up", taskName);
 
@@ -164,7 +184,7 @@ public class MergeTask implements Callable<Void> {
     if (executeCallback) {
       // make sure merge.log is not deleted until unseqFiles are cleared so that when system
       // reboots, the undeleted files can be deleted again
-      callback.call(resource.getSeqFiles(), resource.getUnseqFiles(), logFile);
+      callback.call(resource.getSeqFiles(), resource.getUnseqFiles(), seriesSlice, logFile);
     } else {
       logFile.delete();
     }
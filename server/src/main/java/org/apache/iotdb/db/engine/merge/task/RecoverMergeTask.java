@@ -68,6 +68,7 @@ public class RecoverMergeTask extends MergeTask {
 
     analyzer = new LogAnalyzer(resource, taskName, logFile, storageGroupName);
     Status status = analyzer.analyze();
+    seriesSlice = analyzer.getSeriesSlice();
     if (logger.isInfoEnabled()) {
       logger.info("{} merge recovery status determined: {} after {}ms", taskName, status,
           (System.currentTimeMillis() - startTime));
@@ -109,7 +110,7 @@ public class RecoverMergeTask extends MergeTask {
       mergeChunkTask.mergeSeries();
 
       MergeFileTask mergeFileTask = new MergeFileTask(taskName, mergeContext, mergeLogger, resource,
-          resource.getSeqFiles());
+          resource.getSeqFiles(), seriesSlice != null);
       mergeFileTask.mergeFiles();
     }
     cleanUp(continueMerge);
@@ -119,7 +120,7 @@ public class RecoverMergeTask extends MergeTask {
     if (continueMerge) {
       resumeMergeProgress();
       MergeFileTask mergeFileTask = new MergeFileTask(taskName, mergeContext, mergeLogger, resource,
-          analyzer.getUnmergedFiles());
+          analyzer.getUnmergedFiles(), seriesSlice != null);
       analyzer.setUnmergedFiles(null);
       mergeFileTask.mergeFiles();
     } else {
@@ -0,0 +1,41 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.merge.task;
+
+import java.io.File;
+import java.util.List;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+
+@FunctionalInterface
+public interface SeqCompactionCallback {
+
+  /**
+   * On calling this method, the callee should:
+   *    1. replace the first seqFile with the compacted file and remove the other seqFiles.
+   *    2. replace the modification file of the compacted file with merging modifications since the
+   *    old modifications have been applied to it.
+   *    3. remove the compaction log file
+   *    4. exit merging status
+   * @param seqFiles the compacted seqFiles, empty if the compaction fails
+   * @param compactedFile the file that contains the data of all seqFiles
+   * @param logFile
+   */
+  void call(List<TsFileResource> seqFiles, File compactedFile, File logFile);
+}
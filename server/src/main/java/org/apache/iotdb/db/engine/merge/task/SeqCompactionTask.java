@@ -0,0 +1,399 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.merge.task;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.conf.adapter.CompressionRatio;
+import org.apache.iotdb.db.engine.merge.manage.ColdDataPolicy;
+import org.apache.iotdb.db.engine.merge.manage.MergeManager;
+import org.apache.iotdb.db.engine.merge.manage.MergeResource;
+import org.apache.iotdb.db.engine.merge.manage.RateLimitedTsFileIOWriter;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.modification.ModificationFile;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.MetadataErrorException;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.utils.MergeUtils;
+import org.apache.iotdb.db.utils.QueryUtils;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadataIndex;
+import org.apache.iotdb.tsfile.fileSystem.TSFileFactory;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.chunk.IChunkWriter;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.schema.Schema;
+import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SeqCompactionTask rewrites adjacent small seqFiles into one file, which takes the place of the
+ * first seqFile. Unlike a MergeTask, no unseqFile is involved, so the chunks of a timeseries are
+ * just appended in the order of the seqFiles: a chunk that is large enough and not modified is
+ * copied as it is, and the others are decoded and merged with their neighbours until the merged
+ * chunk reaches chunk_merge_point_threshold. When all seqFiles are cold by the ColdDataPolicy of
+ * the storage group, their chunks are rewritten with its compressor and page size instead.
+ *
+ * The progress is recorded in "seq_compaction.log": the paths of the seqFiles are written before
+ * the compaction starts, and the level and the cold flag of the compacted file followed by "ready"
+ * are appended when it is complete, so after a crash recoverCompaction() either drops the
+ * compacted file or finishes replacing the seqFiles.
+ */
+public class SeqCompactionTask implements Callable<Void> {
+
+  public static final String COMPACTION_SUFFIX = ".compaction";
+  public static final String COMPACTION_LOG_NAME = "seq_compaction.log";
+  static final String STR_READY = "ready";
+  static final String STR_LEVEL = "level ";
+  static final String STR_COLD_ENCODED = "coldEncoded";
+
+  private static final Logger logger = LoggerFactory.getLogger(SeqCompactionTask.class);
+
+  private MergeResource resource;
+  private String storageGroupSysDir;
+  private String storageGroupName;
+  private SeqCompactionCallback callback;
+  private String taskName;
+
+  private int minChunkPointNum = IoTDBDescriptor.getInstance().getConfig()
+      .getChunkMergePointThreshold();
+  private RestorableTsFileIOWriter compactionFileWriter;
+  private long totalChunkCopied;
+  private long totalChunkRewritten;
+  /**
+   * whether all seqFiles are cold, so their chunks are rewritten with the ColdDataPolicy.
+   */
+  private boolean coldCompaction;
+
+  public SeqCompactionTask(List<TsFileResource> seqFiles, String storageGroupSysDir,
+      SeqCompactionCallback callback, String taskName, String storageGroupName) {
+    this.resource = new MergeResource(seqFiles, Collections.emptyList());
+    this.storageGroupSysDir = storageGroupSysDir;
+    this.callback = callback;
+    this.taskName = taskName;
+    this.storageGroupName = storageGroupName;
+  }
+
+  /**
+   * @param ttlLowerBound the data before this time is expired and is not written into the
+   * compacted file.
+   */
+  public void setTTLLowerBound(long ttlLowerBound) {
+    resource.setTTLLowerBound(ttlLowerBound);
+  }
+
+  public void setColdDataPolicy(ColdDataPolicy coldDataPolicy) {
+    resource.setColdDataPolicy(coldDataPolicy);
+  }
+
+  @Override
+  public Void call() throws Exception {
+    try {
+      doCompaction();
+    } catch (Exception e) {
+      logger.error("Runtime exception in compaction {}", taskName, e);
+      cleanUp();
+      // call the callback to make sure the StorageGroup exit merging status, but passing an
+      // empty file list to avoid files being replaced
+      callback.call(Collections.emptyList(), null, getLogFile(storageGroupSysDir));
+      throw e;
+    }
+    return null;
+  }
+
+  public static File getCompactionFile(TsFileResource seqFile) {
+    return TSFileFactory.INSTANCE.getFile(seqFile.getFile().getPath() + COMPACTION_SUFFIX);
+  }
+
+  private static File getLogFile(String storageGroupSysDir) {
+    return new File(storageGroupSysDir, COMPACTION_LOG_NAME);
+  }
+
+  private void doCompaction() throws IOException, MetadataErrorException {
+    List<TsFileResource> seqFiles = resource.getSeqFiles();
+    if (logger.isInfoEnabled()) {
+      logger.info("{} starts to compact {} seqFiles", taskName, seqFiles.size());
+    }
+    long startTime = System.currentTimeMillis();
+    long totalFileSize = MergeUtils.collectFileSizes(seqFiles, Collections.emptyList());
+    coldCompaction = true;
+    for (TsFileResource seqFile : seqFiles) {
+      coldCompaction = coldCompaction && resource.isColdFile(seqFile);
+    }
+
+    File logFile = getLogFile(storageGroupSysDir);
+    try (BufferedWriter logStream = new BufferedWriter(new FileWriter(logFile))) {
+      for (TsFileResource seqFile : seqFiles) {
+        logStream.write(seqFile.getFile().getAbsolutePath());
+        logStream.newLine();
+      }
+    }
+
+    resource.addMeasurements(MManager.getInstance().getSchemaForStorageGroup(storageGroupName));
+    List<Path> paths = new ArrayList<>();
+    for (String path : MManager.getInstance().getPaths(storageGroupName + ".*")) {
+      paths.add(new Path(path));
+    }
+
+    File compactionFile = getCompactionFile(seqFiles.get(0));
+    compactionFileWriter = new RateLimitedTsFileIOWriter(compactionFile);
+    for (List<Path> devicePaths : MergeUtils.splitPathsByDevice(paths)) {
+      compactDevice(devicePaths);
+    }
+    compactionFileWriter.endFile(new Schema(compactionFileWriter.getKnownSchema()));
+    MergeManager.getINSTANCE().recordMergeWrittenBytes(compactionFile.length());
+    if (coldCompaction) {
+      CompressionRatio.getColdDataInstance()
+          .updateRatio((double) totalFileSize / compactionFile.length());
+    }
+
+    int maxLevel = 0;
+    for (TsFileResource seqFile : seqFiles) {
+      maxLevel = Math.max(maxLevel, seqFile.getLevel());
+    }
+    // re-encoding a single file does not make it a higher level
+    int targetLevel = seqFiles.size() == 1 ? maxLevel : maxLevel + 1;
+    try (BufferedWriter logStream = new BufferedWriter(new FileWriter(logFile, true))) {
+      logStream.write(STR_LEVEL + targetLevel);
+      logStream.newLine();
+      if (coldCompaction) {
+        logStream.write(STR_COLD_ENCODED);
+        logStream.newLine();
+      }
+      logStream.write(STR_READY);
+      logStream.newLine();
+    }
+    resource.clear();
+    // the compacted file takes the place of the first seqFile
+    seqFiles.get(0).setLevel(targetLevel);
+    if (coldCompaction) {
+      seqFiles.get(0).setColdEncoded(true);
+    }
+    callback.call(seqFiles, compactionFile, logFile);
+
+    if (logger.isInfoEnabled()) {
+      double elapsedTime = (double) (System.currentTimeMillis() - startTime) / 1000.0;
+      double byteRate = totalFileSize / elapsedTime / 1024 / 1024;
+      logger.info("{} ends after {}s, byteRate: {}MB/s, {} chunks copied, {} chunks rewritten",
+          taskName, elapsedTime, byteRate, totalChunkCopied, totalChunkRewritten);
+    }
+  }
+
+  private void compactDevice(List<Path> devicePaths) throws IOException {
+    String deviceId = devicePaths.get(0).getDevice();
+    boolean chunkGroupStarted = false;
+    long maxVersion = 0;
+    for (Path path : devicePaths) {
+      List<TsFileResource> files = new ArrayList<>();
+      List<List<ChunkMetaData>> chunkMetas = new ArrayList<>();
+      for (TsFileResource seqFile : resource.getSeqFiles()) {
+        if (!seqFile.containsDevice(deviceId)) {
+          continue;
+        }
+        List<ChunkMetaData> metaDataList = resource.queryChunkMetadata(path, seqFile);
+        List<Modification> modifications = resource.getModifications(seqFile, path);
+        QueryUtils.modifyChunkMetaData(metaDataList, modifications);
+        if (!metaDataList.isEmpty()) {
+          files.add(seqFile);
+          chunkMetas.add(metaDataList);
+        }
+      }
+      if (files.isEmpty()) {
+        continue;
+      }
+
+      if (!chunkGroupStarted) {
+        compactionFileWriter.startChunkGroup(deviceId);
+        chunkGroupStarted = true;
+      }
+      MeasurementSchema schema = resource.getSchema(path.getMeasurement());
+      compactionFileWriter.addSchema(schema);
+      IChunkWriter chunkWriter = resource.getChunkWriter(schema, coldCompaction);
+      int ptWritten = 0;
+      for (int i = 0; i < files.size(); i++) {
+        TsFileSequenceReader reader = resource.getFileReader(files.get(i));
+        List<ChunkMetaData> metaDataList = chunkMetas.get(i);
+        for (int j = 0; j < metaDataList.size(); j++) {
+          ChunkMetaData metaData = metaDataList.get(j);
+          maxVersion = Math.max(maxVersion, metaData.getVersion());
+          boolean isLastChunk = i == files.size() - 1 && j == metaDataList.size() - 1;
+          ptWritten = compactChunk(reader, metaData, chunkWriter, ptWritten, isLastChunk);
+        }
+      }
+      // the last merged chunk may still be smaller than the threshold, flush it anyway
+      if (ptWritten > 0) {
+        chunkWriter.writeToFileWriter(compactionFileWriter);
+      }
+    }
+    if (chunkGroupStarted) {
+      // all data of the device is older than the version of its newest chunk, so deletions made
+      // after the compaction still apply to it
+      compactionFileWriter.endChunkGroup(maxVersion);
+    }
+  }
+
+  /**
+   * copy a chunk into the compacted file as it is if it is large enough, not modified, no decoded
+   * points are waiting before it and it need not be re-encoded, otherwise decode it into the
+   * chunkWriter.
+   * @return the number of points in the chunkWriter that are not flushed
+   */
+  private int compactChunk(TsFileSequenceReader reader, ChunkMetaData metaData,
+      IChunkWriter chunkWriter, int lastPtWritten, boolean isLastChunk) throws IOException {
+    Chunk chunk = reader.readMemChunk(metaData);
+    boolean chunkModified = metaData.getDeletedAt() > Long.MIN_VALUE;
+    boolean chunkTooSmall = MergeUtils
+        .isChunkTooSmall(lastPtWritten, metaData, isLastChunk, minChunkPointNum);
+    // the chunks of cold files that are not in the cold format yet are rewritten
+    boolean chunkReencoded = coldCompaction && !MergeUtils.isPageCopyable(chunk, chunkWriter);
+    if (!chunkTooSmall && !chunkModified && !chunkReencoded) {
+      compactionFileWriter.writeChunk(chunk, metaData);
+      totalChunkCopied++;
+      return 0;
+    }
+
+    int ptWritten = lastPtWritten + MergeUtils.writeChunkWithoutUnseq(chunk, chunkWriter);
+    totalChunkRewritten++;
+    if (minChunkPointNum > 0 && ptWritten >= minChunkPointNum
+        || ptWritten > 0 && minChunkPointNum < 0) {
+      // the new chunk's size is large enough and it should be flushed
+      chunkWriter.writeToFileWriter(compactionFileWriter);
+      ptWritten = 0;
+    }
+    return ptWritten;
+  }
+
+  private void cleanUp() throws IOException {
+    logger.info("{} is cleaning up", taskName);
+    resource.clear();
+    if (compactionFileWriter != null) {
+      compactionFileWriter.close();
+      compactionFileWriter.getFile().delete();
+    }
+    getLogFile(storageGroupSysDir).delete();
+  }
+
+  /**
+   * Finish or roll back the compaction that is interrupted by a crash according to its log. It
+   * must be called before the seqFiles of the storage group are loaded.
+   * @return true if an interrupted compaction is found
+   */
+  public static boolean recoverCompaction(String storageGroupSysDir) throws IOException {
+    File logFile = getLogFile(storageGroupSysDir);
+    if (!logFile.exists()) {
+      return false;
+    }
+    List<File> seqFiles = new ArrayList<>();
+    boolean ready = false;
+    int targetLevel = 0;
+    boolean coldEncoded = false;
+    try (BufferedReader logReader = new BufferedReader(new FileReader(logFile))) {
+      String line;
+      while ((line = logReader.readLine()) != null) {
+        if (STR_READY.equals(line)) {
+          ready = true;
+        } else if (line.startsWith(STR_LEVEL)) {
+          targetLevel = Integer.parseInt(line.substring(STR_LEVEL.length()));
+        } else if (STR_COLD_ENCODED.equals(line)) {
+          coldEncoded = true;
+        } else {
+          seqFiles.add(TSFileFactory.INSTANCE.getFile(line));
+        }
+      }
+    }
+    if (seqFiles.isEmpty()) {
+      logFile.delete();
+      return true;
+    }
+
+    File targetFile = seqFiles.get(0);
+    File compactionFile = TSFileFactory.INSTANCE.getFile(targetFile.getPath() + COMPACTION_SUFFIX);
+    if (!ready) {
+      logger.info("{} compaction of {} is not completed, roll it back", storageGroupSysDir,
+          seqFiles);
+      compactionFile.delete();
+      logFile.delete();
+      return true;
+    }
+
+    logger.info("{} compaction of {} is completed, continue replacing the files",
+        storageGroupSysDir, seqFiles);
+    if (compactionFile.exists()) {
+      targetFile.delete();
+      FileUtils.moveFile(compactionFile, targetFile);
+    }
+    // the resource of the target may be stale, rebuild it from the compacted file
+    recoverTargetResource(targetFile, targetLevel, coldEncoded);
+    // deletions are only applied to data older than them, so the modifications of all seqFiles
+    // can be kept in the compacted file to cover the ones made during the compaction
+    ModificationFile targetModFile = new ModificationFile(
+        targetFile.getPath() + ModificationFile.FILE_SUFFIX);
+    try {
+      for (File seqFile : seqFiles.subList(1, seqFiles.size())) {
+        File modFile = TSFileFactory.INSTANCE.getFile(seqFile.getPath() + ModificationFile.FILE_SUFFIX);
+        if (modFile.exists()) {
+          ModificationFile seqModFile = new ModificationFile(modFile.getPath());
+          for (Modification modification : seqModFile.getModifications()) {
+            targetModFile.write(modification);
+          }
+          seqModFile.close();
+        }
+      }
+    } finally {
+      targetModFile.close();
+    }
+    for (File seqFile : seqFiles.subList(1, seqFiles.size())) {
+      seqFile.delete();
+      TSFileFactory.INSTANCE.getFile(seqFile.getPath() + TsFileResource.RESOURCE_SUFFIX).delete();
+      TSFileFactory.INSTANCE.getFile(seqFile.getPath() + ModificationFile.FILE_SUFFIX).delete();
+    }
+    logFile.delete();
+    return true;
+  }
+
+  private static void recoverTargetResource(File targetFile, int level, boolean coldEncoded)
+      throws IOException {
+    TsFileResource targetResource = new TsFileResource(targetFile);
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(targetFile.getPath())) {
+      for (Entry<String, TsDeviceMetadataIndex> entry : reader.readFileMetadata().getDeviceMap()
+          .entrySet()) {
+        targetResource.updateStartTime(entry.getKey(), entry.getValue().getStartTime());
+        targetResource.updateEndTime(entry.getKey(), entry.getValue().getEndTime());
+      }
+    }
+    targetResource.setLevel(level);
+    targetResource.setColdEncoded(coldEncoded);
+    targetResource.serialize();
+  }
+}
@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.modification;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DeletionIndex indexes the Deletions of a ModificationFile by timeseries. A Deletion removes the
+ * data not after its timestamp from the chunks older than its version, so only the max timestamp
+ * of the Deletions newer than a chunk matters to the chunk. The Deletions of a timeseries are
+ * merged into a SeriesDeletions, where the ones that are not later than a newer one are dropped,
+ * so the time before which a chunk is deleted is found by a binary search on its version.
+ */
+public class DeletionIndex {
+
+  /**
+   * key: the full path of a timeseries.
+   */
+  private Map<String, SeriesDeletions> seriesDeletionsMap = new HashMap<>();
+
+  public DeletionIndex() {
+  }
+
+  public DeletionIndex(Collection<Modification> modifications) {
+    for (Modification modification : modifications) {
+      add(modification);
+    }
+  }
+
+  public void add(Modification modification) {
+    if (modification instanceof Deletion) {
+      seriesDeletionsMap.computeIfAbsent(modification.getPathString(), p -> new SeriesDeletions())
+          .add(modification.getVersionNum(), ((Deletion) modification).getTimestamp());
+    }
+  }
+
+  /**
+   * @return a copy of the Deletions of the timeseries, which is not changed by later Deletions.
+   */
+  public SeriesDeletions get(String path) {
+    SeriesDeletions seriesDeletions = seriesDeletionsMap.get(path);
+    return seriesDeletions == null ? SeriesDeletions.EMPTY : seriesDeletions.copy();
+  }
+
+  /**
+   * The merged Deletions of a timeseries, sorted by ascending versions and descending timestamps.
+   */
+  public static class SeriesDeletions {
+
+    public static final SeriesDeletions EMPTY = new SeriesDeletions(new long[0], new long[0]);
+
+    private long[] versions;
+    private long[] timestamps;
+    private int size;
+
+    private SeriesDeletions() {
+      this(new long[4], new long[4]);
+      size = 0;
+    }
+
+    private SeriesDeletions(long[] versions, long[] timestamps) {
+      this.versions = versions;
+      this.timestamps = timestamps;
+      this.size = versions.length;
+    }
+
+    /**
+     * merge the Deletions of a timeseries, the caller should guarantee that they refer to the same
+     * timeseries.
+     */
+    public static SeriesDeletions of(Collection<Modification> modifications) {
+      SeriesDeletions seriesDeletions = new SeriesDeletions();
+      for (Modification modification : modifications) {
+        if (modification instanceof Deletion) {
+          seriesDeletions.add(modification.getVersionNum(),
+              ((Deletion) modification).getTimestamp());
+        }
+      }
+      return seriesDeletions;
+    }
+
+    private void add(long version, long timestamp) {
+      int index = indexOfFirstNewer(version, true);
+      if (index < size && timestamps[index] >= timestamp) {
+        // a Deletion not older and not earlier covers it
+        return;
+      }
+      // the older Deletions that are not later are covered by it
+      int start = index;
+      while (start > 0 && timestamps[start - 1] <= timestamp) {
+        start--;
+      }
+      int newSize = size - (index - start) + 1;
+      if (newSize > versions.length) {
+        versions = Arrays.copyOf(versions, Math.max(newSize, versions.length * 2));
+        timestamps = Arrays.copyOf(timestamps, versions.length);
+      }
+      System.arraycopy(versions, index, versions, start + 1, size - index);
+      System.arraycopy(timestamps, index, timestamps, start + 1, size - index);
+      versions[start] = version;
+      timestamps[start] = timestamp;
+      size = newSize;
+    }
+
+    /**
+     * @return the index of the first Deletion whose version is greater than (or equal to if
+     * inclusive) the given version, or size if there is none.
+     */
+    private int indexOfFirstNewer(long version, boolean inclusive) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (versions[mid] > version || (inclusive && versions[mid] == version)) {
+          high = mid;
+        } else {
+          low = mid + 1;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * @param version the version of a chunk
+     * @return the data of the chunk not after the returned time are deleted, Long.MIN_VALUE if no
+     * Deletion is newer than the chunk.
+     */
+    public long getDeletedTime(long version) {
+      int index = indexOfFirstNewer(version, false);
+      return index < size ? timestamps[index] : Long.MIN_VALUE;
+    }
+
+    public boolean isEmpty() {
+      return size == 0;
+    }
+
+    public int size() {
+      return size;
+    }
+
+    private SeriesDeletions copy() {
+      return new SeriesDeletions(Arrays.copyOf(versions, size), Arrays.copyOf(timestamps, size));
+    }
+  }
+}
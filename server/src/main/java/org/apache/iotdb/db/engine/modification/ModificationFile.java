@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import org.apache.iotdb.db.engine.modification.DeletionIndex.SeriesDeletions;
 import org.apache.iotdb.db.engine.modification.io.LocalTextModificationAccessor;
 import org.apache.iotdb.db.engine.modification.io.ModificationReader;
 import org.apache.iotdb.db.engine.modification.io.ModificationWriter;
@@ -38,6 +39,7 @@ public class ModificationFile {
   public static final String FILE_SUFFIX = ".mods";
 
   private List<Modification> modifications;
+  private DeletionIndex deletionIndex;
   private ModificationWriter writer;
   private ModificationReader reader;
   private String filePath;
@@ -57,6 +59,7 @@ public class ModificationFile {
   private void init() {
     synchronized (this) {
       modifications = (List<Modification>) reader.read();
+      deletionIndex = new DeletionIndex(modifications);
     }
   }
 
@@ -73,6 +76,7 @@ public class ModificationFile {
     synchronized (this) {
       writer.close();
       modifications = null;
+      deletionIndex = null;
     }
   }
 
@@ -81,6 +85,7 @@ public class ModificationFile {
       if (!modifications.isEmpty()) {
         writer.abort();
         modifications.remove(modifications.size() - 1);
+        deletionIndex = new DeletionIndex(modifications);
       }
     }
   }
@@ -97,6 +102,7 @@ public class ModificationFile {
       checkInit();
       writer.write(mod);
       modifications.add(mod);
+      deletionIndex.add(mod);
     }
   }
 
@@ -112,6 +118,18 @@ public class ModificationFile {
     }
   }
 
+  /**
+   * Get the merged Deletions of a timeseries in this file.
+   *
+   * @param path the full path of the timeseries.
+   */
+  public SeriesDeletions getDeletions(String path) {
+    synchronized (this) {
+      checkInit();
+      return deletionIndex.get(path);
+    }
+  }
+
   public String getFilePath() {
     return filePath;
   }
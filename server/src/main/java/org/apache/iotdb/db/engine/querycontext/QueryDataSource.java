@@ -21,6 +21,9 @@ package org.apache.iotdb.db.engine.querycontext;
 
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
 
 import java.util.List;
 
@@ -28,6 +31,10 @@ public class QueryDataSource {
   private Path seriesPath;
   private List<TsFileResource> seqResources;
   private List<TsFileResource> unseqResources;
+  /**
+   * the data earlier than it is expired by the TTL of the storage group.
+   */
+  private long ttlLowerBound = Long.MIN_VALUE;
 
   public QueryDataSource(Path seriesPath, List<TsFileResource> seqResources, List<TsFileResource> unseqResources) {
     this.seriesPath = seriesPath;
@@ -46,4 +53,24 @@ public class QueryDataSource {
   public List<TsFileResource> getUnseqResources() {
     return unseqResources;
   }
+
+  public long getTTLLowerBound() {
+    return ttlLowerBound;
+  }
+
+  public void setTTLLowerBound(long ttlLowerBound) {
+    this.ttlLowerBound = ttlLowerBound;
+  }
+
+  /**
+   * @param filter the time filter of the query, may be null
+   * @return a filter that also excludes the expired data, or the given one if no data is expired
+   */
+  public Filter updateFilterUsingTTL(Filter filter) {
+    if (ttlLowerBound == Long.MIN_VALUE) {
+      return filter;
+    }
+    Filter ttlFilter = TimeFilter.gtEq(ttlLowerBound);
+    return filter == null ? ttlFilter : FilterFactory.and(filter, ttlFilter);
+  }
 }
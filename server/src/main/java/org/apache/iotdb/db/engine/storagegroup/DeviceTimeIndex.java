@@ -0,0 +1,196 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * DeviceTimeIndex is the read-only form of the start and end time maps of a sealed TsFile. The
+ * devices are kept sorted in an array and the times in primitive long arrays, so a device costs a
+ * reference and a long per map instead of a map entry and a boxed Long, and it is looked up by
+ * binary search. The device ids are interned so that the files of a storage group share them, and
+ * the two maps share the device array when they have the same devices, which is the usual case.
+ */
+public class DeviceTimeIndex {
+
+  private static final long ARRAY_HEADER_SIZE = 16;
+  private static final long REFERENCE_SIZE = 8;
+
+  private final TimeMap startTimeMap;
+  private final TimeMap endTimeMap;
+
+  private DeviceTimeIndex(TimeMap startTimeMap, TimeMap endTimeMap) {
+    this.startTimeMap = startTimeMap;
+    this.endTimeMap = endTimeMap;
+  }
+
+  /**
+   * read the index from the content of a .resource file, see TsFileResource.serialize().
+   */
+  public static DeviceTimeIndex deserialize(InputStream inputStream) throws IOException {
+    TimeMap startTimes = readTimeMap(inputStream, null);
+    TimeMap endTimes = readTimeMap(inputStream, startTimes.devices);
+    return new DeviceTimeIndex(startTimes, endTimes);
+  }
+
+  private static TimeMap readTimeMap(InputStream inputStream, String[] sharedDevices)
+      throws IOException {
+    int size = ReadWriteIOUtils.readInt(inputStream);
+    if (size < 0) {
+      throw new IOException("Illegal device number " + size);
+    }
+    String[] devices = new String[size];
+    long[] times = new long[size];
+    boolean sorted = true;
+    for (int i = 0; i < size; i++) {
+      devices[i] = ReadWriteIOUtils.readString(inputStream);
+      times[i] = ReadWriteIOUtils.readLong(inputStream);
+      sorted = sorted && (i == 0 || devices[i - 1].compareTo(devices[i]) < 0);
+    }
+    if (!sorted) {
+      sortByDevice(devices, times);
+    }
+    if (sharedDevices != null && Arrays.equals(sharedDevices, devices)) {
+      devices = sharedDevices;
+    } else {
+      for (int i = 0; i < size; i++) {
+        devices[i] = devices[i].intern();
+      }
+    }
+    return new TimeMap(devices, times);
+  }
+
+  private static void sortByDevice(String[] devices, long[] times) {
+    Integer[] order = new Integer[devices.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> devices[a].compareTo(devices[b]));
+    String[] sortedDevices = new String[devices.length];
+    long[] sortedTimes = new long[times.length];
+    for (int i = 0; i < order.length; i++) {
+      sortedDevices[i] = devices[order[i]];
+      sortedTimes[i] = times[order[i]];
+    }
+    System.arraycopy(sortedDevices, 0, devices, 0, devices.length);
+    System.arraycopy(sortedTimes, 0, times, 0, times.length);
+  }
+
+  public Map<String, Long> getStartTimeMap() {
+    return startTimeMap;
+  }
+
+  public Map<String, Long> getEndTimeMap() {
+    return endTimeMap;
+  }
+
+  /**
+   * @return the estimated memory used by the index, not including the interned device ids.
+   */
+  public long getRamSize() {
+    long size = startTimeMap.getRamSize() + endTimeMap.getRamSize();
+    if (startTimeMap.devices == endTimeMap.devices) {
+      size -= ARRAY_HEADER_SIZE + REFERENCE_SIZE * endTimeMap.devices.length;
+    }
+    return size;
+  }
+
+  /**
+   * An immutable map from device to time backed by a sorted device array.
+   */
+  private static class TimeMap extends AbstractMap<String, Long> {
+
+    private final String[] devices;
+    private final long[] times;
+
+    private TimeMap(String[] devices, long[] times) {
+      this.devices = devices;
+      this.times = times;
+    }
+
+    private int indexOf(Object device) {
+      if (!(device instanceof String)) {
+        return -1;
+      }
+      return Arrays.binarySearch(devices, device);
+    }
+
+    @Override
+    public Long get(Object key) {
+      int index = indexOf(key);
+      return index < 0 ? null : times[index];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+      return devices.length;
+    }
+
+    @Override
+    public Set<Entry<String, Long>> entrySet() {
+      return new AbstractSet<Entry<String, Long>>() {
+        @Override
+        public Iterator<Entry<String, Long>> iterator() {
+          return new Iterator<Entry<String, Long>>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+              return index < devices.length;
+            }
+
+            @Override
+            public Entry<String, Long> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              Entry<String, Long> entry = new SimpleImmutableEntry<>(devices[index],
+                  times[index]);
+              index++;
+              return entry;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return devices.length;
+        }
+      };
+    }
+
+    private long getRamSize() {
+      return 2 * ARRAY_HEADER_SIZE + (REFERENCE_SIZE + Long.BYTES) * devices.length;
+    }
+  }
+}
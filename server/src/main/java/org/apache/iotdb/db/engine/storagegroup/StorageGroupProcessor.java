@@ -34,19 +34,35 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
 import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
+import org.apache.iotdb.db.engine.cache.TsFileMetaDataCache;
+import org.apache.iotdb.db.engine.merge.manage.IncrementalMergeProgress;
+import org.apache.iotdb.db.engine.merge.manage.ColdDataPolicy;
 import org.apache.iotdb.db.engine.merge.manage.MergeManager;
 import org.apache.iotdb.db.engine.merge.manage.MergeResource;
+import org.apache.iotdb.db.engine.merge.manage.ReadAmplificationRecorder;
 import org.apache.iotdb.db.engine.merge.selector.IMergeFileSelector;
+import org.apache.iotdb.db.engine.merge.selector.ISeqCompactionSelector;
+import org.apache.iotdb.db.engine.merge.selector.IncrementalMergeFileSelector;
+import org.apache.iotdb.db.engine.merge.selector.LeveledSeqCompactionSelector;
 import org.apache.iotdb.db.engine.merge.selector.MaxFileMergeFileSelector;
 import org.apache.iotdb.db.engine.merge.selector.MaxSeriesMergeFileSelector;
 import org.apache.iotdb.db.engine.merge.selector.MergeFileStrategy;
+import org.apache.iotdb.db.engine.merge.selector.SeqCompactionStrategy;
+import org.apache.iotdb.db.engine.merge.selector.SizeTieredSeqCompactionSelector;
 import org.apache.iotdb.db.engine.merge.task.MergeTask;
 import org.apache.iotdb.db.engine.merge.task.RecoverMergeTask;
+import org.apache.iotdb.db.engine.merge.task.SeqCompactionTask;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
@@ -65,6 +81,7 @@ import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.query.control.JobFileManager;
 import org.apache.iotdb.rpc.TSStatusType;
 import org.apache.iotdb.db.utils.CopyOnReadLinkedList;
@@ -76,6 +93,7 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.db.engine.fileSystem.FileFactory;
 import org.apache.iotdb.tsfile.fileSystem.TSFileFactory;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.write.schema.Schema;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
@@ -100,15 +118,22 @@ import org.slf4j.LoggerFactory;
  * method will be called as a callback.<br/>
  *
  * When a TsFileProcessor is closed, the closeUnsealedTsFileProcessor() method will be called as a
- * callback.
+ * callback.<br/>
+ *
+ * When time partitioning is enabled, the data is divided into time partitions by its timestamps
+ * (see StorageEngine.getTimePartition()). Each partition has its own TsFiles, working
+ * TsFileProcessors, latest times of devices and versions, its TsFiles are put in a sub folder named
+ * after the partition, and a merge only merges the TsFiles of one partition. Without time
+ * partitioning, all data belongs to partition 0.
  */
 public class StorageGroupProcessor {
 
   private static final String MERGING_MODIFICAITON_FILE_NAME = "merge.mods";
+  private static final Pattern PARTITION_FOLDER_PATTERN = Pattern.compile("-?\\d+");
   private static final Logger logger = LoggerFactory.getLogger(StorageGroupProcessor.class);
   /**
    * a read write lock for guaranteeing concurrent safety when accessing all fields in this class
-   * (i.e., schema, (un)sequenceFileList, work(un)SequenceTsFileProcessor,
+   * (i.e., schema, (un)sequenceFileLists, work(un)SequenceTsFileProcessors,
    * closing(Un)SequenceTsFileProcessor, latestTimeForEachDevice, and
    * latestFlushedTimeForEachDevice)
    */
@@ -125,27 +150,30 @@ public class StorageGroupProcessor {
    * the schema of time series that belong this storage group
    */
   private Schema schema;
-  // includes sealed and unsealed sequence TsFiles
-  private List<TsFileResource> sequenceFileList = new ArrayList<>();
-  private TsFileProcessor workSequenceTsFileProcessor = null;
+  // time partition -> sealed and unsealed sequence TsFiles of the partition
+  private TreeMap<Long, List<TsFileResource>> sequenceFileLists = new TreeMap<>();
+  // time partition -> the working sequence TsFileProcessor of the partition
+  private TreeMap<Long, TsFileProcessor> workSequenceTsFileProcessors = new TreeMap<>();
   private CopyOnReadLinkedList<TsFileProcessor> closingSequenceTsFileProcessor = new CopyOnReadLinkedList<>();
-  // includes sealed and unsealed unSequence TsFiles
-  private List<TsFileResource> unSequenceFileList = new ArrayList<>();
-  private TsFileProcessor workUnSequenceTsFileProcessor = null;
+  // time partition -> sealed and unsealed unSequence TsFiles of the partition
+  private TreeMap<Long, List<TsFileResource>> unSequenceFileLists = new TreeMap<>();
+  // time partition -> the working unSequence TsFileProcessor of the partition
+  private TreeMap<Long, TsFileProcessor> workUnSequenceTsFileProcessors = new TreeMap<>();
   private CopyOnReadLinkedList<TsFileProcessor> closingUnSequenceTsFileProcessor = new CopyOnReadLinkedList<>();
   /**
-   * device -> global latest timestamp of each device latestTimeForEachDevice caches non-flushed
-   * changes upon timestamps of each device, and is used to update latestFlushedTimeForEachDevice
-   * when a flush is issued.
+   * time partition -> device -> global latest timestamp of each device latestTimeForEachDevice
+   * caches non-flushed changes upon timestamps of each device, and is used to update
+   * latestFlushedTimeForEachDevice when a flush is issued.
    */
-  private Map<String, Long> latestTimeForEachDevice = new HashMap<>();
+  private Map<Long, Map<String, Long>> latestTimeForEachDevice = new HashMap<>();
   /**
-   * device -> largest timestamp of the latest memtable to be submitted to asyncTryToFlush
-   * latestFlushedTimeForEachDevice determines whether a data point should be put into a sequential
-   * file or an unsequential file. Data of some device with timestamp less than or equals to the
-   * device's latestFlushedTime should go into an unsequential file.
+   * time partition -> device -> largest timestamp of the latest memtable to be submitted to
+   * asyncTryToFlush latestFlushedTimeForEachDevice determines whether a data point should be put
+   * into a sequential file or an unsequential file. Data of some device with timestamp less than
+   * or equals to the device's latestFlushedTime of its partition should go into an unsequential
+   * file.
    */
-  private Map<String, Long> latestFlushedTimeForEachDevice = new HashMap<>();
+  private Map<Long, Map<String, Long>> latestFlushedTimeForEachDevice = new HashMap<>();
   private String storageGroupName;
   private File storageGroupSysDir;
 
@@ -155,6 +183,11 @@ public class StorageGroupProcessor {
    */
   private VersionController versionController;
 
+  /**
+   * time partition -> the VersionController of the partition when time partitioning is enabled.
+   */
+  private Map<Long, VersionController> partitionVersionControllers = new HashMap<>();
+
   /**
    * mergeLock is to be used in the merge process. Concurrent queries, deletions and merges may
    * result in losing some deletion in the merged new file, so a lock is necessary.
@@ -169,6 +202,28 @@ public class StorageGroupProcessor {
 
   private volatile boolean isMerging = false;
   private long mergeStartTime;
+  // the time partition of the files of the current merge
+  private long mergingPartition;
+
+  /**
+   * The ongoing incremental merge, whose tasks each merge a slice of the series of the same files.
+   * It is null if there is none or it was interrupted by a restart, in which case the unseqFiles
+   * are merged again by a new incremental merge with their merged series skipped.
+   */
+  private IncrementalMergeProgress incrementalMerge;
+
+  /**
+   * Counts the unseqFiles and the seqFiles overlapped by them that queries read in each time
+   * partition, which decide the order of merging storage groups and partitions.
+   */
+  private ReadAmplificationRecorder readAmplificationRecorder = new ReadAmplificationRecorder();
+
+  /**
+   * The data older than dataTTL (in the timestamp precision) is expired: it cannot be inserted,
+   * is invisible to queries and is removed by merges, and the files that only contain expired
+   * data are removed by checkFilesTTL(). Long.MAX_VALUE means the data never expires.
+   */
+  private volatile long dataTTL = Long.MAX_VALUE;
 
   /**
    * This linked list records the access order of measurements used by query.
@@ -206,6 +261,13 @@ public class StorageGroupProcessor {
     logger.info("recover Storage Group  {}", storageGroupName);
 
     try {
+      // a compaction of seqFiles interrupted by a crash must be finished or rolled back before the
+      // seqFiles are collected, and the merging modifications belong to it
+      File mergingMods = FileFactory.INSTANCE.getFile(storageGroupSysDir, MERGING_MODIFICAITON_FILE_NAME);
+      if (SeqCompactionTask.recoverCompaction(storageGroupSysDir.getPath())) {
+        mergingMods.delete();
+      }
+
       // collect TsFiles from sequential and unsequential data directory
       List<TsFileResource> seqTsFiles = getAllFiles(DirectoryManager.getInstance().getAllSequenceFileFolders());
       List<TsFileResource> unseqTsFiles =
@@ -215,7 +277,6 @@ public class StorageGroupProcessor {
       recoverUnseqFiles(unseqTsFiles);
 
       String taskName = storageGroupName + "-" + System.currentTimeMillis();
-      File mergingMods = FileFactory.INSTANCE.getFile(storageGroupSysDir, MERGING_MODIFICAITON_FILE_NAME);
       if (mergingMods.exists()) {
         mergingModification = new ModificationFile(mergingMods.getPath());
       }
@@ -231,36 +292,118 @@ public class StorageGroupProcessor {
       throw new ProcessorException(e);
     }
 
-    for (TsFileResource resource : sequenceFileList) {
-      latestTimeForEachDevice.putAll(resource.getEndTimeMap());
-      latestFlushedTimeForEachDevice.putAll(resource.getEndTimeMap());
+    for (Entry<Long, List<TsFileResource>> entry : sequenceFileLists.entrySet()) {
+      Map<String, Long> latestTimes = getLatestTimeMap(latestTimeForEachDevice, entry.getKey());
+      Map<String, Long> latestFlushedTimes = getLatestTimeMap(latestFlushedTimeForEachDevice,
+          entry.getKey());
+      for (TsFileResource resource : entry.getValue()) {
+        try {
+          latestTimes.putAll(resource.getEndTimeMap());
+          latestFlushedTimes.putAll(resource.getEndTimeMap());
+        } catch (IOException e) {
+          throw new ProcessorException(e);
+        }
+      }
     }
   }
 
   private List<TsFileResource> getAllFiles(List<String> folders) throws IOException {
     List<File> tsFiles = new ArrayList<>();
     for (String baseDir : folders) {
-      File fileFolder = TSFileFactory.INSTANCE.getFile(baseDir, storageGroupName);
-      if (!fileFolder.exists()) {
+      File sgFolder = TSFileFactory.INSTANCE.getFile(baseDir, storageGroupName);
+      if (!sgFolder.exists()) {
         continue;
       }
-      // some TsFileResource may be being persisted when the system crashed, try recovering such
-      // resources
-      continueFailedRenames(fileFolder, TEMP_SUFFIX);
-
-      // some TsFiles were going to be replaced by the merged files when the system crashed and
-      // the process was interrupted before the merged files could be named
-      continueFailedRenames(fileFolder, MERGE_SUFFIX);
-
-      Collections
-          .addAll(tsFiles, fileFolder.listFiles(file -> file.getName().endsWith(TSFILE_SUFFIX)));
+      List<File> fileFolders = new ArrayList<>();
+      fileFolders.add(sgFolder);
+      Collections.addAll(fileFolders, sgFolder.listFiles(
+          file -> file.isDirectory() && PARTITION_FOLDER_PATTERN.matcher(file.getName()).matches()));
+      for (File fileFolder : fileFolders) {
+        // some TsFileResource may be being persisted when the system crashed, try recovering such
+        // resources
+        continueFailedRenames(fileFolder, TEMP_SUFFIX);
+
+        // some TsFiles were going to be replaced by the merged files when the system crashed and
+        // the process was interrupted before the merged files could be named
+        continueFailedRenames(fileFolder, MERGE_SUFFIX);
+
+        Collections
+            .addAll(tsFiles, fileFolder.listFiles(file -> file.getName().endsWith(TSFILE_SUFFIX)));
+      }
     }
     tsFiles.sort(this::compareFileName);
     List<TsFileResource> ret = new ArrayList<>();
-    tsFiles.forEach(f -> ret.add(new TsFileResource(f)));
+    for (File tsFile : tsFiles) {
+      TsFileResource resource = new TsFileResource(tsFile);
+      resource.setTimePartition(getTimePartitionOfFolder(tsFile.getParentFile()));
+      ret.add(resource);
+    }
     return ret;
   }
 
+  /**
+   * the TsFiles of a time partition are in a sub folder of the storage group named after the
+   * partition, those written without time partitioning are in the folder of the storage group and
+   * belong to partition 0.
+   */
+  private long getTimePartitionOfFolder(File fileFolder) {
+    String folderName = fileFolder.getName();
+    return folderName.equals(storageGroupName) ? 0 : Long.parseLong(folderName);
+  }
+
+  /**
+   * @return the folder of the TsFiles of a time partition in a data folder.
+   */
+  private File getPartitionFolder(String baseDir, long timePartition) {
+    File sgFolder = TSFileFactory.INSTANCE.getFile(baseDir, storageGroupName);
+    if (!IoTDBDescriptor.getInstance().getConfig().isEnablePartition()) {
+      return sgFolder;
+    }
+    return TSFileFactory.INSTANCE.getFile(sgFolder, String.valueOf(timePartition));
+  }
+
+  /**
+   * @return the VersionController of a time partition. The versions of a new partition start from
+   * the current version of the storage group, so they are larger than those of the TsFiles written
+   * before time partitioning is enabled.
+   */
+  private synchronized VersionController getVersionController(long timePartition)
+      throws IOException {
+    if (!IoTDBDescriptor.getInstance().getConfig().isEnablePartition()) {
+      return versionController;
+    }
+    VersionController controller = partitionVersionControllers.get(timePartition);
+    if (controller == null) {
+      File partitionSysDir = FileFactory.INSTANCE.getFile(storageGroupSysDir,
+          String.valueOf(timePartition));
+      partitionSysDir.mkdirs();
+      controller = new SimpleFileVersionController(partitionSysDir.getPath(),
+          versionController.currVersion());
+      partitionVersionControllers.put(timePartition, controller);
+    }
+    return controller;
+  }
+
+  private static List<TsFileResource> getFileList(TreeMap<Long, List<TsFileResource>> fileLists,
+      long timePartition) {
+    return fileLists.computeIfAbsent(timePartition, p -> new ArrayList<>());
+  }
+
+  private static void removeFiles(TreeMap<Long, List<TsFileResource>> fileLists,
+      List<TsFileResource> files) {
+    for (TsFileResource file : files) {
+      List<TsFileResource> fileList = fileLists.get(file.getTimePartition());
+      if (fileList != null) {
+        fileList.remove(file);
+      }
+    }
+  }
+
+  private static Map<String, Long> getLatestTimeMap(Map<Long, Map<String, Long>> latestTimes,
+      long timePartition) {
+    return latestTimes.computeIfAbsent(timePartition, p -> new HashMap<>());
+  }
+
   private void continueFailedRenames(File fileFolder, String suffix) {
     File[] files = fileFolder.listFiles(file -> file.getName().endsWith(suffix));
     if (files != null) {
@@ -275,23 +418,26 @@ public class StorageGroupProcessor {
     }
   }
 
-  private void recoverSeqFiles(List<TsFileResource> tsFiles) throws ProcessorException {
+  private void recoverSeqFiles(List<TsFileResource> tsFiles)
+      throws ProcessorException, IOException {
 
     for (TsFileResource tsFileResource : tsFiles) {
-      sequenceFileList.add(tsFileResource);
+      getFileList(sequenceFileLists, tsFileResource.getTimePartition()).add(tsFileResource);
       TsFileRecoverPerformer recoverPerformer = new TsFileRecoverPerformer(storageGroupName + "-"
-          , schema, versionController, tsFileResource, false);
+          , schema, getVersionController(tsFileResource.getTimePartition()), tsFileResource,
+          false);
       recoverPerformer.recover();
       tsFileResource.setClosed(true);
     }
   }
 
-  private void recoverUnseqFiles(List<TsFileResource> tsFiles) throws ProcessorException {
+  private void recoverUnseqFiles(List<TsFileResource> tsFiles)
+      throws ProcessorException, IOException {
     for (TsFileResource tsFileResource : tsFiles) {
-      unSequenceFileList.add(tsFileResource);
+      getFileList(unSequenceFileLists, tsFileResource.getTimePartition()).add(tsFileResource);
       TsFileRecoverPerformer recoverPerformer = new TsFileRecoverPerformer(storageGroupName + "-",
           schema,
-          versionController, tsFileResource, true);
+          getVersionController(tsFileResource.getTimePartition()), tsFileResource, true);
       recoverPerformer.recover();
       tsFileResource.setClosed(true);
     }
@@ -338,13 +484,17 @@ public class StorageGroupProcessor {
   public boolean insert(InsertPlan insertPlan) {
     writeLock();
     try {
+      long timePartition = StorageEngine.getTimePartition(insertPlan.getTime());
       // init map
-      latestTimeForEachDevice.putIfAbsent(insertPlan.getDeviceId(), Long.MIN_VALUE);
-      latestFlushedTimeForEachDevice.putIfAbsent(insertPlan.getDeviceId(), Long.MIN_VALUE);
+      getLatestTimeMap(latestTimeForEachDevice, timePartition)
+          .putIfAbsent(insertPlan.getDeviceId(), Long.MIN_VALUE);
+      Map<String, Long> latestFlushedTimes = getLatestTimeMap(latestFlushedTimeForEachDevice,
+          timePartition);
+      latestFlushedTimes.putIfAbsent(insertPlan.getDeviceId(), Long.MIN_VALUE);
 
       // insert to sequence or unSequence file
-      return insertToTsFileProcessor(insertPlan,
-          insertPlan.getTime() > latestFlushedTimeForEachDevice.get(insertPlan.getDeviceId()));
+      return insertToTsFileProcessor(insertPlan, timePartition,
+          insertPlan.getTime() > latestFlushedTimes.get(insertPlan.getDeviceId()));
     } finally {
       writeUnlock();
     }
@@ -353,30 +503,44 @@ public class StorageGroupProcessor {
   public Integer[] insertBatch(BatchInsertPlan batchInsertPlan) {
     writeLock();
     try {
-      // init map
-      latestTimeForEachDevice.putIfAbsent(batchInsertPlan.getDeviceId(), Long.MIN_VALUE);
-      latestFlushedTimeForEachDevice.putIfAbsent(batchInsertPlan.getDeviceId(), Long.MIN_VALUE);
-
+      String deviceId = batchInsertPlan.getDeviceId();
       Integer[] results = new Integer[batchInsertPlan.getRowCount()];
-      List<Integer> sequenceIndexes = new ArrayList<>();
-      List<Integer> unsequenceIndexes = new ArrayList<>();
+      // time partition -> the rows in the partition
+      Map<Long, List<Integer>> sequenceIndexes = new TreeMap<>();
+      Map<Long, List<Integer>> unsequenceIndexes = new TreeMap<>();
 
+      long prevTimePartition = 0;
+      long latestFlushedTime = Long.MIN_VALUE;
+      long ttlLowerBound = getTTLLowerBound();
       for (int i = 0; i < batchInsertPlan.getRowCount(); i++) {
+        if (batchInsertPlan.getTimes()[i] < ttlLowerBound) {
+          results[i] = TSStatusType.OUT_OF_TTL_ERROR.getStatusCode();
+          continue;
+        }
         results[i] = TSStatusType.SUCCESS_STATUS.getStatusCode();
-        if (batchInsertPlan.getTimes()[i] > latestFlushedTimeForEachDevice
-            .get(batchInsertPlan.getDeviceId())) {
-          sequenceIndexes.add(i);
-        } else {
-          unsequenceIndexes.add(i);
+        long timePartition = StorageEngine.getTimePartition(batchInsertPlan.getTimes()[i]);
+        if (i == 0 || timePartition != prevTimePartition) {
+          // init map
+          getLatestTimeMap(latestTimeForEachDevice, timePartition)
+              .putIfAbsent(deviceId, Long.MIN_VALUE);
+          latestFlushedTime = getLatestTimeMap(latestFlushedTimeForEachDevice, timePartition)
+              .computeIfAbsent(deviceId, d -> Long.MIN_VALUE);
+          prevTimePartition = timePartition;
         }
+        Map<Long, List<Integer>> indexes =
+            batchInsertPlan.getTimes()[i] > latestFlushedTime ? sequenceIndexes
+                : unsequenceIndexes;
+        indexes.computeIfAbsent(timePartition, p -> new ArrayList<>()).add(i);
       }
 
-      if (!sequenceIndexes.isEmpty()) {
-        insertBatchToTsFileProcessor(batchInsertPlan, sequenceIndexes, true, results);
+      for (Entry<Long, List<Integer>> entry : sequenceIndexes.entrySet()) {
+        insertBatchToTsFileProcessor(batchInsertPlan, entry.getValue(), entry.getKey(), true,
+            results);
       }
 
-      if (!unsequenceIndexes.isEmpty()) {
-        insertBatchToTsFileProcessor(batchInsertPlan, unsequenceIndexes, false, results);
+      for (Entry<Long, List<Integer>> entry : unsequenceIndexes.entrySet()) {
+        insertBatchToTsFileProcessor(batchInsertPlan, entry.getValue(), entry.getKey(), false,
+            results);
       }
       return results;
     } finally {
@@ -385,9 +549,9 @@ public class StorageGroupProcessor {
   }
 
   private void insertBatchToTsFileProcessor(BatchInsertPlan batchInsertPlan,
-      List<Integer> indexes, boolean sequence, Integer[] results) {
+      List<Integer> indexes, long timePartition, boolean sequence, Integer[] results) {
 
-    TsFileProcessor tsFileProcessor = getOrCreateTsFileProcessor(sequence);
+    TsFileProcessor tsFileProcessor = getOrCreateTsFileProcessor(timePartition, sequence);
     if (tsFileProcessor == null) {
       for (int index : indexes) {
         results[index] = TSStatusType.INTERNAL_SERVER_ERROR.getStatusCode();
@@ -398,8 +562,13 @@ public class StorageGroupProcessor {
     boolean result = tsFileProcessor.insertBatch(batchInsertPlan, indexes, results);
 
     // try to update the latest time of the device of this tsRecord
-    if (result && latestTimeForEachDevice.get(batchInsertPlan.getDeviceId()) < batchInsertPlan.getMaxTime()) {
-      latestTimeForEachDevice.put(batchInsertPlan.getDeviceId(), batchInsertPlan.getMaxTime());
+    long maxTime = Long.MIN_VALUE;
+    for (int index : indexes) {
+      maxTime = Math.max(maxTime, batchInsertPlan.getTimes()[index]);
+    }
+    Map<String, Long> latestTimes = latestTimeForEachDevice.get(timePartition);
+    if (result && latestTimes.get(batchInsertPlan.getDeviceId()) < maxTime) {
+      latestTimes.put(batchInsertPlan.getDeviceId(), maxTime);
     }
 
     // check memtable size and may asyncTryToFlush the work memtable
@@ -409,18 +578,19 @@ public class StorageGroupProcessor {
           tsFileProcessor.getTsFileResource().getFile().getAbsolutePath());
 
       if (tsFileProcessor.shouldClose()) {
-        moveOneWorkProcessorToClosingList(sequence);
+        moveOneWorkProcessorToClosingList(timePartition, sequence);
       } else {
         tsFileProcessor.asyncFlush();
       }
     }
   }
 
-  private boolean insertToTsFileProcessor(InsertPlan insertPlan, boolean sequence) {
+  private boolean insertToTsFileProcessor(InsertPlan insertPlan, long timePartition,
+      boolean sequence) {
     TsFileProcessor tsFileProcessor;
     boolean result;
 
-    tsFileProcessor = getOrCreateTsFileProcessor(sequence);
+    tsFileProcessor = getOrCreateTsFileProcessor(timePartition, sequence);
 
     if (tsFileProcessor == null) {
       return false;
@@ -430,8 +600,9 @@ public class StorageGroupProcessor {
     result = tsFileProcessor.insert(insertPlan);
 
     // try to update the latest time of the device of this tsRecord
-    if (result && latestTimeForEachDevice.get(insertPlan.getDeviceId()) < insertPlan.getTime()) {
-      latestTimeForEachDevice.put(insertPlan.getDeviceId(), insertPlan.getTime());
+    Map<String, Long> latestTimes = latestTimeForEachDevice.get(timePartition);
+    if (result && latestTimes.get(insertPlan.getDeviceId()) < insertPlan.getTime()) {
+      latestTimes.put(insertPlan.getDeviceId(), insertPlan.getTime());
     }
 
     // check memtable size and may asyncTryToFlush the work memtable
@@ -441,7 +612,7 @@ public class StorageGroupProcessor {
           tsFileProcessor.getTsFileResource().getFile().getAbsolutePath());
 
       if (tsFileProcessor.shouldClose()) {
-        moveOneWorkProcessorToClosingList(sequence);
+        moveOneWorkProcessorToClosingList(timePartition, sequence);
       } else {
         tsFileProcessor.asyncFlush();
       }
@@ -449,23 +620,24 @@ public class StorageGroupProcessor {
     return result;
   }
 
-  private TsFileProcessor getOrCreateTsFileProcessor(boolean sequence) {
+  private TsFileProcessor getOrCreateTsFileProcessor(long timePartition, boolean sequence) {
     TsFileProcessor tsFileProcessor = null;
     try {
-      if (sequence) {
-        if (workSequenceTsFileProcessor == null) {
-          // create a new TsfileProcessor
-          workSequenceTsFileProcessor = createTsFileProcessor(true);
-          sequenceFileList.add(workSequenceTsFileProcessor.getTsFileResource());
-        }
-        tsFileProcessor = workSequenceTsFileProcessor;
-      } else {
-        if (workUnSequenceTsFileProcessor == null) {
-          // create a new TsfileProcessor
-          workUnSequenceTsFileProcessor = createTsFileProcessor(false);
-          unSequenceFileList.add(workUnSequenceTsFileProcessor.getTsFileResource());
+      TreeMap<Long, TsFileProcessor> workProcessors =
+          sequence ? workSequenceTsFileProcessors : workUnSequenceTsFileProcessors;
+      tsFileProcessor = workProcessors.get(timePartition);
+      if (tsFileProcessor == null) {
+        // each working TsFileProcessor holds a memtable, so the working files of the earliest
+        // partition are closed when too many partitions are being written
+        if (workProcessors.size() >= IoTDBDescriptor.getInstance().getConfig()
+            .getConcurrentWritingTimePartition()) {
+          moveOneWorkProcessorToClosingList(workProcessors.firstKey(), sequence);
         }
-        tsFileProcessor = workUnSequenceTsFileProcessor;
+        // create a new TsfileProcessor
+        tsFileProcessor = createTsFileProcessor(timePartition, sequence);
+        workProcessors.put(timePartition, tsFileProcessor);
+        getFileList(sequence ? sequenceFileLists : unSequenceFileLists, timePartition)
+            .add(tsFileProcessor.getTsFileResource());
       }
     } catch (DiskSpaceInsufficientException e) {
       logger.error(
@@ -480,7 +652,7 @@ public class StorageGroupProcessor {
     return tsFileProcessor;
   }
 
-  private TsFileProcessor createTsFileProcessor(boolean sequence)
+  private TsFileProcessor createTsFileProcessor(long timePartition, boolean sequence)
       throws IOException, DiskSpaceInsufficientException {
     String baseDir;
     if (sequence) {
@@ -488,38 +660,50 @@ public class StorageGroupProcessor {
     } else {
       baseDir = DirectoryManager.getInstance().getNextFolderForUnSequenceFile();
     }
-    TSFileFactory.INSTANCE.getFile(baseDir, storageGroupName).mkdirs();
+    File fileFolder = getPartitionFolder(baseDir, timePartition);
+    fileFolder.mkdirs();
 
-    String filePath = baseDir + File.separator + storageGroupName + File.separator +
-        System.currentTimeMillis() + "-" + versionController.nextVersion() + TSFILE_SUFFIX;
+    VersionController partitionVersionController = getVersionController(timePartition);
+    String filePath = fileFolder.getPath() + File.separator +
+        System.currentTimeMillis() + "-" + partitionVersionController.nextVersion() + TSFILE_SUFFIX;
 
+    TsFileProcessor tsFileProcessor;
     if (sequence) {
-      return new TsFileProcessor(storageGroupName, TSFileFactory.INSTANCE.getFile(filePath),
-          schema, versionController, this::closeUnsealedTsFileProcessor,
-          this::updateLatestFlushTimeCallback, sequence);
+      tsFileProcessor = new TsFileProcessor(storageGroupName,
+          TSFileFactory.INSTANCE.getFile(filePath), schema, partitionVersionController,
+          this::closeUnsealedTsFileProcessor,
+          () -> updateLatestFlushTimeCallback(timePartition), sequence);
     } else {
-      return new TsFileProcessor(storageGroupName, TSFileFactory.INSTANCE.getFile(filePath),
-          schema, versionController, this::closeUnsealedTsFileProcessor,
-          () -> true, sequence);
+      tsFileProcessor = new TsFileProcessor(storageGroupName,
+          TSFileFactory.INSTANCE.getFile(filePath), schema, partitionVersionController,
+          this::closeUnsealedTsFileProcessor, () -> true, sequence);
     }
+    tsFileProcessor.getTsFileResource().setTimePartition(timePartition);
+    return tsFileProcessor;
   }
 
 
   /**
    * only called by insert(), thread-safety should be ensured by caller
    */
-  private void moveOneWorkProcessorToClosingList(boolean sequence) {
+  private void moveOneWorkProcessorToClosingList(long timePartition, boolean sequence) {
     //for sequence tsfile, we update the endTimeMap only when the file is prepared to be closed.
     //for unsequence tsfile, we have maintained the endTimeMap when an insertion comes.
     if (sequence) {
-      closingSequenceTsFileProcessor.add(workSequenceTsFileProcessor);
-      updateEndTimeMap(workSequenceTsFileProcessor);
-      workSequenceTsFileProcessor.asyncClose();
-      workSequenceTsFileProcessor = null;
+      TsFileProcessor tsFileProcessor = workSequenceTsFileProcessors.remove(timePartition);
+      closingSequenceTsFileProcessor.add(tsFileProcessor);
+      try {
+        updateEndTimeMap(tsFileProcessor);
+      } catch (IOException e) {
+        logger.error("meet IOException when updating the end times of {}, change system mode to "
+            + "read-only", tsFileProcessor.getTsFileResource().getFile(), e);
+        IoTDBDescriptor.getInstance().getConfig().setReadOnly(true);
+      }
+      tsFileProcessor.asyncClose();
     } else {
-      closingUnSequenceTsFileProcessor.add(workUnSequenceTsFileProcessor);
-      workUnSequenceTsFileProcessor.asyncClose();
-      workUnSequenceTsFileProcessor = null;
+      TsFileProcessor tsFileProcessor = workUnSequenceTsFileProcessors.remove(timePartition);
+      closingUnSequenceTsFileProcessor.add(tsFileProcessor);
+      tsFileProcessor.asyncClose();
     }
   }
 
@@ -527,13 +711,19 @@ public class StorageGroupProcessor {
     waitForAllCurrentTsFileProcessorsClosed();
     writeLock();
     try {
-      for (TsFileResource tsFileResource : unSequenceFileList) {
-        tsFileResource.close();
+      for (List<TsFileResource> unseqFiles : unSequenceFileLists.values()) {
+        for (TsFileResource tsFileResource : unseqFiles) {
+          tsFileResource.close();
+        }
       }
-      for (TsFileResource tsFileResource : sequenceFileList) {
-        tsFileResource.close();
+      for (List<TsFileResource> seqFiles : sequenceFileLists.values()) {
+        for (TsFileResource tsFileResource : seqFiles) {
+          tsFileResource.close();
+        }
       }
-      List<String> folder = DirectoryManager.getInstance().getAllSequenceFileFolders();
+      // the folders of DirectoryManager must not be modified
+      List<String> folder = new ArrayList<>(
+          DirectoryManager.getInstance().getAllSequenceFileFolders());
       folder.addAll(DirectoryManager.getInstance().getAllUnSequenceFileFolders());
       for (String tsfilePath : folder) {
         File storageGroupFolder = TSFileFactory.INSTANCE.getFile(tsfilePath, storageGroupName);
@@ -545,10 +735,10 @@ public class StorageGroupProcessor {
           }
         }
       }
-      this.workSequenceTsFileProcessor = null;
-      this.workUnSequenceTsFileProcessor = null;
-      this.sequenceFileList.clear();
-      this.unSequenceFileList.clear();
+      this.workSequenceTsFileProcessors.clear();
+      this.workUnSequenceTsFileProcessors.clear();
+      this.sequenceFileLists.clear();
+      this.unSequenceFileLists.clear();
       this.latestFlushedTimeForEachDevice.clear();
       this.latestTimeForEachDevice.clear();
     } catch (IOException e) {
@@ -581,20 +771,29 @@ public class StorageGroupProcessor {
     writeLock();
     try {
       logger.info("async force close all files in storage group: {}", storageGroupName);
-      if (workSequenceTsFileProcessor != null) {
-        moveOneWorkProcessorToClosingList(true);
+      for (long timePartition : new ArrayList<>(workSequenceTsFileProcessors.keySet())) {
+        moveOneWorkProcessorToClosingList(timePartition, true);
       }
-      if (workUnSequenceTsFileProcessor != null) {
-        moveOneWorkProcessorToClosingList(false);
+      for (long timePartition : new ArrayList<>(workUnSequenceTsFileProcessors.keySet())) {
+        moveOneWorkProcessorToClosingList(timePartition, false);
       }
     } finally {
       writeUnlock();
     }
   }
 
+  public QueryDataSource query(String deviceId, String measurementId, QueryContext context,
+      JobFileManager filePathsManager) throws IOException {
+    return query(deviceId, measurementId, context, filePathsManager, null);
+  }
+
+  /**
+   * @param timeFilter the time filter of the query, the time partitions that it does not
+   * satisfy are skipped. Null means all partitions are read.
+   */
   // TODO need a read lock, please consider the concurrency with flush manager threads.
   public QueryDataSource query(String deviceId, String measurementId, QueryContext context,
-      JobFileManager filePathsManager) {
+      JobFileManager filePathsManager, Filter timeFilter) throws IOException {
     insertLock.readLock().lock();
     mergeLock.readLock().lock();
     synchronized (lruForSensorUsedInQuery) {
@@ -604,11 +803,15 @@ public class StorageGroupProcessor {
       lruForSensorUsedInQuery.add(measurementId);
     }
     try {
-      List<TsFileResource> seqResources = getFileReSourceListForQuery(sequenceFileList,
-          deviceId, measurementId, context);
-      List<TsFileResource> unseqResources = getFileReSourceListForQuery(unSequenceFileList,
-          deviceId, measurementId, context);
+      long ttlLowerBound = getTTLLowerBound();
+      List<TsFileResource> seqResources = getFileReSourceListForQuery(sequenceFileLists,
+          deviceId, measurementId, context, timeFilter, ttlLowerBound);
+      List<TsFileResource> unseqResources = getFileReSourceListForQuery(unSequenceFileLists,
+          deviceId, measurementId, context, timeFilter, ttlLowerBound);
       QueryDataSource dataSource =  new QueryDataSource(new Path(deviceId, measurementId), seqResources, unseqResources);
+      dataSource.setTTLLowerBound(ttlLowerBound);
+      MergeManager.getINSTANCE().recordSeriesQuery(seqResources.size() + unseqResources.size());
+      recordReadAmplification(deviceId, seqResources, unseqResources);
       // used files should be added before mergeLock is unlocked, or they may be deleted by
       // running merge
       // is null only in tests
@@ -622,6 +825,47 @@ public class StorageGroupProcessor {
     }
   }
 
+  /**
+   * record the unseqFiles of each time partition that a query of the device reads and the seqFiles
+   * it reads whose data of the device overlap theirs.
+   */
+  private void recordReadAmplification(String deviceId, List<TsFileResource> seqResources,
+      List<TsFileResource> unseqResources) throws IOException {
+    Map<Long, List<TsFileResource>> partitionUnseqFiles = new HashMap<>();
+    for (TsFileResource unseqFile : unseqResources) {
+      partitionUnseqFiles.computeIfAbsent(unseqFile.getTimePartition(), p -> new ArrayList<>())
+          .add(unseqFile);
+    }
+    for (Entry<Long, List<TsFileResource>> entry : partitionUnseqFiles.entrySet()) {
+      long timePartition = entry.getKey();
+      long minStartTime = Long.MAX_VALUE;
+      long maxEndTime = Long.MIN_VALUE;
+      for (TsFileResource unseqFile : entry.getValue()) {
+        Long endTime = unseqFile.getEndTimeMap().get(deviceId);
+        minStartTime = Math.min(minStartTime, unseqFile.getStartTimeMap().get(deviceId));
+        // the end time of an unsealed file is unknown
+        maxEndTime = Math.max(maxEndTime, endTime == null ? Long.MAX_VALUE : endTime);
+      }
+      int overlappedSeqFileNum = 0;
+      for (TsFileResource seqFile : seqResources) {
+        if (seqFile.getTimePartition() != timePartition) {
+          continue;
+        }
+        Long endTime = seqFile.getEndTimeMap().get(deviceId);
+        if (seqFile.getStartTimeMap().get(deviceId) <= maxEndTime
+            && (endTime == null || endTime >= minStartTime)) {
+          overlappedSeqFileNum++;
+        }
+      }
+      readAmplificationRecorder.record(timePartition, deviceId, entry.getValue().size(),
+          overlappedSeqFileNum);
+    }
+  }
+
+  public ReadAmplificationRecorder getReadAmplificationRecorder() {
+    return readAmplificationRecorder;
+  }
+
   /**
    * returns the top k% measurements which are recently used in queries.
    */
@@ -653,21 +897,48 @@ public class StorageGroupProcessor {
 
 
   /**
-   * @param tsFileResources includes sealed and unsealed tsfile resources
+   * @param tsFileResources includes sealed and unsealed tsfile resources of each time partition
+   * @param ttlLowerBound the sealed files whose data of the device are all before it are skipped
    * @return fill unsealed tsfile resources with memory data and ChunkMetadataList of data in disk
    */
-  private List<TsFileResource> getFileReSourceListForQuery(List<TsFileResource> tsFileResources,
-      String deviceId, String measurementId, QueryContext context) {
+  private List<TsFileResource> getFileReSourceListForQuery(
+      TreeMap<Long, List<TsFileResource>> tsFileResources, String deviceId, String measurementId,
+      QueryContext context, Filter timeFilter, long ttlLowerBound) throws IOException {
+
+    List<TsFileResource> tsfileResourcesForQuery = new ArrayList<>();
+    for (Entry<Long, List<TsFileResource>> entry : tsFileResources.entrySet()) {
+      if (isTimePartitionSatisfied(entry.getKey(), timeFilter)) {
+        addFileReSourceListForQuery(entry.getValue(), deviceId, measurementId, context,
+            tsfileResourcesForQuery, ttlLowerBound);
+      }
+    }
+    return tsfileResourcesForQuery;
+  }
+
+  private boolean isTimePartitionSatisfied(long timePartition, Filter timeFilter) {
+    if (timeFilter == null || !IoTDBDescriptor.getInstance().getConfig().isEnablePartition()) {
+      return true;
+    }
+    long interval = StorageEngine.getTimePartitionInterval();
+    long startTime = timePartition * interval;
+    return timeFilter.satisfyStartEndTime(startTime, startTime + interval - 1);
+  }
+
+  private void addFileReSourceListForQuery(List<TsFileResource> tsFileResources,
+      String deviceId, String measurementId, QueryContext context,
+      List<TsFileResource> tsfileResourcesForQuery, long ttlLowerBound) throws IOException {
 
     MeasurementSchema mSchema = schema.getMeasurementSchema(measurementId);
     TSDataType dataType = mSchema.getType();
 
-    List<TsFileResource> tsfileResourcesForQuery = new ArrayList<>();
     for (TsFileResource tsFileResource : tsFileResources) {
       // TODO: try filtering files if the query contains time filter
       if (!tsFileResource.containsDevice(deviceId)) {
         continue;
       }
+      if (tsFileResource.isClosed() && isDeviceExpired(tsFileResource, deviceId, ttlLowerBound)) {
+        continue;
+      }
       if (!tsFileResource.getStartTimeMap().isEmpty()) {
         closeQueryLock.readLock().lock();
         try {
@@ -679,17 +950,17 @@ public class StorageGroupProcessor {
             pair = tsFileResource
                 .getUnsealedFileProcessor()
                 .query(deviceId, measurementId, dataType, mSchema.getProps(), context);
-            tsfileResourcesForQuery
-                .add(new TsFileResource(tsFileResource.getFile(),
-                    tsFileResource.getStartTimeMap(),
-                    tsFileResource.getEndTimeMap(), pair.left, pair.right));
+            TsFileResource unsealedResource = new TsFileResource(tsFileResource.getFile(),
+                tsFileResource.getStartTimeMap(),
+                tsFileResource.getEndTimeMap(), pair.left, pair.right);
+            unsealedResource.setTimePartition(tsFileResource.getTimePartition());
+            tsfileResourcesForQuery.add(unsealedResource);
           }
         } finally {
           closeQueryLock.readLock().unlock();
         }
       }
     }
-    return tsfileResourcesForQuery;
   }
 
 
@@ -710,34 +981,49 @@ public class StorageGroupProcessor {
     List<ModificationFile> updatedModFiles = new ArrayList<>();
 
     try {
-      Long lastUpdateTime = latestTimeForEachDevice.get(deviceId);
+      boolean hasDevice = false;
+      for (Map<String, Long> latestTimes : latestTimeForEachDevice.values()) {
+        hasDevice = hasDevice || latestTimes.containsKey(deviceId);
+      }
       // no tsfile data, the delete operation is invalid
-      if (lastUpdateTime == null) {
+      if (!hasDevice) {
         logger.debug("No device {} in SG {}, deletion invalid", deviceId, storageGroupName);
         return;
       }
 
       // write log
       if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
-        if (workSequenceTsFileProcessor != null) {
-          workSequenceTsFileProcessor.getLogNode()
+        for (TsFileProcessor tsFileProcessor : workSequenceTsFileProcessors.values()) {
+          tsFileProcessor.getLogNode()
               .write(new DeletePlan(timestamp, new Path(deviceId, measurementId)));
         }
-        if (workUnSequenceTsFileProcessor != null) {
-          workUnSequenceTsFileProcessor.getLogNode()
+        for (TsFileProcessor tsFileProcessor : workUnSequenceTsFileProcessors.values()) {
+          tsFileProcessor.getLogNode()
               .write(new DeletePlan(timestamp, new Path(deviceId, measurementId)));
         }
       }
 
       Path fullPath = new Path(deviceId, measurementId);
-      Deletion deletion = new Deletion(fullPath, versionController.nextVersion(), timestamp);
+      // the files of a partition are ordered by the versions of the partition, so each partition
+      // gets a deletion of its own version
+      Set<Long> timePartitions = new TreeSet<>(sequenceFileLists.keySet());
+      timePartitions.addAll(unSequenceFileLists.keySet());
       if (mergingModification != null) {
-        mergingModification.write(deletion);
-        updatedModFiles.add(mergingModification);
+        timePartitions.add(mergingPartition);
       }
+      for (long timePartition : timePartitions) {
+        Deletion deletion = new Deletion(fullPath,
+            getVersionController(timePartition).nextVersion(), timestamp);
+        if (mergingModification != null && timePartition == mergingPartition) {
+          mergingModification.write(deletion);
+          updatedModFiles.add(mergingModification);
+        }
 
-      deleteDataInFiles(sequenceFileList, deletion, updatedModFiles);
-      deleteDataInFiles(unSequenceFileList, deletion, updatedModFiles);
+        deleteDataInFiles(sequenceFileLists.getOrDefault(timePartition, Collections.emptyList()),
+            deletion, updatedModFiles);
+        deleteDataInFiles(unSequenceFileLists.getOrDefault(timePartition,
+            Collections.emptyList()), deletion, updatedModFiles);
+      }
 
     } catch (Exception e) {
       // roll back
@@ -781,19 +1067,24 @@ public class StorageGroupProcessor {
    *
    * @param tsFileProcessor processor to be closed
    */
-  private void updateEndTimeMap(TsFileProcessor tsFileProcessor) {
+  private void updateEndTimeMap(TsFileProcessor tsFileProcessor) throws IOException {
     TsFileResource resource = tsFileProcessor.getTsFileResource();
+    Map<String, Long> latestTimes = getLatestTimeMap(latestTimeForEachDevice,
+        resource.getTimePartition());
     for (Entry<String, Long> startTime : resource.getStartTimeMap().entrySet()) {
       String deviceId = startTime.getKey();
-      resource.forceUpdateEndTime(deviceId, latestTimeForEachDevice.get(deviceId));
+      resource.forceUpdateEndTime(deviceId, latestTimes.get(deviceId));
     }
   }
 
 
-  private boolean updateLatestFlushTimeCallback() {
+  private boolean updateLatestFlushTimeCallback(long timePartition) {
     // update the largest timestamp in the last flushing memtable
-    for (Entry<String, Long> entry : latestTimeForEachDevice.entrySet()) {
-      latestFlushedTimeForEachDevice.put(entry.getKey(), entry.getValue());
+    Map<String, Long> latestFlushedTimes = getLatestTimeMap(latestFlushedTimeForEachDevice,
+        timePartition);
+    for (Entry<String, Long> entry : getLatestTimeMap(latestTimeForEachDevice, timePartition)
+        .entrySet()) {
+      latestFlushedTimes.put(entry.getKey(), entry.getValue());
     }
     return true;
   }
@@ -810,6 +1101,7 @@ public class StorageGroupProcessor {
     } finally {
       closeQueryLock.writeLock().unlock();
     }
+    MergeManager.getINSTANCE().recordFlushedBytes(tsFileProcessor.getTsFileResource().getFileSize());
     //closingSequenceTsFileProcessor is a thread safety class.
     if (closingSequenceTsFileProcessor.contains(tsFileProcessor)) {
       closingSequenceTsFileProcessor.remove(tsFileProcessor);
@@ -832,19 +1124,32 @@ public class StorageGroupProcessor {
         }
         return;
       }
-      if (unSequenceFileList.isEmpty() || sequenceFileList.isEmpty()) {
+      // the reads of the partitions that cannot be merged would make the storage group be merged
+      // for its read amplification again and again
+      readAmplificationRecorder.retain(this::isTimePartitionMergeable);
+      if (IoTDBDescriptor.getInstance().getConfig().isEnableIncrementalMerge()) {
+        mergeNextSlice(fullMerge);
+        return;
+      }
+      incrementalMerge = null;
+      Long timePartition = getMergeTimePartition();
+      if (timePartition == null) {
         logger.info("{} no files to be merged", storageGroupName);
+        compactSeqFiles();
         return;
       }
 
       long budget = IoTDBDescriptor.getInstance().getConfig().getMergeMemoryBudget();
-      MergeResource mergeResource = new MergeResource(sequenceFileList, unSequenceFileList);
+      MergeResource mergeResource = new MergeResource(sequenceFileLists.get(timePartition),
+          unSequenceFileLists.get(timePartition));
       IMergeFileSelector fileSelector = getMergeFileSelector(budget, mergeResource);
       try {
         List[] mergeFiles = fileSelector.select();
         if (mergeFiles.length == 0) {
           logger.info("{} cannot select merge candidates under the budget {}", storageGroupName,
               budget);
+          readAmplificationRecorder.clear(timePartition);
+          compactSeqFiles();
           return;
         }
         // avoid pending tasks holds the metadata and streams
@@ -853,14 +1158,18 @@ public class StorageGroupProcessor {
         // do not cache metadata until true candidates are chosen, or too much metadata will be
         // cached during selection
         mergeResource.setCacheDeviceMeta(true);
+        mergeResource.setTTLLowerBound(getTTLLowerBound());
+        mergeResource.setColdDataPolicy(ColdDataPolicy.getPolicy(storageGroupName));
 
         MergeTask mergeTask = new MergeTask(mergeResource, storageGroupSysDir.getPath(),
             this::mergeEndAction, taskName, fullMerge, fileSelector.getConcurrentMergeNum(), storageGroupName);
         mergingModification = new ModificationFile(storageGroupSysDir + File.separator + MERGING_MODIFICAITON_FILE_NAME);
+        mergingPartition = timePartition;
         MergeManager.getINSTANCE().submitMainTask(mergeTask);
         if (logger.isInfoEnabled()) {
-          logger.info("{} submits a merge task {}, merging {} seqFiles, {} unseqFiles",
-              storageGroupName, taskName, mergeFiles[0].size(), mergeFiles[1].size());
+          logger.info("{} submits a merge task {}, merging {} seqFiles, {} unseqFiles of time "
+                  + "partition {}", storageGroupName, taskName, mergeFiles[0].size(),
+              mergeFiles[1].size(), timePartition);
         }
         isMerging = true;
         mergeStartTime = System.currentTimeMillis();
@@ -873,6 +1182,196 @@ public class StorageGroupProcessor {
     }
   }
 
+  /**
+   * @return among the partitions that have both seqFiles and unseqFiles, the one whose queries
+   * have read the most unseqFiles and overlapped seqFiles since it was merged, or the one that has
+   * the most unseqFiles if no query has read them. Null if no partition has both. Each merge only
+   * involves the files of one partition, as files of different partitions never overlap.
+   */
+  private Long getMergeTimePartition() {
+    Long timePartition = null;
+    long maxExtraFileReads = 0;
+    int maxUnseqFileNum = 0;
+    for (Entry<Long, List<TsFileResource>> entry : unSequenceFileLists.entrySet()) {
+      if (!isTimePartitionMergeable(entry.getKey())) {
+        continue;
+      }
+      long extraFileReads = readAmplificationRecorder.getExtraFileReads(entry.getKey());
+      int unseqFileNum = entry.getValue().size();
+      if (extraFileReads > maxExtraFileReads
+          || extraFileReads == maxExtraFileReads && unseqFileNum > maxUnseqFileNum) {
+        timePartition = entry.getKey();
+        maxExtraFileReads = extraFileReads;
+        maxUnseqFileNum = unseqFileNum;
+      }
+    }
+    return timePartition;
+  }
+
+  /**
+   * @return whether the partition has both seqFiles and unseqFiles.
+   */
+  private boolean isTimePartitionMergeable(long timePartition) {
+    return !unSequenceFileLists.getOrDefault(timePartition, Collections.emptyList()).isEmpty()
+        && !sequenceFileLists.getOrDefault(timePartition, Collections.emptyList()).isEmpty();
+  }
+
+  /**
+   * Submit a MergeTask for the next slice of the series of the ongoing incremental merge, or
+   * select the files of a new incremental merge if there is none. Should be called with the
+   * insertLock held when no merge is running.
+   */
+  private void mergeNextSlice(boolean fullMerge) {
+    if (incrementalMerge == null) {
+      Long timePartition = getMergeTimePartition();
+      if (timePartition == null) {
+        logger.info("{} no files to be merged", storageGroupName);
+        compactSeqFiles();
+        return;
+      }
+      long budget = IoTDBDescriptor.getInstance().getConfig().getMergeMemoryBudget();
+      MergeResource mergeResource = new MergeResource(sequenceFileLists.get(timePartition),
+          unSequenceFileLists.get(timePartition));
+      IncrementalMergeFileSelector fileSelector = new IncrementalMergeFileSelector(mergeResource,
+          budget);
+      try {
+        List[] mergeFiles = fileSelector.select();
+        mergeResource.clear();
+        if (mergeFiles.length == 0) {
+          logger.info("{} cannot select incremental merge candidates under the budget {}",
+              storageGroupName, budget);
+          readAmplificationRecorder.clear(timePartition);
+          compactSeqFiles();
+          return;
+        }
+        List<Path> series = new ArrayList<>();
+        for (String path : MManager.getInstance().getPaths(storageGroupName + ".*")) {
+          series.add(new Path(path));
+        }
+        incrementalMerge = new IncrementalMergeProgress(mergeFiles[0], mergeFiles[1], series,
+            fileSelector.getSliceSeriesNum());
+        // the following slices merge the same files
+        mergingPartition = timePartition;
+      } catch (MergeException | IOException | MetadataErrorException e) {
+        logger.error("{} cannot select file for incremental merge", storageGroupName, e);
+        return;
+      }
+    }
+
+    List<Path> seriesSlice = incrementalMerge.nextSlice();
+    // series deleted after the incremental merge started are skipped
+    seriesSlice.removeIf(path -> !MManager.getInstance().pathExist(path.getFullPath()));
+    MergeResource mergeResource = new MergeResource(incrementalMerge.getSeqFiles(),
+        incrementalMerge.getUnseqFiles());
+    mergeResource.setCacheDeviceMeta(true);
+    mergeResource.setTTLLowerBound(getTTLLowerBound());
+    mergeResource.setColdDataPolicy(ColdDataPolicy.getPolicy(storageGroupName));
+    String taskName = storageGroupName + "-" + System.currentTimeMillis();
+    MergeTask mergeTask = new MergeTask(mergeResource, storageGroupSysDir.getPath(),
+        this::mergeEndAction, taskName, fullMerge, 1, storageGroupName);
+    mergeTask.setSeriesSlice(seriesSlice);
+    mergingModification = new ModificationFile(storageGroupSysDir + File.separator + MERGING_MODIFICAITON_FILE_NAME);
+    MergeManager.getINSTANCE().submitMainTask(mergeTask);
+    if (logger.isInfoEnabled()) {
+      logger.info("{} submits a merge task {}, merging {} series after {}/{} series of {} "
+              + "seqFiles, {} unseqFiles", storageGroupName, taskName, seriesSlice.size(),
+          incrementalMerge.getMergedSeriesNum(), incrementalMerge.getTotalSeriesNum(),
+          mergeResource.getSeqFiles().size(), mergeResource.getUnseqFiles().size());
+    }
+    isMerging = true;
+    mergeStartTime = System.currentTimeMillis();
+  }
+
+  /**
+   * Select adjacent sealed seqFiles by the SeqCompactionStrategy and submit a SeqCompactionTask to
+   * compact them into one file. If there are none, a cold seqFile that is not re-encoded by the
+   * ColdDataPolicy is compacted alone to re-encode it. Should be called with the insertLock held
+   * when no merge is running.
+   */
+  private void compactSeqFiles() {
+    long candidateFileSize = IoTDBDescriptor.getInstance().getConfig()
+        .getSeqFileCompactionThreshold();
+    List<TsFileResource> candidates = Collections.emptyList();
+    if (candidateFileSize > 0) {
+      ISeqCompactionSelector selector = getSeqCompactionSelector(candidateFileSize);
+      for (Entry<Long, List<TsFileResource>> entry : sequenceFileLists.entrySet()) {
+        try {
+          candidates = selector.select(entry.getValue());
+        } catch (IOException e) {
+          logger.error("{} cannot select the seqFiles of partition {} to be compacted",
+              storageGroupName, entry.getKey(), e);
+          continue;
+        }
+        if (!candidates.isEmpty()) {
+          mergingPartition = entry.getKey();
+          break;
+        }
+      }
+    }
+    ColdDataPolicy coldDataPolicy = ColdDataPolicy.getPolicy(storageGroupName);
+    if (candidates.isEmpty() && coldDataPolicy != null) {
+      candidates = selectColdFile(coldDataPolicy);
+    }
+    if (candidates.isEmpty()) {
+      logger.info("{} no seqFiles to be compacted", storageGroupName);
+      return;
+    }
+    long candidateSize = 0;
+    for (TsFileResource candidate : candidates) {
+      candidateSize += candidate.getFileSize();
+    }
+
+    String taskName = storageGroupName + "-" + System.currentTimeMillis();
+    SeqCompactionTask compactionTask = new SeqCompactionTask(candidates,
+        storageGroupSysDir.getPath(), this::compactionEndAction, taskName, storageGroupName);
+    compactionTask.setTTLLowerBound(getTTLLowerBound());
+    compactionTask.setColdDataPolicy(coldDataPolicy);
+    mergingModification = new ModificationFile(storageGroupSysDir + File.separator + MERGING_MODIFICAITON_FILE_NAME);
+    MergeManager.getINSTANCE().submitMainTask(compactionTask);
+    if (logger.isInfoEnabled()) {
+      logger.info("{} submits a compaction task {}, compacting {} seqFiles of {} bytes",
+          storageGroupName, taskName, candidates.size(), candidateSize);
+    }
+    isMerging = true;
+    mergeStartTime = System.currentTimeMillis();
+  }
+
+  /**
+   * @return the first sealed seqFile whose data are all cold but are not re-encoded, or an empty
+   * list if there is none.
+   */
+  private List<TsFileResource> selectColdFile(ColdDataPolicy coldDataPolicy) {
+    for (Entry<Long, List<TsFileResource>> entry : sequenceFileLists.entrySet()) {
+      for (TsFileResource seqFile : entry.getValue()) {
+        try {
+          if (!seqFile.isColdEncoded() && coldDataPolicy.isCold(seqFile)) {
+            mergingPartition = entry.getKey();
+            return Collections.singletonList(seqFile);
+          }
+        } catch (IOException e) {
+          logger.error("Cannot read the times of {}, it is checked again next time",
+              seqFile.getFile(), e);
+        }
+      }
+    }
+    return Collections.emptyList();
+  }
+
+  private ISeqCompactionSelector getSeqCompactionSelector(long candidateFileSize) {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    SeqCompactionStrategy strategy = config.getSeqCompactionStrategy(storageGroupName);
+    switch (strategy) {
+      case SIZE_TIERED:
+        return new SizeTieredSeqCompactionSelector(candidateFileSize,
+            config.getTsFileSizeThreshold(), config.getSeqCompactionFileNum());
+      case LEVELED:
+        return new LeveledSeqCompactionSelector(candidateFileSize,
+            config.getTsFileSizeThreshold(), config.getSeqCompactionFileNum());
+      default:
+        throw new UnsupportedOperationException("Unknown SeqCompactionStrategy " + strategy);
+    }
+  }
+
   private IMergeFileSelector getMergeFileSelector(long budget, MergeResource resource) {
     MergeFileStrategy strategy = IoTDBDescriptor.getInstance().getConfig().getMergeFileStrategy();
     switch (strategy) {
@@ -886,7 +1385,7 @@ public class StorageGroupProcessor {
   }
 
   protected void mergeEndAction(List<TsFileResource> seqFiles, List<TsFileResource> unseqFiles,
-      File mergeLog) {
+      List<Path> seriesSlice, File mergeLog) {
     logger.info("{} a merge task is ending...", storageGroupName);
 
     if (unseqFiles.isEmpty()) {
@@ -896,21 +1395,36 @@ public class StorageGroupProcessor {
       return;
     }
 
-    mergeLock.writeLock().lock();
-    try {
-      unSequenceFileList.removeAll(unseqFiles);
-    } finally {
-      mergeLock.writeLock().unlock();
+    boolean unseqFilesMerged = seriesSlice == null;
+    if (seriesSlice != null && incrementalMerge != null) {
+      incrementalMerge.onSliceMerged();
+      if (incrementalMerge.isFinished()) {
+        incrementalMerge = null;
+        unseqFilesMerged = true;
+      }
     }
 
-    for (TsFileResource unseqFile : unseqFiles) {
-      unseqFile.getMergeQueryLock().writeLock().lock();
+    if (unseqFilesMerged) {
+      mergeLock.writeLock().lock();
       try {
-        unseqFile.remove();
+        removeFiles(unSequenceFileLists, unseqFiles);
       } finally {
-        unseqFile.getMergeQueryLock().writeLock().unlock();
+        mergeLock.writeLock().unlock();
+      }
+      readAmplificationRecorder.clear(mergingPartition);
+
+      for (TsFileResource unseqFile : unseqFiles) {
+        unseqFile.getMergeQueryLock().writeLock().lock();
+        try {
+          unseqFile.remove();
+        } finally {
+          unseqFile.getMergeQueryLock().writeLock().unlock();
+        }
       }
+    } else {
+      markSliceMerged(unseqFiles, seriesSlice);
     }
+    Set<Path> mergedSeries = seriesSlice == null ? null : new HashSet<>(seriesSlice);
 
     for (int i = 0; i < seqFiles.size(); i++) {
       TsFileResource seqFile = seqFiles.get(i);
@@ -919,12 +1433,16 @@ public class StorageGroupProcessor {
       try {
         logger.debug("{} is updating the {} merged file's modification file", storageGroupName, i);
         try {
-          // remove old modifications and write modifications generated during merge
-          seqFile.removeModFile();
-          if (mergingModification != null) {
-            for (Modification modification : mergingModification.getModifications()) {
-              seqFile.getModFile().write(modification);
+          if (mergedSeries == null) {
+            // remove old modifications and write modifications generated during merge
+            seqFile.removeModFile();
+            if (mergingModification != null) {
+              for (Modification modification : mergingModification.getModifications()) {
+                seqFile.getModFile().write(modification);
+              }
             }
+          } else {
+            replaceSliceModifications(seqFile, mergedSeries);
           }
         } catch (IOException e) {
           logger.error("{} cannot clean the ModificationFile of {} after merge", storageGroupName,
@@ -951,8 +1469,246 @@ public class StorageGroupProcessor {
   }
 
 
+  /**
+   * The data of the merged series in the unseqFiles is deleted by modifications newer than all
+   * of their chunks, so queries read it from the seqFiles only and later slices skip it.
+   */
+  private void markSliceMerged(List<TsFileResource> unseqFiles, List<Path> seriesSlice) {
+    for (TsFileResource unseqFile : unseqFiles) {
+      unseqFile.getMergeQueryLock().writeLock().lock();
+      mergeLock.writeLock().lock();
+      try {
+        long version = getVersionController(unseqFile.getTimePartition()).nextVersion();
+        for (Path path : seriesSlice) {
+          if (unseqFile.containsDevice(path.getDevice())) {
+            unseqFile.getModFile().write(new Deletion(path, version, Long.MAX_VALUE));
+          }
+        }
+      } catch (IOException e) {
+        // the merged data is still in the unseqFile and will be merged again
+        logger.error("{} cannot mark the merged series in {}", storageGroupName,
+            unseqFile.getFile(), e);
+      } finally {
+        mergeLock.writeLock().unlock();
+        unseqFile.getMergeQueryLock().writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Only the old modifications of the merged series have been merged into a seqFile after a slice
+   * is merged, the modifications of the other series are kept. The modifications of the other
+   * series generated during merge are already in the file.
+   */
+  private void replaceSliceModifications(TsFileResource seqFile, Set<Path> mergedSeries)
+      throws IOException {
+    List<Modification> otherModifications = new ArrayList<>();
+    for (Modification modification : seqFile.getModFile().getModifications()) {
+      if (!mergedSeries.contains(modification.getPath())) {
+        otherModifications.add(modification);
+      }
+    }
+    seqFile.removeModFile();
+    for (Modification modification : otherModifications) {
+      seqFile.getModFile().write(modification);
+    }
+    if (mergingModification != null) {
+      for (Modification modification : mergingModification.getModifications()) {
+        if (mergedSeries.contains(modification.getPath())) {
+          seqFile.getModFile().write(modification);
+        }
+      }
+    }
+  }
+
+  protected void compactionEndAction(List<TsFileResource> seqFiles, File compactedFile,
+      File compactionLog) {
+    logger.info("{} a compaction task is ending...", storageGroupName);
+
+    if (seqFiles.isEmpty()) {
+      // compaction runtime exception arose, just end this compaction
+      removeMergingModification();
+      isMerging = false;
+      logger.info("{} a compaction task abnormally ends", storageGroupName);
+      return;
+    }
+
+    TsFileResource targetFile = seqFiles.get(0);
+    List<TsFileResource> removedFiles = seqFiles.subList(1, seqFiles.size());
+    for (TsFileResource seqFile : seqFiles) {
+      seqFile.getMergeQueryLock().writeLock().lock();
+    }
+    mergeLock.writeLock().lock();
+    try {
+      removeFiles(sequenceFileLists, removedFiles);
+      for (TsFileResource seqFile : removedFiles) {
+        for (Entry<String, Long> entry : seqFile.getStartTimeMap().entrySet()) {
+          targetFile.updateStartTime(entry.getKey(), entry.getValue());
+        }
+        for (Entry<String, Long> entry : seqFile.getEndTimeMap().entrySet()) {
+          targetFile.updateEndTime(entry.getKey(), entry.getValue());
+        }
+      }
+      for (TsFileResource seqFile : seqFiles) {
+        FileReaderManager.getInstance().closeFileAndRemoveReader(seqFile);
+        TsFileMetaDataCache.getInstance().remove(seqFile);
+        DeviceMetaDataCache.getInstance().remove(seqFile);
+      }
+      targetFile.getFile().delete();
+      FileUtils.moveFile(compactedFile, targetFile.getFile());
+      targetFile.serialize();
+
+      // remove old modifications and write modifications generated during compaction
+      targetFile.removeModFile();
+      if (mergingModification != null) {
+        for (Modification modification : mergingModification.getModifications()) {
+          targetFile.getModFile().write(modification);
+        }
+      }
+      for (TsFileResource seqFile : removedFiles) {
+        seqFile.remove();
+      }
+      removeMergingModification();
+      compactionLog.delete();
+    } catch (IOException e) {
+      // the log is kept so the compaction will be finished when the system reboots
+      logger.error("{} cannot replace the seqFiles with the compacted file {}", storageGroupName,
+          compactedFile, e);
+    } finally {
+      isMerging = false;
+      mergeLock.writeLock().unlock();
+      for (TsFileResource seqFile : seqFiles) {
+        seqFile.getMergeQueryLock().writeLock().unlock();
+      }
+    }
+    logger.info("{} a compaction task ends", storageGroupName);
+  }
+
+  private void removeMergingModification() {
+    try {
+      if (mergingModification != null) {
+        mergingModification.remove();
+        mergingModification = null;
+      }
+    } catch (IOException e) {
+      logger.error("{} cannot remove merging modification ", storageGroupName, e);
+    }
+  }
+
+  public long getDataTTL() {
+    return dataTTL;
+  }
+
+  public void setDataTTL(long dataTTL) {
+    this.dataTTL = dataTTL;
+    logger.info("{} set TTL to {}", storageGroupName, dataTTL);
+  }
+
+  /**
+   * @return whether the data of the timestamp is not expired by the TTL.
+   */
+  public boolean isAlive(long time) {
+    return time >= getTTLLowerBound();
+  }
+
+  /**
+   * @return the earliest timestamp that is not expired, or Long.MIN_VALUE if no data expires.
+   */
+  private long getTTLLowerBound() {
+    long ttl = dataTTL;
+    if (ttl == Long.MAX_VALUE) {
+      return Long.MIN_VALUE;
+    }
+    long now = StorageEngine.getCurrentTime();
+    // the data cannot expire before the beginning of time
+    return now - ttl > now ? Long.MIN_VALUE : now - ttl;
+  }
+
+  private static boolean isDeviceExpired(TsFileResource tsFileResource, String deviceId,
+      long ttlLowerBound) throws IOException {
+    Long endTime = tsFileResource.getEndTimeMap().get(deviceId);
+    return endTime != null && endTime < ttlLowerBound;
+  }
+
+  /**
+   * Remove the sealed TsFiles whose data are all expired by the TTL. The files in a merge are
+   * skipped and checked again next time.
+   */
+  public void checkFilesTTL() {
+    if (dataTTL == Long.MAX_VALUE) {
+      return;
+    }
+    List<TsFileResource> expiredFiles = new ArrayList<>();
+    writeLock();
+    try {
+      if (isMerging || incrementalMerge != null) {
+        logger.info("{} is merging, the expired files are removed later", storageGroupName);
+        return;
+      }
+      long ttlLowerBound = getTTLLowerBound();
+      mergeLock.writeLock().lock();
+      try {
+        collectExpiredFiles(sequenceFileLists, ttlLowerBound, expiredFiles);
+        collectExpiredFiles(unSequenceFileLists, ttlLowerBound, expiredFiles);
+      } finally {
+        mergeLock.writeLock().unlock();
+      }
+    } finally {
+      writeUnlock();
+    }
+
+    // wait for the queries on the files out of the insertLock, as they may need it
+    for (TsFileResource expiredFile : expiredFiles) {
+      expiredFile.getMergeQueryLock().writeLock().lock();
+      try {
+        expiredFile.remove();
+      } finally {
+        expiredFile.getMergeQueryLock().writeLock().unlock();
+      }
+      logger.info("{} removed the expired file {}", storageGroupName, expiredFile.getFile());
+    }
+  }
+
+  private static void collectExpiredFiles(TreeMap<Long, List<TsFileResource>> fileLists,
+      long ttlLowerBound, List<TsFileResource> expiredFiles) {
+    for (List<TsFileResource> fileList : fileLists.values()) {
+      Iterator<TsFileResource> iterator = fileList.iterator();
+      while (iterator.hasNext()) {
+        TsFileResource tsFileResource = iterator.next();
+        try {
+          if (tsFileResource.isClosed() && isFileExpired(tsFileResource, ttlLowerBound)) {
+            iterator.remove();
+            expiredFiles.add(tsFileResource);
+          }
+        } catch (IOException e) {
+          logger.error("Cannot read the times of {}, its TTL is checked again next time",
+              tsFileResource.getFile(), e);
+        }
+      }
+    }
+  }
+
+  private static boolean isFileExpired(TsFileResource tsFileResource, long ttlLowerBound)
+      throws IOException {
+    Map<String, Long> endTimes = tsFileResource.getEndTimeMap();
+    if (endTimes.isEmpty() || endTimes.size() < tsFileResource.getStartTimeMap().size()) {
+      return false;
+    }
+    for (Long endTime : endTimes.values()) {
+      if (endTime >= ttlLowerBound) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the working sequence TsFileProcessor of the latest time partition, or null if there
+   * is none.
+   */
   public TsFileProcessor getWorkSequenceTsFileProcessor() {
-    return workSequenceTsFileProcessor;
+    Entry<Long, TsFileProcessor> lastEntry = workSequenceTsFileProcessors.lastEntry();
+    return lastEntry == null ? null : lastEntry.getValue();
   }
 
   @FunctionalInterface
@@ -37,7 +37,7 @@ import org.apache.iotdb.db.engine.flush.NotifyFlushMemTable;
 import org.apache.iotdb.db.engine.memtable.IMemTable;
 import org.apache.iotdb.db.engine.memtable.MemSeriesLazyMerger;
 import org.apache.iotdb.db.engine.modification.Deletion;
-import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.modification.DeletionIndex.SeriesDeletions;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
 import org.apache.iotdb.db.engine.storagegroup.StorageGroupProcessor.CloseTsFileCallBack;
@@ -147,12 +147,17 @@ public class TsFileProcessor {
         return false;
       }
     }
-    // update start time of this memtable
-    tsFileResource.updateStartTime(insertPlan.getDeviceId(), insertPlan.getTime());
-    //for sequence tsfile, we update the endTime only when the file is prepared to be closed.
-    //for unsequence tsfile, we have to update the endTime for each insertion.
-    if (!sequence) {
-      tsFileResource.updateEndTime(insertPlan.getDeviceId(), insertPlan.getTime());
+    try {
+      // update start time of this memtable
+      tsFileResource.updateStartTime(insertPlan.getDeviceId(), insertPlan.getTime());
+      //for sequence tsfile, we update the endTime only when the file is prepared to be closed.
+      //for unsequence tsfile, we have to update the endTime for each insertion.
+      if (!sequence) {
+        tsFileResource.updateEndTime(insertPlan.getDeviceId(), insertPlan.getTime());
+      }
+    } catch (IOException e) {
+      logger.error("update the times of {} failed", tsFileResource.getFile(), e);
+      return false;
     }
 
     // insert insertPlan to the work memtable
@@ -179,12 +184,20 @@ public class TsFileProcessor {
       }
     }
 
-    tsFileResource.updateStartTime(batchInsertPlan.getDeviceId(), batchInsertPlan.getMinTime());
+    try {
+      tsFileResource.updateStartTime(batchInsertPlan.getDeviceId(), batchInsertPlan.getMinTime());
 
-    //for sequence tsfile, we update the endTime only when the file is prepared to be closed.
-    //for unsequence tsfile, we have to update the endTime for each insertion.
-    if (!sequence) {
-      tsFileResource.updateEndTime(batchInsertPlan.getDeviceId(), batchInsertPlan.getMaxTime());
+      //for sequence tsfile, we update the endTime only when the file is prepared to be closed.
+      //for unsequence tsfile, we have to update the endTime for each insertion.
+      if (!sequence) {
+        tsFileResource.updateEndTime(batchInsertPlan.getDeviceId(), batchInsertPlan.getMaxTime());
+      }
+    } catch (IOException e) {
+      logger.error("update the times of {} failed", tsFileResource.getFile(), e);
+      for (int index: indexes) {
+        results[index] = TSStatusType.INTERNAL_SERVER_ERROR.getStatusCode();
+      }
+      return false;
     }
 
     // insert insertPlan to the work memtable
@@ -565,13 +578,12 @@ public class TsFileProcessor {
           Collections.emptyMap());
 
       ModificationFile modificationFile = tsFileResource.getModFile();
-      List<Modification> modifications = context.getPathModifications(modificationFile,
+      SeriesDeletions deletions = context.getPathDeletions(modificationFile,
           deviceId + IoTDBConstant.PATH_SEPARATOR + measurementId);
 
       List<ChunkMetaData> chunkMetaDataList = writer
           .getVisibleMetadataList(deviceId, measurementId, dataType);
-      QueryUtils.modifyChunkMetaData(chunkMetaDataList,
-          modifications);
+      QueryUtils.modifyChunkMetaData(chunkMetaDataList, deletions);
 
       return new Pair<>(timeValuePairSorter, chunkMetaDataList);
     } finally {
@@ -27,28 +27,46 @@ import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.db.engine.cache.TimeIndexCache;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.fileSystem.TSFileFactory;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class TsFileResource {
 
+  private static final Logger logger = LoggerFactory.getLogger(TsFileResource.class);
+
   private File file;
 
+  /**
+   * the path of the .resource file, built once as the key of the TimeIndexCache.
+   */
+  private String resourceFilePath;
+
   public static final String RESOURCE_SUFFIX = ".resource";
   public static final String TEMP_SUFFIX = ".temp";
 
   /**
-   * device -> start time
+   * device -> start time. It is null after a sealed tsfile is serialized or deserialized, then the
+   * times are read from its DeviceTimeIndex in the TimeIndexCache, and it is built from the index
+   * again if the times are updated.
    */
-  private Map<String, Long> startTimeMap;
+  private volatile Map<String, Long> startTimeMap;
 
   /**
-   * device -> end time. It is null if it's an unsealed sequence tsfile
+   * device -> end time. It is null when startTimeMap is null.
    */
-  private Map<String, Long> endTimeMap;
+  private volatile Map<String, Long> endTimeMap;
+
+  /**
+   * the index of a removed tsfile, which is kept for the queries still using the file as its
+   * .resource file is deleted.
+   */
+  private volatile DeviceTimeIndex removedTimeIndex;
 
   private TsFileProcessor processor;
 
@@ -56,6 +74,30 @@ public class TsFileResource {
 
   private volatile boolean closed = false;
 
+  /**
+   * the number of compactions the data of this tsfile has gone through, a flushed tsfile is of
+   * level 0 and a compacted one is one level higher than the highest of its sources.
+   */
+  private volatile int level;
+
+  /**
+   * whether the chunks of this tsfile have been re-encoded by the ColdDataPolicy of its storage
+   * group.
+   */
+  private volatile boolean coldEncoded;
+
+  /**
+   * whether the level and the cold flag are known. They are stored after the time index in the
+   * .resource file, so a deserialized resource reads them when its index is loaded.
+   */
+  private volatile boolean tailLoaded = true;
+
+  /**
+   * the time partition that the data of this tsfile belongs to, it is decided by the folder of the
+   * tsfile.
+   */
+  private long timePartition;
+
   /**
    * Chunk metadata list of unsealed tsfile. Only be set in a temporal TsFileResource in a query
    * process.
@@ -107,53 +149,108 @@ public class TsFileResource {
   public void serialize() throws IOException {
     try (OutputStream outputStream = new BufferedOutputStream(
         new FileOutputStream(file + RESOURCE_SUFFIX + TEMP_SUFFIX))) {
-      ReadWriteIOUtils.write(this.startTimeMap.size(), outputStream);
-      for (Entry<String, Long> entry : this.startTimeMap.entrySet()) {
+      Map<String, Long> startTimes = getStartTimeMap();
+      ReadWriteIOUtils.write(startTimes.size(), outputStream);
+      for (Entry<String, Long> entry : startTimes.entrySet()) {
         ReadWriteIOUtils.write(entry.getKey(), outputStream);
         ReadWriteIOUtils.write(entry.getValue(), outputStream);
       }
-      ReadWriteIOUtils.write(this.endTimeMap.size(), outputStream);
-      for (Entry<String, Long> entry : this.endTimeMap.entrySet()) {
+      Map<String, Long> endTimes = getEndTimeMap();
+      ReadWriteIOUtils.write(endTimes.size(), outputStream);
+      for (Entry<String, Long> entry : endTimes.entrySet()) {
         ReadWriteIOUtils.write(entry.getKey(), outputStream);
         ReadWriteIOUtils.write(entry.getValue(), outputStream);
       }
+      ReadWriteIOUtils.write(getLevel(), outputStream);
+      ReadWriteIOUtils.write(isColdEncoded(), outputStream);
     }
     File src = TSFileFactory.INSTANCE.getFile(file + RESOURCE_SUFFIX + TEMP_SUFFIX);
     File dest = TSFileFactory.INSTANCE.getFile(file + RESOURCE_SUFFIX);
     dest.delete();
     FileUtils.moveFile(src, dest);
+    TimeIndexCache.getInstance().remove(this);
+    if (closed) {
+      useTimeIndex();
+    }
   }
 
+  /**
+   * attach the resource to its .resource file. The file is not read here, the time index is read
+   * into the TimeIndexCache on the first use of the time maps, together with the level and the
+   * cold flag, so a restart does not parse the .resource files of all TsFiles.
+   */
   public void deSerialize() throws IOException {
+    File resourceFile = TSFileFactory.INSTANCE.getFile(getResourceFilePath());
+    if (resourceFile.length() == 0) {
+      throw new FileNotFoundException(resourceFile + " does not exist or is empty");
+    }
+    TimeIndexCache.getInstance().remove(this);
+    tailLoaded = false;
+    useTimeIndex();
+  }
+
+  /**
+   * read the time index from the .resource file, this is called by the TimeIndexCache when the
+   * index is not cached.
+   */
+  public DeviceTimeIndex readTimeIndex() throws IOException {
     try (InputStream inputStream = new BufferedInputStream(
-        new FileInputStream(file + RESOURCE_SUFFIX))) {
-      int size = ReadWriteIOUtils.readInt(inputStream);
-      Map<String, Long> startTimes = new HashMap<>();
-      for (int i = 0; i < size; i++) {
-        String path = ReadWriteIOUtils.readString(inputStream);
-        long time = ReadWriteIOUtils.readLong(inputStream);
-        startTimes.put(path, time);
-      }
-      size = ReadWriteIOUtils.readInt(inputStream);
-      Map<String, Long> endTimes = new HashMap<>();
-      for (int i = 0; i < size; i++) {
-        String path = ReadWriteIOUtils.readString(inputStream);
-        long time = ReadWriteIOUtils.readLong(inputStream);
-        endTimes.put(path, time);
+        new FileInputStream(getResourceFilePath()))) {
+      DeviceTimeIndex index = DeviceTimeIndex.deserialize(inputStream);
+      synchronized (this) {
+        if (!tailLoaded) {
+          // the .resource files written by older versions end without the level
+          if (inputStream.available() > 0) {
+            level = ReadWriteIOUtils.readInt(inputStream);
+          }
+          if (inputStream.available() > 0) {
+            coldEncoded = ReadWriteIOUtils.readBool(inputStream);
+          }
+          tailLoaded = true;
+        }
       }
-      this.startTimeMap = startTimes;
-      this.endTimeMap = endTimes;
+      return index;
+    }
+  }
+
+  private void useTimeIndex() {
+    startTimeMap = null;
+    endTimeMap = null;
+  }
+
+  private DeviceTimeIndex getTimeIndex() throws IOException {
+    DeviceTimeIndex index = removedTimeIndex;
+    if (index != null) {
+      return index;
+    }
+    return TimeIndexCache.getInstance().get(this);
+  }
+
+  /**
+   * build the mutable time maps from the index before the times of a sealed tsfile are updated.
+   */
+  private synchronized void loadTimeMaps() throws IOException {
+    if (startTimeMap == null) {
+      DeviceTimeIndex index = getTimeIndex();
+      endTimeMap = new ConcurrentHashMap<>(index.getEndTimeMap());
+      startTimeMap = new ConcurrentHashMap<>(index.getStartTimeMap());
     }
   }
 
-  public void updateStartTime(String device, long time) {
+  public void updateStartTime(String device, long time) throws IOException {
+    if (startTimeMap == null) {
+      loadTimeMaps();
+    }
     long startTime = startTimeMap.getOrDefault(device, Long.MAX_VALUE);
     if (time < startTime) {
       startTimeMap.put(device, time);
     }
   }
 
-  public void updateEndTime(String device, long time) {
+  public void updateEndTime(String device, long time) throws IOException {
+    if (startTimeMap == null) {
+      loadTimeMaps();
+    }
     long endTime = endTimeMap.getOrDefault(device, Long.MIN_VALUE);
     if (time > endTime) {
       endTimeMap.put(device, time);
@@ -164,8 +261,11 @@ public class TsFileResource {
     return TSFileFactory.INSTANCE.getFile(file + RESOURCE_SUFFIX).exists();
   }
 
-  public void forceUpdateEndTime(String device, long time) {
-      endTimeMap.put(device, time);
+  public void forceUpdateEndTime(String device, long time) throws IOException {
+    if (startTimeMap == null) {
+      loadTimeMaps();
+    }
+    endTimeMap.put(device, time);
   }
 
   public List<ChunkMetaData> getChunkMetaDatas() {
@@ -183,28 +283,40 @@ public class TsFileResource {
     return modFile;
   }
 
-  public boolean containsDevice(String deviceId) {
-    return startTimeMap.containsKey(deviceId);
+  public boolean containsDevice(String deviceId) throws IOException {
+    return getStartTimeMap().containsKey(deviceId);
   }
 
   public File getFile() {
     return file;
   }
 
+  public String getResourceFilePath() {
+    String path = resourceFilePath;
+    if (path == null) {
+      path = file.getPath() + RESOURCE_SUFFIX;
+      resourceFilePath = path;
+    }
+    return path;
+  }
+
   public long getFileSize() {
     return file.length();
   }
 
-  public Map<String, Long> getStartTimeMap() {
-    return startTimeMap;
+  public Map<String, Long> getStartTimeMap() throws IOException {
+    Map<String, Long> map = startTimeMap;
+    return map != null ? map : getTimeIndex().getStartTimeMap();
   }
 
-  public void setEndTimeMap(Map<String, Long> endTimeMap) {
+  public void setEndTimeMap(Map<String, Long> endTimeMap) throws IOException {
+    loadTimeMaps();
     this.endTimeMap = endTimeMap;
   }
 
-  public Map<String, Long> getEndTimeMap() {
-    return endTimeMap;
+  public Map<String, Long> getEndTimeMap() throws IOException {
+    Map<String, Long> map = endTimeMap;
+    return map != null ? map : getTimeIndex().getEndTimeMap();
   }
 
   public boolean isClosed() {
@@ -219,6 +331,9 @@ public class TsFileResource {
     }
     processor = null;
     chunkMetaDatas = null;
+    if (fileExists()) {
+      useTimeIndex();
+    }
   }
 
   public TsFileProcessor getUnsealedFileProcessor() {
@@ -235,6 +350,14 @@ public class TsFileResource {
   }
 
   public void remove() {
+    if (startTimeMap == null && removedTimeIndex == null) {
+      try {
+        removedTimeIndex = TimeIndexCache.getInstance().get(this);
+      } catch (IOException e) {
+        logger.warn("Cannot read the resource file of {} before removing it", file, e);
+      }
+    }
+    TimeIndexCache.getInstance().remove(this);
     file.delete();
     TSFileFactory.INSTANCE.getFile(file.getPath() + RESOURCE_SUFFIX).delete();
     TSFileFactory.INSTANCE.getFile(file.getPath() + ModificationFile.FILE_SUFFIX).delete();
@@ -262,6 +385,44 @@ public class TsFileResource {
     return Objects.hash(file);
   }
 
+  public int getLevel() throws IOException {
+    loadTail();
+    return level;
+  }
+
+  public void setLevel(int level) throws IOException {
+    loadTail();
+    this.level = level;
+  }
+
+  public boolean isColdEncoded() throws IOException {
+    loadTail();
+    return coldEncoded;
+  }
+
+  public void setColdEncoded(boolean coldEncoded) throws IOException {
+    loadTail();
+    this.coldEncoded = coldEncoded;
+  }
+
+  private void loadTail() throws IOException {
+    if (!tailLoaded) {
+      TimeIndexCache.getInstance().get(this);
+      if (!tailLoaded) {
+        // the index was cached through another resource of the same file
+        readTimeIndex();
+      }
+    }
+  }
+
+  public long getTimePartition() {
+    return timePartition;
+  }
+
+  public void setTimePartition(long timePartition) {
+    this.timePartition = timePartition;
+  }
+
   public void setClosed(boolean closed) {
     this.closed = closed;
   }
@@ -44,8 +44,16 @@ public class SimpleFileVersionController implements VersionController {
   private String directoryPath;
 
   public SimpleFileVersionController(String directoryPath) throws IOException {
+    this(directoryPath, 0);
+  }
+
+  /**
+   * @param initialVersion the version to start from if no version is stored in the directory
+   */
+  public SimpleFileVersionController(String directoryPath, long initialVersion)
+      throws IOException {
     this.directoryPath = directoryPath;
-    restore();
+    restore(initialVersion);
   }
 
   @Override
@@ -83,7 +91,7 @@ public class SimpleFileVersionController implements VersionController {
     prevVersion = currVersion;
   }
 
-  private void restore() throws IOException {
+  private void restore(long initialVersion) throws IOException {
     File directory = new File(directoryPath);
     File[] versionFiles = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX));
     File versionFile;
@@ -105,8 +113,8 @@ public class SimpleFileVersionController implements VersionController {
         }
       }
     } else {
-      versionFile = new File(directory, FILE_PREFIX + "0");
-      prevVersion = 0;
+      versionFile = new File(directory, FILE_PREFIX + initialVersion);
+      prevVersion = initialVersion;
       new FileOutputStream(versionFile).close();
     }
     // prevent overlapping in case of failure
@@ -0,0 +1,239 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The children of a {@code MNode}, kept compact since a tree with tens of millions of timeseries
+ * has about as many children entries.
+ * <p>
+ * The children are stored in an array in insertion order, so iterations list them in the order
+ * they were created like the LinkedHashMap used before, and "select *" and "show timeseries" keep
+ * that order. Most nodes have only a few children, which are looked up by scanning the array. A
+ * ConcurrentHashMap index is only built when a node has more than ARRAY_LIMIT children. A removed
+ * child leaves an empty slot that is dropped when the array grows.
+ * <p>
+ * Lookups and iterations do not lock, so they never block while other threads create timeseries.
+ * Iterators are weakly consistent: they never throw ConcurrentModificationException and may or
+ * may not show the children added or removed after they are created. Additions and removals are
+ * serialized on the map itself. The key of a child must be its name.
+ */
+class ChildrenMap extends AbstractMap<String, MNode> implements Serializable {
+
+  private static final long serialVersionUID = 3413208553446428542L;
+
+  /**
+   * a node with more children than this builds the index.
+   */
+  static final int ARRAY_LIMIT = 16;
+
+  private static final MNode[] EMPTY = new MNode[0];
+
+  // the children in insertion order, a removed one leaves null
+  private volatile MNode[] children = EMPTY;
+  // the number of used slots in children, including the empty ones. A reader must read it before
+  // children, as writers publish a new array before its slots.
+  private volatile int slots;
+  private volatile int size;
+  private volatile ConcurrentHashMap<String, MNode> index;
+  private transient Set<Entry<String, MNode>> entrySet;
+
+  @Override
+  public MNode get(Object name) {
+    ConcurrentHashMap<String, MNode> map = index;
+    if (map != null) {
+      return map.get(name);
+    }
+    int n = slots;
+    MNode[] array = children;
+    for (int i = 0; i < n && i < array.length; i++) {
+      MNode child = array[i];
+      if (child != null && child.getName().equals(name)) {
+        return child;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public boolean containsKey(Object name) {
+    return get(name) != null;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * like LinkedHashMap, replacing an existing child keeps its position.
+   */
+  @Override
+  public synchronized MNode put(String name, MNode child) {
+    if (get(name) != null) {
+      int pos = indexOf(name);
+      MNode previous = children[pos];
+      children[pos] = child;
+      if (index != null) {
+        index.put(name, child);
+      }
+      return previous;
+    }
+    if (slots == children.length) {
+      grow();
+    }
+    children[slots] = child;
+    slots = slots + 1;
+    size = size + 1;
+    if (index != null) {
+      index.put(name, child);
+    } else if (size > ARRAY_LIMIT) {
+      ConcurrentHashMap<String, MNode> map = new ConcurrentHashMap<>(size * 2);
+      for (int i = 0; i < slots; i++) {
+        if (children[i] != null) {
+          map.put(children[i].getName(), children[i]);
+        }
+      }
+      index = map;
+    }
+    return null;
+  }
+
+  /**
+   * copy the children without the empty slots into a larger array.
+   */
+  private void grow() {
+    MNode[] array = new MNode[size < 2 ? 2 : size + (size >> 1)];
+    int n = 0;
+    for (int i = 0; i < slots; i++) {
+      if (children[i] != null) {
+        array[n++] = children[i];
+      }
+    }
+    children = array;
+    slots = n;
+  }
+
+  @Override
+  public synchronized MNode remove(Object name) {
+    if (get(name) == null) {
+      return null;
+    }
+    int pos = indexOf(name);
+    MNode previous = children[pos];
+    if (index != null) {
+      index.remove(name);
+    }
+    children[pos] = null;
+    size = size - 1;
+    if (size == 0) {
+      children = EMPTY;
+      slots = 0;
+    }
+    return previous;
+  }
+
+  private int indexOf(Object name) {
+    for (int i = 0; i < slots; i++) {
+      if (children[i] != null && children[i].getName().equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public synchronized void clear() {
+    index = null;
+    children = EMPTY;
+    slots = 0;
+    size = 0;
+  }
+
+  @Override
+  public Set<Entry<String, MNode>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  private class EntrySet extends AbstractSet<Entry<String, MNode>> {
+
+    @Override
+    public Iterator<Entry<String, MNode>> iterator() {
+      return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
+  private class EntryIterator implements Iterator<Entry<String, MNode>> {
+
+    private final int end = slots;
+    private final MNode[] array = children;
+    private int pos = 0;
+    private MNode next;
+    private String lastName;
+
+    @Override
+    public boolean hasNext() {
+      // skip the slots of removed children
+      while (next == null && pos < end && pos < array.length) {
+        next = array[pos++];
+      }
+      return next != null;
+    }
+
+    @Override
+    public Entry<String, MNode> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      MNode child = next;
+      next = null;
+      lastName = child.getName();
+      return new SimpleImmutableEntry<>(lastName, child);
+    }
+
+    @Override
+    public void remove() {
+      if (lastName == null) {
+        throw new IllegalStateException();
+      }
+      ChildrenMap.this.remove(lastName);
+      lastName = null;
+    }
+  }
+}
@@ -40,7 +40,6 @@ import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 public class MGraph implements Serializable {
 
   private static final long serialVersionUID = 8214849219614352834L;
-  private static final String DOUB_SEPARATOR = "\\.";
   private static final String TIME_SERIES_INCORRECT = "Timeseries's root is not Correct. RootName: ";
   private MTree mtree;
   private HashMap<String, PTree> ptreeMap;
@@ -50,6 +49,19 @@ public class MGraph implements Serializable {
     ptreeMap = new HashMap<>();
   }
 
+  MGraph(MTree mtree, HashMap<String, PTree> ptreeMap) {
+    this.mtree = mtree;
+    this.ptreeMap = ptreeMap;
+  }
+
+  MTree getMTree() {
+    return mtree;
+  }
+
+  Map<String, PTree> getPTreeMap() {
+    return ptreeMap;
+  }
+
   /**
    * Add a {@code PTree} to current {@code MGraph}.
    */
@@ -80,7 +92,7 @@ public class MGraph implements Serializable {
    */
   public void addPathToMTree(String path, TSDataType dataType, TSEncoding encoding,
       CompressionType compressor, Map<String, String> props) throws PathErrorException {
-    String[] nodes = path.trim().split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path.trim());
     if (nodes.length == 0) {
       throw new PathErrorException("Timeseries is null");
     }
@@ -91,11 +103,11 @@ public class MGraph implements Serializable {
    * Add a seriesPath to {@code PTree}.
    */
   void addPathToPTree(String path) throws PathErrorException {
-    String[] nodes = path.trim().split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path.trim());
     if (nodes.length == 0) {
       throw new PathErrorException("Timeseries is null.");
     }
-    String rootName = path.trim().split(DOUB_SEPARATOR)[0];
+    String rootName = nodes[0];
     if (ptreeMap.containsKey(rootName)) {
       PTree ptree = ptreeMap.get(rootName);
       ptree.addPath(path);
@@ -110,11 +122,11 @@ public class MGraph implements Serializable {
    * @param path a seriesPath belongs to MTree or PTree
    */
   String deletePath(String path) throws PathErrorException {
-    String[] nodes = path.trim().split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path.trim());
     if (nodes.length == 0) {
       throw new PathErrorException("Timeseries is null");
     }
-    String rootName = path.trim().split(DOUB_SEPARATOR)[0];
+    String rootName = nodes[0];
     if (mtree.getRoot().getName().equals(rootName)) {
       return mtree.deletePath(path);
     } else if (ptreeMap.containsKey(rootName)) {
@@ -130,7 +142,7 @@ public class MGraph implements Serializable {
    * Link a {@code MNode} to a {@code PNode} in current PTree.
    */
   void linkMNodeToPTree(String path, String mpath) throws PathErrorException {
-    String ptreeName = path.trim().split(DOUB_SEPARATOR)[0];
+    String ptreeName = MetaUtils.getNodeNames(path.trim())[0];
     if (!ptreeMap.containsKey(ptreeName)) {
       throw new PathErrorException("Error: PTree Path Not Correct. Path: " + path);
     } else {
@@ -142,7 +154,7 @@ public class MGraph implements Serializable {
    * Unlink a {@code MNode} from a {@code PNode} in current PTree.
    */
   void unlinkMNodeFromPTree(String path, String mpath) throws PathErrorException {
-    String ptreeName = path.trim().split(DOUB_SEPARATOR)[0];
+    String ptreeName = MetaUtils.getNodeNames(path.trim())[0];
     if (!ptreeMap.containsKey(ptreeName)) {
       throw new PathErrorException("Error: PTree Path Not Correct. Path: " + path);
     } else {
@@ -179,7 +191,7 @@ public class MGraph implements Serializable {
    */
   HashMap<String, ArrayList<String>> getAllPathGroupByFilename(String path)
       throws PathErrorException {
-    String rootName = path.trim().split(DOUB_SEPARATOR)[0];
+    String rootName = MetaUtils.getNodeNames(path.trim())[0];
     if (mtree.getRoot().getName().equals(rootName)) {
       return mtree.getAllPath(path);
     } else if (ptreeMap.containsKey(rootName)) {
@@ -193,7 +205,7 @@ public class MGraph implements Serializable {
    * function for getting all timeseries paths under the given seriesPath.
    */
   List<List<String>> getShowTimeseriesPath(String path) throws PathErrorException {
-    String rootName = path.trim().split(DOUB_SEPARATOR)[0];
+    String rootName = MetaUtils.getNodeNames(path.trim())[0];
     if (mtree.getRoot().getName().equals(rootName)) {
       return mtree.getShowTimeseriesPath(path);
     } else if (ptreeMap.containsKey(rootName)) {
@@ -300,6 +312,10 @@ public class MGraph implements Serializable {
     return mtree.getStorageGroupNameByPath(path);
   }
 
+  String getStorageGroupNameByPath(String[] nodes) throws PathErrorException {
+    return mtree.getStorageGroupNameByPath(nodes);
+  }
+
   String getStorageGroupNameByPath(MNode node, String path) throws PathErrorException {
     return mtree.getStorageGroupNameByPath(node, path);
   }
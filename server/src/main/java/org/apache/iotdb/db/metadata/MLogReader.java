@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * MLogReader reads the entries of a metadata log written by {@code MLogWriter} from head to tail.
+ * It stops at the first entry that is incomplete or fails its check sum, which is left behind by
+ * a crash in the middle of a write, and getValidLength() tells where the log should be truncated
+ * before it is appended again.
+ */
+public class MLogReader implements AutoCloseable {
+
+  // size + checksum
+  private static final int LEAST_ENTRY_SIZE = 12;
+
+  private DataInputStream logStream;
+  private long length;
+  private long validLength;
+  private CRC32 checkSummer = new CRC32();
+  private String next;
+  private boolean end;
+
+  /**
+   * @param offset the length of the log to skip, it must be the end of an entry
+   */
+  public MLogReader(File logFile, long offset) throws IOException {
+    FileInputStream fileInputStream = new FileInputStream(logFile);
+    fileInputStream.getChannel().position(offset);
+    logStream = new DataInputStream(new BufferedInputStream(fileInputStream));
+    length = logFile.length();
+    validLength = offset;
+  }
+
+  public boolean hasNext() throws IOException {
+    if (next != null) {
+      return true;
+    }
+    if (end || length - validLength < LEAST_ENTRY_SIZE) {
+      return false;
+    }
+    try {
+      int entrySize = logStream.readInt();
+      if (entrySize < 0 || entrySize > length - validLength - LEAST_ENTRY_SIZE) {
+        end = true;
+        return false;
+      }
+      byte[] bytes = new byte[entrySize];
+      logStream.readFully(bytes);
+      long checkSum = logStream.readLong();
+      checkSummer.reset();
+      checkSummer.update(bytes, 0, entrySize);
+      if (checkSummer.getValue() != checkSum) {
+        end = true;
+        return false;
+      }
+      next = new String(bytes, StandardCharsets.UTF_8);
+      validLength += LEAST_ENTRY_SIZE + entrySize;
+      return true;
+    } catch (EOFException e) {
+      // the file is shorter than it was when the reader was opened
+      end = true;
+      return false;
+    }
+  }
+
+  public String next() throws IOException {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    String entry = next;
+    next = null;
+    return entry;
+  }
+
+  /**
+   * @return the length of the log up to the end of the last entry read, after hasNext() returns
+   * false it is where the intact part of the log ends.
+   */
+  public long getValidLength() {
+    return validLength;
+  }
+
+  @Override
+  public void close() throws IOException {
+    logStream.close();
+  }
+}
@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+
+/**
+ * MLogWriter appends the entries of the metadata log to a file. Like the WAL written by {@code
+ * LogWriter}, each entry is framed by its length and followed by its CRC32, so that replaying the
+ * log detects an entry torn by a crash and stops before it. An entry is the text of one metadata
+ * operation, see {@code MetadataOperationType}.
+ * <p>
+ * Entries are appended to a memory buffer and written out by force(), which commits them in
+ * groups: while one thread writes and syncs the file, other threads append to the buffer and the
+ * next force() writes all of them with one write and one fsync.
+ */
+public class MLogWriter implements AutoCloseable {
+
+  private File logFile;
+  private boolean forceToDisk;
+  private FileOutputStream fileOutputStream;
+  private FileChannel channel;
+
+  // the entries appended but not written yet, guarded by this
+  private PublicBAOS buffer = new PublicBAOS();
+  private DataOutputStream bufferStream = new DataOutputStream(buffer);
+  private CRC32 checkSummer = new CRC32();
+  private long appendedNum;
+
+  // guarded by forceLock, a failed write leaves its entries here to be written first next time
+  private PublicBAOS writingBuffer = new PublicBAOS();
+  private long writtenNum;
+  // set when the bytes of a failed write cannot be removed, no entry may follow them
+  private IOException writeFailure;
+  private final Object forceLock = new Object();
+
+  /**
+   * @param forceToDisk whether force() syncs the file to the disk or only writes it to the OS
+   */
+  public MLogWriter(File logFile, boolean forceToDisk) {
+    this.logFile = logFile;
+    this.forceToDisk = forceToDisk;
+  }
+
+  /**
+   * @return the number of entries appended by this writer so far, pass it to force() to wait
+   * until this entry is written.
+   */
+  public synchronized long append(String entry) throws IOException {
+    byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+    checkSummer.reset();
+    checkSummer.update(bytes, 0, bytes.length);
+    bufferStream.writeInt(bytes.length);
+    bufferStream.write(bytes);
+    bufferStream.writeLong(checkSummer.getValue());
+    return ++appendedNum;
+  }
+
+  /**
+   * @return the number of entries appended by this writer so far.
+   */
+  public synchronized long append(List<String> entries) throws IOException {
+    for (String entry : entries) {
+      append(entry);
+    }
+    return appendedNum;
+  }
+
+  /**
+   * write the appended entries to the file unless the first entryNum ones are written already.
+   * If the write fails, the file is truncated to its former length, so that the entries are
+   * written again by the next force().
+   */
+  public void force(long entryNum) throws IOException {
+    synchronized (forceLock) {
+      if (writtenNum >= entryNum) {
+        // another thread has committed this entry with its group
+        return;
+      }
+      if (writeFailure != null) {
+        throw new IOException("The metadata log " + logFile + " ends with a failed write",
+            writeFailure);
+      }
+      long num;
+      synchronized (this) {
+        writingBuffer.write(buffer.getBuf(), 0, buffer.size());
+        buffer.reset();
+        num = appendedNum;
+      }
+      if (channel == null) {
+        fileOutputStream = new FileOutputStream(logFile, true);
+        channel = fileOutputStream.getChannel();
+      }
+      long position = channel.position();
+      ByteBuffer byteBuffer = ByteBuffer.wrap(writingBuffer.getBuf(), 0, writingBuffer.size());
+      try {
+        while (byteBuffer.hasRemaining()) {
+          channel.write(byteBuffer);
+        }
+      } catch (IOException e) {
+        removeFailedWrite(position, e);
+        throw e;
+      }
+      writingBuffer.reset();
+      if (forceToDisk) {
+        channel.force(false);
+      }
+      writtenNum = num;
+    }
+  }
+
+  /**
+   * remove the part of the entries written before the failure, the replay would stop at it and
+   * miss all entries after it.
+   */
+  private void removeFailedWrite(long position, IOException failure) {
+    try {
+      channel.truncate(position);
+    } catch (IOException e) {
+      failure.addSuppressed(e);
+      writeFailure = failure;
+    }
+  }
+
+  /**
+   * write all appended entries to the file.
+   */
+  public void flush() throws IOException {
+    long num;
+    synchronized (this) {
+      num = appendedNum;
+    }
+    force(num);
+  }
+
+  @Override
+  public void close() throws IOException {
+    flush();
+    synchronized (forceLock) {
+      if (channel != null) {
+        fileOutputStream.close();
+        fileOutputStream = null;
+        channel.close();
+        channel = null;
+      }
+    }
+  }
+}
@@ -19,16 +19,25 @@
 package org.apache.iotdb.db.metadata;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.adapter.IoTDBConfigDynamicAdapter;
 import org.apache.iotdb.db.exception.ConfigAdjusterException;
 import org.apache.iotdb.db.exception.MetadataErrorException;
 import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.monitor.MonitorConstants;
-import org.apache.iotdb.db.utils.RandomDeleteCache;
+import org.apache.iotdb.db.utils.ConcurrentLRUCache;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.exception.cache.CacheException;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
@@ -43,27 +52,43 @@ import org.slf4j.LoggerFactory;
  * This class takes the responsibility of serialization of all the metadata info and persistent it
  * into files. This class contains all the interfaces to modify the metadata for delta system. All
  * the operations will be insert into the logs temporary in case the downtime of the delta system.
+ * <p>
+ * Thread safety: creating a timeseries holds the read lock and the schema map of its storage
+ * group, so creations in different storage groups and all readers go on in parallel. Setting
+ * storage groups, deleting timeseries and changing PTrees hold the write lock. The lookups on the
+ * insertion path (storage group, data type and existence of a timeseries) do not lock at all, as
+ * the children of a MNode are concurrent maps and new nodes are set up before they are added.
  */
 public class MManager {
 
   private static final Logger logger = LoggerFactory.getLogger(MManager.class);
   private static final String ROOT_NAME = MetadataConstant.ROOT;
   private static final String TIME_SERIES_TREE_HEADER = "===  Timeseries Tree  ===\n\n";
+  private static final int COMPACTION_WRITE_ENTRY_NUM = 10000;
 
-  // the lock for read/insert
+  // the read lock is for reading and creating timeseries, the write lock for other modifications
   private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
   // the log file seriesPath
   private String logFilePath;
-  private MGraph mgraph;
-  private BufferedWriter logWriter;
+  // the binary snapshot of mgraph, which covers the log before the offset recorded in it
+  private String snapshotPath;
+  // the length of the log once the loaded snapshot was written, only used by the replay
+  private long snapshotEndOffset;
+  // the number of log entries written or replayed after the latest snapshot
+  private int logEntriesSinceSnapshot;
+  private AtomicBoolean snapshotRunning = new AtomicBoolean(false);
+  // created on the first snapshot and shut down in clear(), guarded by the monitor
+  private ExecutorService snapshotPool;
+  private volatile MGraph mgraph;
+  private MLogWriter logWriter;
   private boolean writeToLog;
   private String schemaDir;
 
-  private RandomDeleteCache<String, PathCheckRet> checkAndGetDataTypeCache;
-  private RandomDeleteCache<String, MNode> mNodeCache;
+  private ConcurrentLRUCache<String, PathCheckRet> checkAndGetDataTypeCache;
+  private ConcurrentLRUCache<String, MNode> mNodeCache;
 
-  private Map<String, Integer> seriesNumberInStorageGroups = new HashMap<>();
-  private long maxSeriesNumberAmongStorageGroup;
+  private Map<String, Integer> seriesNumberInStorageGroups = new ConcurrentHashMap<>();
+  private volatile long maxSeriesNumberAmongStorageGroup;
   private boolean initialized;
 
   private MManager() {
@@ -80,10 +105,11 @@ public class MManager {
       }
     }
     logFilePath = schemaDir + File.separator + MetadataConstant.METADATA_LOG;
+    snapshotPath = schemaDir + File.separator + MetadataConstant.METADATA_SNAPSHOT;
     writeToLog = false;
 
     int cacheSize = IoTDBDescriptor.getInstance().getConfig().getmManagerCacheSize();
-    checkAndGetDataTypeCache = new RandomDeleteCache<String, PathCheckRet>(cacheSize) {
+    checkAndGetDataTypeCache = new ConcurrentLRUCache<String, PathCheckRet>(cacheSize) {
       @Override
       public void beforeRemove(PathCheckRet object) {
         //allowed to do nothing
@@ -95,7 +121,7 @@ public class MManager {
       }
     };
 
-    mNodeCache = new RandomDeleteCache<String, MNode>(cacheSize) {
+    mNodeCache = new ConcurrentLRUCache<String, MNode>(cacheSize) {
       @Override
       public void beforeRemove(MNode object) {
         //allowed to do nothing
@@ -128,7 +154,8 @@ public class MManager {
 
     try {
       initFromLog(logFile);
-      seriesNumberInStorageGroups = mgraph.countSeriesNumberInEachStorageGroup();
+      seriesNumberInStorageGroups = new ConcurrentHashMap<>(
+          mgraph.countSeriesNumberInEachStorageGroup());
       if (seriesNumberInStorageGroups.isEmpty()) {
         maxSeriesNumberAmongStorageGroup = 0;
       } else {
@@ -136,6 +163,7 @@ public class MManager {
             .max(Integer::compareTo).get();
       }
       writeToLog = true;
+      checkSnapshot();
     } catch (PathErrorException | IOException | MetadataErrorException e) {
       mgraph = new MGraph(ROOT_NAME);
       logger.error("Cannot read MGraph from file, using an empty new one", e);
@@ -148,19 +176,262 @@ public class MManager {
 
   private void initFromLog(File logFile)
       throws IOException, PathErrorException, MetadataErrorException {
-    // init the metadata from the operation log
+    File textLogFile = new File(schemaDir, MetadataConstant.METADATA_TEXT_LOG);
+    if (!logFile.exists() && textLogFile.exists()) {
+      initFromTextLog(textLogFile);
+      return;
+    }
+    // init the metadata from the latest snapshot and the operations logged after it
+    long logOffset = loadSnapshot(logFile);
+    logEntriesSinceSnapshot = 0;
+    if (!logFile.exists()) {
+      return;
+    }
+    long validLength;
+    try (MLogReader reader = new MLogReader(logFile, logOffset)) {
+      while (reader.hasNext()) {
+        String entry = reader.next();
+        operation(entry, reader.getValidLength() <= snapshotEndOffset);
+        logEntriesSinceSnapshot++;
+      }
+      validLength = reader.getValidLength();
+    }
+    if (validLength < logFile.length()) {
+      // the last entries are torn by a crash, new entries must follow the intact ones
+      logger.warn("The metadata log {} is truncated from {} bytes to {} bytes, because its tail "
+          + "is incomplete", logFile, logFile.length(), validLength);
+      try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.WRITE)) {
+        channel.truncate(validLength);
+      }
+    }
+  }
+
+  /**
+   * load the text log written by older versions and convert it to the binary log.
+   */
+  private void initFromTextLog(File textLogFile)
+      throws IOException, PathErrorException, MetadataErrorException {
+    long logOffset = loadSnapshot(textLogFile);
+    try (FileInputStream fis = new FileInputStream(textLogFile)) {
+      fis.getChannel().position(logOffset);
+      BufferedReader br = new BufferedReader(new InputStreamReader(fis));
+      String cmd;
+      while ((cmd = br.readLine()) != null) {
+        operation(cmd, false);
+      }
+    }
+    // the binary log is complete once it is moved in place, so the text log is ignored from then on
+    compactLog();
+    Files.delete(textLogFile.toPath());
+    logger.info("The metadata log {} is converted to {}", textLogFile, logFilePath);
+  }
+
+  /**
+   * load mgraph from the snapshot if there is a usable one, otherwise start from an empty mgraph.
+   *
+   * @return the length of the log covered by the loaded snapshot
+   */
+  private long loadSnapshot(File logFile) throws PathErrorException, MetadataErrorException {
     mgraph = new MGraph(ROOT_NAME);
-    if (logFile.exists()) {
-      try (FileReader fr = new FileReader(logFile);
-          BufferedReader br = new BufferedReader(fr)) {
-        String cmd;
-        while ((cmd = br.readLine()) != null) {
-          operation(cmd);
+    snapshotEndOffset = 0;
+    File snapshotFile = new File(snapshotPath);
+    if (!snapshotFile.exists()) {
+      return 0;
+    }
+    MetadataSnapshot snapshot;
+    try {
+      snapshot = MetadataSnapshot.read(snapshotFile);
+    } catch (IOException e) {
+      logger.warn("Cannot read the metadata snapshot {}, replay the whole log", snapshotFile, e);
+      return 0;
+    }
+    if (snapshot.getLogOffset() > logFile.length()) {
+      logger.warn("The metadata snapshot {} covers {} bytes of log but the log only has {}, "
+          + "replay the whole log", snapshotFile, snapshot.getLogOffset(), logFile.length());
+      return 0;
+    }
+    mgraph = snapshot.getMGraph();
+    snapshotEndOffset = snapshot.getEndOffset();
+    // replaying the log counts each storage group and timeseries, do it at once here
+    Map<String, Integer> seriesNumbers = mgraph.countSeriesNumberInEachStorageGroup();
+    seriesNumberInStorageGroups = new ConcurrentHashMap<>(seriesNumbers);
+    int seriesNumber = seriesNumbers.values().stream().mapToInt(Integer::intValue).sum();
+    try {
+      IoTDBConfigDynamicAdapter.getInstance().addOrDeleteStorageGroup(seriesNumbers.size());
+      IoTDBConfigDynamicAdapter.getInstance().addOrDeleteTimeSeries(seriesNumber);
+    } catch (ConfigAdjusterException e) {
+      throw new MetadataErrorException(e);
+    }
+    logger.info("Load {} storage groups and {} timeseries from the metadata snapshot {}",
+        seriesNumbers.size(), seriesNumber, snapshotFile);
+    return snapshot.getLogOffset();
+  }
+
+  /**
+   * start a background snapshot if enough log entries have been written since the latest one.
+   * Only one snapshot runs at a time, entries written meanwhile count towards the next one.
+   */
+  private synchronized void checkSnapshot() {
+    int interval = IoTDBDescriptor.getInstance().getConfig().getMetadataSnapshotInterval();
+    if (interval <= 0 || logEntriesSinceSnapshot < interval
+        || !snapshotRunning.compareAndSet(false, true)) {
+      return;
+    }
+    logEntriesSinceSnapshot = 0;
+    if (snapshotPool == null) {
+      snapshotPool = IoTDBThreadPoolFactory
+          .newSingleThreadExecutor(ThreadName.METADATA_SNAPSHOT.getName());
+    }
+    snapshotPool.submit(() -> {
+      try {
+        takeSnapshot();
+      } catch (IOException e) {
+        logger.error("Cannot take the metadata snapshot", e);
+      } finally {
+        snapshotRunning.set(false);
+      }
+    });
+  }
+
+  /**
+   * write the current mgraph to the snapshot file. The read lock is held until the whole mgraph
+   * is written so no timeseries or storage group is deleted meanwhile, while queries and inserts
+   * go on. This is deliberate: the operations that need the write lock, e.g., deletions and storage
+   * group settings, are rare and may wait for one snapshot, whereas copying the mgraph to
+   * release the lock sooner would double its memory on the large schemas snapshots are meant for.
+   * Timeseries created meanwhile may be in the snapshot and logged after the recorded offset, so
+   * the length of the log once they are all logged is recorded too, replaying the log tolerates
+   * their creations before it.
+   */
+  public void takeSnapshot() throws IOException {
+    lock.readLock().lock();
+    try {
+      long logOffset = flushLog();
+      long startTime = System.currentTimeMillis();
+      MetadataSnapshot.write(mgraph, logOffset, this::getLogLengthAfterSnapshot,
+          new File(snapshotPath));
+      logger.info("Metadata snapshot covering {} bytes of log is taken in {}ms", logOffset,
+          System.currentTimeMillis() - startTime);
+    } finally {
+      // released by getLogLengthAfterSnapshot() once the mgraph is written
+      if (lock.getReadHoldCount() > 0) {
+        lock.readLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * called with the read lock held once the mgraph is written to the snapshot. A timeseries is
+   * created and logged under the read lock, so when the write lock is acquired, the creations of
+   * all timeseries in the snapshot are logged.
+   */
+  private long getLogLengthAfterSnapshot() throws IOException {
+    lock.readLock().unlock();
+    lock.writeLock().lock();
+    try {
+      return flushLog();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return the length of the log with all appended entries written
+   */
+  private synchronized long flushLog() throws IOException {
+    if (logWriter != null) {
+      logWriter.flush();
+    }
+    return new File(logFilePath).length();
+  }
+
+  /**
+   * rewrite the log so that it only contains the operations needed to rebuild the current mgraph,
+   * i.e., deleted timeseries and their creations disappear, and take a snapshot of the new log.
+   */
+  public void compactLog() throws IOException {
+    lock.writeLock().lock();
+    try {
+      File logFile = new File(logFilePath);
+      File tmpLogFile = new File(logFilePath + ".tmp");
+      // left by a compaction that crashed
+      Files.deleteIfExists(tmpLogFile.toPath());
+      try (MLogWriter writer = new MLogWriter(tmpLogFile, true)) {
+        writeMTreeLog(mgraph.getMTree().getRoot(), writer);
+        for (PTree ptree : mgraph.getPTreeMap().values()) {
+          appendCompactedLog(MetadataOperationType.ADD_A_PTREE + "," + ptree.getName(), writer);
+          writePTreeLog(ptree.getRoot(), ptree.getName(), writer);
         }
       }
+      if (logWriter != null) {
+        logWriter.close();
+        logWriter = null;
+      }
+      // the old snapshot refers to offsets of the old log
+      Files.deleteIfExists(new File(snapshotPath).toPath());
+      Files.move(tmpLogFile.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      logger.info("The metadata log {} is compacted to {} bytes", logFile, logFile.length());
+      MetadataSnapshot.write(mgraph, logFile.length(), new File(snapshotPath));
+      logEntriesSinceSnapshot = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void writeMTreeLog(MNode node, MLogWriter writer) throws IOException {
+    if (node.isStorageLevel()) {
+      appendCompactedLog(
+          MetadataOperationType.SET_STORAGE_LEVEL_TO_MTREE + "," + node.getDataFileName(), writer);
+      long dataTTL = node.getStorageGroupSchema().getDataTTL();
+      if (dataTTL != Long.MAX_VALUE) {
+        appendCompactedLog(MetadataOperationType.SET_TTL + "," + node.getDataFileName() + ","
+            + dataTTL, writer);
+      }
+    }
+    if (node.isLeaf()) {
+      MeasurementSchema schema = node.getSchema();
+      appendCompactedLog(addPathLog(getFullPath(node), schema.getType(),
+          schema.getEncodingType(), schema.getCompressor(), schema.getProps()), writer);
+      return;
+    }
+    for (MNode child : node.getChildren().values()) {
+      writeMTreeLog(child, writer);
+    }
+  }
+
+  private void writePTreeLog(PNode node, String path, MLogWriter writer) throws IOException {
+    if (!node.isLeaf()) {
+      for (PNode child : node.getChildren().values()) {
+        writePTreeLog(child, path + "." + child.getName(), writer);
+      }
+      return;
+    }
+    appendCompactedLog(MetadataOperationType.ADD_A_PATH_TO_PTREE + "," + path, writer);
+    for (String mpath : node.getLinkedMTreePathMap().keySet()) {
+      appendCompactedLog(MetadataOperationType.LINK_MNODE_TO_PTREE + "," + path + "," + mpath,
+          writer);
     }
   }
 
+  /**
+   * the compacted log of a large schema does not fit in memory, so it is written out regularly.
+   */
+  private static void appendCompactedLog(String entry, MLogWriter writer) throws IOException {
+    long entryNum = writer.append(entry);
+    if (entryNum % COMPACTION_WRITE_ENTRY_NUM == 0) {
+      writer.force(entryNum);
+    }
+  }
+
+  private static String getFullPath(MNode node) {
+    StringBuilder builder = new StringBuilder(node.getName());
+    for (MNode cur = node.getParent(); cur != null; cur = cur.getParent()) {
+      builder.insert(0, '.').insert(0, cur.getName());
+    }
+    return builder.toString();
+  }
+
   /**
    * function for clearing MGraph.
    */
@@ -172,6 +443,14 @@ public class MManager {
       this.mNodeCache.clear();
       this.seriesNumberInStorageGroups.clear();
       this.maxSeriesNumberAmongStorageGroup = 0;
+      this.logEntriesSinceSnapshot = 0;
+      synchronized (this) {
+        if (snapshotPool != null) {
+          // a running snapshot still finishes
+          snapshotPool.shutdown();
+          snapshotPool = null;
+        }
+      }
       if (logWriter != null) {
         logWriter.close();
         logWriter = null;
@@ -183,7 +462,11 @@ public class MManager {
     }
   }
 
-  private void operation(String cmd)
+  /**
+   * @param writtenWithSnapshot whether the entry was logged while the loaded snapshot was written,
+   * so that the timeseries it creates may be in the snapshot already.
+   */
+  private void operation(String cmd, boolean writtenWithSnapshot)
       throws PathErrorException, IOException, MetadataErrorException {
     //see addPathToMTree() to get the detailed format of the cmd
     String[] args = cmd.trim().split(",");
@@ -199,6 +482,10 @@ public class MManager {
           }
         }
 
+        if (writtenWithSnapshot && pathExist(args[1])) {
+          // created while the snapshot was taken, so it is in the snapshot already
+          break;
+        }
         addPathToMTree(new Path(args[1]), TSDataType.deserialize(Short.valueOf(args[2])),
             TSEncoding.deserialize(Short.valueOf(args[3])),
             CompressionType.deserialize(Short.valueOf(args[4])),
@@ -225,12 +512,15 @@ public class MManager {
       case MetadataOperationType.UNLINK_MNODE_FROM_PTREE:
         unlinkMNodeFromPTree(args[1], args[2]);
         break;
+      case MetadataOperationType.SET_TTL:
+        setTTL(args[1], Long.parseLong(args[2]));
+        break;
       default:
         logger.error("Unrecognizable command {}", cmd);
     }
   }
 
-  private BufferedWriter getLogWriter() throws IOException {
+  private MLogWriter getLogWriter() {
     if (logWriter == null) {
       File logFile = new File(logFilePath);
       File metadataDir = new File(schemaDir);
@@ -241,13 +531,48 @@ public class MManager {
           logger.info("create schema folder {} failed.", metadataDir);
         }
       }
-      FileWriter fileWriter;
-      fileWriter = new FileWriter(logFile, true);
-      logWriter = new BufferedWriter(fileWriter);
+      logWriter = new MLogWriter(logFile,
+          IoTDBDescriptor.getInstance().getConfig().isForceMetadataLog());
     }
     return logWriter;
   }
 
+  private void writeLog(String entry) throws IOException {
+    writeLogs(Collections.singletonList(entry));
+  }
+
+  /**
+   * append the entries to the log and return once they are written. The entries are appended in
+   * order with the monitor held, but written without it, so that the entries appended by other
+   * threads meanwhile are committed with one write and one fsync.
+   */
+  private void writeLogs(List<String> entries) throws IOException {
+    MLogWriter writer;
+    long entryNum;
+    synchronized (this) {
+      writer = getLogWriter();
+      entryNum = writer.append(entries);
+      logEntriesSinceSnapshot += entries.size();
+      checkSnapshot();
+    }
+    writer.force(entryNum);
+  }
+
+  private static String addPathLog(String path, TSDataType dataType, TSEncoding encoding,
+      CompressionType compressor, Map<String, String> props) {
+    StringBuilder builder = new StringBuilder(MetadataOperationType.ADD_PATH_TO_MTREE)
+        .append(',').append(path)
+        .append(',').append(dataType.serialize())
+        .append(',').append(encoding.serialize())
+        .append(',').append(compressor.serialize());
+    if (props != null) {
+      for (Map.Entry<String, String> entry : props.entrySet()) {
+        builder.append(',').append(entry.getKey()).append('=').append(entry.getValue());
+      }
+    }
+    return builder.toString();
+  }
+
   public boolean addPathToMTree(String path, TSDataType dataType, TSEncoding encoding,
       CompressionType compressor, Map<String, String> props)
       throws MetadataErrorException {
@@ -333,34 +658,131 @@ public class MManager {
     }
   }
 
+  /**
+   * Add many timeseries at once, e.g., when a fleet of new devices is registered. Each timeseries
+   * is checked and created like by addPathToMTree, but the global lock is acquired once, each
+   * storage group is held once and the log entries of the whole batch are flushed together. A
+   * timeseries that cannot be created does not stop the others.
+   *
+   * @param errors receives the reason why a timeseries is not created at its index, it must be as
+   * long as paths
+   * @return for each timeseries, whether its measurement occurs for the first time in its storage
+   * group (if true, the measurement should be registered to the StorageEngine too)
+   * @throws MetadataErrorException if the log cannot be written, the timeseries are created in
+   * memory but may be lost after a restart
+   */
+  @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
+  public boolean[] addPathsToMTree(List<Path> paths, List<TSDataType> dataTypes,
+      List<TSEncoding> encodings, List<CompressionType> compressors,
+      MetadataErrorException[] errors) throws MetadataErrorException {
+    boolean[] isNewMeasurement = new boolean[paths.size()];
+    List<String> logEntries = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      // group the timeseries by storage group so that each one is held once
+      Map<String, List<Integer>> storageGroups = new LinkedHashMap<>();
+      for (int i = 0; i < paths.size(); i++) {
+        String path = paths.get(i).getFullPath();
+        if (!mgraph.checkFileNameByPath(path)) {
+          errors[i] = new MetadataErrorException("Storage group should be created first");
+          continue;
+        }
+        try {
+          storageGroups.computeIfAbsent(mgraph.getStorageGroupNameByPath(path),
+              k -> new ArrayList<>()).add(i);
+        } catch (PathErrorException e) {
+          errors[i] = new MetadataErrorException(e);
+        }
+      }
+      for (Map.Entry<String, List<Integer>> entry : storageGroups.entrySet()) {
+        String storageGroup = entry.getKey();
+        Map<String, MeasurementSchema> schemaMap = mgraph.getSchemaMapForOneFileNode(storageGroup);
+        Map<String, Integer> numSchemaMap = mgraph.getNumSchemaMapForOneFileNode(storageGroup);
+        synchronized (schemaMap) {
+          for (int i : entry.getValue()) {
+            String path = paths.get(i).getFullPath();
+            try {
+              isNewMeasurement[i] = addPathInStorageGroup(paths.get(i), storageGroup,
+                  dataTypes.get(i), encodings.get(i), compressors.get(i), schemaMap, numSchemaMap);
+              logEntries.add(addPathLog(path, dataTypes.get(i), encodings.get(i),
+                  compressors.get(i), Collections.emptyMap()));
+            } catch (MetadataErrorException e) {
+              errors[i] = e;
+            }
+          }
+        }
+      }
+      if (writeToLog && !logEntries.isEmpty()) {
+        writeLogs(logEntries);
+      }
+    } catch (IOException e) {
+      throw new MetadataErrorException(e);
+    } finally {
+      lock.readLock().unlock();
+    }
+    return isNewMeasurement;
+  }
+
+  /**
+   * create one timeseries of a batch, the caller holds the read lock and the schema map of the
+   * storage group.
+   */
+  private boolean addPathInStorageGroup(Path path, String storageGroup, TSDataType dataType,
+      TSEncoding encoding, CompressionType compressor, Map<String, MeasurementSchema> schemaMap,
+      Map<String, Integer> numSchemaMap) throws MetadataErrorException {
+    String fullPath = path.getFullPath();
+    if (mgraph.pathExist(fullPath)) {
+      throw new MetadataErrorException(String.format("Timeseries %s already exist", fullPath));
+    }
+    String lastNode = path.getMeasurement();
+    MeasurementSchema columnSchema = schemaMap.get(lastNode);
+    if (columnSchema != null && (!columnSchema.getType().equals(dataType)
+        || !columnSchema.getEncodingType().equals(encoding))) {
+      throw new MetadataErrorException(String.format(
+          "The resultDataType or encoding of the last node %s is conflicting "
+              + "in the storage group %s", lastNode, storageGroup));
+    }
+    try {
+      IoTDBConfigDynamicAdapter.getInstance().addOrDeleteTimeSeries(1);
+    } catch (ConfigAdjusterException e) {
+      throw new MetadataErrorException(e);
+    }
+    try {
+      mgraph.addPathToMTree(fullPath, dataType, encoding, compressor, Collections.emptyMap());
+      increaseSeriesNumber(storageGroup);
+      if (columnSchema != null) {
+        numSchemaMap.merge(lastNode, 1, Integer::sum);
+        return false;
+      }
+      schemaMap.put(lastNode, mgraph.getSchemaForOnePath(fullPath));
+      numSchemaMap.put(lastNode, 1);
+      return true;
+    } catch (PathErrorException e) {
+      throw new MetadataErrorException(e);
+    }
+  }
+
   private void addPathToMTreeInternal(String path, TSDataType dataType, TSEncoding encoding,
       CompressionType compressor, Map<String, String> props)
       throws PathErrorException, IOException {
 
-    lock.writeLock().lock();
+    // the caller holds the schema map of the storage group, which serializes the creations in it
+    lock.readLock().lock();
     try {
       mgraph.addPathToMTree(path, dataType, encoding, compressor, props);
-      String storageName = mgraph.getStorageGroupNameByPath(path);
-      int size = seriesNumberInStorageGroups.get(mgraph.getStorageGroupNameByPath(path));
-      seriesNumberInStorageGroups
-          .put(storageName, size + 1);
-      if (size + 1 > maxSeriesNumberAmongStorageGroup) {
-        maxSeriesNumberAmongStorageGroup = size + 1;
-      }
+      increaseSeriesNumber(mgraph.getStorageGroupNameByPath(path));
       if (writeToLog) {
-        BufferedWriter writer = getLogWriter();
-        writer.write(String.format("%s,%s,%s,%s,%s", MetadataOperationType.ADD_PATH_TO_MTREE,
-            path, dataType.serialize(), encoding.serialize(), compressor.serialize()));
-        if (props != null) {
-          for (Map.Entry entry : props.entrySet()) {
-            writer.write(String.format(",%s=%s", entry.getKey(), entry.getValue()));
-          }
-        }
-        writer.newLine();
-        writer.flush();
+        writeLog(addPathLog(path, dataType, encoding, compressor, props));
       }
     } finally {
-      lock.writeLock().unlock();
+      lock.readLock().unlock();
+    }
+  }
+
+  private synchronized void increaseSeriesNumber(String storageGroup) {
+    int size = seriesNumberInStorageGroups.merge(storageGroup, 1, Integer::sum);
+    if (size > maxSeriesNumberAmongStorageGroup) {
+      maxSeriesNumberAmongStorageGroup = size;
     }
   }
 
@@ -379,7 +801,13 @@ public class MManager {
     TSDataType tsDataType = TSDataType.valueOf(dataType);
     TSEncoding tsEncoding = TSEncoding.valueOf(encoding);
     CompressionType type = CompressionType.valueOf(TSFileConfig.compressor);
-    addPathToMTreeInternal(path, tsDataType, tsEncoding, type, Collections.emptyMap());
+    // unlike addPathToMTree(Path, ...), the storage group is not held here
+    lock.writeLock().lock();
+    try {
+      addPathToMTreeInternal(path, tsDataType, tsEncoding, type, Collections.emptyMap());
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   private List<String> collectPaths(List<Path> paths) throws MetadataErrorException {
@@ -491,10 +919,7 @@ public class MManager {
       mNodeCache.clear();
       String dataFileName = mgraph.deletePath(path);
       if (writeToLog) {
-        BufferedWriter writer = getLogWriter();
-        writer.write(MetadataOperationType.DELETE_PATH_FROM_MTREE + "," + path);
-        writer.newLine();
-        writer.flush();
+        writeLog(MetadataOperationType.DELETE_PATH_FROM_MTREE + "," + path);
       }
       String storageGroup = getStorageGroupNameByPath(path);
       int size = seriesNumberInStorageGroups.get(storageGroup);
@@ -528,10 +953,7 @@ public class MManager {
       mgraph.setStorageLevel(path);
       seriesNumberInStorageGroups.put(path, 0);
       if (writeToLog) {
-        BufferedWriter writer = getLogWriter();
-        writer.write(MetadataOperationType.SET_STORAGE_LEVEL_TO_MTREE + "," + path);
-        writer.newLine();
-        writer.flush();
+        writeLog(MetadataOperationType.SET_STORAGE_LEVEL_TO_MTREE + "," + path);
       }
     } catch (IOException | ConfigAdjusterException e) {
       throw new MetadataErrorException(e);
@@ -570,10 +992,7 @@ public class MManager {
     try {
       mgraph.addAPTree(ptreeRootName);
       if (writeToLog) {
-        BufferedWriter writer = getLogWriter();
-        writer.write(MetadataOperationType.ADD_A_PTREE + "," + ptreeRootName);
-        writer.newLine();
-        writer.flush();
+        writeLog(MetadataOperationType.ADD_A_PTREE + "," + ptreeRootName);
       }
     } finally {
       lock.writeLock().unlock();
@@ -590,10 +1009,7 @@ public class MManager {
     try {
       mgraph.addPathToPTree(path);
       if (writeToLog) {
-        BufferedWriter writer = getLogWriter();
-        writer.write(MetadataOperationType.ADD_A_PATH_TO_PTREE + "," + path);
-        writer.newLine();
-        writer.flush();
+        writeLog(MetadataOperationType.ADD_A_PATH_TO_PTREE + "," + path);
       }
     } finally {
       lock.writeLock().unlock();
@@ -609,10 +1025,7 @@ public class MManager {
     try {
       mgraph.deletePath(path);
       if (writeToLog) {
-        BufferedWriter writer = getLogWriter();
-        writer.write(MetadataOperationType.DELETE_PATH_FROM_PTREE + "," + path);
-        writer.newLine();
-        writer.flush();
+        writeLog(MetadataOperationType.DELETE_PATH_FROM_PTREE + "," + path);
       }
     } finally {
       lock.writeLock().unlock();
@@ -628,10 +1041,7 @@ public class MManager {
     try {
       mgraph.linkMNodeToPTree(path, mpath);
       if (writeToLog) {
-        BufferedWriter writer = getLogWriter();
-        writer.write(MetadataOperationType.LINK_MNODE_TO_PTREE + "," + path + "," + mpath);
-        writer.newLine();
-        writer.flush();
+        writeLog(MetadataOperationType.LINK_MNODE_TO_PTREE + "," + path + "," + mpath);
       }
     } finally {
       lock.writeLock().unlock();
@@ -648,10 +1058,7 @@ public class MManager {
     try {
       mgraph.unlinkMNodeFromPTree(path, mpath);
       if (writeToLog) {
-        BufferedWriter writer = getLogWriter();
-        writer.write(MetadataOperationType.UNLINK_MNODE_FROM_PTREE + "," + path + "," + mpath);
-        writer.newLine();
-        writer.flush();
+        writeLog(MetadataOperationType.UNLINK_MNODE_FROM_PTREE + "," + path + "," + mpath);
       }
     } finally {
       lock.writeLock().unlock();
@@ -664,13 +1071,8 @@ public class MManager {
    * @return TSDataType
    */
   public TSDataType getSeriesType(String fullPath) throws PathErrorException {
-
-    lock.readLock().lock();
-    try {
-      return getSchemaForOnePath(fullPath).getType();
-    } finally {
-      lock.readLock().unlock();
-    }
+    // lock free, see the class comment
+    return mgraph.getSchemaForOnePath(fullPath).getType();
   }
 
   /**
@@ -851,14 +1253,24 @@ public class MManager {
    * @return A String represented the file name
    */
   public String getStorageGroupNameByPath(String path) throws PathErrorException {
-
-    lock.readLock().lock();
+    // lock free, see the class comment
     try {
       return mgraph.getStorageGroupNameByPath(path);
     } catch (PathErrorException e) {
       throw new PathErrorException(e);
-    } finally {
-      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * the same as getStorageGroupNameByPath(String) but the path is already split into nodes, e.g.,
+   * the device of an insertion, so that it is not split again for each insertion.
+   */
+  public String getStorageGroupNameByPath(String[] nodes) throws PathErrorException {
+    // lock free, see the class comment
+    try {
+      return mgraph.getStorageGroupNameByPath(nodes);
+    } catch (PathErrorException e) {
+      throw new PathErrorException(e);
     }
   }
 
@@ -889,6 +1301,52 @@ public class MManager {
     }
   }
 
+  /**
+   * set the TTL of a storage group, the data whose timestamp is earlier than now - dataTTL is
+   * dropped.
+   *
+   * @param dataTTL in the precision of timestamps, Long.MAX_VALUE means the data never expires
+   */
+  public void setTTL(String storageGroup, long dataTTL) throws MetadataErrorException {
+    lock.writeLock().lock();
+    try {
+      getStorageGroupNode(storageGroup).getStorageGroupSchema().setDataTTL(dataTTL);
+      if (writeToLog) {
+        writeLog(MetadataOperationType.SET_TTL + "," + storageGroup + "," + dataTTL);
+      }
+    } catch (IOException e) {
+      throw new MetadataErrorException(e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return the TTL of a storage group, Long.MAX_VALUE if the data never expires.
+   */
+  public long getTTL(String storageGroup) throws MetadataErrorException {
+    lock.readLock().lock();
+    try {
+      return getStorageGroupNode(storageGroup).getStorageGroupSchema().getDataTTL();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private MNode getStorageGroupNode(String storageGroup) throws MetadataErrorException {
+    MNode node;
+    try {
+      node = mgraph.getNodeByPath(storageGroup);
+    } catch (PathErrorException e) {
+      throw new MetadataErrorException(e);
+    }
+    if (!node.isStorageLevel()) {
+      throw new MetadataErrorException(
+          String.format("%s is not a storage group", storageGroup));
+    }
+    return node;
+  }
+
   /**
    * function for getting all file names.
    */
@@ -982,13 +1440,8 @@ public class MManager {
    * Check whether the seriesPath given exists.
    */
   public boolean pathExist(String path) {
-
-    lock.readLock().lock();
-    try {
-      return mgraph.pathExist(path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    // lock free, see the class comment
+    return mgraph.pathExist(path);
   }
 
   /**
@@ -1197,6 +1650,15 @@ public class MManager {
     }
   }
 
+  /**
+   * Only for test, clear the mgraph and rebuild it from the snapshot and the log.
+   */
+  void reload() {
+    clear();
+    initialized = false;
+    init();
+  }
+
   /**
    * Only for test
    */
@@ -1208,6 +1670,21 @@ public class MManager {
     return maxSeriesNumberAmongStorageGroup;
   }
 
+  /**
+   * @return the hit ratio of the cache that checks the paths of insertions and gets their data
+   * types.
+   */
+  public double getDataTypeCacheHitRatio() {
+    return checkAndGetDataTypeCache.getHitRatio();
+  }
+
+  /**
+   * @return the hit ratio of the cache of device nodes.
+   */
+  public double getDeviceNodeCacheHitRatio() {
+    return mNodeCache.getHitRatio();
+  }
+
   private static class MManagerHolder {
 
     private MManagerHolder() {
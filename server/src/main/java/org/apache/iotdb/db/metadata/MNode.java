@@ -19,9 +19,8 @@
 package org.apache.iotdb.db.metadata;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
@@ -30,6 +29,14 @@ import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 /**
  * This class is the implementation of Metadata Node where "MNode" is the shorthand of "Metadata
  * Node". One MNode instance represents one node in the Metadata Tree
+ * <p>
+ * The children and the schema maps of a storage group are concurrent maps, so the tree can be
+ * read without locks while timeseries are created. A new node should be fully set up before it is
+ * added to its parent.
+ * <p>
+ * There is one MNode per timeseries, so the node is kept small: the schema maps and the TTL only
+ * exist in storage group nodes and leaves with the same measurement may share one
+ * MeasurementSchema.
  */
 public class MNode implements Serializable {
 
@@ -41,9 +48,9 @@ public class MNode implements Serializable {
   private boolean isLeaf;
   // Whether current node is Storage Level in the Metadata Tree
   private boolean isStorageLevel;
-  // Map for the schema in this storage group
-  private Map<String, MeasurementSchema> schemaMap;
-  private Map<String, Integer> numSchemaMap;
+  // Maps for the schema and the TTL of this storage group, null if current node is not Storage
+  // Level
+  private StorageGroupSchema storageGroupSchema;
   // Corresponding data file name for current node
   private String dataFileName;
   // Column's Schema for one timeseries represented by current node if current
@@ -61,7 +68,7 @@ public class MNode implements Serializable {
     this.isLeaf = isLeaf;
     this.isStorageLevel = false;
     if (!isLeaf) {
-      children = new LinkedHashMap<>();
+      children = new ChildrenMap();
     }
   }
 
@@ -71,6 +78,14 @@ public class MNode implements Serializable {
     this.schema = new MeasurementSchema(name, dataType, encoding, type);
   }
 
+  /**
+   * Constructor of a leaf with the given schema, which may be shared with other leaves.
+   */
+  public MNode(String name, MNode parent, MeasurementSchema schema) {
+    this(name, parent, true);
+    this.schema = schema;
+  }
+
   public boolean isStorageLevel() {
     return isStorageLevel;
   }
@@ -80,21 +95,22 @@ public class MNode implements Serializable {
    */
   public void setStorageLevel(boolean b) {
     this.isStorageLevel = b;
-    if (b) {
-      schemaMap = new HashMap<>();
-      numSchemaMap = new HashMap<>();
-    } else {
-      numSchemaMap = null;
-      schemaMap = null;
-    }
+    storageGroupSchema = b ? new StorageGroupSchema() : null;
+  }
+
+  /**
+   * @return the state of this storage group, null if current node is not Storage Level
+   */
+  public StorageGroupSchema getStorageGroupSchema() {
+    return storageGroupSchema;
   }
 
   public Map<String, MeasurementSchema> getSchemaMap() {
-    return schemaMap;
+    return storageGroupSchema == null ? null : storageGroupSchema.schemaMap;
   }
 
   public Map<String, Integer> getNumSchemaMap() {
-    return numSchemaMap;
+    return storageGroupSchema == null ? null : storageGroupSchema.numSchemaMap;
   }
 
   public boolean isLeaf() {
@@ -208,4 +224,25 @@ public class MNode implements Serializable {
     this.name = name;
   }
 
+  /**
+   * The schema of each measurement in a storage group and the number of timeseries using it, and
+   * the TTL of the data in the storage group.
+   */
+  public static class StorageGroupSchema implements Serializable {
+
+    private static final long serialVersionUID = 6487384236170536617L;
+
+    private Map<String, MeasurementSchema> schemaMap = new ConcurrentHashMap<>();
+    private Map<String, Integer> numSchemaMap = new ConcurrentHashMap<>();
+    // Long.MAX_VALUE if the data never expires
+    private long dataTTL = Long.MAX_VALUE;
+
+    public long getDataTTL() {
+      return dataTTL;
+    }
+
+    public void setDataTTL(long dataTTL) {
+      this.dataTTL = dataTTL;
+    }
+  }
 }
@@ -37,7 +37,6 @@ import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 public class MTree implements Serializable {
 
   private static final long serialVersionUID = -4200394435237291964L;
-  private static final String DOUB_SEPARATOR = "\\.";
   private static final String NO_CHILD_ERROR = "Timeseries is not correct. Node[%s] "
       + "doesn't have child named:%s";
   private static final String NOT_LEAF_NODE = "Timeseries %s is not the leaf node";
@@ -70,24 +69,49 @@ public class MTree implements Serializable {
    */
   void addTimeseriesPath(String timeseriesPath, TSDataType dataType, TSEncoding encoding,
       CompressionType compressor, Map<String, String> props) throws PathErrorException {
-    String[] nodeNames = timeseriesPath.trim().split(DOUB_SEPARATOR);
+    String[] nodeNames = MetaUtils.getNodeNames(timeseriesPath.trim());
     if (nodeNames.length <= 1 || !nodeNames[0].equals(root.getName())) {
       throw new PathErrorException(String.format("Timeseries %s is not right.", timeseriesPath));
     }
     MNode cur = findLeafParent(nodeNames);
     String levelPath = cur.getDataFileName();
 
-    MNode leaf = new MNode(nodeNames[nodeNames.length - 1], cur, dataType, encoding, compressor);
-    if ( props != null && !props.isEmpty()) {
-      leaf.getSchema().setProps(props);
-    }
-    leaf.setDataFileName(levelPath);
     if (cur.isLeaf()) {
       throw new PathErrorException(
           String.format("The Node [%s] is left node, the timeseries %s can't be created",
               cur.getName(), timeseriesPath));
     }
-    cur.addChild(nodeNames[nodeNames.length - 1], leaf);
+    MeasurementSchema schema = new MeasurementSchema(nodeNames[nodeNames.length - 1], dataType,
+        encoding, compressor);
+    if ( props != null && !props.isEmpty()) {
+      schema.setProps(props);
+    }
+    schema = getSharedSchema(cur, schema);
+    MNode leaf = new MNode(schema.getMeasurementId(), cur, schema);
+    leaf.setDataFileName(levelPath);
+    cur.addChild(leaf.getName(), leaf);
+  }
+
+  /**
+   * Leaves of the same measurement in a storage group usually have the same schema, so they share
+   * the instance registered in the schema map of the storage group instead of holding a copy each.
+   *
+   * @param node the leaf's parent or any other node in the storage group
+   * @return the registered schema if it equals the given one including the props, otherwise the
+   * given schema
+   */
+  static MeasurementSchema getSharedSchema(MNode node, MeasurementSchema schema) {
+    while (node != null && !node.isStorageLevel()) {
+      node = node.getParent();
+    }
+    if (node == null) {
+      return schema;
+    }
+    MeasurementSchema registered = node.getSchemaMap().get(schema.getMeasurementId());
+    if (schema.equals(registered) && Objects.equals(schema.getProps(), registered.getProps())) {
+      return registered;
+    }
+    return schema;
   }
 
   private MNode findLeafParent(String[] nodeNames) throws PathErrorException {
@@ -105,7 +129,10 @@ public class MTree implements Serializable {
               String.format("The Node [%s] is left node, the timeseries %s can't be created",
                   cur.getName(), String.join(",", nodeNames)));
         }
-        cur.addChild(nodeName, new MNode(nodeName, cur, false));
+        // readers do not lock the tree, so the node is set up before it is added
+        MNode child = new MNode(nodeName, cur, false);
+        child.setDataFileName(levelPath);
+        cur.addChild(nodeName, child);
       }
       cur.setDataFileName(levelPath);
       cur = cur.getChild(nodeName);
@@ -125,7 +152,7 @@ public class MTree implements Serializable {
    * @param path -seriesPath not necessarily the whole seriesPath (possibly a prefix of a sequence)
    */
   boolean isPathExist(String path) {
-    String[] nodeNames = path.trim().split(DOUB_SEPARATOR);
+    String[] nodeNames = MetaUtils.getNodeNames(path.trim());
     MNode cur = root;
     int i = 0;
     while (i < nodeNames.length - 1) {
@@ -149,7 +176,7 @@ public class MTree implements Serializable {
    * function for checking whether the given path exists under the given mnode.
    */
   boolean isPathExist(MNode node, String path) {
-    String[] nodeNames = path.trim().split(DOUB_SEPARATOR);
+    String[] nodeNames = MetaUtils.getNodeNames(path.trim());
     if (nodeNames.length < 1) {
       return true;
     }
@@ -180,7 +207,7 @@ public class MTree implements Serializable {
    * make sure check seriesPath before setting storage group.
    */
   public void setStorageGroup(String path) throws PathErrorException {
-    String[] nodeNames = path.split(DOUB_SEPARATOR);
+    String[] nodeNames = MetaUtils.getNodeNames(path);
     MNode cur = root;
     if (nodeNames.length <= 1 || !nodeNames[0].equals(root.getName())) {
       throw new PathErrorException(
@@ -202,16 +229,16 @@ public class MTree implements Serializable {
       i++;
     }
     MNode temp = cur.getChild(nodeNames[i]);
-    if (temp == null) {
-      cur.addChild(nodeNames[i], new MNode(nodeNames[i], cur, false));
-    } else {
+    if (temp != null) {
       throw new PathErrorException(
           String.format("The seriesPath of %s already exist, it can't be set to the storage group",
               path));
     }
-    cur = cur.getChild(nodeNames[i]);
-    cur.setStorageLevel(true);
-    setDataFileName(path, cur);
+    // readers do not lock the tree, so the node is set up before it is added
+    MNode storageGroup = new MNode(nodeNames[i], cur, false);
+    storageGroup.setStorageLevel(true);
+    storageGroup.setDataFileName(path);
+    cur.addChild(nodeNames[i], storageGroup);
   }
 
   /**
@@ -221,7 +248,7 @@ public class MTree implements Serializable {
    * @apiNote :for cluster
    */
   boolean checkStorageGroup(String path) {
-    String[] nodeNames = path.split(DOUB_SEPARATOR);
+    String[] nodeNames = MetaUtils.getNodeNames(path);
     MNode cur = root;
     if (nodeNames.length <= 1 || !nodeNames[0].equals(root.getName())) {
       return false;
@@ -255,16 +282,6 @@ public class MTree implements Serializable {
     }
   }
 
-  private void setDataFileName(String path, MNode node) {
-    node.setDataFileName(path);
-    if (node.getChildren() == null) {
-      return;
-    }
-    for (MNode child : node.getChildren().values()) {
-      setDataFileName(path, child);
-    }
-  }
-
   /**
    * Delete one seriesPath from current Metadata Tree.
    *
@@ -272,7 +289,7 @@ public class MTree implements Serializable {
    * node.
    */
   String deletePath(String path) throws PathErrorException {
-    String[] nodes = path.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path);
     if (nodes.length == 0 || !nodes[0].equals(getRoot().getName())) {
       throw new PathErrorException("Timeseries %s is not correct." + path);
     }
@@ -310,7 +327,7 @@ public class MTree implements Serializable {
    * Check whether the seriesPath given exists.
    */
   public boolean hasPath(String path) {
-    String[] nodes = path.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path);
     if (nodes.length == 0 || !nodes[0].equals(getRoot().getName())) {
       return false;
     }
@@ -340,7 +357,7 @@ public class MTree implements Serializable {
    * node.
    */
   MeasurementSchema getSchemaForOnePath(String path) throws PathErrorException {
-    MNode leaf = getLeafByPath(path);
+    MNode leaf = getLeafByPath(MetaUtils.getNodeNames(path));
     return leaf.getSchema();
   }
 
@@ -360,22 +377,17 @@ public class MTree implements Serializable {
     return leaf.getSchema();
   }
 
-  private MNode getLeafByPath(String path) throws PathErrorException {
-    checkPath(path);
-    String[] node = path.split(DOUB_SEPARATOR);
-    MNode cur = getRoot();
-    for (int i = 1; i < node.length; i++) {
-      cur = cur.getChild(node[i]);
-    }
+  private MNode getLeafByPath(String[] nodes) throws PathErrorException {
+    MNode cur = checkPath(nodes);
     if (!cur.isLeaf()) {
-      throw new PathErrorException(String.format(NOT_LEAF_NODE, path));
+      throw new PathErrorException(String.format(NOT_LEAF_NODE, MetaUtils.getPathByNodes(nodes)));
     }
     return cur;
   }
 
   private MNode getLeafByPath(MNode node, String path) throws PathErrorException {
     checkPath(node, path);
-    String[] nodes = path.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path);
     MNode cur = node.getChild(nodes[0]);
     for (int i = 1; i < nodes.length; i++) {
       cur = cur.getChild(nodes[i]);
@@ -387,7 +399,7 @@ public class MTree implements Serializable {
   }
 
   private MNode getLeafByPathWithCheck(MNode node, String path) throws PathErrorException {
-    String[] nodes = path.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path);
     if (nodes.length < 1 || !node.hasChild(nodes[0])) {
       throw new PathErrorException(String.format(SERIES_NOT_CORRECT, path));
     }
@@ -407,7 +419,7 @@ public class MTree implements Serializable {
   }
 
   private MNode getLeafByPathWithCheck(String path) throws PathErrorException {
-    String[] nodes = path.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path);
     if (nodes.length < 2 || !nodes[0].equals(getRoot().getName())) {
       throw new PathErrorException(String.format(SERIES_NOT_CORRECT, path));
     }
@@ -430,23 +442,24 @@ public class MTree implements Serializable {
    * function for getting node by path.
    */
   MNode getNodeByPath(String path) throws PathErrorException {
-    checkPath(path);
-    String[] node = path.split(DOUB_SEPARATOR);
-    MNode cur = getRoot();
-    for (int i = 1; i < node.length; i++) {
-      cur = cur.getChild(node[i]);
-    }
-    return cur;
+    return checkPath(path);
   }
 
   /**
    * function for getting node by path with file level check.
    */
   MNode getNodeByPathWithFileLevelCheck(String path) throws PathErrorException {
+    return getNodeByPathWithFileLevelCheck(MetaUtils.getNodeNames(path));
+  }
+
+  /**
+   * the same as getNodeByPathWithFileLevelCheck(String) but the path is already split into nodes.
+   */
+  MNode getNodeByPathWithFileLevelCheck(String[] nodes) throws PathErrorException {
     boolean fileLevelChecked = false;
-    String[] nodes = path.split(DOUB_SEPARATOR);
     if (nodes.length < 2 || !nodes[0].equals(getRoot().getName())) {
-      throw new PathErrorException(String.format(SERIES_NOT_CORRECT, path));
+      throw new PathErrorException(
+          String.format(SERIES_NOT_CORRECT, MetaUtils.getPathByNodes(nodes)));
     }
 
     MNode cur = getRoot();
@@ -461,7 +474,8 @@ public class MTree implements Serializable {
       }
     }
     if (!fileLevelChecked) {
-      throw new PathErrorException("FileLevel is not set for current seriesPath:" + path);
+      throw new PathErrorException(
+          "FileLevel is not set for current seriesPath:" + MetaUtils.getPathByNodes(nodes));
     }
     return cur;
   }
@@ -473,7 +487,7 @@ public class MTree implements Serializable {
    */
   String getDeviceTypeByPath(String path) throws PathErrorException {
     checkPath(path);
-    String[] nodes = path.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path);
     if (nodes.length < 2) {
       throw new PathErrorException(
           String.format("Timeseries %s must have two or more nodes", path));
@@ -487,9 +501,13 @@ public class MTree implements Serializable {
    * @return last node in given seriesPath if current seriesPath is available
    */
   private MNode checkPath(String path) throws PathErrorException {
-    String[] nodes = path.split(DOUB_SEPARATOR);
+    return checkPath(MetaUtils.getNodeNames(path));
+  }
+
+  private MNode checkPath(String[] nodes) throws PathErrorException {
     if (nodes.length < 2 || !nodes[0].equals(getRoot().getName())) {
-      throw new PathErrorException(String.format(SERIES_NOT_CORRECT, path));
+      throw new PathErrorException(
+          String.format(SERIES_NOT_CORRECT, MetaUtils.getPathByNodes(nodes)));
     }
     MNode cur = getRoot();
     for (int i = 1; i < nodes.length; i++) {
@@ -503,7 +521,7 @@ public class MTree implements Serializable {
   }
 
   private void checkPath(MNode node, String path) throws PathErrorException {
-    String[] nodes = path.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path);
     if (nodes.length < 1) {
       return;
     }
@@ -523,25 +541,30 @@ public class MTree implements Serializable {
    * @return String storage group seriesPath
    */
   String getStorageGroupNameByPath(String path) throws PathErrorException {
+    return getStorageGroupNameByPath(MetaUtils.getNodeNames(path));
+  }
 
-    String[] nodes = path.split(DOUB_SEPARATOR);
+  /**
+   * the same as getStorageGroupNameByPath(String) but the path is already split into nodes, the
+   * nodes are only joined again to report an error.
+   */
+  String getStorageGroupNameByPath(String[] nodes) throws PathErrorException {
     MNode cur = getRoot();
     for (int i = 1; i < nodes.length; i++) {
       if (cur == null) {
         throw new PathErrorException(
-            String.format(NOT_SERIES_PATH,
-                path));
+            String.format(NOT_SERIES_PATH, MetaUtils.getPathByNodes(nodes)));
       } else if (cur.isStorageLevel()) {
         return cur.getDataFileName();
       } else {
         cur = cur.getChild(nodes[i]);
       }
     }
-    if (cur.isStorageLevel()) {
+    if (cur != null && cur.isStorageLevel()) {
       return cur.getDataFileName();
     }
     throw new PathErrorException(
-        String.format(NOT_SERIES_PATH, path));
+        String.format(NOT_SERIES_PATH, MetaUtils.getPathByNodes(nodes)));
   }
 
   /**
@@ -552,7 +575,7 @@ public class MTree implements Serializable {
    */
   List<String> getAllFileNamesByPath(String pathReg) throws PathErrorException {
     ArrayList<String> fileNames = new ArrayList<>();
-    String[] nodes = pathReg.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(pathReg);
     if (nodes.length == 0 || !nodes[0].equals(getRoot().getName())) {
       throw new PathErrorException(String.format(SERIES_NOT_CORRECT, pathReg));
     }
@@ -593,7 +616,7 @@ public class MTree implements Serializable {
    */
   String getStorageGroupNameByPath(MNode node, String path) throws PathErrorException {
 
-    String[] nodes = path.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path);
     MNode cur = node.getChild(nodes[0]);
     for (int i = 1; i < nodes.length; i++) {
       if (cur == null) {
@@ -621,7 +644,7 @@ public class MTree implements Serializable {
    */
   boolean checkFileNameByPath(String path) {
 
-    String[] nodes = path.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path);
     MNode cur = getRoot();
     for (int i = 1; i <= nodes.length; i++) {
       if (cur == null) {
@@ -643,7 +666,7 @@ public class MTree implements Serializable {
    */
   HashMap<String, ArrayList<String>> getAllPath(String pathReg) throws PathErrorException {
     HashMap<String, ArrayList<String>> paths = new HashMap<>();
-    String[] nodes = pathReg.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(pathReg);
     if (nodes.length == 0 || !nodes[0].equals(getRoot().getName())) {
       throw new PathErrorException(String.format(SERIES_NOT_CORRECT, pathReg));
     }
@@ -656,7 +679,7 @@ public class MTree implements Serializable {
    */
   List<List<String>> getShowTimeseriesPath(String pathReg) throws PathErrorException {
     List<List<String>> res = new ArrayList<>();
-    String[] nodes = pathReg.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(pathReg);
     if (nodes.length == 0 || !nodes[0].equals(getRoot().getName())) {
       throw new PathErrorException(String.format(SERIES_NOT_CORRECT, pathReg));
     }
@@ -698,7 +721,7 @@ public class MTree implements Serializable {
    * @return The total count of storage-level nodes.
    */
   int getFileCountForOneType(String path) throws PathErrorException {
-    String[] nodes = path.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path);
     if (nodes.length != 2 || !nodes[0].equals(getRoot().getName()) || !getRoot()
         .hasChild(nodes[1])) {
       throw new PathErrorException(
@@ -822,7 +845,7 @@ public class MTree implements Serializable {
    * @return a list contains all column schema
    */
   ArrayList<MeasurementSchema> getSchemaForOneType(String path) throws PathErrorException {
-    String[] nodes = path.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path);
     if (nodes.length != 2 || !nodes[0].equals(getRoot().getName()) || !getRoot()
         .hasChild(nodes[1])) {
       throw new PathErrorException(
@@ -841,7 +864,7 @@ public class MTree implements Serializable {
    */
   ArrayList<MeasurementSchema> getSchemaForOneStorageGroup(String path) {
 
-    String[] nodes = path.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path);
     HashMap<String, MeasurementSchema> leafMap = new HashMap<>();
     MNode cur = getRoot();
     for (int i = 1; i < nodes.length; i++) {
@@ -856,7 +879,7 @@ public class MTree implements Serializable {
    * function for getting schema map for one storage group.
    */
   Map<String, MeasurementSchema> getSchemaMapForOneStorageGroup(String path) {
-    String[] nodes = path.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path);
     MNode cur = getRoot();
     for (int i = 1; i < nodes.length; i++) {
       cur = cur.getChild(nodes[i]);
@@ -868,7 +891,7 @@ public class MTree implements Serializable {
    * function for getting num schema map for one file node.
    */
   Map<String, Integer> getNumSchemaMapForOneFileNode(String path) {
-    String[] nodes = path.split(DOUB_SEPARATOR);
+    String[] nodes = MetaUtils.getNodeNames(path);
     MNode cur = getRoot();
     for (int i = 1; i < nodes.length; i++) {
       cur = cur.getChild(nodes[i]);
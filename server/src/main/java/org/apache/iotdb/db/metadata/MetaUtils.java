@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import java.util.Arrays;
+import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
+
+public class MetaUtils {
+
+  private static final char PATH_SEPARATOR = TsFileConstant.PATH_SEPARATOR.charAt(0);
+
+  private MetaUtils() {
+    //allowed to do nothing
+  }
+
+  /**
+   * split a path into its nodes. The result is the same as path.split("\\.") but the path is
+   * scanned once and only the array and the nodes are allocated.
+   */
+  public static String[] getNodeNames(String path) {
+    int nodeNum = 1;
+    for (int i = 0; i < path.length(); i++) {
+      if (path.charAt(i) == PATH_SEPARATOR) {
+        nodeNum++;
+      }
+    }
+    if (nodeNum == 1) {
+      return new String[]{path};
+    }
+    String[] nodeNames = new String[nodeNum];
+    int start = 0;
+    int index = 0;
+    for (int i = 0; i < path.length(); i++) {
+      if (path.charAt(i) == PATH_SEPARATOR) {
+        nodeNames[index++] = path.substring(start, i);
+        start = i + 1;
+      }
+    }
+    nodeNames[index] = path.substring(start);
+    // trailing empty nodes are removed like String.split does
+    int length = nodeNum;
+    while (length > 0 && nodeNames[length - 1].isEmpty()) {
+      length--;
+    }
+    return length == nodeNum ? nodeNames : Arrays.copyOf(nodeNames, length);
+  }
+
+  /**
+   * concatenate nodes into a path, the reverse of getNodeNames.
+   */
+  static String getPathByNodes(String[] nodeNames) {
+    return String.join(TsFileConstant.PATH_SEPARATOR, nodeNames);
+  }
+}
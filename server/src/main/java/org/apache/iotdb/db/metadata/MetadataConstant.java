@@ -23,5 +23,10 @@ public class MetadataConstant {
     //allowed to do nothing
   }
   public static final String ROOT = "root";
-  public static final String METADATA_LOG = "mlog.txt";
+  public static final String METADATA_LOG = "mlog.bin";
+  /**
+   * the text metadata log of older versions, it is converted to METADATA_LOG when it is loaded.
+   */
+  public static final String METADATA_TEXT_LOG = "mlog.txt";
+  public static final String METADATA_SNAPSHOT = "mtree.snapshot";
 }
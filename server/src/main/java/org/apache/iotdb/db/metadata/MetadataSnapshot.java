@@ -0,0 +1,372 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+/**
+ * A binary image of a {@code MGraph} together with the length of the metadata log it covers.
+ * Timeseries created while the snapshot is written may be included although their log entries
+ * are after the log offset, so the length of the log once the snapshot is written is recorded as
+ * well, and replaying the log skips the creations of existing timeseries between the two offsets.
+ * <p>
+ * The MTree and the PTrees are written in pre-order. Node names, storage group names and linked
+ * paths go through a name table that is built while writing: the first occurrence of a name is
+ * written in full and later ones only by their index, so a measurement shared by many devices is
+ * stored once and, after loading, all nodes with this name share one String instance. The file
+ * ends with a CRC32 of everything before it.
+ * <p>
+ * Layout: magic, version, log offset, MTree, number of PTrees, PTrees, end offset, crc.
+ */
+class MetadataSnapshot {
+
+  private static final int MAGIC = 0x4D534E50;
+  private static final int VERSION = 3;
+
+  private static final int FLAG_LEAF = 1;
+  private static final int FLAG_STORAGE_LEVEL = 1 << 1;
+  private static final int FLAG_DATA_FILE_NAME = 1 << 2;
+  private static final int FLAG_TTL = 1 << 3;
+
+  private MGraph mgraph;
+  private long logOffset;
+  private long endOffset;
+
+  private MetadataSnapshot(MGraph mgraph, long logOffset, long endOffset) {
+    this.mgraph = mgraph;
+    this.logOffset = logOffset;
+    this.endOffset = endOffset;
+  }
+
+  MGraph getMGraph() {
+    return mgraph;
+  }
+
+  /**
+   * @return the length of the metadata log when the snapshot was taken, the entries after it are
+   * not included in the snapshot.
+   */
+  long getLogOffset() {
+    return logOffset;
+  }
+
+  /**
+   * @return the length of the metadata log once the snapshot was written, the timeseries created
+   * by the entries between the log offset and it may be in the snapshot already.
+   */
+  long getEndOffset() {
+    return endOffset;
+  }
+
+  /**
+   * write a snapshot of a mgraph that is not modified meanwhile.
+   */
+  static void write(MGraph mgraph, long logOffset, File target) throws IOException {
+    write(mgraph, logOffset, () -> logOffset, target);
+  }
+
+  /**
+   * Write the snapshot to a temporary file first and move it to the target, so that a crash in the
+   * middle never leaves a half-written snapshot behind.
+   *
+   * @param endOffsetSupplier called once the mgraph is written, it returns the length of the log
+   * from which on no entry creates a timeseries in the snapshot.
+   */
+  static void write(MGraph mgraph, long logOffset, EndOffsetSupplier endOffsetSupplier,
+      File target) throws IOException {
+    File tmpFile = new File(target.getPath() + ".tmp");
+    CRC32 crc32 = new CRC32();
+    try (FileOutputStream fileOutputStream = new FileOutputStream(tmpFile);
+        DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+            new BufferedOutputStream(fileOutputStream), crc32))) {
+      NameWriter names = new NameWriter(out);
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(logOffset);
+      writeMNode(mgraph.getMTree().getRoot(), out, names);
+      Map<String, PTree> ptreeMap = mgraph.getPTreeMap();
+      writeVarInt(ptreeMap.size(), out);
+      for (PTree ptree : ptreeMap.values()) {
+        writePNode(ptree.getRoot(), out, names);
+      }
+      out.writeLong(endOffsetSupplier.get());
+      // the crc does not cover itself
+      long checksum = crc32.getValue();
+      out.writeLong(checksum);
+      out.flush();
+      fileOutputStream.getFD().sync();
+    }
+    Files.move(tmpFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  static MetadataSnapshot read(File file) throws IOException {
+    CRC32 crc32 = new CRC32();
+    try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+        new BufferedInputStream(new FileInputStream(file)), crc32))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException(String.format("%s is not a metadata snapshot", file));
+      }
+      int version = in.readInt();
+      if (version != VERSION) {
+        throw new IOException(
+            String.format("Unsupported version %d of metadata snapshot %s", version, file));
+      }
+      NameReader names = new NameReader(in);
+      long logOffset = in.readLong();
+      MNode mRoot = readMNode(null, null, in, names);
+      MTree mtree = new MTree(mRoot);
+      int ptreeNum = ReadWriteForEncodingUtils.readUnsignedVarInt(in);
+      HashMap<String, PTree> ptreeMap = new HashMap<>(ptreeNum * 2);
+      for (int i = 0; i < ptreeNum; i++) {
+        PNode pRoot = readPNode(null, in, names);
+        ptreeMap.put(pRoot.getName(), new PTree(pRoot.getName(), pRoot, mtree));
+      }
+      long endOffset = in.readLong();
+      long expected = crc32.getValue();
+      if (in.readLong() != expected) {
+        throw new IOException(String.format("Metadata snapshot %s is corrupted", file));
+      }
+      return new MetadataSnapshot(new MGraph(mtree, ptreeMap), logOffset, endOffset);
+    }
+  }
+
+  private static void writeMNode(MNode node, DataOutputStream out, NameWriter names)
+      throws IOException {
+    int flags = 0;
+    if (node.isLeaf()) {
+      flags |= FLAG_LEAF;
+    }
+    if (node.isStorageLevel()) {
+      flags |= FLAG_STORAGE_LEVEL;
+    }
+    if (node.getDataFileName() != null) {
+      flags |= FLAG_DATA_FILE_NAME;
+    }
+    // only a storage group node has a TTL, which is infinite unless it is set
+    long dataTTL = node.isStorageLevel() ? node.getStorageGroupSchema().getDataTTL()
+        : Long.MAX_VALUE;
+    boolean hasTTL = dataTTL != Long.MAX_VALUE;
+    if (hasTTL) {
+      flags |= FLAG_TTL;
+    }
+    out.writeByte(flags);
+    names.write(node.getName());
+    if (node.getDataFileName() != null) {
+      names.write(node.getDataFileName());
+    }
+    if (hasTTL) {
+      out.writeLong(dataTTL);
+    }
+    if (node.isLeaf()) {
+      MeasurementSchema schema = node.getSchema();
+      out.writeShort(schema.getType().serialize());
+      out.writeShort(schema.getEncodingType().serialize());
+      out.writeShort(schema.getCompressor().serialize());
+      Map<String, String> props = schema.getProps();
+      writeVarInt(props == null ? 0 : props.size(), out);
+      if (props != null) {
+        for (Entry<String, String> entry : props.entrySet()) {
+          names.write(entry.getKey());
+          names.write(entry.getValue());
+        }
+      }
+    } else {
+      // timeseries may be created during the snapshot, so the count must match the written ones
+      List<MNode> children = new ArrayList<>(node.getChildren().values());
+      writeVarInt(children.size(), out);
+      for (MNode child : children) {
+        writeMNode(child, out, names);
+      }
+    }
+  }
+
+  /**
+   * @param storageGroup the nearest storage group node above this node, its schema maps are
+   * rebuilt from the leaves as they are read.
+   */
+  private static MNode readMNode(MNode parent, MNode storageGroup, DataInputStream in,
+      NameReader names) throws IOException {
+    int flags = in.readByte();
+    String name = names.read();
+    String dataFileName = (flags & FLAG_DATA_FILE_NAME) != 0 ? names.read() : null;
+    long dataTTL = (flags & FLAG_TTL) != 0 ? in.readLong() : Long.MAX_VALUE;
+    MNode node;
+    if ((flags & FLAG_LEAF) != 0) {
+      TSDataType dataType = TSDataType.deserialize(in.readShort());
+      TSEncoding encoding = TSEncoding.deserialize(in.readShort());
+      CompressionType compressor = CompressionType.deserialize(in.readShort());
+      MeasurementSchema schema = new MeasurementSchema(name, dataType, encoding, compressor);
+      int propNum = ReadWriteForEncodingUtils.readUnsignedVarInt(in);
+      if (propNum > 0) {
+        Map<String, String> props = new HashMap<>(propNum * 2);
+        for (int i = 0; i < propNum; i++) {
+          props.put(names.read(), names.read());
+        }
+        schema.setProps(props);
+      }
+      node = new MNode(name, parent, MTree.getSharedSchema(storageGroup, schema));
+      if (storageGroup != null) {
+        storageGroup.getSchemaMap().putIfAbsent(name, node.getSchema());
+        storageGroup.getNumSchemaMap().merge(name, 1, Integer::sum);
+      }
+    } else {
+      node = new MNode(name, parent, false);
+    }
+    node.setDataFileName(dataFileName);
+    if ((flags & FLAG_STORAGE_LEVEL) != 0) {
+      node.setStorageLevel(true);
+      node.getStorageGroupSchema().setDataTTL(dataTTL);
+      storageGroup = node;
+    }
+    if (!node.isLeaf()) {
+      int childNum = ReadWriteForEncodingUtils.readUnsignedVarInt(in);
+      for (int i = 0; i < childNum; i++) {
+        MNode child = readMNode(node, storageGroup, in, names);
+        node.addChild(child.getName(), child);
+      }
+    }
+    return node;
+  }
+
+  private static void writePNode(PNode node, DataOutputStream out, NameWriter names)
+      throws IOException {
+    out.writeBoolean(node.isLeaf());
+    names.write(node.getName());
+    if (node.isLeaf()) {
+      Map<String, Integer> linkedPaths = node.getLinkedMTreePathMap();
+      writeVarInt(linkedPaths.size(), out);
+      for (String path : linkedPaths.keySet()) {
+        names.write(path);
+      }
+    } else {
+      writeVarInt(node.getChildren().size(), out);
+      for (PNode child : node.getChildren().values()) {
+        writePNode(child, out, names);
+      }
+    }
+  }
+
+  private static PNode readPNode(PNode parent, DataInputStream in, NameReader names)
+      throws IOException {
+    boolean isLeaf = in.readBoolean();
+    PNode node = new PNode(names.read(), parent, isLeaf);
+    int num = ReadWriteForEncodingUtils.readUnsignedVarInt(in);
+    if (isLeaf) {
+      LinkedHashMap<String, Integer> linkedPaths = new LinkedHashMap<>(num * 2);
+      for (int i = 0; i < num; i++) {
+        linkedPaths.put(names.read(), 1);
+      }
+      node.setLinkedMTreePathMap(linkedPaths);
+    } else {
+      for (int i = 0; i < num; i++) {
+        PNode child = readPNode(node, in, names);
+        node.addChild(child.getName(), child);
+      }
+    }
+    return node;
+  }
+
+  @FunctionalInterface
+  interface EndOffsetSupplier {
+
+    long get() throws IOException;
+  }
+
+  private static void writeVarInt(int value, DataOutputStream out) throws IOException {
+    out.write(ReadWriteForEncodingUtils.getUnsignedVarInt(value));
+  }
+
+  /**
+   * Writes a name by its index in the name table, followed by its bytes if this is the first
+   * occurrence.
+   */
+  private static class NameWriter {
+
+    private DataOutputStream out;
+    private Map<String, Integer> indexes = new HashMap<>();
+
+    private NameWriter(DataOutputStream out) {
+      this.out = out;
+    }
+
+    private void write(String name) throws IOException {
+      Integer index = indexes.get(name);
+      if (index != null) {
+        writeVarInt(index, out);
+        return;
+      }
+      index = indexes.size();
+      indexes.put(name, index);
+      writeVarInt(index, out);
+      byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(bytes.length, out);
+      out.write(bytes);
+    }
+  }
+
+  private static class NameReader {
+
+    private DataInputStream in;
+    private List<String> names = new ArrayList<>();
+
+    private NameReader(DataInputStream in) {
+      this.in = in;
+    }
+
+    private String read() throws IOException {
+      int index = ReadWriteForEncodingUtils.readUnsignedVarInt(in);
+      if (index < names.size()) {
+        return names.get(index);
+      }
+      if (index != names.size()) {
+        throw new IOException("Unexpected name index " + index + " in metadata snapshot");
+      }
+      byte[] bytes = new byte[ReadWriteForEncodingUtils.readUnsignedVarInt(in)];
+      in.readFully(bytes);
+      String name = new String(bytes, StandardCharsets.UTF_8);
+      names.add(name);
+      return name;
+    }
+  }
+}
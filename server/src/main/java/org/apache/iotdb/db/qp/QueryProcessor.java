@@ -140,6 +140,8 @@ public class QueryProcessor {
       case INDEXQUERY:
       case GRANT_WATERMARK_EMBEDDING:
       case REVOKE_WATERMARK_EMBEDDING:
+      case SET_TTL:
+      case UNSET_TTL:
         return operator;
       case QUERY:
       case UPDATE:
@@ -75,6 +75,9 @@ public class SQLConstant {
   public static final int TOK_GRANT_WATERMARK_EMBEDDING = 34;
   public static final int TOK_REVOKE_WATERMARK_EMBEDDING = 35;
 
+  public static final int TOK_SET_TTL = 36;
+  public static final int TOK_UNSET_TTL = 37;
+
   public static final int TOK_AUTHOR_CREATE = 41;
   public static final int TOK_AUTHOR_DROP = 42;
   public static final int TOK_AUTHOR_GRANT = 43;
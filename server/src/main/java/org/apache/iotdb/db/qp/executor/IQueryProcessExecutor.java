@@ -29,6 +29,7 @@ import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.sys.CreateMultiTimeSeriesPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.fill.IFill;
 import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
@@ -121,6 +122,12 @@ public interface IQueryProcessExecutor {
    */
   Integer[] insertBatch(BatchInsertPlan batchInsertPlan) throws ProcessorException;
 
+  /**
+   * execute create multi timeseries plan
+   * @return result of each timeseries
+   */
+  Integer[] createMultiTimeseries(CreateMultiTimeSeriesPlan plan) throws ProcessorException;
+
   boolean judgePathExists(Path fullPath);
 
   /**
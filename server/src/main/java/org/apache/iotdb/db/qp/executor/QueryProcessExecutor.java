@@ -24,6 +24,7 @@ import static org.apache.iotdb.db.conf.IoTDBConstant.USER;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -51,13 +52,16 @@ import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
 import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
+import org.apache.iotdb.db.qp.physical.sys.CreateMultiTimeSeriesPlan;
 import org.apache.iotdb.db.qp.physical.sys.DataAuthPlan;
 import org.apache.iotdb.db.qp.physical.sys.MetadataPlan;
 import org.apache.iotdb.db.qp.physical.sys.PropertyPlan;
+import org.apache.iotdb.db.qp.physical.sys.TTLPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.dataset.AuthDataSet;
 import org.apache.iotdb.db.query.fill.IFill;
 import org.apache.iotdb.db.utils.AuthUtils;
+import org.apache.iotdb.rpc.TSStatusType;
 import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -69,9 +73,13 @@ import org.apache.iotdb.tsfile.read.expression.IExpression;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.utils.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
 
+  private static final Logger logger = LoggerFactory.getLogger(QueryProcessExecutor.class);
+
   private StorageEngine storageEngine;
   private MManager mManager = MManager.getInstance();
 
@@ -110,6 +118,9 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
         return operateWatermarkEmbedding(((DataAuthPlan) plan).getUsers(), true);
       case REVOKE_WATERMARK_EMBEDDING:
         return operateWatermarkEmbedding(((DataAuthPlan) plan).getUsers(), false);
+      case SET_TTL:
+      case UNSET_TTL:
+        return operateTTL((TTLPlan) plan);
       case DELETE_TIMESERIES:
       case CREATE_TIMESERIES:
       case SET_STORAGE_GROUP:
@@ -172,38 +183,46 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
       throws ProcessorException {
     String deviceId = path.getDevice();
     String measurementId = path.getMeasurement();
-    try {
-      String fullPath = deviceId + "." + measurementId;
-      if (!mManager.pathExist(fullPath)) {
-        throw new ProcessorException(String.format("Time series %s does not exist.", fullPath));
-      }
-      mManager.getStorageGroupNameByPath(fullPath);
-      TSDataType dataType = mManager.getSeriesType(fullPath);
-      value = checkValue(dataType, value);
-      storageEngine.update(deviceId, measurementId, startTime, endTime, dataType, value);
-      return true;
-    } catch (PathErrorException e) {
-      throw new ProcessorException(e);
-    }
+    TSDataType dataType = getMeasurementNode(deviceId, measurementId).getSchema().getType();
+    value = checkValue(dataType, value);
+    storageEngine.update(deviceId, measurementId, startTime, endTime, dataType, value);
+    return true;
   }
 
   @Override
   public boolean delete(Path path, long timestamp) throws ProcessorException {
     String deviceId = path.getDevice();
     String measurementId = path.getMeasurement();
+    getMeasurementNode(deviceId, measurementId);
     try {
-      if (!mManager.pathExist(path.getFullPath())) {
-        throw new ProcessorException(
-            String.format("Time series %s does not exist.", path.getFullPath()));
-      }
-      mManager.getStorageGroupNameByPath(path.getFullPath());
       storageEngine.delete(deviceId, measurementId, timestamp);
       return true;
-    } catch (PathErrorException | StorageEngineException e) {
+    } catch (StorageEngineException e) {
       throw new ProcessorException(e);
     }
   }
 
+  /**
+   * get the leaf node of a timeseries from the cached node of its device, which is in a storage
+   * group, so the full path is neither built nor split.
+   */
+  private MNode getMeasurementNode(String deviceId, String measurementId)
+      throws ProcessorException {
+    MNode node;
+    try {
+      node = mManager.getNodeByDeviceIdFromCache(deviceId);
+    } catch (PathErrorException e) {
+      throw new ProcessorException(
+          String.format("Time series %s.%s does not exist.", deviceId, measurementId), e);
+    }
+    MNode measurementNode = node.getChild(measurementId);
+    if (measurementNode == null || !measurementNode.isLeaf()) {
+      throw new ProcessorException(
+          String.format("Time series %s.%s does not exist.", deviceId, measurementId));
+    }
+    return measurementNode;
+  }
+
 
   @Override
   public boolean insert(InsertPlan insertPlan) throws ProcessorException {
@@ -264,6 +283,33 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
     }
   }
 
+  @Override
+  public Integer[] createMultiTimeseries(CreateMultiTimeSeriesPlan plan)
+      throws ProcessorException {
+    List<Path> paths = plan.getPaths();
+    MetadataErrorException[] errors = new MetadataErrorException[paths.size()];
+    Integer[] results = new Integer[paths.size()];
+    try {
+      boolean[] isNewMeasurement = mManager.addPathsToMTree(paths, plan.getDataTypes(),
+          plan.getEncodings(), plan.getCompressors(), errors);
+      for (int i = 0; i < paths.size(); i++) {
+        if (errors[i] != null) {
+          logger.debug("Cannot create timeseries {}", paths.get(i), errors[i]);
+          results[i] = TSStatusType.EXECUTE_STATEMENT_ERROR.getStatusCode();
+          continue;
+        }
+        if (isNewMeasurement[i]) {
+          storageEngine.addTimeSeries(paths.get(i), plan.getDataTypes().get(i),
+              plan.getEncodings().get(i), plan.getCompressors().get(i), Collections.emptyMap());
+        }
+        results[i] = TSStatusType.SUCCESS_STATUS.getStatusCode();
+      }
+    } catch (MetadataErrorException | StorageEngineException e) {
+      throw new ProcessorException(e);
+    }
+    return results;
+  }
+
   @Override
   public List<String> getAllPaths(String originPath) throws MetadataErrorException {
     return MManager.getInstance().getPaths(originPath);
@@ -373,6 +419,17 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
     return true;
   }
 
+  private boolean operateTTL(TTLPlan plan) throws ProcessorException {
+    try {
+      String storageGroup = plan.getStorageGroup().getFullPath();
+      mManager.setTTL(storageGroup, plan.getDataTTL());
+      storageEngine.setTTL(storageGroup, plan.getDataTTL());
+    } catch (MetadataErrorException | StorageEngineException e) {
+      throw new ProcessorException(e);
+    }
+    return true;
+  }
+
   private boolean operateMetadata(MetadataPlan metadataPlan) throws ProcessorException {
     MetadataOperator.NamespaceType namespaceType = metadataPlan.getNamespaceType();
     Path path = metadataPlan.getPath();
@@ -0,0 +1,57 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.qp.logical.sys;
+
+import org.apache.iotdb.db.qp.constant.SQLConstant;
+import org.apache.iotdb.db.qp.logical.RootOperator;
+import org.apache.iotdb.tsfile.read.common.Path;
+
+/**
+ * TTLOperator sets or unsets the TTL of a storage group, the data older than the TTL is dropped.
+ */
+public class TTLOperator extends RootOperator {
+
+  private Path storageGroup;
+  private long dataTTL;
+
+  public TTLOperator(int tokenIntType) {
+    super(tokenIntType);
+    if (tokenIntType == SQLConstant.TOK_SET_TTL) {
+      operatorType = OperatorType.SET_TTL;
+    } else {
+      operatorType = OperatorType.UNSET_TTL;
+    }
+  }
+
+  public Path getStorageGroup() {
+    return storageGroup;
+  }
+
+  public void setStorageGroup(Path storageGroup) {
+    this.storageGroup = storageGroup;
+  }
+
+  public long getDataTTL() {
+    return dataTTL;
+  }
+
+  public void setDataTTL(long dataTTL) {
+    this.dataTTL = dataTTL;
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.iotdb.db.qp.physical.crud;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.iotdb.db.metadata.MetaUtils;
 import org.apache.iotdb.db.qp.logical.Operator.OperatorType;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.utils.QueryDataSetUtils;
@@ -48,6 +49,7 @@ public class BatchInsertPlan extends PhysicalPlan {
   private Long maxTime = null;
   private Long minTime = null;
   private List<Path> paths;
+  private String[] deviceNodes;
 
   public BatchInsertPlan() {
     super(false, OperatorType.BATCHINSERT);
@@ -172,6 +174,7 @@ public class BatchInsertPlan extends PhysicalPlan {
   @Override
   public void deserializeFrom(ByteBuffer buffer) {
     this.deviceId = readString(buffer);
+    this.deviceNodes = null;
 
     int measurementSize = buffer.getInt();
     this.measurements = new String[measurementSize];
@@ -198,6 +201,17 @@ public class BatchInsertPlan extends PhysicalPlan {
 
   public void setDeviceId(String deviceId) {
     this.deviceId = deviceId;
+    this.deviceNodes = null;
+  }
+
+  /**
+   * @return the nodes of the device, split once and kept for the metadata lookups of this plan.
+   */
+  public String[] getDeviceNodes() {
+    if (deviceNodes == null) {
+      deviceNodes = MetaUtils.getNodeNames(deviceId);
+    }
+    return deviceNodes;
   }
 
   public String[] getMeasurements() {
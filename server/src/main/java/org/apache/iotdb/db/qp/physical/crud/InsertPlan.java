@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import org.apache.iotdb.db.metadata.MetaUtils;
 import org.apache.iotdb.db.qp.logical.Operator;
 import org.apache.iotdb.db.qp.logical.Operator.OperatorType;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
@@ -33,6 +34,7 @@ import org.apache.iotdb.tsfile.write.record.TSRecord;
 public class InsertPlan extends PhysicalPlan {
 
   private String deviceId;
+  private String[] deviceNodes;
   private String[] measurements;
   private TSDataType[] dataTypes;
   private String[] values;
@@ -105,6 +107,17 @@ public class InsertPlan extends PhysicalPlan {
 
   public void setDeviceId(String deviceId) {
     this.deviceId = deviceId;
+    this.deviceNodes = null;
+  }
+
+  /**
+   * @return the nodes of the device, split once and kept for the metadata lookups of this plan.
+   */
+  public String[] getDeviceNodes() {
+    if (deviceNodes == null) {
+      deviceNodes = MetaUtils.getNodeNames(deviceId);
+    }
+    return deviceNodes;
   }
 
   public String[] getMeasurements() {
@@ -165,6 +178,7 @@ public class InsertPlan extends PhysicalPlan {
   public void deserializeFrom(ByteBuffer buffer) {
     this.time = buffer.getLong();
     this.deviceId = readString(buffer);
+    this.deviceNodes = null;
 
     int measurementSize = buffer.getInt();
     this.measurements = new String[measurementSize];
@@ -51,6 +51,7 @@ import org.apache.iotdb.db.qp.logical.sys.DataAuthOperator;
 import org.apache.iotdb.db.qp.logical.sys.LoadDataOperator;
 import org.apache.iotdb.db.qp.logical.sys.MetadataOperator;
 import org.apache.iotdb.db.qp.logical.sys.PropertyOperator;
+import org.apache.iotdb.db.qp.logical.sys.TTLOperator;
 import org.apache.iotdb.db.query.fill.IFill;
 import org.apache.iotdb.db.query.fill.LinearFill;
 import org.apache.iotdb.db.query.fill.PreviousFill;
@@ -186,6 +187,12 @@ public class LogicalGenerator {
       case TSParser.TOK_REVOKE_WATERMARK_EMBEDDING:
         analyzeWatermarkEmbedding(astNode, SQLConstant.TOK_REVOKE_WATERMARK_EMBEDDING);
         return;
+      case TSParser.TOK_SET_TTL:
+        analyzeTTL(astNode, SQLConstant.TOK_SET_TTL);
+        return;
+      case TSParser.TOK_UNSET_TTL:
+        analyzeTTL(astNode, SQLConstant.TOK_UNSET_TTL);
+        return;
       case TSParser.TOK_REVOKE:
         analyzeAuthorRevoke(astNode);
         return;
@@ -1022,6 +1029,17 @@ public class LogicalGenerator {
     initializedOperator = new DataAuthOperator(tokenIntType, users);
   }
 
+  private void analyzeTTL(AstNode astNode, int tokenIntType) {
+    TTLOperator ttlOperator = new TTLOperator(tokenIntType);
+    ttlOperator.setStorageGroup(parsePath(astNode.getChild(0)));
+    if (tokenIntType == SQLConstant.TOK_SET_TTL) {
+      ttlOperator.setDataTTL(Long.parseLong(astNode.getChild(1).getText()));
+    } else {
+      ttlOperator.setDataTTL(Long.MAX_VALUE);
+    }
+    initializedOperator = ttlOperator;
+  }
+
   private void analyzeAuthorGrant(AstNode astNode) throws IllegalASTFormatException {
     int childCount = astNode.getChildCount();
     AuthorOperator authorOperator;
@@ -35,6 +35,7 @@ import org.apache.iotdb.db.qp.logical.sys.DataAuthOperator;
 import org.apache.iotdb.db.qp.logical.sys.LoadDataOperator;
 import org.apache.iotdb.db.qp.logical.sys.MetadataOperator;
 import org.apache.iotdb.db.qp.logical.sys.PropertyOperator;
+import org.apache.iotdb.db.qp.logical.sys.TTLOperator;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.AggregationPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
@@ -47,6 +48,7 @@ import org.apache.iotdb.db.qp.physical.sys.DataAuthPlan;
 import org.apache.iotdb.db.qp.physical.sys.LoadDataPlan;
 import org.apache.iotdb.db.qp.physical.sys.MetadataPlan;
 import org.apache.iotdb.db.qp.physical.sys.PropertyPlan;
+import org.apache.iotdb.db.qp.physical.sys.TTLPlan;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.expression.IExpression;
 
@@ -78,6 +80,11 @@ public class PhysicalGenerator {
       case REVOKE_WATERMARK_EMBEDDING:
         DataAuthOperator dataAuthOperator = (DataAuthOperator) operator;
         return new DataAuthPlan(dataAuthOperator.getType(), dataAuthOperator.getUsers());
+      case SET_TTL:
+      case UNSET_TTL:
+        TTLOperator ttlOperator = (TTLOperator) operator;
+        return new TTLPlan(ttlOperator.getType(), ttlOperator.getStorageGroup(),
+            ttlOperator.getDataTTL());
       case LOADDATA:
         LoadDataOperator loadData = (LoadDataOperator) operator;
         return new LoadDataPlan(loadData.getInputFilePath(), loadData.getMeasureType());
@@ -19,11 +19,9 @@
 
 package org.apache.iotdb.db.query.context;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.modification.DeletionIndex.SeriesDeletions;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 
 /**
@@ -33,15 +31,10 @@ public class QueryContext {
 
   /**
    * The outer key is the path of a ModificationFile, the inner key in the name of a timeseries and
-   * the value is the Modifications of a timeseries in this file.
+   * the value is the Deletions of a timeseries in this file. The Deletions are cached so that a
+   * query is not affected by the ones that arrive during it.
    */
-  private Map<String, Map<String, List<Modification>>> filePathModCache = new HashMap<>();
-  /**
-   * The key is the path of a ModificationFile and the value is all Modifications in this file. We
-   * use this field because each call of Modification.getModifications() return a copy of the
-   * Modifications, and we do not want it to create multiple copies within a query.
-   */
-  private Map<String, List<Modification>> fileModCache = new HashMap<>();
+  private Map<String, Map<String, SeriesDeletions>> filePathModCache = new HashMap<>();
 
   private long jobId;
 
@@ -53,34 +46,12 @@ public class QueryContext {
   }
 
   /**
-   * Find the modifications of timeseries 'path' in 'modFile'. If they are not in the cache, read
+   * Find the Deletions of timeseries 'path' in 'modFile'. If they are not in the cache, read
    * them from 'modFile' and put then into the cache.
    */
-  public List<Modification> getPathModifications(ModificationFile modFile, String path) {
-
-    Map<String, List<Modification>> fileModifications =
-        filePathModCache.computeIfAbsent(modFile.getFilePath(), k -> new HashMap<>());
-    List<Modification> pathModifications = fileModifications.get(path);
-
-    if (pathModifications == null) {
-      List<Modification> allModifications = fileModCache.get(modFile.getFilePath());
-      if (allModifications == null) {
-        allModifications = (List<Modification>) modFile.getModifications();
-        fileModCache.put(modFile.getFilePath(), allModifications);
-      }
-      pathModifications = new ArrayList<>();
-      if (!allModifications.isEmpty()) {
-        List<Modification> finalPathModifications = pathModifications;
-        allModifications.forEach(modification -> {
-          if (modification.getPathString().equals(path)) {
-            finalPathModifications.add(modification);
-          }
-        });
-      }
-      fileModifications.put(path, pathModifications);
-    }
-
-    return pathModifications;
+  public SeriesDeletions getPathDeletions(ModificationFile modFile, String path) {
+    return filePathModCache.computeIfAbsent(modFile.getFilePath(), k -> new HashMap<>())
+        .computeIfAbsent(path, modFile::getDeletions);
   }
 
   public long getJobId() {
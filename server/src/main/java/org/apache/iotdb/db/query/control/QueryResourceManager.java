@@ -29,6 +29,7 @@ import org.apache.iotdb.tsfile.read.expression.ExpressionType;
 import org.apache.iotdb.tsfile.read.expression.IBinaryExpression;
 import org.apache.iotdb.tsfile.read.expression.IExpression;
 import org.apache.iotdb.tsfile.read.expression.impl.SingleSeriesExpression;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
 /**
  * <p>
@@ -65,8 +66,18 @@ public class QueryResourceManager {
 
   public QueryDataSource getQueryDataSource(Path selectedPath,
       QueryContext context) throws StorageEngineException {
+    return getQueryDataSource(selectedPath, context, null);
+  }
+
+  /**
+   * @param timeFilter the time filter of the query, only the time partitions it covers are read.
+   * It can be null.
+   */
+  public QueryDataSource getQueryDataSource(Path selectedPath, QueryContext context,
+      Filter timeFilter) throws StorageEngineException {
 
-    SingleSeriesExpression singleSeriesExpression = new SingleSeriesExpression(selectedPath, null);
+    SingleSeriesExpression singleSeriesExpression = new SingleSeriesExpression(selectedPath,
+        timeFilter);
     return StorageEngine
         .getInstance().query(singleSeriesExpression, context, filePathsManager);
   }
@@ -51,6 +51,10 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
   private List<BatchData> batchDataList;
   private List<Boolean> hasCachedSequenceDataList;
   private Filter timeFilter;
+  /**
+   * the time filter of each series, which also filters out the data expired by TTL.
+   */
+  private List<Filter> seriesFilterList;
 
   /**
    * constructor.
@@ -61,6 +65,7 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
     this.unSequenceReaderList = new ArrayList<>();
     this.sequenceReaderList = new ArrayList<>();
     this.timeFilter = null;
+    this.seriesFilterList = new ArrayList<>();
     this.hasCachedSequenceDataList = new ArrayList<>();
     this.batchDataList = new ArrayList<>();
     for (int i = 0; i < paths.size(); i++) {
@@ -81,17 +86,19 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
     }
     for (Path path : selectedSeries) {
       QueryDataSource queryDataSource = QueryResourceManager.getInstance()
-          .getQueryDataSource(path, context);
+          .getQueryDataSource(path, context, timeFilter);
+      Filter seriesFilter = queryDataSource.updateFilterUsingTTL(timeFilter);
+      seriesFilterList.add(seriesFilter);
 
       // sequence reader for sealed tsfile, unsealed tsfile, memory
       IAggregateReader seqResourceIterateReader = new SeqResourceIterateReader(
-          queryDataSource.getSeriesPath(), queryDataSource.getSeqResources(), timeFilter, context,
-          false);
+          queryDataSource.getSeriesPath(), queryDataSource.getSeqResources(), seriesFilter,
+          context, false);
 
       // unseq reader for all chunk groups in unSeqFile, memory
       IPointReader unseqResourceMergeReader = new UnseqResourceMergeReader(
           queryDataSource.getSeriesPath(), queryDataSource.getUnseqResources(), context,
-          timeFilter);
+          seriesFilter);
 
       sequenceReaderList.add(seqResourceIterateReader);
       unSequenceReaderList.add(unseqResourceMergeReader);
@@ -161,7 +168,8 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
         // no point in sequence data with a timestamp less than endTime
         if (minTime >= endTime) {
           finishCheckSequenceData = true;
-        } else if (canUseHeader(minTime, maxTime, unsequenceReader, function)) {
+        } else if (canUseHeader(minTime, maxTime, unsequenceReader, function,
+            seriesFilterList.get(idx))) {
           // cal using page header
           function.calculateValueFromPageHeader(pageHeader);
           sequenceReader.skipPageData();
@@ -300,9 +308,9 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
   }
 
   private boolean canUseHeader(long minTime, long maxTime, IPointReader unSequenceReader,
-      AggregateFunction function)
+      AggregateFunction function, Filter seriesFilter)
       throws IOException, ProcessorException {
-    if (timeFilter != null && !timeFilter.containStartEndTime(minTime, maxTime)) {
+    if (seriesFilter != null && !seriesFilter.containStartEndTime(minTime, maxTime)) {
       return false;
     }
 
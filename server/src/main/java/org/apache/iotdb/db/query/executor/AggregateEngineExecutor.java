@@ -90,6 +90,7 @@ public class AggregateEngineExecutor {
     List<IAggregateReader> readersOfSequenceData = new ArrayList<>();
     List<IPointReader> readersOfUnSequenceData = new ArrayList<>();
     List<AggregateFunction> aggregateFunctions = new ArrayList<>();
+    List<Filter> seriesFilters = new ArrayList<>();
     for (int i = 0; i < selectedSeries.size(); i++) {
       // construct AggregateFunction
       TSDataType tsDataType = MManager.getInstance()
@@ -99,21 +100,23 @@ public class AggregateEngineExecutor {
       aggregateFunctions.add(function);
 
       QueryDataSource queryDataSource = QueryResourceManager.getInstance()
-          .getQueryDataSource(selectedSeries.get(i), context);
+          .getQueryDataSource(selectedSeries.get(i), context, timeFilter);
+      Filter seriesFilter = queryDataSource.updateFilterUsingTTL(timeFilter);
+      seriesFilters.add(seriesFilter);
 
       // sequence reader for sealed tsfile, unsealed tsfile, memory
       IAggregateReader seqResourceIterateReader;
       if (function instanceof MaxTimeAggrFunc || function instanceof LastAggrFunc) {
         seqResourceIterateReader = new SeqResourceIterateReader(queryDataSource.getSeriesPath(),
-            queryDataSource.getSeqResources(), timeFilter, context, true);
+            queryDataSource.getSeqResources(), seriesFilter, context, true);
       } else {
         seqResourceIterateReader = new SeqResourceIterateReader(queryDataSource.getSeriesPath(),
-            queryDataSource.getSeqResources(), timeFilter, context, false);
+            queryDataSource.getSeqResources(), seriesFilter, context, false);
       }
 
       // unseq reader for all chunk groups in unSeqFile, memory
       IPointReader unseqResourceMergeReader= new UnseqResourceMergeReader(queryDataSource.getSeriesPath(),
-          queryDataSource.getUnseqResources(), context, timeFilter);
+          queryDataSource.getUnseqResources(), context, seriesFilter);
 
       readersOfSequenceData.add(seqResourceIterateReader);
       readersOfUnSequenceData.add(unseqResourceMergeReader);
@@ -122,7 +125,7 @@ public class AggregateEngineExecutor {
     //TODO use multi-thread
     for (int i = 0; i < selectedSeries.size(); i++) {
       AggreResultData aggreResultData = aggregateWithoutValueFilter(aggregateFunctions.get(i),
-          readersOfSequenceData.get(i), readersOfUnSequenceData.get(i), timeFilter);
+          readersOfSequenceData.get(i), readersOfUnSequenceData.get(i), seriesFilters.get(i));
       aggreResultDataList.add(aggreResultData);
     }
     return constructDataSet(aggreResultDataList);
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.pool;
+
+import java.util.concurrent.ExecutorService;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.flush.pool.AbstractPoolManager;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.ServiceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ChunkPrefetchPoolManager provides the IO threads on which sequential series readers read chunks
+ * ahead of decoding, see {@link org.apache.iotdb.tsfile.read.controller.PrefetchChunkLoader}.
+ */
+public class ChunkPrefetchPoolManager extends AbstractPoolManager implements IService {
+
+  private static final Logger LOGGER = LoggerFactory
+      .getLogger(ChunkPrefetchPoolManager.class);
+
+  private ChunkPrefetchPoolManager() {
+    this.pool = createPool();
+  }
+
+  public static ChunkPrefetchPoolManager getInstance() {
+    return ChunkPrefetchPoolManager.InstanceHolder.instance;
+  }
+
+  private static ExecutorService createPool() {
+    int threadNum = IoTDBDescriptor.getInstance().getConfig().getChunkPrefetchThreadNum();
+    if (threadNum <= 0) {
+      threadNum = 1;
+    }
+    return IoTDBThreadPoolFactory
+        .newFixedThreadPool(threadNum, ThreadName.CHUNK_PREFETCH_SERVICE.getName());
+  }
+
+  /**
+   * @return the pool to submit chunk reads to, or null if the manager is stopped.
+   */
+  public ExecutorService getPool() {
+    return pool;
+  }
+
+  @Override
+  public Logger getLogger() {
+    return LOGGER;
+  }
+
+  @Override
+  public String getName() {
+    return "chunk prefetch";
+  }
+
+  @Override
+  public void start() {
+    if (pool == null) {
+      this.pool = createPool();
+    }
+    LOGGER.info("Chunk prefetch manager started.");
+  }
+
+  @Override
+  public void stop() {
+    if (pool != null) {
+      close();
+      pool = null;
+    }
+    LOGGER.info("Chunk prefetch manager stopped");
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.CHUNK_PREFETCH_SERVICE;
+  }
+
+  private static class InstanceHolder {
+
+    private InstanceHolder() {
+      //allowed to do nothing
+    }
+
+    private static ChunkPrefetchPoolManager instance = new ChunkPrefetchPoolManager();
+  }
+
+}
@@ -41,6 +41,8 @@ public class DiskChunkReaderByTimestamp implements IReaderByTimestamp {
   @Override
   public Object getValueInTimestamp(long timestamp) throws IOException {
 
+    // let the first page loaded by hasNext() skip the points before timestamp
+    chunkReaderByTimestamp.setCurrentTimestamp(timestamp);
     if (!hasNext()) {
       return null;
     }
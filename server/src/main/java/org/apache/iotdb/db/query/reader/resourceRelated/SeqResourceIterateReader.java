@@ -19,13 +19,17 @@
 package org.apache.iotdb.db.query.reader.resourceRelated;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
-import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.modification.DeletionIndex.SeriesDeletions;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.FileReaderManager;
+import org.apache.iotdb.db.query.pool.ChunkPrefetchPoolManager;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.db.query.reader.fileRelated.FileSeriesReaderAdapter;
 import org.apache.iotdb.db.query.reader.fileRelated.UnSealedTsFileIterateReader;
@@ -36,6 +40,7 @@ import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.controller.IChunkLoader;
 import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
+import org.apache.iotdb.tsfile.read.controller.PrefetchChunkLoader;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReader;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReaderWithFilter;
@@ -146,7 +151,7 @@ public class SeqResourceIterateReader extends IterateReader {
    * @return True if the TsFile's start and end time do not satisfy the filter condition; False if
    * satisfy.
    */
-  private boolean isTsFileNotSatisfied(TsFileResource tsFile, Filter filter) {
+  private boolean isTsFileNotSatisfied(TsFileResource tsFile, Filter filter) throws IOException {
     if (filter == null) {
       return false;
     }
@@ -160,10 +165,10 @@ public class SeqResourceIterateReader extends IterateReader {
     // prepare metaDataList
     List<ChunkMetaData> metaDataList = DeviceMetaDataCache.getInstance()
         .get(sealedTsFile, seriesPath);
-    List<Modification> pathModifications = context.getPathModifications(sealedTsFile.getModFile(),
+    SeriesDeletions pathDeletions = context.getPathDeletions(sealedTsFile.getModFile(),
         seriesPath.getFullPath());
-    if (!pathModifications.isEmpty()) {
-      QueryUtils.modifyChunkMetaData(metaDataList, pathModifications);
+    if (!pathDeletions.isEmpty()) {
+      QueryUtils.modifyChunkMetaData(metaDataList, pathDeletions);
     }
 
     if (enableReverse) {
@@ -172,7 +177,7 @@ public class SeqResourceIterateReader extends IterateReader {
     // prepare chunkLoader
     TsFileSequenceReader tsFileReader = FileReaderManager.getInstance()
         .get(sealedTsFile, true);
-    IChunkLoader chunkLoader = new ChunkLoaderImpl(tsFileReader);
+    IChunkLoader chunkLoader = initChunkLoader(tsFileReader, metaDataList, filter);
 
     // init fileSeriesReader
     FileSeriesReader fileSeriesReader;
@@ -183,4 +188,29 @@ public class SeqResourceIterateReader extends IterateReader {
     }
     return new FileSeriesReaderAdapter(fileSeriesReader);
   }
+
+  /**
+   * The chunks of a sealed file are scanned in order, so unless read-ahead is disabled they are
+   * loaded by a {@link PrefetchChunkLoader}. Chunks whose time range is filtered out will not be
+   * asked for and are excluded from read-ahead.
+   */
+  private IChunkLoader initChunkLoader(TsFileSequenceReader tsFileReader,
+      List<ChunkMetaData> metaDataList, Filter filter) {
+    int prefetchNum = IoTDBDescriptor.getInstance().getConfig().getChunkPrefetchNum();
+    ExecutorService prefetchPool = ChunkPrefetchPoolManager.getInstance().getPool();
+    if (prefetchNum <= 0 || prefetchPool == null) {
+      return new ChunkLoaderImpl(tsFileReader);
+    }
+    List<ChunkMetaData> chunksToRead = metaDataList;
+    if (filter != null) {
+      chunksToRead = new ArrayList<>();
+      for (ChunkMetaData chunkMetaData : metaDataList) {
+        if (filter.satisfyStartEndTime(chunkMetaData.getStartTime(),
+            chunkMetaData.getEndTime())) {
+          chunksToRead.add(chunkMetaData);
+        }
+      }
+    }
+    return new PrefetchChunkLoader(tsFileReader, chunksToRead, prefetchPool, prefetchNum);
+  }
 }
\ No newline at end of file
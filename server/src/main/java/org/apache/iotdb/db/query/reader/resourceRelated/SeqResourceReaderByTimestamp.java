@@ -21,7 +21,7 @@ package org.apache.iotdb.db.query.reader.resourceRelated;
 import java.io.IOException;
 import java.util.List;
 import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
-import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.modification.DeletionIndex.SeriesDeletions;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.FileReaderManager;
@@ -164,7 +164,8 @@ public class SeqResourceReaderByTimestamp implements IReaderByTimestamp {
    * This method is used to in <code>constructNextReader</code> to check whether this TsFile can be
    * skipped.
    */
-  private boolean isTsFileNotSatisfied(TsFileResource tsFile, long timestamp) {
+  private boolean isTsFileNotSatisfied(TsFileResource tsFile, long timestamp)
+      throws IOException {
     return tsFile.getEndTimeMap().get(seriesPath.getDevice()) < timestamp;
   }
 
@@ -174,10 +175,10 @@ public class SeqResourceReaderByTimestamp implements IReaderByTimestamp {
     List<ChunkMetaData> metaDataList = DeviceMetaDataCache.getInstance()
         .get(sealedTsFile, seriesPath);
 
-    List<Modification> pathModifications = context.getPathModifications(sealedTsFile.getModFile(),
+    SeriesDeletions pathDeletions = context.getPathDeletions(sealedTsFile.getModFile(),
         seriesPath.getFullPath());
-    if (!pathModifications.isEmpty()) {
-      QueryUtils.modifyChunkMetaData(metaDataList, pathModifications);
+    if (!pathDeletions.isEmpty()) {
+      QueryUtils.modifyChunkMetaData(metaDataList, pathDeletions);
     }
     // prepare chunkLoader
     TsFileSequenceReader tsFileReader = FileReaderManager.getInstance()
@@ -23,7 +23,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.List;
 import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
-import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.modification.DeletionIndex.SeriesDeletions;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.FileReaderManager;
@@ -73,10 +73,10 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
 
         metaDataList = DeviceMetaDataCache.getInstance()
             .get(tsFileResource, seriesPath);
-        List<Modification> pathModifications = context
-            .getPathModifications(tsFileResource.getModFile(), seriesPath.getFullPath());
-        if (!pathModifications.isEmpty()) {
-          QueryUtils.modifyChunkMetaData(metaDataList, pathModifications);
+        SeriesDeletions pathDeletions = context
+            .getPathDeletions(tsFileResource.getModFile(), seriesPath.getFullPath());
+        if (!pathDeletions.isEmpty()) {
+          QueryUtils.modifyChunkMetaData(metaDataList, pathDeletions);
         }
       } else {
         if (tsFileResource.getEndTimeMap().size() != 0) {
@@ -141,7 +141,7 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
    * satisfy.
    */
   // TODO future work: deduplicate code. See SeqResourceIterateReader.
-  private boolean isTsFileNotSatisfied(TsFileResource tsFile, Filter filter) {
+  private boolean isTsFileNotSatisfied(TsFileResource tsFile, Filter filter) throws IOException {
     if (filter == null) {
       return false;
     }
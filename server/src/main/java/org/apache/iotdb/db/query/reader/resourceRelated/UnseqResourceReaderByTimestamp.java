@@ -21,7 +21,7 @@ package org.apache.iotdb.db.query.reader.resourceRelated;
 import java.io.IOException;
 import java.util.List;
 import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
-import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.modification.DeletionIndex.SeriesDeletions;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.FileReaderManager;
@@ -58,10 +58,10 @@ public class UnseqResourceReaderByTimestamp extends PriorityMergeReaderByTimesta
       if (tsFileResource.isClosed()) {
         metaDataList = DeviceMetaDataCache.getInstance()
             .get(tsFileResource, seriesPath);
-        List<Modification> pathModifications = context
-            .getPathModifications(tsFileResource.getModFile(), seriesPath.getFullPath());
-        if (!pathModifications.isEmpty()) {
-          QueryUtils.modifyChunkMetaData(metaDataList, pathModifications);
+        SeriesDeletions pathDeletions = context
+            .getPathDeletions(tsFileResource.getModFile(), seriesPath.getFullPath());
+        if (!pathDeletions.isEmpty()) {
+          QueryUtils.modifyChunkMetaData(metaDataList, pathDeletions);
         }
       } else {
         metaDataList = tsFileResource.getChunkMetaDatas();
@@ -38,10 +38,17 @@ import org.apache.iotdb.tsfile.read.common.Path;
  */
 public class SeriesReaderByTimestamp extends PriorityMergeReaderByTimestamp {
 
+  /**
+   * the data earlier than it is expired by the TTL of the storage group. The timestamps may come
+   * from series of other storage groups, so the expired data is excluded here.
+   */
+  private long ttlLowerBound;
+
   public SeriesReaderByTimestamp(Path seriesPath, QueryContext context)
       throws StorageEngineException, IOException {
     QueryDataSource queryDataSource = QueryResourceManager.getInstance()
         .getQueryDataSource(seriesPath, context);
+    ttlLowerBound = queryDataSource.getTTLLowerBound();
 
     // reader for sequence resources
     SeqResourceReaderByTimestamp seqResourceReaderByTimestamp = new SeqResourceReaderByTimestamp(
@@ -54,4 +61,12 @@ public class SeriesReaderByTimestamp extends PriorityMergeReaderByTimestamp {
     addReaderWithPriority(seqResourceReaderByTimestamp, 1);
     addReaderWithPriority(unseqResourceReaderByTimestamp, 2);
   }
+
+  @Override
+  public Object getValueInTimestamp(long timestamp) throws IOException {
+    if (timestamp < ttlLowerBound) {
+      return null;
+    }
+    return super.getValueInTimestamp(timestamp);
+  }
 }
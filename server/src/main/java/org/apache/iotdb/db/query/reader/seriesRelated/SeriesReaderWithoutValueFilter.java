@@ -71,21 +71,26 @@ public class SeriesReaderWithoutValueFilter implements IPointReader {
    */
   protected SeriesReaderWithoutValueFilter(Path seriesPath, Filter filter, QueryContext context,
       boolean pushdownUnseq) throws StorageEngineException, IOException {
+    // only a time filter that is pushed down can exclude time partitions
     QueryDataSource queryDataSource = QueryResourceManager.getInstance()
-        .getQueryDataSource(seriesPath, context);
+        .getQueryDataSource(seriesPath, context, pushdownUnseq ? filter : null);
 
     // reader for sequence resources
     IBatchReader seqResourceIterateReader = new SeqResourceIterateReader(
-        queryDataSource.getSeriesPath(), queryDataSource.getSeqResources(), filter, context);
+        queryDataSource.getSeriesPath(), queryDataSource.getSeqResources(),
+        queryDataSource.updateFilterUsingTTL(filter), context);
 
     // reader for unsequence resources
     IPointReader unseqResourceMergeReader;
     if (pushdownUnseq) {
       unseqResourceMergeReader = new UnseqResourceMergeReader(seriesPath,
-          queryDataSource.getUnseqResources(), context, filter);
+          queryDataSource.getUnseqResources(), context,
+          queryDataSource.updateFilterUsingTTL(filter));
     } else {
+      // the expired data is always excluded
       unseqResourceMergeReader = new UnseqResourceMergeReader(seriesPath,
-          queryDataSource.getUnseqResources(), context, null);
+          queryDataSource.getUnseqResources(), context,
+          queryDataSource.updateFilterUsingTTL(null));
     }
 
     this.seqResourceIterateReader = seqResourceIterateReader;
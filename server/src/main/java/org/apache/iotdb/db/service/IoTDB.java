@@ -31,6 +31,7 @@ import org.apache.iotdb.db.engine.flush.FlushManager;
 import org.apache.iotdb.db.exception.StartupException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.monitor.StatMonitor;
+import org.apache.iotdb.db.query.pool.ChunkPrefetchPoolManager;
 import org.apache.iotdb.db.rescon.TVListAllocator;
 import org.apache.iotdb.db.sync.receiver.SyncServerManager;
 import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
@@ -101,6 +102,7 @@ public class IoTDB implements IoTDBMBean {
     registerManager.register(TVListAllocator.getInstance());
     registerManager.register(FlushManager.getInstance());
     registerManager.register(MergeManager.getINSTANCE());
+    registerManager.register(ChunkPrefetchPoolManager.getInstance());
 
     JMXService.registerMBean(getInstance(), mbeanName);
 
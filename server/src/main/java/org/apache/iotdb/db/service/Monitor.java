@@ -24,6 +24,7 @@ import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.utils.OpenFileNumUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -127,6 +128,16 @@ public class Monitor implements MonitorMBean, IService {
         .get(OpenFileNumUtil.OpenFileNumStatistics.SOCKET_OPEN_FILE_NUM);
   }
 
+  @Override
+  public double getDataTypeCacheHitRatio() {
+    return MManager.getInstance().getDataTypeCacheHitRatio();
+  }
+
+  @Override
+  public double getDeviceNodeCacheHitRatio() {
+    return MManager.getInstance().getDeviceNodeCacheHitRatio();
+  }
+
   @Override
   public void start() throws StartupException {
     try {
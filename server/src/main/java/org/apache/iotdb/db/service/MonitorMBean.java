@@ -43,4 +43,8 @@ public interface MonitorMBean {
   int getMetadataOpenFileNum();
 
   int getSocketOpenFileNum();
+
+  double getDataTypeCacheHitRatio();
+
+  double getDeviceNodeCacheHitRatio();
 }
@@ -42,6 +42,7 @@ import org.apache.iotdb.db.cost.statistic.Measurement;
 import org.apache.iotdb.db.cost.statistic.Operation;
 import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.engine.flush.pool.FlushTaskPoolManager;
+import org.apache.iotdb.db.engine.merge.manage.MergeManager;
 import org.apache.iotdb.db.exception.*;
 import org.apache.iotdb.db.exception.qp.IllegalASTFormatException;
 import org.apache.iotdb.db.exception.qp.QueryProcessorException;
@@ -54,6 +55,7 @@ import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
+import org.apache.iotdb.db.qp.physical.sys.CreateMultiTimeSeriesPlan;
 import org.apache.iotdb.db.qp.physical.sys.MetadataPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
@@ -613,6 +615,8 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       return getTSExecuteStatementResp(getStatus(TSStatusType.INTERNAL_SERVER_ERROR, e.getMessage()));
     } finally {
       Measurement.INSTANCE.addOperationLatency(Operation.EXECUTE_QUERY, t1);
+      MergeManager.getINSTANCE().getRateLimiter()
+          .recordQueryLatency(System.currentTimeMillis() - t1);
     }
   }
 
@@ -1100,6 +1104,70 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     return new TSRPCResp(executePlan(plan));
   }
 
+  @Override
+  public TSExecuteBatchStatementResp createMultiTimeseries(TSCreateMultiTimeseriesReq req) {
+    try {
+      if (!checkLogin()) {
+        logger.info(INFO_NOT_LOGIN, IoTDBConstant.GLOBAL_DB_NAME);
+        return getTSBatchExecuteStatementResp(getStatus(TSStatusType.NOT_LOGIN_ERROR), null);
+      }
+      int seriesNum = req.getPathsSize();
+      if (req.getDataTypesSize() != seriesNum || req.getEncodingsSize() != seriesNum
+          || req.getCompressorsSize() != seriesNum) {
+        return getTSBatchExecuteStatementResp(getStatus(TSStatusType.EXECUTE_STATEMENT_ERROR,
+            String.format("The numbers of paths (%d), data types (%d), encodings (%d) and "
+                    + "compressors (%d) are different", seriesNum, req.getDataTypesSize(),
+                req.getEncodingsSize(), req.getCompressorsSize())), null);
+      }
+      List<Path> paths = new ArrayList<>(seriesNum);
+      List<TSDataType> dataTypes = new ArrayList<>(seriesNum);
+      List<TSEncoding> encodings = new ArrayList<>(seriesNum);
+      List<CompressionType> compressors = new ArrayList<>(seriesNum);
+      for (int i = 0; i < seriesNum; i++) {
+        String path = req.getPaths().get(i);
+        int dataType = req.getDataTypes().get(i);
+        int encoding = req.getEncodings().get(i);
+        int compressor = req.getCompressors().get(i);
+        if (!isValidOrdinal(dataType, TSDataType.values())
+            || !isValidOrdinal(encoding, TSEncoding.values())
+            || !isValidOrdinal(compressor, CompressionType.values())) {
+          return getTSBatchExecuteStatementResp(getStatus(TSStatusType.EXECUTE_STATEMENT_ERROR,
+              String.format("Unknown data type %d, encoding %d or compressor %d of timeseries %s",
+                  dataType, encoding, compressor, path)), null);
+        }
+        paths.add(new Path(path));
+        dataTypes.add(TSDataType.values()[dataType]);
+        encodings.add(TSEncoding.values()[encoding]);
+        compressors.add(CompressionType.values()[compressor]);
+      }
+      CreateMultiTimeSeriesPlan plan = new CreateMultiTimeSeriesPlan(paths, dataTypes, encodings,
+          compressors);
+      TS_Status status = checkAuthority(plan);
+      if (status != null) {
+        return new TSExecuteBatchStatementResp(status);
+      }
+      Integer[] results = processor.getExecutor().createMultiTimeseries(plan);
+      for (Integer result : results) {
+        if (result != TSStatusType.SUCCESS_STATUS.getStatusCode()) {
+          logger.debug("Create multiple timeseries failed!");
+          return getTSBatchExecuteStatementResp(getStatus(TSStatusType.EXECUTE_STATEMENT_ERROR),
+              Arrays.asList(results));
+        }
+      }
+      return getTSBatchExecuteStatementResp(getStatus(TSStatusType.SUCCESS_STATUS),
+          Arrays.asList(results));
+    } catch (Exception e) {
+      logger.error("{}: error occurs when creating multiple timeseries", IoTDBConstant.GLOBAL_DB_NAME,
+          e);
+      return getTSBatchExecuteStatementResp(
+          getStatus(TSStatusType.EXECUTE_STATEMENT_ERROR, e.getMessage()), null);
+    }
+  }
+
+  private static boolean isValidOrdinal(int ordinal, Enum<?>[] values) {
+    return ordinal >= 0 && ordinal < values.length;
+  }
+
   @Override
   public long requestStatementId() {
     return globalStmtId.incrementAndGet();
@@ -44,6 +44,7 @@ import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.MetadataErrorException;
 import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.metadata.MLogReader;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.metadata.MetadataConstant;
 import org.apache.iotdb.db.metadata.MetadataOperationType;
@@ -243,11 +244,10 @@ public class SyncServiceImpl implements SyncService.Iface {
    */
   private boolean loadMetadata() {
     if (FileFactory.INSTANCE.getFile(schemaFromSenderPath.get()).exists()) {
-      try (BufferedReader br = new BufferedReader(
-          new java.io.FileReader(schemaFromSenderPath.get()))) {
-        String metadataOperation;
-        while ((metadataOperation = br.readLine()) != null) {
-          operation(metadataOperation);
+      try (MLogReader reader = new MLogReader(
+          FileFactory.INSTANCE.getFile(schemaFromSenderPath.get()), 0)) {
+        while (reader.hasNext()) {
+          operation(reader.next());
         }
       } catch (FileNotFoundException e) {
         logger.error("Cannot read the file {}.",
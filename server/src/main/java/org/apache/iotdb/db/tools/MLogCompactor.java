@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.tools;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.metadata.MetadataConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MLogCompactor rewrites the metadata log of a stopped IoTDB instance so that it only contains
+ * the operations that build the current schema, e.g., timeseries that were created and deleted
+ * later disappear. A snapshot of the schema is taken as well. The schema directory is located by
+ * the configuration in IOTDB_CONF. If the instance only has the text log of older versions, it is
+ * converted to the binary log, which is compacted by the conversion.
+ */
+public class MLogCompactor {
+
+  private static final Logger logger = LoggerFactory.getLogger(MLogCompactor.class);
+
+  private MLogCompactor() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    String schemaDir = IoTDBDescriptor.getInstance().getConfig().getSystemDir()
+        + File.separator + "schema";
+    File logFile = new File(schemaDir, MetadataConstant.METADATA_LOG);
+    File textLogFile = new File(schemaDir, MetadataConstant.METADATA_TEXT_LOG);
+    if (!logFile.exists() && !textLogFile.exists()) {
+      logger.error("Cannot find the metadata log {} or {}", logFile.getAbsolutePath(),
+          textLogFile.getAbsolutePath());
+      return;
+    }
+    boolean textLog = !logFile.exists();
+    long originSize = textLog ? textLogFile.length() : logFile.length();
+    MManager.getInstance().init();
+    if (textLog) {
+      logger.info("The metadata log {} of {} bytes is converted to {} of {} bytes",
+          textLogFile.getAbsolutePath(), originSize, logFile.getAbsolutePath(), logFile.length());
+      return;
+    }
+    MManager.getInstance().compactLog();
+    logger.info("The metadata log {} is compacted from {} bytes to {} bytes",
+        logFile.getAbsolutePath(), originSize, logFile.length());
+  }
+}
@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.tools;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.metadata.MLogReader;
+import org.apache.iotdb.db.metadata.MetadataConstant;
+
+/**
+ * MLogPrinter prints the operations in a metadata log as text, one per line, each starting with
+ * its MetadataOperationType, e.g., the creation of a timeseries is printed as
+ * "0,root.sg.d1.s1,..." with the codes of its data type, encoding and compressor. The log is
+ * given by the first argument, or located by the configuration in IOTDB_CONF. The printing stops
+ * at the first entry torn by a crash.
+ */
+public class MLogPrinter {
+
+  private MLogPrinter() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    File logFile;
+    if (args.length >= 1) {
+      logFile = new File(args[0]);
+    } else {
+      logFile = new File(IoTDBDescriptor.getInstance().getConfig().getSystemDir()
+          + File.separator + "schema", MetadataConstant.METADATA_LOG);
+    }
+    if (!logFile.exists()) {
+      System.err.println(String.format("Cannot find the metadata log %s",
+          logFile.getAbsolutePath()));
+      return;
+    }
+    try (MLogReader reader = new MLogReader(logFile, 0)) {
+      while (reader.hasNext()) {
+        System.out.println(reader.next());
+      }
+      if (reader.getValidLength() < logFile.length()) {
+        System.err.println(String.format("The last %d bytes of %s are not intact entries",
+            logFile.length() - reader.getValidLength(), logFile.getAbsolutePath()));
+      }
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.tools.MemEst;
+
+import io.airlift.airline.Command;
+import io.airlift.airline.Option;
+import java.util.Collections;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.MetadataErrorException;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+
+@Command(name = "calmeta", description = "measure the heap memory taken by the metadata of the given number of storage groups and timeseries")
+public class MemEstMetaCmd implements Runnable {
+
+  private static final long MILLION = 1000000L;
+
+  @Option(title = "storage group number", name = {"-sg",
+      "--storagegroup"}, description = "Storage group number")
+  private String sgNumString = "10";
+
+  @Option(title = "total timeseries number", name = {"-ts",
+      "--timeseries"}, description = "Total timeseries number")
+  private String tsNumString = "1000000";
+
+  @Option(title = "measurement number", name = {"-m",
+      "--measurement"}, description = "Measurement number of each device")
+  private String measurementNumString = "10";
+
+  @Override
+  public void run() {
+    long sgNum = Long.parseLong(sgNumString);
+    long tsNum = Long.parseLong(tsNumString);
+    long measurementNum = Long.parseLong(measurementNumString);
+
+    // the timeseries are only created in memory
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    boolean enableParameterAdapter = config.isEnableParameterAdapter();
+    config.setEnableParameterAdapter(false);
+    MManager mmanager = MManager.getInstance();
+    mmanager.clear();
+    long before = usedMemory();
+    long start = System.currentTimeMillis();
+    try {
+      for (long i = 0; i < sgNum; i++) {
+        mmanager.setStorageLevelToMTree("root.sg" + i);
+      }
+      for (long i = 0; i < tsNum; i++) {
+        long device = i / measurementNum;
+        String path = "root.sg" + device % sgNum + ".d" + device + ".s" + i % measurementNum;
+        mmanager.addPathToMTree(path, TSDataType.DOUBLE, TSEncoding.GORILLA,
+            CompressionType.SNAPPY, Collections.emptyMap());
+        if (i % 10000 == 0) {
+          System.out.print(
+              String.format("Metadata creation progress : %d%%\r", (i + 1) * 100 / tsNum));
+        }
+      }
+    } catch (MetadataErrorException e) {
+      throw new IllegalStateException(e);
+    } finally {
+      config.setEnableParameterAdapter(enableParameterAdapter);
+    }
+    long elapsed = System.currentTimeMillis() - start;
+    long used = usedMemory() - before;
+    System.out.println(String
+        .format("Memory for metadata: %dMB, SG: %d, TS: %d, M: %d", used / 1024 / 1024, sgNum,
+            tsNum, measurementNum));
+    System.out.println(String.format("Memory for metadata per million timeseries: %dMB",
+        used * MILLION / Math.max(tsNum, 1) / 1024 / 1024));
+    System.out.println(String.format("Creating metadata consumes: %dms", elapsed));
+    mmanager.clear();
+  }
+
+  private long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
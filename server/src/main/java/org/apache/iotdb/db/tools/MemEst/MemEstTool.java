@@ -40,7 +40,8 @@ public class MemEstTool {
   public static void main(String... args) throws IOException {
     List<Class<? extends Runnable>> commands = Lists.newArrayList(
         Help.class,
-        MemEstToolCmd.class
+        MemEstToolCmd.class,
+        MemEstMetaCmd.class
     );
     Cli.CliBuilder<Runnable> builder = Cli.builder("memory-tool");
 
@@ -54,6 +54,7 @@ public class TsFileResourcePrinter {
     TsFileResource resource = new TsFileResource(FileFactory.INSTANCE.getFile(filename));
     System.err.println(String.format("analyzing %s ...", filename));
     resource.deSerialize();
+    System.out.println(String.format("compaction level %d", resource.getLevel()));
 
     for (String device : resource.getStartTimeMap().keySet()) {
       System.out.println(String.format("device %s, start time %d (%s), end time %d (%s)", device,
@@ -0,0 +1,220 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.tsfile.common.cache.Cache;
+import org.apache.iotdb.tsfile.exception.cache.CacheException;
+
+/**
+ * A thread-safe cache of at most cacheSize entries that evicts the least recently and frequently
+ * used ones.
+ * <p>
+ * It is a segmented LRU: a loaded entry starts in the probation segment and is promoted to the
+ * protected segment, which takes up to 80% of the cache, if it is used again before it reaches
+ * the head of probation. Entries are evicted from the head of probation only, so keys that are
+ * used once, e.g., by a scan over many cold paths, never push the working set out. When the
+ * protected segment is full, its head is moved back to probation unless it was used since it was
+ * last examined, in which case its frequency is decreased and it goes to the tail again (the
+ * CLOCK approximation of LRU).
+ * <p>
+ * Hits only read a ConcurrentHashMap and bump the frequency of the entry, so they never lock; the
+ * segments are only reordered by the eviction. A missed key is loaded under a lock chosen by its
+ * hash, so concurrent misses of one key load it once while keys under other locks load in
+ * parallel. Failed loads and null values are not cached.
+ */
+public abstract class ConcurrentLRUCache<K, V> implements Cache<K, V> {
+
+  private static final int MAX_FREQUENCY = 3;
+  private static final int LOAD_LOCK_NUM = 64;
+  private static final double PROTECTED_RATIO = 0.8;
+
+  private int cacheSize;
+  private int protectedSize;
+  private Map<K, Entry<K, V>> cache = new ConcurrentHashMap<>();
+  private Queue<Entry<K, V>> probation = new ConcurrentLinkedQueue<>();
+  // only accessed with the evictionLock
+  private Queue<Entry<K, V>> protectedQueue = new ArrayDeque<>();
+  private Object[] loadLocks = new Object[LOAD_LOCK_NUM];
+  private final Object evictionLock = new Object();
+
+  private AtomicLong hitNum = new AtomicLong();
+  private AtomicLong missNum = new AtomicLong();
+  private AtomicLong evictionNum = new AtomicLong();
+
+  public ConcurrentLRUCache(int cacheSize) {
+    this.cacheSize = cacheSize;
+    this.protectedSize = (int) (cacheSize * PROTECTED_RATIO);
+    for (int i = 0; i < LOAD_LOCK_NUM; i++) {
+      loadLocks[i] = new Object();
+    }
+  }
+
+  @Override
+  public V get(K key) throws CacheException {
+    Entry<K, V> entry = cache.get(key);
+    if (entry != null) {
+      hitNum.incrementAndGet();
+      entry.access();
+      return entry.value;
+    }
+    synchronized (loadLocks[(key.hashCode() & Integer.MAX_VALUE) % LOAD_LOCK_NUM]) {
+      // another thread may have loaded it while this one was waiting
+      entry = cache.get(key);
+      if (entry != null) {
+        hitNum.incrementAndGet();
+        entry.access();
+        return entry.value;
+      }
+      missNum.incrementAndGet();
+      V value = loadObjectByKey(key);
+      if (value == null) {
+        return null;
+      }
+      entry = new Entry<>(key, value);
+      cache.put(key, entry);
+      probation.offer(entry);
+    }
+    if (cache.size() > cacheSize) {
+      evict();
+    }
+    return entry.value;
+  }
+
+  private void evict() throws CacheException {
+    synchronized (evictionLock) {
+      while (cache.size() > cacheSize) {
+        Entry<K, V> entry = probation.poll();
+        if (entry == null) {
+          if (protectedQueue.isEmpty()) {
+            return;
+          }
+          demote();
+          continue;
+        }
+        if (cache.get(entry.key) != entry) {
+          // removed by clear()
+          continue;
+        }
+        if (entry.frequency > 0) {
+          entry.frequency = 0;
+          protectedQueue.offer(entry);
+          if (protectedQueue.size() > protectedSize) {
+            demote();
+          }
+        } else {
+          cache.remove(entry.key, entry);
+          evictionNum.incrementAndGet();
+          beforeRemove(entry.value);
+        }
+      }
+    }
+  }
+
+  /**
+   * move the least recently used entry of the protected segment to probation. Each entry is spared
+   * at most once per call, so hits during the demotion cannot keep it looping.
+   */
+  private void demote() {
+    for (int spared = protectedQueue.size(); spared >= 0; spared--) {
+      Entry<K, V> entry = protectedQueue.poll();
+      if (entry == null) {
+        return;
+      }
+      if (entry.frequency > 0 && spared > 0) {
+        entry.frequency--;
+        protectedQueue.offer(entry);
+      } else {
+        probation.offer(entry);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Do something before remove object from cache.
+   *
+   * @param object value of k-v pair
+   */
+  public abstract void beforeRemove(V object) throws CacheException;
+
+  public abstract V loadObjectByKey(K key) throws CacheException;
+
+  /**
+   * remove all entries, the statistics are kept.
+   */
+  @Override
+  public void clear() {
+    synchronized (evictionLock) {
+      // the segments are cleared first so every entry left in the cache is in a segment
+      probation.clear();
+      protectedQueue.clear();
+      cache.clear();
+    }
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  public long getHitNum() {
+    return hitNum.get();
+  }
+
+  public long getMissNum() {
+    return missNum.get();
+  }
+
+  public long getEvictionNum() {
+    return evictionNum.get();
+  }
+
+  /**
+   * @return the ratio of requests served from the cache, 0 if there is no request yet.
+   */
+  public double getHitRatio() {
+    long hit = hitNum.get();
+    long request = hit + missNum.get();
+    return request == 0 ? 0 : (double) hit / request;
+  }
+
+  private static class Entry<K, V> {
+
+    private final K key;
+    private final V value;
+    // lost updates from concurrent hits are harmless
+    private volatile int frequency;
+
+    private Entry(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    private void access() {
+      if (frequency < MAX_FREQUENCY) {
+        frequency++;
+      }
+    }
+  }
+}
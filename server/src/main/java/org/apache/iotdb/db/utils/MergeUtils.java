@@ -30,7 +30,9 @@ import java.util.Set;
 import org.apache.iotdb.db.engine.merge.manage.MergeResource;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.DeviceIndexDirectory;
 import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadataIndex;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
@@ -39,7 +41,9 @@ import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
 import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderWithoutFilter;
+import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
 import org.apache.iotdb.tsfile.write.chunk.IChunkWriter;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -76,7 +80,7 @@ public class MergeUtils {
     }
   }
 
-  private static List<Path> collectFileSeries(TsFileSequenceReader sequenceReader) throws IOException {
+  public static List<Path> collectFileSeries(TsFileSequenceReader sequenceReader) throws IOException {
     TsFileMetaData metaData = sequenceReader.readFileMetadata();
     Set<String> deviceIds = metaData.getDeviceMap().keySet();
     Set<String> measurements = metaData.getMeasurementSchema().keySet();
@@ -163,7 +167,13 @@ public class MergeUtils {
     for (TsDeviceMetadataIndex metadataIndex : deviceMap.values()) {
       minPos = metadataIndex.getOffset() < minPos ? metadataIndex.getOffset() : minPos;
     }
-    return seqFile.getFileSize() - minPos;
+    long metaSize = seqFile.getFileSize() - minPos;
+    // the sorted device index repeats the device map and is never loaded by a merge
+    DeviceIndexDirectory directory = sequenceReader.readDeviceIndexDirectory();
+    if (directory != null && directory.getPageNum() > 0) {
+      metaSize -= sequenceReader.getFileMetadataPos() - directory.getPageOffset(0);
+    }
+    return metaSize;
   }
 
   /**
@@ -237,6 +247,21 @@ public class MergeUtils {
         && timeValuePair.getTimestamp() < metaData.getEndTime();
   }
 
+  /**
+   * the pages of a chunk can be copied only when they are compressed and encoded in the same way
+   * as the chunk being written.
+   */
+  public static boolean isPageCopyable(Chunk chunk, IChunkWriter chunkWriter) {
+    if (!(chunkWriter instanceof ChunkWriterImpl)) {
+      return false;
+    }
+    MeasurementSchema schema = ((ChunkWriterImpl) chunkWriter).getChunkBuffer().getSchema();
+    ChunkHeader chunkHeader = chunk.getHeader();
+    return chunkHeader.getCompressionType() == schema.getCompressor()
+        && chunkHeader.getEncodingType() == schema.getEncodingType()
+        && chunkHeader.getDataType() == schema.getType();
+  }
+
   public static boolean isChunkTooSmall(int ptWritten, ChunkMetaData chunkMetaData,
       boolean isLastChunk, int minChunkPointNum) {
     return ptWritten > 0 || (minChunkPointNum >= 0 && chunkMetaData.getNumOfPoints() < minChunkPointNum
@@ -20,7 +20,7 @@
 package org.apache.iotdb.db.utils;
 
 import java.util.List;
-import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.modification.DeletionIndex.SeriesDeletions;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 
@@ -31,8 +31,8 @@ public class QueryUtils {
   }
 
   /**
-   * modifyChunkMetaData iterates the chunkMetaData and applies all available modifications on it to
-   * generate a ModifiedChunkMetadata.
+   * modifyChunkMetaData applies the modifications on the chunkMetaData by setting the time before
+   * which each chunk is deleted, and removes the chunks that are completely deleted.
    * <br/>
    * the caller should guarantee that chunkMetaData and modifications refer to the same time series
    * paths.
@@ -41,36 +41,26 @@ public class QueryUtils {
    */
   public static void modifyChunkMetaData(List<ChunkMetaData> chunkMetaData,
                                          List<Modification> modifications) {
-    int modIndex = 0;
+    modifyChunkMetaData(chunkMetaData, SeriesDeletions.of(modifications));
+  }
 
-    for (int metaIndex = 0; metaIndex < chunkMetaData.size(); metaIndex++) {
-      ChunkMetaData metaData = chunkMetaData.get(metaIndex);
-      for (int j = modIndex; j < modifications.size(); j++) {
-        // iterate each modification to find the max deletion time
-        Modification modification = modifications.get(j);
-        if (modification.getVersionNum() > metaData.getVersion()) {
-          // this modification is after the Chunk, try modifying the chunk
-          // if this modification succeeds, update modIndex so in the next loop the previous
-          // modifications will not be examined
-          modIndex = doModifyChunkMetaData(modification, metaData)? j : modIndex;
-        } else {
-          // skip old modifications for next metadata
-          modIndex++;
-        }
+  /**
+   * @param chunkMetaData the original chunkMetaData.
+   * @param deletions the merged Deletions of the same time series.
+   */
+  public static void modifyChunkMetaData(List<ChunkMetaData> chunkMetaData,
+      SeriesDeletions deletions) {
+    if (deletions.isEmpty()) {
+      return;
+    }
+    for (ChunkMetaData metaData : chunkMetaData) {
+      long deletedTime = deletions.getDeletedTime(metaData.getVersion());
+      // a deletion before the chunk leaves it unmodified, so merges may still copy it
+      if (metaData.getDeletedAt() < deletedTime && deletedTime >= metaData.getStartTime()) {
+        metaData.setDeletedAt(deletedTime);
       }
     }
     // remove chunks that are completely deleted
     chunkMetaData.removeIf(metaData -> metaData.getDeletedAt() >= metaData.getEndTime());
   }
-
-  private static boolean doModifyChunkMetaData(Modification modification, ChunkMetaData metaData) {
-    if (modification instanceof Deletion) {
-      Deletion deletion = (Deletion) modification;
-      if (metaData.getDeletedAt() < deletion.getTimestamp()) {
-        metaData.setDeletedAt(deletion.getTimestamp());
-        return true;
-      }
-    }
-    return false;
-  }
 }
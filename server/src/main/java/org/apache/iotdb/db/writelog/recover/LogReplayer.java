@@ -21,10 +21,26 @@ package org.apache.iotdb.db.writelog.recover;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.iotdb.db.concurrent.IoTThreadFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.memtable.IMemTable;
+import org.apache.iotdb.db.engine.memtable.PrimitiveMemTable;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
@@ -44,9 +60,19 @@ import org.apache.iotdb.tsfile.write.schema.Schema;
 /**
  * LogReplayer finds the logNode of the TsFile given by insertFilePath and logNodePrefix, reads
  * the WALs from the logNode and redoes them into a given MemTable and ModificationFile.
+ * <p>
+ * With more than one concurrent_wal_replay_thread, the current thread only reads and deserializes
+ * the logs and hands them to the replayers in batches. The devices are partitioned among the
+ * replayers, each of which redoes its batches in order into its own MemTable on the replay threads,
+ * and the MemTables are moved into the given one at last. The replay threads are shared by all
+ * LogReplayers, so the storage groups recovered in parallel use no more threads than configured.
  */
 public class LogReplayer {
 
+  private static final int BATCH_SIZE = 256;
+  private static final int QUEUE_CAPACITY = 16;
+  private static final long REPLAY_THREAD_KEEP_ALIVE_SECONDS = 60;
+
   private String logNodePrefix;
   private String insertFilePath;
   private ModificationFile modFile;
@@ -61,6 +87,26 @@ public class LogReplayer {
 
   private Map<String, Long> tempStartTimeMap = new HashMap<>();
   private Map<String, Long> tempEndTimeMap = new HashMap<>();
+  // the end times of the data already in the file, read once before the replay
+  private Map<String, Long> fileEndTimeMap;
+
+  /**
+   * the replay threads are created on the first parallel replay and exit when they are idle after
+   * the recovery.
+   */
+  private static class ReplayPoolHolder {
+
+    private static final ExecutorService REPLAY_POOL = createReplayPool();
+
+    private static ExecutorService createReplayPool() {
+      int threadNum = IoTDBDescriptor.getInstance().getConfig().getConcurrentWalReplayThread();
+      ThreadPoolExecutor pool = new ThreadPoolExecutor(threadNum, threadNum,
+          REPLAY_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+          new IoTThreadFactory(ThreadName.WAL_REPLAY.getName()));
+      pool.allowCoreThreadTimeOut(true);
+      return pool;
+    }
+  }
 
   public LogReplayer(String logNodePrefix, String insertFilePath,
       ModificationFile modFile,
@@ -87,15 +133,17 @@ public class LogReplayer {
         logNodePrefix + new File(insertFilePath).getName());
 
     ILogReader logReader = logNode.getLogReader();
+    int threadNum = IoTDBDescriptor.getInstance().getConfig().getConcurrentWalReplayThread();
     try {
-      while (logReader.hasNext()) {
-        PhysicalPlan plan = logReader.next();
-        if (plan instanceof InsertPlan) {
-          replayInsert((InsertPlan) plan);
-        } else if (plan instanceof DeletePlan) {
-          replayDelete((DeletePlan) plan);
-        } else if (plan instanceof UpdatePlan) {
-          replayUpdate((UpdatePlan) plan);
+      fileEndTimeMap = currentTsFileResource == null ? null
+          : currentTsFileResource.getEndTimeMap();
+      if (threadNum > 1 && logReader.hasNext()) {
+        replayInParallel(logReader, threadNum);
+      } else {
+        DeviceReplayer replayer = new DeviceReplayer(recoverMemTable, tempStartTimeMap,
+            tempEndTimeMap, false);
+        while (logReader.hasNext()) {
+          replay(logReader.next(), Collections.singletonList(replayer));
         }
       }
     } catch (IOException e) {
@@ -103,42 +151,74 @@ public class LogReplayer {
     } finally {
       logReader.close();
     }
-    tempStartTimeMap.forEach((k, v) -> currentTsFileResource.updateStartTime(k, v));
-    tempEndTimeMap.forEach((k, v) -> currentTsFileResource.updateEndTime(k, v));
-  }
-
-  private void replayDelete(DeletePlan deletePlan) throws IOException {
-    List<Path> paths = deletePlan.getPaths();
-    for (Path path : paths) {
-      recoverMemTable.delete(path.getDevice(), path.getMeasurement(), deletePlan.getDeleteTime());
-      modFile.write(new Deletion(path, versionController.nextVersion(),deletePlan.getDeleteTime()));
+    try {
+      for (Entry<String, Long> entry : tempStartTimeMap.entrySet()) {
+        currentTsFileResource.updateStartTime(entry.getKey(), entry.getValue());
+      }
+      for (Entry<String, Long> entry : tempEndTimeMap.entrySet()) {
+        currentTsFileResource.updateEndTime(entry.getKey(), entry.getValue());
+      }
+    } catch (IOException e) {
+      throw new ProcessorException("Cannot update the times of " + insertFilePath, e);
     }
   }
 
-  private void replayInsert(InsertPlan insertPlan) {
-    if (currentTsFileResource != null) {
-      // the last chunk group may contain the same data with the logs, ignore such logs in seq file
-      Long lastEndTime = currentTsFileResource.getEndTimeMap().get(insertPlan.getDeviceId());
-      if ( lastEndTime != null && lastEndTime >= insertPlan.getTime() &&
-          !acceptDuplication) {
-        return;
+  private void replayInParallel(ILogReader logReader, int threadNum)
+      throws IOException, ProcessorException {
+    List<DeviceReplayer> replayers = new ArrayList<>();
+    for (int i = 0; i < threadNum; i++) {
+      replayers.add(new DeviceReplayer(new PrimitiveMemTable(), new HashMap<>(),
+          new HashMap<>(), true));
+    }
+    try {
+      while (logReader.hasNext()) {
+        replay(logReader.next(), replayers);
       }
-      Long startTime = tempStartTimeMap.get(insertPlan.getDeviceId());
-      if (startTime == null || startTime > insertPlan.getTime()) {
-        tempStartTimeMap.put(insertPlan.getDeviceId(), insertPlan.getTime());
+    } finally {
+      // the replayers end at an empty batch even if the reading fails, and after an interruption
+      // they only drain the batches already put
+      for (DeviceReplayer replayer : replayers) {
+        replayer.finish();
       }
-      Long endTime = tempEndTimeMap.get(insertPlan.getDeviceId());
-      if (endTime == null || endTime < insertPlan.getTime()) {
-        tempEndTimeMap.put(insertPlan.getDeviceId(), insertPlan.getTime());
+    }
+    try {
+      for (DeviceReplayer replayer : replayers) {
+        replayer.done.get();
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ProcessorException(e);
+    } catch (ExecutionException e) {
+      throw new ProcessorException("Cannot replay logs", e.getCause());
+    }
+    for (DeviceReplayer replayer : replayers) {
+      // each device is only in one of the MemTables
+      recoverMemTable.getMemTableMap().putAll(replayer.memTable.getMemTableMap());
+      tempStartTimeMap.putAll(replayer.startTimeMap);
+      tempEndTimeMap.putAll(replayer.endTimeMap);
     }
-    String[] measurementList = insertPlan.getMeasurements();
-    TSDataType[] dataTypes = new TSDataType[measurementList.length];
-    for (int i = 0; i < measurementList.length; i++) {
-      dataTypes[i] = schema.getMeasurementDataType(measurementList[i]);
+  }
+
+  private void replay(PhysicalPlan plan, List<DeviceReplayer> replayers)
+      throws IOException, ProcessorException {
+    if (plan instanceof InsertPlan) {
+      String deviceId = ((InsertPlan) plan).getDeviceId();
+      getReplayer(deviceId, replayers).add(plan);
+    } else if (plan instanceof DeletePlan) {
+      DeletePlan deletePlan = (DeletePlan) plan;
+      for (Path path : deletePlan.getPaths()) {
+        modFile.write(new Deletion(path, versionController.nextVersion(),
+            deletePlan.getDeleteTime()));
+        getReplayer(path.getDevice(), replayers)
+            .add(new DeletePlan(deletePlan.getDeleteTime(), path));
+      }
+    } else if (plan instanceof UpdatePlan) {
+      replayUpdate((UpdatePlan) plan);
     }
-    insertPlan.setDataTypes(dataTypes);
-    recoverMemTable.insert(insertPlan);
+  }
+
+  private DeviceReplayer getReplayer(String deviceId, List<DeviceReplayer> replayers) {
+    return replayers.get((deviceId.hashCode() & Integer.MAX_VALUE) % replayers.size());
   }
 
   @SuppressWarnings("unused")
@@ -146,4 +226,143 @@ public class LogReplayer {
     // TODO: support update
     throw new UnsupportedOperationException("Update not supported");
   }
+
+  /**
+   * DeviceReplayer redoes the inserts and deletions of a part of the devices into a MemTable. It
+   * redoes each log as it is added, unless it is queued, then the logs are queued in batches and
+   * redone by at most one replay thread at a time. A replayer never waits in a replay thread, so
+   * the replayers of all storage groups can share the threads without blocking each other.
+   */
+  private class DeviceReplayer implements Runnable {
+
+    private IMemTable memTable;
+    private Map<String, Long> startTimeMap;
+    private Map<String, Long> endTimeMap;
+
+    private BlockingQueue<List<PhysicalPlan>> batches;
+    private List<PhysicalPlan> batch;
+    // whether the replayer is submitted to the replay threads to drain the batches
+    private AtomicBoolean scheduled = new AtomicBoolean();
+    private RuntimeException failure;
+    // completed when the last (empty) batch is taken
+    private CompletableFuture<Void> done = new CompletableFuture<>();
+
+    /**
+     * @param queued whether the logs are queued for the thread of the replayer or redone at once
+     */
+    private DeviceReplayer(IMemTable memTable, Map<String, Long> startTimeMap,
+        Map<String, Long> endTimeMap, boolean queued) {
+      this.memTable = memTable;
+      this.startTimeMap = startTimeMap;
+      this.endTimeMap = endTimeMap;
+      if (queued) {
+        batches = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        batch = new ArrayList<>(BATCH_SIZE);
+      }
+    }
+
+    private void add(PhysicalPlan plan) throws ProcessorException {
+      if (batches == null) {
+        replay(plan);
+        return;
+      }
+      batch.add(plan);
+      if (batch.size() >= BATCH_SIZE) {
+        putBatch();
+      }
+    }
+
+    private void finish() throws ProcessorException {
+      if (!batch.isEmpty()) {
+        putBatch();
+      }
+      putBatch();
+    }
+
+    private void putBatch() throws ProcessorException {
+      try {
+        batches.put(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ProcessorException(e);
+      }
+      batch = new ArrayList<>(BATCH_SIZE);
+      if (scheduled.compareAndSet(false, true)) {
+        ReplayPoolHolder.REPLAY_POOL.submit(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      // drain a limited number of batches at a time, so the other replayers get the thread in turn
+      int drainedNum = 0;
+      while (drainedNum < QUEUE_CAPACITY) {
+        List<PhysicalPlan> plans = batches.poll();
+        if (plans == null) {
+          scheduled.set(false);
+          // a batch put before the flag is reset has not submitted the replayer again
+          if (batches.isEmpty() || !scheduled.compareAndSet(false, true)) {
+            return;
+          }
+          continue;
+        }
+        if (plans.isEmpty()) {
+          if (failure != null) {
+            done.completeExceptionally(failure);
+          } else {
+            done.complete(null);
+          }
+          return;
+        }
+        // keep draining the batches after a failure so the reading thread is not blocked
+        if (failure == null) {
+          try {
+            for (PhysicalPlan plan : plans) {
+              replay(plan);
+            }
+          } catch (RuntimeException e) {
+            failure = e;
+          }
+        }
+        drainedNum++;
+      }
+      ReplayPoolHolder.REPLAY_POOL.submit(this);
+    }
+
+    private void replay(PhysicalPlan plan) {
+      if (plan instanceof InsertPlan) {
+        replayInsert((InsertPlan) plan);
+      } else {
+        DeletePlan deletePlan = (DeletePlan) plan;
+        Path path = deletePlan.getPaths().get(0);
+        memTable.delete(path.getDevice(), path.getMeasurement(), deletePlan.getDeleteTime());
+      }
+    }
+
+    private void replayInsert(InsertPlan insertPlan) {
+      if (fileEndTimeMap != null) {
+        // the last chunk group may contain the same data with the logs, ignore such logs in seq file
+        Long lastEndTime = fileEndTimeMap.get(insertPlan.getDeviceId());
+        if ( lastEndTime != null && lastEndTime >= insertPlan.getTime() &&
+            !acceptDuplication) {
+          return;
+        }
+        Long startTime = startTimeMap.get(insertPlan.getDeviceId());
+        if (startTime == null || startTime > insertPlan.getTime()) {
+          startTimeMap.put(insertPlan.getDeviceId(), insertPlan.getTime());
+        }
+        Long endTime = endTimeMap.get(insertPlan.getDeviceId());
+        if (endTime == null || endTime < insertPlan.getTime()) {
+          endTimeMap.put(insertPlan.getDeviceId(), insertPlan.getTime());
+        }
+      }
+      String[] measurementList = insertPlan.getMeasurements();
+      TSDataType[] dataTypes = new TSDataType[measurementList.length];
+      for (int i = 0; i < measurementList.length; i++) {
+        dataTypes[i] = schema.getMeasurementDataType(measurementList[i]);
+      }
+      insertPlan.setDataTypes(dataTypes);
+      memTable.insert(insertPlan);
+    }
+  }
 }
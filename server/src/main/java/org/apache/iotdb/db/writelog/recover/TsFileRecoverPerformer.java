@@ -134,7 +134,11 @@ public class TsFileRecoverPerformer {
     } else {
       // due to failure, the last ChunkGroup may contain the same data as the WALs, so the time
       // map must be updated first to avoid duplicated insertion
-      recoverResourceFromWriter(restorableTsFileIOWriter);
+      try {
+        recoverResourceFromWriter(restorableTsFileIOWriter);
+      } catch (IOException e) {
+        throw new ProcessorException(e);
+      }
     }
 
     // redo logs
@@ -183,7 +187,8 @@ public class TsFileRecoverPerformer {
     tsFileResource.serialize();
   }
 
-  private void recoverResourceFromWriter(RestorableTsFileIOWriter restorableTsFileIOWriter) {
+  private void recoverResourceFromWriter(RestorableTsFileIOWriter restorableTsFileIOWriter)
+      throws IOException {
     for (ChunkGroupMetaData chunkGroupMetaData : restorableTsFileIOWriter
         .getChunkGroupMetaDatas()) {
       for (ChunkMetaData chunkMetaData : chunkGroupMetaData.getChunkMetaDataList()) {
@@ -0,0 +1,180 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine;
+
+import static org.apache.iotdb.db.utils.EnvironmentUtils.TEST_QUERY_CONTEXT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.query.executor.EngineQueryRouter;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.utils.FilePathUtils;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.expression.impl.SingleSeriesExpression;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StorageEngineRecoverTest {
+
+  private static final int STORAGE_GROUP_NUM = 4;
+  private static final String MEASUREMENT = "s0";
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private int prevRecoveryThread;
+  private boolean prevPartialRecovery;
+
+  @Before
+  public void setUp() throws Exception {
+    prevRecoveryThread = config.getConcurrentRecoveryThread();
+    prevPartialRecovery = config.isEnablePartialRecovery();
+    EnvironmentUtils.envSetUp();
+    for (int i = 0; i < STORAGE_GROUP_NUM; i++) {
+      String storageGroup = storageGroup(i);
+      MManager.getInstance().setStorageLevelToMTree(storageGroup);
+      MManager.getInstance().addPathToMTree(storageGroup + "." + MEASUREMENT,
+          TSDataType.INT64.toString(), TSEncoding.PLAIN.toString());
+      StorageEngine.getInstance().addTimeSeries(new Path(storageGroup, MEASUREMENT),
+          TSDataType.INT64, TSEncoding.PLAIN, CompressionType.valueOf(TSFileConfig.compressor),
+          Collections.emptyMap());
+    }
+    // two sequence files and an unsequence one in each storage group
+    insert(100, 200);
+    insert(200, 300);
+    insert(50, 150);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    config.setConcurrentRecoveryThread(prevRecoveryThread);
+    config.setEnablePartialRecovery(prevPartialRecovery);
+    EnvironmentUtils.cleanEnv();
+  }
+
+  @Test
+  public void testParallelRecovery() throws Exception {
+    config.setConcurrentRecoveryThread(1);
+    List<String> serialResult = recoverAndDescribe();
+    config.setConcurrentRecoveryThread(STORAGE_GROUP_NUM);
+    List<String> parallelResult = recoverAndDescribe();
+
+    assertEquals(serialResult, parallelResult);
+    for (String storageGroupResult : parallelResult) {
+      assertTrue(storageGroupResult, storageGroupResult.endsWith("count=250"));
+    }
+  }
+
+  @Test
+  public void testRecoveryFailure() throws Exception {
+    StorageEngine.getInstance().syncCloseAllProcessor();
+    // the system directory of root.sg1 cannot be created
+    File storageGroupSysDir = new File(FilePathUtils.regularizePath(config.getSystemDir())
+        + "storage_groups", storageGroup(1));
+    FileUtils.deleteDirectory(storageGroupSysDir);
+    assertTrue(storageGroupSysDir.createNewFile());
+    config.setConcurrentRecoveryThread(STORAGE_GROUP_NUM);
+
+    config.setEnablePartialRecovery(false);
+    StorageEngine.getInstance().recover();
+    try {
+      StorageEngine.getInstance().start();
+      fail("the failure of root.sg1 should stop the startup");
+    } catch (StartupException e) {
+      // expected
+    }
+
+    config.setEnablePartialRecovery(true);
+    StorageEngine.getInstance().recover();
+    StorageEngine.getInstance().start();
+    StorageEngine.getInstance().stop();
+    assertTrue(StorageEngine.getInstance().insert(plan(0, 400)));
+    try {
+      StorageEngine.getInstance().insert(plan(1, 400));
+      fail("root.sg1 is not recovered");
+    } catch (StorageEngineException e) {
+      // expected
+    }
+    assertTrue(storageGroupSysDir.delete());
+  }
+
+  /**
+   * @return the files and the number of points of each storage group after recovery
+   */
+  private List<String> recoverAndDescribe() throws Exception {
+    StorageEngine.getInstance().syncCloseAllProcessor();
+    StorageEngine.getInstance().recover();
+    List<String> result = new ArrayList<>();
+    for (int i = 0; i < STORAGE_GROUP_NUM; i++) {
+      Path path = new Path(storageGroup(i), MEASUREMENT);
+      QueryDataSource dataSource = StorageEngine.getInstance()
+          .query(new SingleSeriesExpression(path, null), TEST_QUERY_CONTEXT, null);
+      StringBuilder builder = new StringBuilder(path.getFullPath());
+      for (TsFileResource resource : dataSource.getSeqResources()) {
+        builder.append(" seq=").append(resource.getFile().getName());
+      }
+      for (TsFileResource resource : dataSource.getUnseqResources()) {
+        builder.append(" unseq=").append(resource.getFile().getName());
+      }
+      long count = new EngineQueryRouter()
+          .aggregate(Collections.singletonList(path), Collections.singletonList("count"), null,
+              TEST_QUERY_CONTEXT).next().getFields().get(0).getLongV();
+      result.add(builder.append(" count=").append(count).toString());
+    }
+    return result;
+  }
+
+  private void insert(long startTime, long endTime) throws StorageEngineException {
+    for (long time = startTime; time < endTime; time++) {
+      for (int i = 0; i < STORAGE_GROUP_NUM; i++) {
+        StorageEngine.getInstance().insert(plan(i, time));
+      }
+    }
+    StorageEngine.getInstance().syncCloseAllProcessor();
+  }
+
+  private InsertPlan plan(int storageGroupIndex, long time) {
+    TSRecord record = new TSRecord(time, storageGroup(storageGroupIndex));
+    record.addTuple(new LongDataPoint(MEASUREMENT, time));
+    return new InsertPlan(record);
+  }
+
+  private String storageGroup(int index) {
+    return "root.sg" + index;
+  }
+}
@@ -57,6 +57,9 @@ public class DeviceMetaDataCacheTest {
 
   static {
     MManager.getInstance().init();
+    // the caches read metaDataCacheEnable when they are created
+    DeviceMetaDataCache.getInstance();
+    TsFileMetaDataCache.getInstance();
   }
 
   @Before
@@ -115,8 +118,12 @@ public class DeviceMetaDataCacheTest {
   @Test
   public void test1() throws IOException {
     IoTDBDescriptor.getInstance().getConfig().setMetaDataCacheEnable(false);
-    QueryDataSource queryDataSource = storageGroupProcessor
-        .query(deviceId0, measurementId5, context, null);
+    QueryDataSource queryDataSource;
+    try {
+      queryDataSource = storageGroupProcessor.query(deviceId0, measurementId5, context, null);
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setMetaDataCacheEnable(true);
+    }
 
     List<TsFileResource> seqResources = queryDataSource.getSeqResources();
     List<TsFileResource> unseqResources = queryDataSource.getUnseqResources();
@@ -156,5 +163,31 @@ public class DeviceMetaDataCacheTest {
     Assert.assertEquals(0, metaDataList.size());
   }
 
+  @Test
+  public void testRemoveFileIndex() throws IOException {
+    TsFileMetaDataCache cache = TsFileMetaDataCache.getInstance();
+    cache.clear();
+    TsFileResource seqFile = storageGroupProcessor.query(deviceId0, measurementId0, context, null)
+        .getSeqResources().get(0);
+    Assert.assertNotNull(cache.getDeviceMetadataIndex(seqFile, deviceId0));
+    // the directory and the page of the device
+    Assert.assertEquals(2, cache.size());
+    cache.remove(seqFile);
+    Assert.assertEquals(0, cache.size());
+    Assert.assertNotNull(cache.getDeviceMetadataIndex(seqFile, deviceId0));
+    Assert.assertEquals(2, cache.size());
+  }
 
+  @Test
+  public void testAbsentMeasurement() throws IOException {
+    TsFileMetaDataCache cache = TsFileMetaDataCache.getInstance();
+    cache.clear();
+    DeviceMetaDataCache.getInstance().clear();
+    TsFileResource seqFile = storageGroupProcessor.query(deviceId0, measurementId5, context, null)
+        .getSeqResources().get(0);
+    Assert.assertTrue(DeviceMetaDataCache.getInstance()
+        .get(seqFile, new Path(deviceId0, measurementId100)).isEmpty());
+    // only the directory is read, no page of the device index
+    Assert.assertEquals(1, cache.size());
+  }
 }
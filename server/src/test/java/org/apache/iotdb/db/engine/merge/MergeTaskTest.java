@@ -19,23 +19,39 @@
 
 package org.apache.iotdb.db.engine.merge;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.fileSystem.FileFactory;
 import org.apache.iotdb.db.engine.merge.manage.MergeResource;
 import org.apache.iotdb.db.engine.merge.task.MergeTask;
 import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.exception.MetadataErrorException;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderWithoutFilter;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -60,8 +76,8 @@ public class MergeTaskTest extends MergeTest {
   @Test
   public void testMerge() throws Exception {
     MergeTask mergeTask =
-        new MergeTask(new MergeResource(seqResources, unseqResources), tempSGDir.getPath(), (k, v
-            , l) -> {}, "test", false, 1, MERGE_TEST_SG);
+        new MergeTask(new MergeResource(seqResources, unseqResources), tempSGDir.getPath(),
+            (k, v, s, l) -> {}, "test", false, 1, MERGE_TEST_SG);
     mergeTask.call();
 
     QueryContext context = new QueryContext();
@@ -81,7 +97,7 @@ public class MergeTaskTest extends MergeTest {
   @Test
   public void testFullMerge() throws Exception {
     MergeTask mergeTask =
-        new MergeTask(new MergeResource(seqResources, unseqResources), tempSGDir.getPath(), (k, v, l) -> {}, "test",
+        new MergeTask(new MergeResource(seqResources, unseqResources), tempSGDir.getPath(), (k, v, s, l) -> {}, "test",
             true, 1, MERGE_TEST_SG);
     mergeTask.call();
 
@@ -103,7 +119,7 @@ public class MergeTaskTest extends MergeTest {
   public void testChunkNumThreshold() throws Exception {
     IoTDBDescriptor.getInstance().getConfig().setChunkMergePointThreshold(Integer.MAX_VALUE);
     MergeTask mergeTask =
-        new MergeTask(new MergeResource(seqResources, unseqResources), tempSGDir.getPath(), (k, v, l) -> {}, "test",
+        new MergeTask(new MergeResource(seqResources, unseqResources), tempSGDir.getPath(), (k, v, s, l) -> {}, "test",
             false, 1, MERGE_TEST_SG);
     mergeTask.call();
 
@@ -125,7 +141,7 @@ public class MergeTaskTest extends MergeTest {
   public void testPartialMerge1() throws Exception {
     MergeTask mergeTask =
         new MergeTask(new MergeResource(seqResources, unseqResources.subList(0, 1)), tempSGDir.getPath(),
-            (k, v, l) -> {}, "test", false, 1, MERGE_TEST_SG);
+            (k, v, s, l) -> {}, "test", false, 1, MERGE_TEST_SG);
     mergeTask.call();
 
     QueryContext context = new QueryContext();
@@ -150,7 +166,7 @@ public class MergeTaskTest extends MergeTest {
   public void testPartialMerge2() throws Exception {
     MergeTask mergeTask =
         new MergeTask(new MergeResource(seqResources, unseqResources.subList(5, 6)), tempSGDir.getPath(),
-            (k, v, l) -> {}, "test", false, 1, MERGE_TEST_SG);
+            (k, v, s, l) -> {}, "test", false, 1, MERGE_TEST_SG);
     mergeTask.call();
 
     QueryContext context = new QueryContext();
@@ -171,7 +187,7 @@ public class MergeTaskTest extends MergeTest {
   public void testPartialMerge3() throws Exception {
     MergeTask mergeTask =
         new MergeTask(new MergeResource(seqResources, unseqResources.subList(0, 5)), tempSGDir.getPath(),
-            (k, v, l) -> {}, "test", false, 1, MERGE_TEST_SG);
+            (k, v, s, l) -> {}, "test", false, 1, MERGE_TEST_SG);
     mergeTask.call();
 
     QueryContext context = new QueryContext();
@@ -192,6 +208,149 @@ public class MergeTaskTest extends MergeTest {
     tsFilesReader.close();
   }
 
+  @Test
+  public void testSliceMerge() throws Exception {
+    List<Path> allSeries = new ArrayList<>();
+    for (String deviceId : deviceIds) {
+      for (MeasurementSchema measurementSchema : measurementSchemas) {
+        allSeries.add(new Path(deviceId, measurementSchema.getMeasurementId()));
+      }
+    }
+    // most chunks of the first slice are merged so the other series are moved to the new files,
+    // while the merged chunks of the second slice are moved to the old files
+    List<List<Path>> slices = Arrays.asList(allSeries.subList(0, 60), allSeries.subList(60, 61));
+    for (List<Path> slice : slices) {
+      List<Path> mergedSlice = new ArrayList<>();
+      MergeTask mergeTask =
+          new MergeTask(new MergeResource(seqResources, unseqResources), tempSGDir.getPath(),
+              (k, v, s, l) -> mergedSlice.addAll(s), "test", false, 1, MERGE_TEST_SG);
+      mergeTask.setSeriesSlice(slice);
+      mergeTask.call();
+      assertEquals(slice, mergedSlice);
+    }
+
+    assertEquals(100, checkSeriesValues(allSeries.get(0), 20000.0));
+    assertEquals(100, checkSeriesValues(allSeries.get(60), 20000.0));
+    // the series out of the slices are kept as they were
+    assertEquals(100, checkSeriesValues(allSeries.get(99), 0.0));
+    assertEquals(100, checkSeriesValues(allSeries.get(61), 0.0));
+  }
+
+  @Test
+  public void testSliceMergeWithDeletion() throws Exception {
+    List<Path> allSeries = new ArrayList<>();
+    for (String deviceId : deviceIds) {
+      for (MeasurementSchema measurementSchema : measurementSchemas) {
+        allSeries.add(new Path(deviceId, measurementSchema.getMeasurementId()));
+      }
+    }
+    Path deletedSeries = allSeries.get(99);
+    // the chunks of the test files have version 0
+    seqResources.get(0).getModFile().write(new Deletion(deletedSeries, 1, 49));
+    seqResources.get(0).getModFile().close();
+
+    // most chunks are merged so the series out of the slice are moved to the new files
+    List<Path> slice = allSeries.subList(0, 60);
+    MergeTask mergeTask =
+        new MergeTask(new MergeResource(seqResources, unseqResources), tempSGDir.getPath(),
+            (k, v, s, l) -> {}, "test", false, 1, MERGE_TEST_SG);
+    mergeTask.setSeriesSlice(slice);
+    mergeTask.call();
+
+    assertEquals(50, checkSeriesValues(deletedSeries, 0.0));
+  }
+
+  private int checkSeriesValues(Path path, double valueOffset) throws IOException {
+    QueryContext context = new QueryContext();
+    SeqResourceIterateReader tsFilesReader = new SeqResourceIterateReader(path,
+        Collections.singletonList(seqResources.get(0)), null, context);
+    int count = 0;
+    while (tsFilesReader.hasNext()) {
+      BatchData batchData = tsFilesReader.nextBatch();
+      for (int i = 0; i < batchData.length(); i++) {
+        assertEquals(batchData.getTimeByIndex(i) + valueOffset, batchData.getDoubleByIndex(i),
+            0.001);
+        count++;
+      }
+    }
+    tsFilesReader.close();
+    return count;
+  }
+
+  @Test
+  public void testPageMerge() throws Exception {
+    int prevPointsInPage = TSFileConfig.maxNumberOfPointsInPage;
+    TSFileConfig.maxNumberOfPointsInPage = 5;
+    Path path = new Path(deviceIds[0], measurementSchemas[0].getMeasurementId());
+    TsFileResource seqFile = new TsFileResource(FileFactory.INSTANCE.getFile("pageSeq.tsfile"));
+    TsFileResource unseqFile =
+        new TsFileResource(FileFactory.INSTANCE.getFile("pageUnseq.tsfile"));
+    try {
+      // one chunk of 4 pages: [0, 8], [10, 18], [20, 28], [30, 38]
+      writeSinglePointsFile(seqFile, path, 0, 40, 2);
+      writeSinglePointsFile(unseqFile, path, 11, 12, 1);
+
+      MergeTask mergeTask =
+          new MergeTask(new MergeResource(Collections.singletonList(seqFile),
+              Collections.singletonList(unseqFile)), tempSGDir.getPath(), (k, v, s, l) -> {},
+              "test", false, 1, MERGE_TEST_SG);
+      mergeTask.call();
+
+      // only the second page is decoded, the others are copied as they were
+      List<long[]> pages = new ArrayList<>();
+      try (TsFileSequenceReader reader = new TsFileSequenceReader(seqFile.getFile().getPath())) {
+        for (ChunkMetaData chunkMetaData : reader.getChunkMetadataList(path)) {
+          ChunkReader chunkReader = new ChunkReaderWithoutFilter(
+              reader.readMemChunk(chunkMetaData));
+          while (chunkReader.hasNextBatch()) {
+            PageHeader pageHeader = chunkReader.nextPageHeader();
+            pages.add(new long[]{pageHeader.getMinTimestamp(), pageHeader.getMaxTimestamp(),
+                pageHeader.getNumOfValues()});
+            chunkReader.skipPageData();
+          }
+        }
+      }
+      assertEquals(5, pages.size());
+      assertArrayEquals(new long[]{0, 8, 5}, pages.get(0));
+      assertArrayEquals(new long[]{10, 16, 5}, pages.get(1));
+      assertArrayEquals(new long[]{18, 18, 1}, pages.get(2));
+      assertArrayEquals(new long[]{20, 28, 5}, pages.get(3));
+      assertArrayEquals(new long[]{30, 38, 5}, pages.get(4));
+
+      SeqResourceIterateReader tsFilesReader = new SeqResourceIterateReader(path,
+          Collections.singletonList(seqFile), null, new QueryContext());
+      int count = 0;
+      while (tsFilesReader.hasNext()) {
+        BatchData batchData = tsFilesReader.nextBatch();
+        for (int i = 0; i < batchData.length(); i++) {
+          assertEquals(batchData.getTimeByIndex(i), batchData.getDoubleByIndex(i), 0.001);
+          count++;
+        }
+      }
+      tsFilesReader.close();
+      assertEquals(21, count);
+    } finally {
+      TSFileConfig.maxNumberOfPointsInPage = prevPointsInPage;
+      seqFile.remove();
+      unseqFile.remove();
+    }
+  }
+
+  private void writeSinglePointsFile(TsFileResource resource, Path path, long startTime,
+      long endTime, long interval) throws IOException, WriteProcessException {
+    TsFileWriter fileWriter = new TsFileWriter(resource.getFile());
+    fileWriter.addMeasurement(measurementSchemas[0]);
+    for (long time = startTime; time < endTime; time += interval) {
+      TSRecord record = new TSRecord(time, path.getDevice());
+      record.addTuple(DataPoint.getDataPoint(measurementSchemas[0].getType(),
+          path.getMeasurement(), String.valueOf(time)));
+      fileWriter.write(record);
+      resource.updateStartTime(path.getDevice(), time);
+      resource.updateEndTime(path.getDevice(), time);
+    }
+    fileWriter.close();
+  }
+
   @Test
   public void mergeWithDeletionTest() throws Exception {
     seqResources.get(0).getModFile().write(new Deletion(new Path(deviceIds[0],
@@ -201,7 +360,7 @@ public class MergeTaskTest extends MergeTest {
 
     MergeTask mergeTask =
         new MergeTask(new MergeResource(seqResources, unseqResources.subList(0, 1)), tempSGDir.getPath(),
-            (k, v, l) -> {
+            (k, v, s, l) -> {
               try {
                 seqResources.get(0).removeModFile();
               } catch (IOException e) {
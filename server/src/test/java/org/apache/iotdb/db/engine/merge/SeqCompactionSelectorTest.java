@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.engine.merge.selector.ISeqCompactionSelector;
+import org.apache.iotdb.db.engine.merge.selector.LeveledSeqCompactionSelector;
+import org.apache.iotdb.db.engine.merge.selector.SizeTieredSeqCompactionSelector;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.junit.After;
+import org.junit.Test;
+
+public class SeqCompactionSelectorTest {
+
+  private List<TsFileResource> seqFiles = new ArrayList<>();
+
+  @After
+  public void tearDown() {
+    for (TsFileResource seqFile : seqFiles) {
+      seqFile.getFile().delete();
+    }
+  }
+
+  private void prepareFiles(long[] sizes, int[] levels) throws IOException {
+    for (int i = 0; i < sizes.length; i++) {
+      File file = new File("target", i + "-" + i + ".tsfile");
+      try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+        randomAccessFile.setLength(sizes[i]);
+      }
+      TsFileResource resource = new TsFileResource(file);
+      resource.setLevel(levels[i]);
+      seqFiles.add(resource);
+    }
+  }
+
+  @Test
+  public void testSizeTiered() throws IOException {
+    prepareFiles(new long[]{1000, 100, 120, 90, 2000, 110, 100, 100, 100, 100},
+        new int[10]);
+    ISeqCompactionSelector selector = new SizeTieredSeqCompactionSelector(1500, 10000, 4);
+    // the first three small files are too few, the 2000-byte one is not a candidate
+    assertEquals(seqFiles.subList(5, 10), selector.select(seqFiles));
+
+    // the files of similar sizes are compacted without the much larger one
+    selector = new SizeTieredSeqCompactionSelector(1500, 10000, 3);
+    assertEquals(seqFiles.subList(1, 4), selector.select(seqFiles));
+
+    // the compacted file must not exceed the target size
+    selector = new SizeTieredSeqCompactionSelector(1500, 300, 3);
+    assertEquals(seqFiles.subList(6, 9), selector.select(seqFiles));
+
+    selector = new SizeTieredSeqCompactionSelector(50, 10000, 2);
+    assertTrue(selector.select(seqFiles).isEmpty());
+  }
+
+  @Test
+  public void testLeveled() throws IOException {
+    prepareFiles(new long[]{400, 100, 100, 100, 100, 100, 100, 100, 100, 100},
+        new int[]{1, 0, 0, 1, 0, 0, 0, 0, 0, 0});
+    ISeqCompactionSelector selector = new LeveledSeqCompactionSelector(1500, 10000, 4);
+    // only the first 4 adjacent files of level 0 are compacted
+    assertEquals(seqFiles.subList(4, 8), selector.select(seqFiles));
+
+    selector = new LeveledSeqCompactionSelector(1500, 10000, 2);
+    assertEquals(seqFiles.subList(1, 3), selector.select(seqFiles));
+
+    selector = new LeveledSeqCompactionSelector(1500, 10000, 7);
+    assertTrue(selector.select(seqFiles).isEmpty());
+  }
+}
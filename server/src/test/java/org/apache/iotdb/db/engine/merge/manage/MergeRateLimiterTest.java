@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge.manage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MergeRateLimiterTest {
+
+  private static final long MB = 1024 * 1024L;
+
+  private MergeRateLimiter rateLimiter;
+
+  @Before
+  public void setUp() {
+    rateLimiter = new MergeRateLimiter();
+    rateLimiter.setThroughputMBPerSec(0);
+    rateLimiter.setBackoffThroughputMBPerSec(0);
+    rateLimiter.setBackoffFlushPendingNum(0);
+    rateLimiter.setBackoffQueryLatencyMs(0);
+  }
+
+  @Test
+  public void testUnlimited() {
+    long startTime = System.currentTimeMillis();
+    rateLimiter.acquire(1024 * MB);
+    assertTrue(System.currentTimeMillis() - startTime < 500);
+    assertEquals(0, rateLimiter.getCurrentBytesPerSec());
+  }
+
+  @Test
+  public void testLimited() {
+    rateLimiter.setThroughputMBPerSec(4);
+    assertEquals(4 * MB, rateLimiter.getCurrentBytesPerSec());
+    long startTime = System.currentTimeMillis();
+    // the bucket is empty at first, so 6MB takes 1.5s
+    for (int i = 0; i < 6; i++) {
+      rateLimiter.acquire(MB);
+    }
+    long elapsed = System.currentTimeMillis() - startTime;
+    assertTrue(elapsed + "ms", elapsed >= 1200);
+  }
+
+  @Test
+  public void testBackoffOnSlowQuery() {
+    rateLimiter.setThroughputMBPerSec(64);
+    rateLimiter.setBackoffThroughputMBPerSec(8);
+    rateLimiter.recordQueryLatency(5000);
+    // not enabled yet
+    assertFalse(rateLimiter.isBackingOff());
+
+    rateLimiter.setBackoffQueryLatencyMs(1000);
+    rateLimiter.recordQueryLatency(10);
+    assertFalse(rateLimiter.isBackingOff());
+    assertEquals(64 * MB, rateLimiter.getCurrentBytesPerSec());
+
+    rateLimiter.recordQueryLatency(1000);
+    assertTrue(rateLimiter.isBackingOff());
+    assertEquals(8 * MB, rateLimiter.getCurrentBytesPerSec());
+
+    // backing off also limits merges that are otherwise unlimited
+    rateLimiter.setThroughputMBPerSec(0);
+    assertEquals(8 * MB, rateLimiter.getCurrentBytesPerSec());
+  }
+}
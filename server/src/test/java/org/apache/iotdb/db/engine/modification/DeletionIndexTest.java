@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.modification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.iotdb.db.engine.modification.DeletionIndex.SeriesDeletions;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.junit.Test;
+
+public class DeletionIndexTest {
+
+  @Test
+  public void testMerge() {
+    DeletionIndex index = new DeletionIndex();
+    Path path = new Path("d1", "s1");
+    index.add(new Deletion(path, 1, 10));
+    index.add(new Deletion(path, 2, 20));
+    // covered by the one of version 2
+    index.add(new Deletion(path, 1, 5));
+    index.add(new Deletion(path, 3, 15));
+    index.add(new Deletion(new Path("d1", "s2"), 4, 100));
+
+    SeriesDeletions deletions = index.get(path.getFullPath());
+    assertEquals(2, deletions.size());
+    assertEquals(20, deletions.getDeletedTime(0));
+    assertEquals(20, deletions.getDeletedTime(1));
+    assertEquals(15, deletions.getDeletedTime(2));
+    assertEquals(Long.MIN_VALUE, deletions.getDeletedTime(3));
+    assertTrue(index.get("d1.s3").isEmpty());
+
+    // the copy is not changed by later Deletions
+    index.add(new Deletion(path, 5, 30));
+    assertEquals(20, deletions.getDeletedTime(0));
+    assertEquals(30, index.get(path.getFullPath()).getDeletedTime(0));
+    assertEquals(1, index.get(path.getFullPath()).size());
+  }
+
+  @Test
+  public void testRandom() {
+    Random random = new Random(1);
+    Path path = new Path("d1", "s1");
+    List<Modification> deletions = new ArrayList<>();
+    DeletionIndex index = new DeletionIndex();
+    for (int i = 0; i < 1000; i++) {
+      Deletion deletion = new Deletion(path, random.nextInt(500), random.nextInt(10000));
+      deletions.add(deletion);
+      index.add(deletion);
+    }
+    SeriesDeletions seriesDeletions = index.get(path.getFullPath());
+    for (long version = -1; version <= 500; version++) {
+      long expected = Long.MIN_VALUE;
+      for (Modification modification : deletions) {
+        if (modification.getVersionNum() > version) {
+          expected = Math.max(expected, ((Deletion) modification).getTimestamp());
+        }
+      }
+      assertEquals(expected, seriesDeletions.getDeletedTime(version));
+    }
+    assertEquals(SeriesDeletions.of(deletions).size(), seriesDeletions.size());
+  }
+
+  @Test
+  public void testModificationFile() throws IOException {
+    String tempFileName = "mod.temp";
+    Path path = new Path("d1", "s1");
+    try {
+      ModificationFile mFile = new ModificationFile(tempFileName);
+      mFile.write(new Deletion(path, 1, 10));
+      mFile.write(new Deletion(path, 2, 20));
+      assertEquals(20, mFile.getDeletions(path.getFullPath()).getDeletedTime(0));
+      mFile.abort();
+      assertEquals(10, mFile.getDeletions(path.getFullPath()).getDeletedTime(0));
+      mFile.close();
+
+      // the index is rebuilt from the file
+      mFile = new ModificationFile(tempFileName);
+      assertEquals(10, mFile.getDeletions(path.getFullPath()).getDeletedTime(0));
+      assertEquals(Long.MIN_VALUE, mFile.getDeletions(path.getFullPath()).getDeletedTime(1));
+      mFile.close();
+    } finally {
+      new File(tempFileName).delete();
+    }
+  }
+}
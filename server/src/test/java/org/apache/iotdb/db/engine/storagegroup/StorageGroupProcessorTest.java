@@ -20,13 +20,23 @@ package org.apache.iotdb.db.engine.storagegroup;
 
 import static org.junit.Assert.assertFalse;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.ArrayList;
 
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.MetadataManagerHelper;
+import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.engine.merge.manage.MergeManager;
+import org.apache.iotdb.db.engine.merge.manage.ReadAmplificationRecorder;
+import org.apache.iotdb.db.engine.merge.manage.ReadAmplificationRecorder.DeviceReadCounter;
+import org.apache.iotdb.db.engine.merge.selector.SeqCompactionStrategy;
+import org.apache.iotdb.db.engine.merge.task.SeqCompactionTask;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 
 import org.apache.iotdb.db.exception.ProcessorException;
@@ -36,7 +46,16 @@ import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.JobFileManager;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.rpc.TSStatusType;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderWithoutFilter;
 import org.apache.iotdb.tsfile.write.record.TSRecord;
 import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
 import org.junit.After;
@@ -72,7 +91,7 @@ public class StorageGroupProcessorTest {
 
 
   @Test
-  public void testSequenceSyncClose() {
+  public void testSequenceSyncClose() throws IOException {
     for (int j = 1; j <= 10; j++) {
       TSRecord record = new TSRecord(j, deviceId);
       record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
@@ -91,7 +110,7 @@ public class StorageGroupProcessorTest {
   }
 
   @Test
-  public void testIoTDBRowBatchWriteAndSyncClose() {
+  public void testIoTDBRowBatchWriteAndSyncClose() throws IOException {
 
     String[] measurements = new String[2];
     measurements[0] = "s0";
@@ -146,7 +165,7 @@ public class StorageGroupProcessorTest {
 
 
   @Test
-  public void testSeqAndUnSeqSyncClose() {
+  public void testSeqAndUnSeqSyncClose() throws IOException {
 
     for (int j = 21; j <= 30; j++) {
       TSRecord record = new TSRecord(j, deviceId);
@@ -178,7 +197,7 @@ public class StorageGroupProcessorTest {
   }
 
   @Test
-  public void testMerge() {
+  public void testMerge() throws IOException {
 
     mergeLock = new AtomicLong(0);
     for (int j = 21; j <= 30; j++) {
@@ -214,6 +233,381 @@ public class StorageGroupProcessorTest {
     }
   }
 
+  @Test
+  public void testIncrementalMerge() throws IOException {
+    IoTDBDescriptor.getInstance().getConfig().setEnableIncrementalMerge(true);
+    mergeLock = new AtomicLong(0);
+    try {
+      for (int j = 21; j <= 30; j++) {
+        TSRecord record = new TSRecord(j, deviceId);
+        record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+        processor.insert(new InsertPlan(record));
+        processor.putAllWorkingTsFileProcessorIntoClosingList();
+      }
+      processor.waitForAllCurrentTsFileProcessorsClosed();
+
+      for (int j = 10; j >= 1; j--) {
+        TSRecord record = new TSRecord(j, deviceId);
+        record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+        processor.insert(new InsertPlan(record));
+        processor.putAllWorkingTsFileProcessorIntoClosingList();
+      }
+      processor.waitForAllCurrentTsFileProcessorsClosed();
+
+      // each merge merges a slice, and the unseqFiles are removed after the last one
+      while (true) {
+        long mergedNum = mergeLock.get();
+        processor.merge(true);
+        while (mergeLock.get() == mergedNum) {
+          // wait
+        }
+        QueryDataSource queryDataSource = processor.query(deviceId, measurementId, context,
+            null);
+        if (queryDataSource.getUnseqResources().isEmpty()) {
+          Assert.assertEquals(10, queryDataSource.getSeqResources().size());
+          break;
+        }
+      }
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setEnableIncrementalMerge(false);
+    }
+  }
+
+  @Test
+  public void testSeqCompaction() throws Exception {
+    long prevCompactionThreshold = IoTDBDescriptor.getInstance().getConfig()
+        .getSeqFileCompactionThreshold();
+    IoTDBDescriptor.getInstance().getConfig().setSeqFileCompactionThreshold(64 * 1024 * 1024L);
+    mergeLock = new AtomicLong(0);
+    try {
+      for (int j = 1; j <= 10; j++) {
+        TSRecord record = new TSRecord(j, deviceId);
+        record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+        processor.insert(new InsertPlan(record));
+        processor.putAllWorkingTsFileProcessorIntoClosingList();
+      }
+      processor.waitForAllCurrentTsFileProcessorsClosed();
+      processor.delete(deviceId, measurementId, 3);
+
+      // no unseqFiles, so the small seqFiles are compacted
+      processor.merge(true);
+      while (mergeLock.get() == 0) {
+        // wait
+      }
+
+      QueryDataSource queryDataSource = processor.query(deviceId, measurementId, context,
+          null);
+      Assert.assertEquals(1, queryDataSource.getSeqResources().size());
+      TsFileResource resource = queryDataSource.getSeqResources().get(0);
+      Assert.assertTrue(resource.isClosed());
+      Assert.assertEquals(1, resource.getLevel());
+      Assert.assertEquals(1, (long) resource.getStartTimeMap().get(deviceId));
+      Assert.assertEquals(10, (long) resource.getEndTimeMap().get(deviceId));
+      Assert.assertTrue(resource.getModFile().getModifications().isEmpty());
+      try (TsFileSequenceReader reader = new TsFileSequenceReader(resource.getFile().getPath())) {
+        List<ChunkMetaData> chunkMetaDataList = reader
+            .getChunkMetadataList(new Path(deviceId, measurementId));
+        // the deleted points are dropped and the small chunks are merged into one
+        Assert.assertEquals(1, chunkMetaDataList.size());
+        Assert.assertEquals(7, chunkMetaDataList.get(0).getNumOfPoints());
+        Assert.assertEquals(4, chunkMetaDataList.get(0).getStartTime());
+      }
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setSeqFileCompactionThreshold(
+          prevCompactionThreshold);
+    }
+  }
+
+  @Test
+  public void testStorageGroupSeqCompactionStrategy() throws Exception {
+    long prevCompactionThreshold = IoTDBDescriptor.getInstance().getConfig()
+        .getSeqFileCompactionThreshold();
+    IoTDBDescriptor.getInstance().getConfig().setSeqFileCompactionThreshold(64 * 1024 * 1024L);
+    IoTDBDescriptor.getInstance().getConfig().setStorageGroupSeqCompactionStrategies(
+        Collections.singletonMap(storageGroup, SeqCompactionStrategy.LEVELED));
+    mergeLock = new AtomicLong(0);
+    try {
+      for (int j = 1; j <= 10; j++) {
+        TSRecord record = new TSRecord(j, deviceId);
+        record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+        processor.insert(new InsertPlan(record));
+        processor.putAllWorkingTsFileProcessorIntoClosingList();
+      }
+      processor.waitForAllCurrentTsFileProcessorsClosed();
+
+      // LEVELED compacts exactly seq_compaction_file_num files of level 0 into one of level 1
+      processor.merge(true);
+      while (mergeLock.get() == 0) {
+        // wait
+      }
+      List<TsFileResource> seqFiles = processor.query(deviceId, measurementId, context, null)
+          .getSeqResources();
+      Assert.assertEquals(7, seqFiles.size());
+      Assert.assertEquals(1, seqFiles.get(0).getLevel());
+      Assert.assertEquals(4, (long) seqFiles.get(0).getEndTimeMap().get(deviceId));
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setSeqFileCompactionThreshold(
+          prevCompactionThreshold);
+      IoTDBDescriptor.getInstance().getConfig().setStorageGroupSeqCompactionStrategies(
+          Collections.emptyMap());
+    }
+  }
+
+  @Test
+  public void testSeqCompactionRecovery() throws Exception {
+    for (int j = 1; j <= 2; j++) {
+      TSRecord record = new TSRecord(j, deviceId);
+      record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+      processor.insert(new InsertPlan(record));
+      processor.putAllWorkingTsFileProcessorIntoClosingList();
+    }
+    processor.waitForAllCurrentTsFileProcessorsClosed();
+    List<TsFileResource> seqFiles = processor.query(deviceId, measurementId, context, null)
+        .getSeqResources();
+    Assert.assertEquals(2, seqFiles.size());
+
+    // a compaction interrupted after the compacted file is complete
+    File storageGroupSysDir = new File(systemDir, storageGroup);
+    try (BufferedWriter logStream = new BufferedWriter(new FileWriter(
+        new File(storageGroupSysDir, SeqCompactionTask.COMPACTION_LOG_NAME)))) {
+      for (TsFileResource seqFile : seqFiles) {
+        logStream.write(seqFile.getFile().getAbsolutePath());
+        logStream.newLine();
+      }
+      logStream.write("level 1");
+      logStream.newLine();
+      logStream.write("coldEncoded");
+      logStream.newLine();
+      logStream.write("ready");
+      logStream.newLine();
+    }
+    Assert.assertTrue(SeqCompactionTask.recoverCompaction(storageGroupSysDir.getPath()));
+    Assert.assertFalse(seqFiles.get(1).getFile().exists());
+
+    // the level and the cold flag of the compacted file survive the recovery
+    TsFileResource recovered = new TsFileResource(seqFiles.get(0).getFile());
+    recovered.deSerialize();
+    Assert.assertEquals(1, recovered.getLevel());
+    Assert.assertTrue(recovered.isColdEncoded());
+    Assert.assertEquals(1, (long) recovered.getStartTimeMap().get(deviceId));
+  }
+
+  @Test
+  public void testColdDataCompaction() throws Exception {
+    IoTDBDescriptor.getInstance().getConfig()
+        .setColdDataAgeThresholds(Collections.singletonMap(storageGroup, 1L));
+    mergeLock = new AtomicLong(0);
+    try {
+      // a single seqFile whose data are all older than the threshold
+      for (int j = 1; j <= 10; j++) {
+        TSRecord record = new TSRecord(j, deviceId);
+        record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+        processor.insert(new InsertPlan(record));
+      }
+      processor.putAllWorkingTsFileProcessorIntoClosingList();
+      processor.waitForAllCurrentTsFileProcessorsClosed();
+
+      processor.merge(true);
+      while (mergeLock.get() == 0) {
+        // wait
+      }
+
+      QueryDataSource queryDataSource = processor.query(deviceId, measurementId, context,
+          null);
+      Assert.assertEquals(1, queryDataSource.getSeqResources().size());
+      TsFileResource resource = queryDataSource.getSeqResources().get(0);
+      Assert.assertTrue(resource.isColdEncoded());
+      Assert.assertEquals(0, resource.getLevel());
+      try (TsFileSequenceReader reader = new TsFileSequenceReader(resource.getFile().getPath())) {
+        List<ChunkMetaData> chunkMetaDataList = reader
+            .getChunkMetadataList(new Path(deviceId, measurementId));
+        Assert.assertEquals(1, chunkMetaDataList.size());
+        Assert.assertEquals(10, chunkMetaDataList.get(0).getNumOfPoints());
+        Chunk chunk = reader.readMemChunk(chunkMetaDataList.get(0));
+        Assert.assertEquals(CompressionType.GZIP, chunk.getHeader().getCompressionType());
+        ChunkReaderWithoutFilter chunkReader = new ChunkReaderWithoutFilter(chunk);
+        Assert.assertTrue(chunkReader.hasNextBatch());
+        BatchData batchData = chunkReader.nextBatch();
+        for (int j = 1; j <= 10; j++) {
+          Assert.assertEquals(j, batchData.currentTime());
+          Assert.assertEquals(j, batchData.getInt());
+          batchData.next();
+        }
+      }
+
+      // the re-encoded file is not compacted again
+      TsFileResource reloaded = new TsFileResource(resource.getFile());
+      reloaded.deSerialize();
+      Assert.assertTrue(reloaded.isColdEncoded());
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setColdDataAgeThresholds(Collections.emptyMap());
+    }
+  }
+
+  @Test
+  public void testTimePartition() throws Exception {
+    long prevInterval = StorageEngine.getTimePartitionInterval();
+    IoTDBDescriptor.getInstance().getConfig().setEnablePartition(true);
+    StorageEngine.setTimePartitionInterval(10);
+    try {
+      // partition 0, 1 and 2, only one partition is written at a time
+      for (int j = 1; j <= 25; j++) {
+        TSRecord record = new TSRecord(j, deviceId);
+        record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+        processor.insert(new InsertPlan(record));
+      }
+      // an out-of-order point of partition 0
+      TSRecord record = new TSRecord(5, deviceId);
+      record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, "5"));
+      processor.insert(new InsertPlan(record));
+      processor.putAllWorkingTsFileProcessorIntoClosingList();
+      processor.waitForAllCurrentTsFileProcessorsClosed();
+
+      QueryDataSource queryDataSource = processor.query(deviceId, measurementId, context,
+          null);
+      Assert.assertEquals(3, queryDataSource.getSeqResources().size());
+      Assert.assertEquals(1, queryDataSource.getUnseqResources().size());
+      for (int i = 0; i < 3; i++) {
+        TsFileResource resource = queryDataSource.getSeqResources().get(i);
+        Assert.assertTrue(resource.isClosed());
+        Assert.assertEquals(i, resource.getTimePartition());
+        Assert.assertEquals(String.valueOf(i), resource.getFile().getParentFile().getName());
+        Assert.assertEquals(Math.max(1, i * 10), (long) resource.getStartTimeMap().get(deviceId));
+        Assert.assertEquals(Math.min(25, i * 10 + 9),
+            (long) resource.getEndTimeMap().get(deviceId));
+      }
+
+      // the partitions out of the time filter are skipped
+      queryDataSource = processor.query(deviceId, measurementId, context, null,
+          TimeFilter.gtEq(15L));
+      Assert.assertEquals(2, queryDataSource.getSeqResources().size());
+      Assert.assertEquals(1, queryDataSource.getSeqResources().get(0).getTimePartition());
+      Assert.assertTrue(queryDataSource.getUnseqResources().isEmpty());
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setEnablePartition(false);
+      StorageEngine.setTimePartitionInterval(prevInterval);
+    }
+  }
+
+  @Test
+  public void testReadAmplification() throws Exception {
+    long prevInterval = StorageEngine.getTimePartitionInterval();
+    long prevBudget = IoTDBDescriptor.getInstance().getConfig().getMergeMemoryBudget();
+    long prevCompactionThreshold = IoTDBDescriptor.getInstance().getConfig()
+        .getSeqFileCompactionThreshold();
+    IoTDBDescriptor.getInstance().getConfig().setEnablePartition(true);
+    StorageEngine.setTimePartitionInterval(10);
+    mergeLock = new AtomicLong(0);
+    try {
+      // partition 0, 1 and 2
+      for (int j = 1; j <= 25; j++) {
+        TSRecord record = new TSRecord(j, deviceId);
+        record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+        processor.insert(new InsertPlan(record));
+      }
+      processor.putAllWorkingTsFileProcessorIntoClosingList();
+      // two unseqFiles in partition 0 and one in partition 1
+      for (int j : new int[]{5, 6, 15}) {
+        TSRecord record = new TSRecord(j, deviceId);
+        record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+        processor.insert(new InsertPlan(record));
+        processor.putAllWorkingTsFileProcessorIntoClosingList();
+      }
+      processor.waitForAllCurrentTsFileProcessorsClosed();
+
+      // only partition 1 and 2 are queried
+      for (int i = 0; i < 3; i++) {
+        processor.query(deviceId, measurementId, context, null, TimeFilter.gtEq(15L));
+      }
+      ReadAmplificationRecorder recorder = processor.getReadAmplificationRecorder();
+      DeviceReadCounter counter = recorder.getDeviceCounters(1).get(deviceId);
+      Assert.assertEquals(3, counter.getQueryNum());
+      Assert.assertEquals(3, counter.getUnseqFileNum());
+      Assert.assertEquals(3, counter.getOverlappedSeqFileNum());
+      Assert.assertEquals(6, recorder.getExtraFileReads(1));
+      Assert.assertEquals(0, recorder.getExtraFileReads(0));
+      Assert.assertEquals(6, recorder.getExtraFileReads());
+
+      // partition 1 is merged first though partition 0 has more unseqFiles
+      processor.merge(true);
+      while (mergeLock.get() == 0) {
+        // wait
+      }
+      QueryDataSource queryDataSource = processor.query(deviceId, measurementId, context,
+          null);
+      Assert.assertEquals(2, queryDataSource.getUnseqResources().size());
+      for (TsFileResource resource : queryDataSource.getUnseqResources()) {
+        Assert.assertEquals(0, resource.getTimePartition());
+      }
+      Assert.assertEquals(0, recorder.getExtraFileReads(1));
+      // the last query reads the two unseqFiles of partition 0 and the seqFile they overlap
+      Assert.assertEquals(3, recorder.getExtraFileReads(0));
+
+      // the reads are forgotten when no files can be merged
+      IoTDBDescriptor.getInstance().getConfig().setMergeMemoryBudget(1);
+      IoTDBDescriptor.getInstance().getConfig().setSeqFileCompactionThreshold(0);
+      processor.merge(true);
+      Assert.assertEquals(0, recorder.getExtraFileReads());
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setEnablePartition(false);
+      IoTDBDescriptor.getInstance().getConfig().setMergeMemoryBudget(prevBudget);
+      IoTDBDescriptor.getInstance().getConfig().setSeqFileCompactionThreshold(
+          prevCompactionThreshold);
+      StorageEngine.setTimePartitionInterval(prevInterval);
+    }
+  }
+
+  @Test
+  public void testTTL() throws IOException {
+    long now = StorageEngine.getCurrentTime();
+    // 5 files of expired data and 5 files of alive data
+    for (int j = 1; j <= 10; j++) {
+      long time = j <= 5 ? now - 100000 + j : now + j;
+      TSRecord record = new TSRecord(time, deviceId);
+      record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+      processor.insert(new InsertPlan(record));
+      processor.putAllWorkingTsFileProcessorIntoClosingList();
+    }
+    processor.waitForAllCurrentTsFileProcessorsClosed();
+    processor.setDataTTL(10000);
+    Assert.assertFalse(processor.isAlive(now - 100000));
+    Assert.assertTrue(processor.isAlive(now));
+
+    // the expired files are invisible and the time filter masks the remaining expired data
+    QueryDataSource queryDataSource = processor.query(deviceId, measurementId, context,
+        null);
+    Assert.assertEquals(5, queryDataSource.getSeqResources().size());
+    Assert.assertFalse(queryDataSource.updateFilterUsingTTL(null)
+        .satisfy(now - 100000, null));
+
+    processor.setDataTTL(Long.MAX_VALUE);
+    List<TsFileResource> allFiles = processor.query(deviceId, measurementId, context, null).getSeqResources();
+    Assert.assertEquals(10, allFiles.size());
+    Assert.assertNull(processor.query(deviceId, measurementId, context, null)
+        .updateFilterUsingTTL(null));
+
+    // the expired files are removed
+    processor.setDataTTL(10000);
+    processor.checkFilesTTL();
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals(i >= 5, allFiles.get(i).fileExists());
+    }
+    processor.setDataTTL(Long.MAX_VALUE);
+    Assert.assertEquals(5, processor.query(deviceId, measurementId, context, null)
+        .getSeqResources().size());
+
+    // the expired rows of a batch are rejected
+    BatchInsertPlan batchInsertPlan = new BatchInsertPlan(deviceId, new String[]{measurementId},
+        Collections.singletonList(TSDataType.INT32.ordinal()));
+    batchInsertPlan.setTimes(new long[]{now - 100000, now + 100});
+    batchInsertPlan.setColumns(new Object[]{new int[]{1, 2}});
+    batchInsertPlan.setRowCount(2);
+    processor.setDataTTL(10000);
+    Integer[] results = processor.insertBatch(batchInsertPlan);
+    Assert.assertEquals(TSStatusType.OUT_OF_TTL_ERROR.getStatusCode(), (int) results[0]);
+    Assert.assertEquals(TSStatusType.SUCCESS_STATUS.getStatusCode(), (int) results[1]);
+  }
+
   class DummySGP extends StorageGroupProcessor {
 
     DummySGP(String systemInfoDir, String storageGroupName) throws ProcessorException {
@@ -222,10 +616,18 @@ public class StorageGroupProcessorTest {
 
     @Override
     protected void mergeEndAction(List<TsFileResource> seqFiles, List<TsFileResource> unseqFiles,
-        File mergeLog) {
-      super.mergeEndAction(seqFiles, unseqFiles, mergeLog);
+        List<Path> seriesSlice, File mergeLog) {
+      super.mergeEndAction(seqFiles, unseqFiles, seriesSlice, mergeLog);
       mergeLock.incrementAndGet();
       assertFalse(mergeLog.exists());
     }
+
+    @Override
+    protected void compactionEndAction(List<TsFileResource> seqFiles, File compactedFile,
+        File compactionLog) {
+      super.compactionEndAction(seqFiles, compactedFile, compactionLog);
+      mergeLock.incrementAndGet();
+      assertFalse(compactionLog.exists());
+    }
   }
 }
\ No newline at end of file
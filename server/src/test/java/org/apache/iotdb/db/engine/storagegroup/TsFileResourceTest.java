@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.db.engine.cache.TimeIndexCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TsFileResourceTest {
+
+  private File file = new File("target", "1-1.tsfile");
+  private TsFileResource resource;
+
+  @Before
+  public void setUp() throws IOException {
+    Map<String, Long> startTimes = new HashMap<>();
+    Map<String, Long> endTimes = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      startTimes.put("root.sg.d" + i, (long) i);
+      endTimes.put("root.sg.d" + i, (long) i + 100);
+    }
+    // a device only in the start time map
+    startTimes.put("root.sg.unsealed", 0L);
+    file.createNewFile();
+    new TsFileResource(file, startTimes, endTimes).serialize();
+    resource = new TsFileResource(file);
+  }
+
+  @After
+  public void tearDown() {
+    resource.remove();
+    TimeIndexCache.getInstance().clear();
+  }
+
+  @Test
+  public void testDeserialize() throws IOException {
+    resource.deSerialize();
+    Map<String, Long> startTimes = resource.getStartTimeMap();
+    Map<String, Long> endTimes = resource.getEndTimeMap();
+    assertEquals(101, startTimes.size());
+    assertEquals(100, endTimes.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, (long) startTimes.get("root.sg.d" + i));
+      assertEquals(i + 100, (long) endTimes.get("root.sg.d" + i));
+    }
+    assertTrue(resource.containsDevice("root.sg.unsealed"));
+    assertNull(endTimes.get("root.sg.unsealed"));
+    assertFalse(resource.containsDevice("root.sg.d100"));
+
+    // iterated in the order of devices
+    List<String> devices = new ArrayList<>(startTimes.keySet());
+    List<String> sortedDevices = new ArrayList<>(devices);
+    sortedDevices.sort(String::compareTo);
+    assertEquals(sortedDevices, devices);
+  }
+
+  @Test
+  public void testLazyDeserialize() throws IOException {
+    resource.deSerialize();
+    // the .resource file is read on the first use of the times
+    File resourceFile = new File(resource.getResourceFilePath());
+    File movedFile = new File(resource.getResourceFilePath() + ".moved");
+    assertTrue(resourceFile.renameTo(movedFile));
+    try {
+      resource.getLevel();
+      fail("the .resource file is read when it is deserialized");
+    } catch (IOException e) {
+      // expected
+    }
+    assertTrue(movedFile.renameTo(resourceFile));
+    assertEquals(0, resource.getLevel());
+    assertEquals(100, (long) resource.getEndTimeMap().get("root.sg.d0"));
+
+    TsFileResource lostResource = new TsFileResource(new File(file.getPath() + ".lost"));
+    try {
+      lostResource.deSerialize();
+      fail("a resource is deserialized without its .resource file");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testUpdateAfterDeserialize() throws IOException {
+    resource.deSerialize();
+    resource.updateStartTime("root.sg.d1", -1);
+    resource.updateEndTime("root.sg.d100", 1000);
+    assertEquals(-1, (long) resource.getStartTimeMap().get("root.sg.d1"));
+    assertEquals(1000, (long) resource.getEndTimeMap().get("root.sg.d100"));
+    assertEquals(101, resource.getEndTimeMap().size());
+
+    resource.serialize();
+    // the evicted index is read from the updated file
+    TimeIndexCache.getInstance().clear();
+    assertEquals(-1, (long) resource.getStartTimeMap().get("root.sg.d1"));
+    assertEquals(2, (long) resource.getStartTimeMap().get("root.sg.d2"));
+    assertEquals(1000, (long) resource.getEndTimeMap().get("root.sg.d100"));
+  }
+
+  @Test
+  public void testLevel() throws IOException {
+    resource.deSerialize();
+    // written by an older version
+    assertEquals(0, resource.getLevel());
+    assertFalse(resource.isColdEncoded());
+    resource.setLevel(2);
+    resource.setColdEncoded(true);
+    resource.serialize();
+
+    TsFileResource newResource = new TsFileResource(file);
+    newResource.deSerialize();
+    assertEquals(2, newResource.getLevel());
+    assertTrue(newResource.isColdEncoded());
+    assertEquals(100, (long) newResource.getEndTimeMap().get("root.sg.d0"));
+  }
+
+  @Test
+  public void testRemove() throws IOException {
+    resource.deSerialize();
+    resource.remove();
+    assertFalse(resource.fileExists());
+    // queries that still use the removed file can read its times
+    assertEquals(100, (long) resource.getEndTimeMap().get("root.sg.d0"));
+    assertEquals(199, (long) resource.getEndTimeMap().get("root.sg.d99"));
+  }
+
+  @Test
+  public void testLostResourceFile() throws IOException {
+    resource.deSerialize();
+    assertEquals(100, (long) resource.getEndTimeMap().get("root.sg.d0"));
+    TimeIndexCache.getInstance().clear();
+    assertTrue(new File(resource.getResourceFilePath()).delete());
+    try {
+      resource.getEndTimeMap();
+      fail("the times of a lost resource file are read");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+}
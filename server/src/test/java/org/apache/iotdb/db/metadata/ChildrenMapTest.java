@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Test;
+
+public class ChildrenMapTest {
+
+  private MNode parent = new MNode("root", null, false);
+
+  @Test
+  public void testInsertionOrder() {
+    ChildrenMap map = new ChildrenMap();
+    List<String> expected = new ArrayList<>();
+    // cross the limit to check both the array and the index
+    for (int i = ChildrenMap.ARRAY_LIMIT * 2; i > 0; i--) {
+      put(map, "d" + i);
+      expected.add("d" + i);
+      assertEquals(expected, new ArrayList<>(map.keySet()));
+    }
+    for (String name : expected) {
+      assertEquals(name, map.get(name).getName());
+    }
+    assertNull(map.get("d0"));
+    assertEquals(expected.size(), map.size());
+  }
+
+  @Test
+  public void testReplaceAndRemove() {
+    for (int num : new int[]{3, ChildrenMap.ARRAY_LIMIT + 3}) {
+      ChildrenMap map = new ChildrenMap();
+      for (int i = 0; i < num; i++) {
+        put(map, "s" + i);
+      }
+      MNode s1 = new MNode("s1", parent, false);
+      map.put("s1", s1);
+      assertSame(s1, map.get("s1"));
+      assertEquals("s1", new ArrayList<>(map.keySet()).get(1));
+
+      assertEquals("s0", map.remove("s0").getName());
+      assertNull(map.remove("s0"));
+      assertNull(map.get("s0"));
+      Iterator<String> iterator = map.keySet().iterator();
+      iterator.next();
+      iterator.remove();
+      assertNull(map.get("s1"));
+      assertEquals(num - 2, map.size());
+
+      // the empty slots are dropped when new children are added
+      for (int i = num; i < num * 3; i++) {
+        put(map, "s" + i);
+      }
+      assertEquals(num * 3 - 2, map.size());
+      assertEquals("s2", map.keySet().iterator().next());
+      assertTrue(map.containsKey("s" + (num * 3 - 1)));
+    }
+  }
+
+  @Test
+  public void testRemoveAll() {
+    ChildrenMap map = new ChildrenMap();
+    put(map, "s1");
+    put(map, "s2");
+    map.remove("s1");
+    map.remove("s2");
+    assertTrue(map.isEmpty());
+    put(map, "s3");
+    assertEquals(Arrays.asList("s3"), new ArrayList<>(map.keySet()));
+  }
+
+  private void put(ChildrenMap map, String name) {
+    map.put(name, new MNode(name, parent, false));
+  }
+}
@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Test;
+
+public class MLogWriterTest {
+
+  private File logFile = new File("target", "mlog.bin");
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(logFile.toPath());
+  }
+
+  static List<String> readEntries(File logFile) throws IOException {
+    List<String> entries = new ArrayList<>();
+    try (MLogReader reader = new MLogReader(logFile, 0)) {
+      while (reader.hasNext()) {
+        entries.add(reader.next());
+      }
+    }
+    return entries;
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    try (MLogWriter writer = new MLogWriter(logFile, true)) {
+      writer.force(writer.append("2,root.sg1"));
+      // appended but not forced yet, close() writes it
+      writer.append(Arrays.asList("0,root.sg1.d1.s1,1,2,1", "0,root.sg1.d1.s2,1,2,1,k=v"));
+    }
+    try (MLogWriter writer = new MLogWriter(logFile, false)) {
+      writer.force(writer.append("1,root.sg1.d1.s1"));
+    }
+    assertEquals(Arrays.asList("2,root.sg1", "0,root.sg1.d1.s1,1,2,1",
+        "0,root.sg1.d1.s2,1,2,1,k=v", "1,root.sg1.d1.s1"), readEntries(logFile));
+
+    // skip the entries covered by a snapshot
+    long offset = 12 + "2,root.sg1".length();
+    try (MLogReader reader = new MLogReader(logFile, offset)) {
+      assertEquals("0,root.sg1.d1.s1,1,2,1", reader.next());
+    }
+  }
+
+  @Test
+  public void testTornTail() throws IOException {
+    try (MLogWriter writer = new MLogWriter(logFile, true)) {
+      writer.append(Arrays.asList("2,root.sg1", "0,root.sg1.d1.s1,1,2,1",
+          "0,root.sg1.d1.s2,1,2,1"));
+    }
+    long length = logFile.length();
+    long lastEntryStart = length - 12 - "0,root.sg1.d1.s2,1,2,1".length();
+
+    // an entry cut by a crash
+    try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+      file.setLength(length - 3);
+    }
+    try (MLogReader reader = new MLogReader(logFile, 0)) {
+      assertEquals("2,root.sg1", reader.next());
+      assertEquals("0,root.sg1.d1.s1,1,2,1", reader.next());
+      assertFalse(reader.hasNext());
+      assertEquals(lastEntryStart, reader.getValidLength());
+    }
+
+    // an entry whose content does not match its check sum
+    try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+      file.setLength(lastEntryStart);
+      file.seek(lastEntryStart - 10);
+      file.write('9');
+    }
+    try (MLogReader reader = new MLogReader(logFile, 0)) {
+      assertEquals("2,root.sg1", reader.next());
+      assertFalse(reader.hasNext());
+      assertFalse(reader.hasNext());
+      assertEquals(12 + "2,root.sg1".length(), reader.getValidLength());
+    }
+  }
+
+  @Test
+  public void testConcurrentWrite() throws Exception {
+    int threadNum = 8;
+    int entryNum = 200;
+    ExecutorService pool = Executors.newFixedThreadPool(threadNum);
+    List<Future<Void>> futures = new ArrayList<>();
+    try (MLogWriter writer = new MLogWriter(logFile, true)) {
+      for (int t = 0; t < threadNum; t++) {
+        int thread = t;
+        futures.add(pool.submit(() -> {
+          for (int i = 0; i < entryNum; i++) {
+            long num = writer.append("2,root.sg" + thread + "_" + i);
+            writer.force(num);
+            // the entry is in the file when force() returns
+            assertTrue(logFile.length() >= num * 12);
+          }
+          return null;
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    }
+    pool.shutdown();
+    List<String> entries = readEntries(logFile);
+    Set<String> distinct = new HashSet<>(entries);
+    assertEquals(threadNum * entryNum, entries.size());
+    assertEquals(threadNum * entryNum, distinct.size());
+  }
+}
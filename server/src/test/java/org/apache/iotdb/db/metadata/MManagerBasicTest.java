@@ -18,14 +18,23 @@
  */
 package org.apache.iotdb.db.metadata;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.MetadataErrorException;
 import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
@@ -360,4 +369,124 @@ public class MManagerBasicTest {
     manager.deletePaths(Collections.singletonList(new Path("root.laptop.d1.s2")));
     assertEquals(1, manager.getMaximalSeriesNumberAmongStorageGroups());
   }
+
+  @Test
+  public void testConcurrentCreation() throws Exception {
+    MManager manager = MManager.getInstance();
+    int storageGroupNum = 4;
+    int seriesNum = 500;
+    for (int i = 0; i < storageGroupNum; i++) {
+      manager.setStorageLevelToMTree("root.sg" + i);
+    }
+    manager.addPathToMTree("root.sg0.d0.s0", TSDataType.INT32, TSEncoding.PLAIN,
+        CompressionType.GZIP, null);
+
+    ExecutorService pool = Executors.newFixedThreadPool(storageGroupNum * 2);
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < storageGroupNum; i++) {
+      String storageGroup = "root.sg" + i;
+      // two threads create the same timeseries in each storage group
+      for (int j = 0; j < 2; j++) {
+        futures.add(pool.submit(() -> {
+          for (int k = 1; k <= seriesNum; k++) {
+            try {
+              manager.addPathToMTree(storageGroup + ".d" + k % 10 + ".s" + k, TSDataType.INT32,
+                  TSEncoding.PLAIN, CompressionType.GZIP, null);
+            } catch (MetadataErrorException e) {
+              // created by the other thread
+            }
+            // readers are not blocked and always see a complete node
+            assertEquals(TSDataType.INT32, manager.getSeriesType("root.sg0.d0.s0"));
+            assertEquals(storageGroup,
+                manager.getStorageGroupNameByPath(storageGroup + ".d" + k % 10 + ".s" + k));
+          }
+          return null;
+        }));
+      }
+    }
+    for (Future<Void> future : futures) {
+      future.get();
+    }
+    pool.shutdown();
+
+    assertEquals(seriesNum + 1, manager.getMaximalSeriesNumberAmongStorageGroups());
+    for (int i = 0; i < storageGroupNum; i++) {
+      assertEquals(i == 0 ? seriesNum + 1 : seriesNum,
+          manager.getAllPathGroupByFileName("root.sg" + i).get("root.sg" + i).size());
+    }
+    // the devices are listed in the order they were created
+    List<String> paths = manager.getPaths("root.sg1.*.s1");
+    assertEquals(Collections.singletonList("root.sg1.d1.s1"), paths);
+    assertEquals(Arrays.asList("d1", "d2", "d3", "d4", "d5", "d6", "d7", "d8", "d9", "d0"),
+        new ArrayList<>(manager.getNodeByPath("root.sg1").getChildren().keySet()));
+  }
+
+  @Test
+  public void testSharedSchema() throws Exception {
+    MManager manager = MManager.getInstance();
+    manager.setStorageLevelToMTree("root.sg1");
+    manager.setStorageLevelToMTree("root.sg2");
+    manager.addPathToMTree("root.sg1.d1.s1", TSDataType.INT32, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.emptyMap());
+    manager.addPathToMTree("root.sg1.d2.s1", TSDataType.INT32, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.emptyMap());
+    manager.addPathToMTree("root.sg1.d3.s1", TSDataType.INT32, TSEncoding.RLE,
+        CompressionType.UNCOMPRESSED, Collections.emptyMap());
+    manager.addPathToMTree("root.sg2.d1.s1", TSDataType.INT32, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.emptyMap());
+
+    MNode s1 = manager.getNodeByPath("root.sg1.d1.s1");
+    assertSame(s1.getSchema(), manager.getNodeByPath("root.sg1.d2.s1").getSchema());
+    assertSame(s1.getName(), manager.getNodeByPath("root.sg1.d2.s1").getName());
+    // a different compressor or another storage group does not share
+    assertNotSame(s1.getSchema(), manager.getNodeByPath("root.sg1.d3.s1").getSchema());
+    assertNotSame(s1.getSchema(), manager.getNodeByPath("root.sg2.d1.s1").getSchema());
+
+    // the shared schema stays with the remaining timeseries
+    manager.deletePaths(Collections.singletonList(new Path("root.sg1.d1.s1")));
+    assertSame(manager.getNodeByPath("root.sg1.d2.s1").getSchema(),
+        manager.getNodeByPath("root.sg1").getSchemaMap().get("s1"));
+  }
+
+  @Test
+  public void testAddPathsToMTree() throws Exception {
+    MManager manager = MManager.getInstance();
+    manager.setStorageLevelToMTree("root.sg1");
+    manager.setStorageLevelToMTree("root.sg2");
+    manager.addPathToMTree("root.sg1.d0.s0", TSDataType.INT32, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.emptyMap());
+
+    List<Path> paths = Arrays.asList(new Path("root.sg1.d1.s0"), new Path("root.sg2.d1.s0"),
+        new Path("root.sg1.d0.s0"), new Path("root.sg1.d1.s1"), new Path("root.sg3.d1.s0"),
+        new Path("root.sg1.d2.s0"), new Path("root.sg1.d1.s1"));
+    List<TSDataType> dataTypes = Arrays.asList(TSDataType.INT32, TSDataType.INT32,
+        TSDataType.INT32, TSDataType.INT64, TSDataType.INT32, TSDataType.DOUBLE, TSDataType.INT64);
+    List<TSEncoding> encodings = Collections.nCopies(paths.size(), TSEncoding.RLE);
+    List<CompressionType> compressors = Collections.nCopies(paths.size(), CompressionType.SNAPPY);
+    MetadataErrorException[] errors = new MetadataErrorException[paths.size()];
+    boolean[] isNewMeasurement = manager.addPathsToMTree(paths, dataTypes, encodings,
+        compressors, errors);
+
+    // created with an existing measurement, created with a new measurement, already exists,
+    // created, no storage group, conflicting data type, duplicated in the batch
+    assertArrayEquals(new boolean[]{false, true, false, true, false, false, false},
+        isNewMeasurement);
+    boolean[] failed = new boolean[paths.size()];
+    for (int i = 0; i < paths.size(); i++) {
+      failed[i] = errors[i] != null;
+    }
+    assertArrayEquals(new boolean[]{false, false, true, false, true, true, true}, failed);
+    assertTrue(manager.pathExist("root.sg1.d1.s1"));
+    assertFalse(manager.pathExist("root.sg1.d2.s0"));
+    assertEquals(2, (int) manager.getNodeByPath("root.sg1").getNumSchemaMap().get("s0"));
+    assertEquals(Arrays.asList("root.sg1.d0.s0", "root.sg1.d1.s0", "root.sg1.d1.s1"),
+        manager.getPaths("root.sg1"));
+
+    // all the created timeseries are logged
+    File logFile = new File(IoTDBDescriptor.getInstance().getConfig().getSystemDir()
+        + File.separator + "schema", MetadataConstant.METADATA_LOG);
+    List<String> lines = MLogWriterTest.readEntries(logFile);
+    assertEquals(6, lines.size());
+    assertTrue(lines.get(5).startsWith(MetadataOperationType.ADD_PATH_TO_MTREE + ",root.sg2.d1.s0"));
+  }
 }
@@ -0,0 +1,203 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetadataSnapshotTest {
+
+  private File snapshotFile = new File("target", "mtree.snapshot");
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.envSetUp();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    EnvironmentUtils.cleanEnv();
+    Files.deleteIfExists(snapshotFile.toPath());
+  }
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    MGraph mgraph = new MGraph("root");
+    mgraph.setStorageLevel("root.sg1");
+    mgraph.setStorageLevel("root.sg2");
+    mgraph.addPathToMTree("root.sg1.d1.s1", TSDataType.INT32, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.singletonMap("max_point_number", "3"));
+    mgraph.addPathToMTree("root.sg1.d2.s1", TSDataType.INT32, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.emptyMap());
+    mgraph.addPathToMTree("root.sg2.d1.s2", TSDataType.DOUBLE, TSEncoding.GORILLA,
+        CompressionType.UNCOMPRESSED, Collections.emptyMap());
+    mgraph.addAPTree("region");
+    mgraph.addPathToPTree("region.beijing");
+    mgraph.linkMNodeToPTree("region.beijing", "root.sg1.d1.s1");
+
+    MetadataSnapshot.write(mgraph, 100, snapshotFile);
+    MetadataSnapshot snapshot = MetadataSnapshot.read(snapshotFile);
+    MGraph loaded = snapshot.getMGraph();
+
+    assertEquals(100, snapshot.getLogOffset());
+    assertEquals(mgraph.toString(), loaded.toString());
+    assertEquals(mgraph.countSeriesNumberInEachStorageGroup(),
+        loaded.countSeriesNumberInEachStorageGroup());
+    assertEquals("root.sg1", loaded.getStorageGroupNameByPath("root.sg1.d2.s1"));
+    assertEquals("3", loaded.getSchemaForOnePath("root.sg1.d1.s1").getProps()
+        .get("max_point_number"));
+    assertEquals(TSEncoding.GORILLA, loaded.getSchemaForOnePath("root.sg2.d1.s2")
+        .getEncodingType());
+
+    // the schema maps of storage groups are rebuilt from the leaves
+    MNode sg1 = loaded.getMTree().getRoot().getChild("sg1");
+    assertEquals(1, sg1.getSchemaMap().size());
+    assertEquals(2, (int) sg1.getNumSchemaMap().get("s1"));
+
+    // the same name is loaded as one instance
+    assertSame(sg1.getChild("d1").getChild("s1").getName(),
+        sg1.getChild("d2").getChild("s1").getName());
+    assertEquals(Collections.singleton("root.sg1.d1.s1"),
+        loaded.getPTreeMap().get("region").getRoot().getChild("beijing")
+            .getLinkedMTreePathMap().keySet());
+  }
+
+  @Test
+  public void testTTL() throws Exception {
+    MGraph mgraph = new MGraph("root");
+    mgraph.setStorageLevel("root.sg1");
+    mgraph.setStorageLevel("root.sg2");
+    mgraph.getMTree().getRoot().getChild("sg1").getStorageGroupSchema().setDataTTL(3600000);
+
+    MetadataSnapshot.write(mgraph, 0, snapshotFile);
+    MNode loadedRoot = MetadataSnapshot.read(snapshotFile).getMGraph().getMTree().getRoot();
+
+    assertEquals(3600000, loadedRoot.getChild("sg1").getStorageGroupSchema().getDataTTL());
+    assertEquals(Long.MAX_VALUE,
+        loadedRoot.getChild("sg2").getStorageGroupSchema().getDataTTL());
+  }
+
+  @Test
+  public void testCorruptedSnapshot() throws Exception {
+    MGraph mgraph = new MGraph("root");
+    mgraph.setStorageLevel("root.sg1");
+    mgraph.addPathToMTree("root.sg1.d1.s1", TSDataType.INT32, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.emptyMap());
+    MetadataSnapshot.write(mgraph, 0, snapshotFile);
+    try (RandomAccessFile file = new RandomAccessFile(snapshotFile, "rw")) {
+      file.seek(file.length() - 10);
+      file.write(0xFF);
+    }
+    try {
+      MetadataSnapshot.read(snapshotFile);
+      fail("corrupted snapshot is loaded");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testCompactLog() throws Exception {
+    MManager manager = MManager.getInstance();
+    manager.setStorageLevelToMTree("root.sg1");
+    manager.addPathToMTree("root.sg1.d1.s1", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.emptyMap());
+    manager.addPathToMTree("root.sg1.d1.s2", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.emptyMap());
+    manager.addPathToMTree("root.sg1.d1.s3", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.emptyMap());
+    manager.deletePaths(Collections.singletonList(new Path("root.sg1.d1.s2")));
+
+    String schemaDir = IoTDBDescriptor.getInstance().getConfig().getSystemDir()
+        + File.separator + "schema";
+    File logFile = new File(schemaDir, MetadataConstant.METADATA_LOG);
+    assertEquals(5, MLogWriterTest.readEntries(logFile).size());
+
+    manager.compactLog();
+    List<String> lines = MLogWriterTest.readEntries(logFile);
+    assertEquals(3, lines.size());
+    assertEquals(MetadataOperationType.SET_STORAGE_LEVEL_TO_MTREE + ",root.sg1", lines.get(0));
+
+    MetadataSnapshot snapshot = MetadataSnapshot
+        .read(new File(schemaDir, MetadataConstant.METADATA_SNAPSHOT));
+    assertEquals(logFile.length(), snapshot.getLogOffset());
+    assertTrue(snapshot.getMGraph().pathExist("root.sg1.d1.s3"));
+    assertFalse(snapshot.getMGraph().pathExist("root.sg1.d1.s2"));
+
+    // the log keeps growing after the compaction
+    manager.addPathToMTree("root.sg1.d1.s4", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.emptyMap());
+    assertEquals(4, MLogWriterTest.readEntries(logFile).size());
+  }
+
+  @Test
+  public void testReplayCreationsDuringSnapshot() throws Exception {
+    MManager manager = MManager.getInstance();
+    manager.setStorageLevelToMTree("root.sg1");
+    manager.addPathToMTree("root.sg1.d1.s1", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.emptyMap());
+    manager.takeSnapshot();
+
+    String schemaDir = IoTDBDescriptor.getInstance().getConfig().getSystemDir()
+        + File.separator + "schema";
+    File logFile = new File(schemaDir, MetadataConstant.METADATA_LOG);
+    File snapshotPath = new File(schemaDir, MetadataConstant.METADATA_SNAPSHOT);
+    long logOffset = MetadataSnapshot.read(snapshotPath).getLogOffset();
+    assertEquals(logFile.length(), logOffset);
+
+    manager.addPathToMTree("root.sg1.d1.s2", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.emptyMap());
+    MGraph mgraph = new MGraph("root");
+    mgraph.setStorageLevel("root.sg1");
+    mgraph.addPathToMTree("root.sg1.d1.s1", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.emptyMap());
+    mgraph.addPathToMTree("root.sg1.d1.s2", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.emptyMap());
+
+    // s2 is created while the snapshot is written, so its entry is replayed over the snapshot
+    long endOffset = logFile.length();
+    MetadataSnapshot.write(mgraph, logOffset, () -> endOffset, snapshotPath);
+    manager.reload();
+    assertTrue(manager.pathExist("root.sg1.d1.s2"));
+
+    // out of the snapshot, the creation of an existing timeseries is still an error
+    MetadataSnapshot.write(mgraph, logOffset, snapshotPath);
+    manager.reload();
+    assertFalse(manager.pathExist("root.sg1.d1.s1"));
+  }
+}
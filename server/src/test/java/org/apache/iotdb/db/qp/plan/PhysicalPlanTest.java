@@ -38,6 +38,7 @@ import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
 import org.apache.iotdb.db.qp.physical.sys.DataAuthPlan;
 import org.apache.iotdb.db.qp.physical.sys.MetadataPlan;
 import org.apache.iotdb.db.qp.physical.sys.PropertyPlan;
+import org.apache.iotdb.db.qp.physical.sys.TTLPlan;
 import org.apache.iotdb.db.qp.utils.MemIntQpExecutor;
 import org.apache.iotdb.db.query.fill.LinearFill;
 import org.apache.iotdb.db.query.fill.PreviousFill;
@@ -118,6 +119,20 @@ public class PhysicalPlanTest {
         plan.toString());
   }
 
+  @Test
+  public void testTTL()
+      throws QueryProcessorException, ArgsErrorException, MetadataErrorException {
+    TTLPlan plan = (TTLPlan) processor.parseSQLToPhysicalPlan("SET TTL TO root.vehicle 10000");
+    assertEquals(OperatorType.SET_TTL, plan.getOperatorType());
+    assertEquals("root.vehicle", plan.getStorageGroup().getFullPath());
+    assertEquals(10000, plan.getDataTTL());
+
+    plan = (TTLPlan) processor.parseSQLToPhysicalPlan("unset ttl to root.vehicle");
+    assertEquals(OperatorType.UNSET_TTL, plan.getOperatorType());
+    assertEquals("root.vehicle", plan.getStorageGroup().getFullPath());
+    assertEquals(Long.MAX_VALUE, plan.getDataTTL());
+  }
+
   // TODO uncomment these code when implement aggregation and fill function
 
   @Test
@@ -38,6 +38,7 @@ import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
 import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
+import org.apache.iotdb.db.qp.physical.sys.CreateMultiTimeSeriesPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.fill.IFill;
 import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
@@ -199,6 +200,11 @@ public class MemIntQpExecutor extends AbstractQueryProcessExecutor {
     return null;
   }
 
+  @Override
+  public Integer[] createMultiTimeseries(CreateMultiTimeSeriesPlan plan) {
+    return null;
+  }
+
   @Override
   protected QueryDataSet processAuthorQuery(AuthorPlan plan, QueryContext context) {
     return null;
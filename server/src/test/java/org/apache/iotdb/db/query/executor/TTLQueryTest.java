@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.executor;
+
+import static org.apache.iotdb.db.utils.EnvironmentUtils.TEST_QUERY_CONTEXT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.read.expression.IExpression;
+import org.apache.iotdb.tsfile.read.expression.QueryExpression;
+import org.apache.iotdb.tsfile.read.expression.impl.SingleSeriesExpression;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.DoubleDataPoint;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TTLQueryTest {
+
+  private static final String SG_WITHOUT_TTL = "root.sg1";
+  private static final String SG_WITH_TTL = "root.sg2";
+  private static final String MEASUREMENT = "s1";
+
+  private EngineQueryRouter router = new EngineQueryRouter();
+  private long now;
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.envSetUp();
+    for (String storageGroup : new String[]{SG_WITHOUT_TTL, SG_WITH_TTL}) {
+      MManager.getInstance().setStorageLevelToMTree(storageGroup);
+      MManager.getInstance().addPathToMTree(storageGroup + "." + MEASUREMENT,
+          TSDataType.DOUBLE.toString(), TSEncoding.PLAIN.toString());
+      StorageEngine.getInstance().addTimeSeries(new Path(storageGroup, MEASUREMENT),
+          TSDataType.DOUBLE, TSEncoding.PLAIN, CompressionType.valueOf(TSFileConfig.compressor),
+          Collections.emptyMap());
+    }
+
+    // 10 points expired by the TTL of root.sg2 and 10 alive ones in both storage groups
+    now = StorageEngine.getCurrentTime();
+    for (int i = 1; i <= 20; i++) {
+      long time = i <= 10 ? now - 100000 + i : now + i;
+      for (String storageGroup : new String[]{SG_WITHOUT_TTL, SG_WITH_TTL}) {
+        TSRecord record = new TSRecord(time, storageGroup);
+        record.addTuple(new DoubleDataPoint(MEASUREMENT, i));
+        StorageEngine.getInstance().insert(new InsertPlan(record));
+      }
+    }
+    StorageEngine.getInstance().setTTL(SG_WITH_TTL, 10000);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    EnvironmentUtils.cleanEnv();
+  }
+
+  @Test
+  public void testQueryWithValueFilter() throws Exception {
+    // the timestamps come from root.sg1, where no data is expired
+    List<Path> selectedSeries = Collections.singletonList(new Path(SG_WITH_TTL, MEASUREMENT));
+    QueryDataSet dataSet = router.query(QueryExpression.create(selectedSeries, valueFilter()),
+        TEST_QUERY_CONTEXT);
+    int count = 0;
+    while (dataSet.hasNext()) {
+      RowRecord rowRecord = dataSet.next();
+      assertTrue(rowRecord.getTimestamp() > now);
+      count++;
+    }
+    assertEquals(10, count);
+  }
+
+  @Test
+  public void testAggregateWithValueFilter() throws Exception {
+    List<Path> selectedSeries = Collections.singletonList(new Path(SG_WITH_TTL, MEASUREMENT));
+    QueryDataSet dataSet = router.aggregate(selectedSeries, Collections.singletonList("count"),
+        valueFilter(), TEST_QUERY_CONTEXT);
+    assertEquals(10, dataSet.next().getFields().get(0).getLongV());
+  }
+
+  private IExpression valueFilter() {
+    return new SingleSeriesExpression(new Path(SG_WITHOUT_TTL, MEASUREMENT), ValueFilter.gt(0.0));
+  }
+}
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.iotdb.tsfile.exception.cache.CacheException;
+import org.junit.Test;
+
+public class ConcurrentLRUCacheTest {
+
+  private AtomicInteger loadNum = new AtomicInteger();
+  private List<Integer> removed = new ArrayList<>();
+
+  private ConcurrentLRUCache<Integer, String> cache = new ConcurrentLRUCache<Integer, String>(
+      10) {
+    @Override
+    public void beforeRemove(String object) {
+      removed.add(Integer.parseInt(object));
+    }
+
+    @Override
+    public String loadObjectByKey(Integer key) throws CacheException {
+      loadNum.incrementAndGet();
+      if (key < 0) {
+        throw new CacheException("negative key " + key);
+      }
+      return String.valueOf(key);
+    }
+  };
+
+  @Test
+  public void testHotEntriesSurviveScan() throws CacheException {
+    for (int i = 0; i < 5; i++) {
+      for (int j = 0; j < 5; j++) {
+        assertEquals(String.valueOf(j), cache.get(j));
+      }
+    }
+    // keys used once must not evict the hot ones
+    for (int i = 100; i < 200; i++) {
+      cache.get(i);
+    }
+    loadNum.set(0);
+    for (int j = 0; j < 5; j++) {
+      cache.get(j);
+    }
+    assertEquals(0, loadNum.get());
+    assertEquals(10, cache.size());
+    assertEquals(95, cache.getEvictionNum());
+    assertEquals(95, removed.size());
+    assertEquals(25, cache.getHitNum());
+    assertEquals(105, cache.getMissNum());
+    assertEquals(25.0 / 130, cache.getHitRatio(), 0.0001);
+  }
+
+  @Test
+  public void testFailedLoad() {
+    for (int i = 0; i < 2; i++) {
+      try {
+        cache.get(-1);
+        fail("failed load is not thrown");
+      } catch (CacheException e) {
+        // expected
+      }
+    }
+    assertEquals(0, cache.size());
+    assertEquals(2, loadNum.get());
+  }
+
+  @Test
+  public void testConcurrentLoad() throws Exception {
+    int threadNum = 8;
+    ConcurrentHashMap<Integer, Boolean> loaded = new ConcurrentHashMap<>();
+    ConcurrentLRUCache<Integer, Integer> concurrentCache = new ConcurrentLRUCache<Integer, Integer>(
+        100) {
+      @Override
+      public void beforeRemove(Integer object) {
+        //allowed to do nothing
+      }
+
+      @Override
+      public Integer loadObjectByKey(Integer key) {
+        if (loaded.put(key, true) != null) {
+          throw new IllegalStateException(key + " is loaded twice");
+        }
+        return key;
+      }
+    };
+    ExecutorService pool = Executors.newFixedThreadPool(threadNum);
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int t = 0; t < threadNum; t++) {
+      futures.add(pool.submit(() -> {
+        for (int i = 0; i < 100; i++) {
+          assertEquals(i, (int) concurrentCache.get(i));
+        }
+        return null;
+      }));
+    }
+    for (Future<Void> future : futures) {
+      future.get();
+    }
+    pool.shutdown();
+    assertEquals(100, loaded.size());
+    assertEquals(100, concurrentCache.getMissNum());
+    assertTrue(concurrentCache.size() <= 100);
+
+    concurrentCache.clear();
+    assertEquals(0, concurrentCache.size());
+  }
+}
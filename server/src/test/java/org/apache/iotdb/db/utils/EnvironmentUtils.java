@@ -30,6 +30,7 @@ import org.apache.iotdb.db.conf.adapter.IoTDBConfigDynamicAdapter;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
 import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
+import org.apache.iotdb.db.engine.cache.TimeIndexCache;
 import org.apache.iotdb.db.engine.cache.TsFileMetaDataCache;
 import org.apache.iotdb.db.engine.flush.FlushManager;
 import org.apache.iotdb.db.exception.StartupException;
@@ -91,6 +92,7 @@ public class EnvironmentUtils {
       TsFileMetaDataCache.getInstance().clear();
       DeviceMetaDataCache.getInstance().clear();
     }
+    TimeIndexCache.getInstance().clear();
     // close metadata
     MManager.getInstance().clear();
     // delete all directory
@@ -27,6 +27,8 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Iterator;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.memtable.IMemTable;
 import org.apache.iotdb.db.engine.memtable.PrimitiveMemTable;
 import org.apache.iotdb.db.engine.modification.Deletion;
@@ -51,8 +53,31 @@ import org.junit.Test;
 
 public class LogReplayerTest {
 
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
   @Test
   public void test() throws IOException, ProcessorException {
+    int prevThreadNum = config.getConcurrentWalReplayThread();
+    config.setConcurrentWalReplayThread(1);
+    try {
+      replayAndCheck();
+    } finally {
+      config.setConcurrentWalReplayThread(prevThreadNum);
+    }
+  }
+
+  @Test
+  public void testParallelReplay() throws IOException, ProcessorException {
+    int prevThreadNum = config.getConcurrentWalReplayThread();
+    config.setConcurrentWalReplayThread(3);
+    try {
+      replayAndCheck();
+    } finally {
+      config.setConcurrentWalReplayThread(prevThreadNum);
+    }
+  }
+
+  private void replayAndCheck() throws IOException, ProcessorException {
     String logNodePrefix = "testLogNode";
     File tsFile = FileFactory.INSTANCE.getFile("temp", "test.ts");
     File modF = FileFactory.INSTANCE.getFile("test.mod");
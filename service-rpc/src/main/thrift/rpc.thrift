@@ -261,6 +261,13 @@ struct TSCreateTimeseriesReq {
   4: required i32 compressor
 }
 
+struct TSCreateMultiTimeseriesReq {
+  1: required list<string> paths
+  2: required list<i32> dataTypes
+  3: required list<i32> encodings
+  4: required list<i32> compressors
+}
+
 struct ServerProperties {
 	1: required string version;
 	2: required list<string> supportedTimeAggregationOperations;
@@ -302,6 +309,8 @@ service TSIService {
 
 	TSRPCResp createTimeseries(1:TSCreateTimeseriesReq req);
 
+	TSExecuteBatchStatementResp createMultiTimeseries(1:TSCreateMultiTimeseriesReq req);
+
 	TSRPCResp insertRow(1:TSInsertReq req);
 
 	i64 requestStatementId();
@@ -197,6 +197,31 @@ public class Session {
     }
   }
 
+  /**
+   * create many timeseries in one request, the i-th timeseries is described by the i-th element of
+   * each list. It is much faster than calling createTimeseries for each of them when many devices
+   * are registered at once.
+   *
+   * @return the status of the request and the result of each timeseries
+   */
+  public synchronized TSExecuteBatchStatementResp createMultiTimeseries(List<String> paths,
+      List<TSDataType> dataTypes, List<TSEncoding> encodings, List<CompressionType> compressors)
+      throws IoTDBSessionException {
+    TSCreateMultiTimeseriesReq request = new TSCreateMultiTimeseriesReq();
+    request.setPaths(paths);
+    for (int i = 0; i < paths.size(); i++) {
+      request.addToDataTypes(dataTypes.get(i).ordinal());
+      request.addToEncodings(encodings.get(i).ordinal());
+      request.addToCompressors(compressors.get(i).ordinal());
+    }
+
+    try {
+      return client.createMultiTimeseries(request);
+    } catch (TException e) {
+      throw new IoTDBSessionException(e);
+    }
+  }
+
   public synchronized String getTimeZone() throws TException, IoTDBRPCException {
     if (zoneId != null) {
       return zoneId.toString();
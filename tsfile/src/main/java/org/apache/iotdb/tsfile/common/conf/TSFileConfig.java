@@ -73,6 +73,19 @@ public class TSFileConfig {
    * The maximum number of data points in a page, default value is 1024 * 1024.
    */
   public static int maxNumberOfPointsInPage = 1024 * 1024;
+  /**
+   * A page stores a sparse time index with one entry every such number of points, so that a
+   * lookup by timestamp can start decoding near the target instead of from the page start. The
+   * index is only written when the time and value encoders are PLAIN, TS_2DIFF or RLE, except FLOAT
+   * and DOUBLE values with TS_2DIFF or RLE. Default value is 0, which means no index is written.
+   */
+  public static int pageTimeIndexInterval = 0;
+  /**
+   * The number of devices in one page of the sorted device index written before the file metadata,
+   * which lets a reader look up one device without loading the whole file metadata. Default value
+   * is 128. 0 means the device index is not written.
+   */
+  public static int deviceIndexPageSize = 128;
   /**
    * Data type for input timestamp, TsFile supports INT32 or INT64.
    */
@@ -121,6 +121,14 @@ public class TSFileDescriptor {
           properties
               .getProperty("max_number_of_points_in_page",
                   Integer.toString(TSFileConfig.maxNumberOfPointsInPage)));
+      TSFileConfig.pageTimeIndexInterval = Integer.parseInt(
+          properties
+              .getProperty("page_time_index_interval",
+                  Integer.toString(TSFileConfig.pageTimeIndexInterval)));
+      TSFileConfig.deviceIndexPageSize = Integer.parseInt(
+          properties
+              .getProperty("device_index_page_size",
+                  Integer.toString(TSFileConfig.deviceIndexPageSize)));
       TSFileConfig.timeSeriesDataType = properties
           .getProperty("time_series_data_type", TSFileConfig.timeSeriesDataType);
       TSFileConfig.maxStringLength = Integer
@@ -19,9 +19,11 @@
 
 package org.apache.iotdb.tsfile.compress;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.util.zip.GZIPOutputStream;
 import org.apache.iotdb.tsfile.exception.compress.CompressionTypeNotSupportedException;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.xerial.snappy.Snappy;
@@ -51,6 +53,8 @@ public interface ICompressor extends Serializable {
         return new NoCompressor();
       case SNAPPY:
         return new SnappyCompressor();
+      case GZIP:
+        return new GZIPCompressor();
       default:
         throw new CompressionTypeNotSupportedException(name.toString());
     }
@@ -140,4 +144,55 @@ public interface ICompressor extends Serializable {
       return CompressionType.SNAPPY;
     }
   }
+
+  /**
+   * GZIPCompressor compresses better but slower than SnappyCompressor, it suits the data that is
+   * rarely read.
+   */
+  class GZIPCompressor implements ICompressor {
+
+    @Override
+    public byte[] compress(byte[] data) throws IOException {
+      if (data == null) {
+        return new byte[0];
+      }
+      return compress(data, 0, data.length);
+    }
+
+    private byte[] compress(byte[] data, int offset, int length) throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 32);
+      try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+        gzip.write(data, offset, length);
+      }
+      return out.toByteArray();
+    }
+
+    @Override
+    public int compress(byte[] data, int offset, int length, byte[] compressed) throws IOException {
+      byte[] result = compress(data, offset, length);
+      System.arraycopy(result, 0, compressed, 0, result.length);
+      return result.length;
+    }
+
+    @Override
+    public int compress(ByteBuffer data, ByteBuffer compressed) throws IOException {
+      byte[] input = new byte[data.remaining()];
+      data.duplicate().get(input);
+      byte[] result = compress(input, 0, input.length);
+      compressed.duplicate().put(result);
+      return result.length;
+    }
+
+    @Override
+    public int getMaxBytesForCompression(int uncompressedDataSize) {
+      // the bound of deflate plus the header and trailer of gzip
+      return uncompressedDataSize + (uncompressedDataSize >> 12) + (uncompressedDataSize >> 14)
+          + (uncompressedDataSize >> 25) + 13 + 18;
+    }
+
+    @Override
+    public CompressionType getType() {
+      return CompressionType.GZIP;
+    }
+  }
 }
@@ -19,8 +19,11 @@
 
 package org.apache.iotdb.tsfile.compress;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.zip.GZIPInputStream;
 import org.apache.iotdb.tsfile.exception.compress.CompressionTypeNotSupportedException;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.slf4j.Logger;
@@ -47,6 +50,8 @@ public interface IUnCompressor {
         return new NoUnCompressor();
       case SNAPPY:
         return new SnappyUnCompressor();
+      case GZIP:
+        return new GZIPUnCompressor();
       default:
         throw new CompressionTypeNotSupportedException(name.toString());
     }
@@ -188,4 +193,81 @@ public interface IUnCompressor {
       return CompressionType.SNAPPY;
     }
   }
+
+  class GZIPUnCompressor implements IUnCompressor {
+
+    private static final Logger logger = LoggerFactory.getLogger(GZIPUnCompressor.class);
+
+    @Override
+    public int getUncompressedLength(byte[] array, int offset, int length) throws IOException {
+      if (length < 4) {
+        throw new IOException("Illegal gzip data of " + length + " bytes");
+      }
+      // the trailer of gzip ends with the uncompressed size in little endian
+      int end = offset + length;
+      return (array[end - 4] & 0xff) | (array[end - 3] & 0xff) << 8
+          | (array[end - 2] & 0xff) << 16 | (array[end - 1] & 0xff) << 24;
+    }
+
+    @Override
+    public int getUncompressedLength(ByteBuffer buffer) throws IOException {
+      byte[] input = new byte[buffer.remaining()];
+      buffer.duplicate().get(input);
+      return getUncompressedLength(input, 0, input.length);
+    }
+
+    @Override
+    public byte[] uncompress(byte[] bytes) {
+      if (bytes == null) {
+        return new byte[0];
+      }
+      try {
+        byte[] output = new byte[getUncompressedLength(bytes, 0, bytes.length)];
+        uncompress(bytes, 0, bytes.length, output, 0);
+        return output;
+      } catch (IOException e) {
+        logger.error(
+            "tsfile-compression GZIPUnCompressor: errors occurs when uncompress input byte, "
+                + "bytes is {}",
+            bytes, e);
+      }
+      return new byte[0];
+    }
+
+    @Override
+    public int uncompress(byte[] byteArray, int offset, int length, byte[] output, int outOffset)
+        throws IOException {
+      int uncompressedLength = getUncompressedLength(byteArray, offset, length);
+      try (InputStream gzip = new GZIPInputStream(
+          new ByteArrayInputStream(byteArray, offset, length))) {
+        int read = 0;
+        while (read < uncompressedLength) {
+          int n = gzip.read(output, outOffset + read, uncompressedLength - read);
+          if (n < 0) {
+            throw new IOException("Unexpected end of gzip data");
+          }
+          read += n;
+        }
+        return read;
+      }
+    }
+
+    @Override
+    public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException {
+      if (compressed == null || !compressed.hasRemaining()) {
+        return 0;
+      }
+      byte[] input = new byte[compressed.remaining()];
+      compressed.duplicate().get(input);
+      byte[] output = new byte[getUncompressedLength(input, 0, input.length)];
+      int length = uncompress(input, 0, input.length, output, 0);
+      uncompressed.duplicate().put(output, 0, length);
+      return length;
+    }
+
+    @Override
+    public CompressionType getCodecName() {
+      return CompressionType.GZIP;
+    }
+  }
 }
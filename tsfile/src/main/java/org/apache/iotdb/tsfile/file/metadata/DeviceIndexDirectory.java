@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.file.metadata;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * The directory of the sorted device index at the end of a TsFile. The index is written right
+ * before <code>TsFileMetaData</code> as:
+ * <p>
+ * [DeviceIndexPage]... [DeviceIndexDirectory] [long: offset of the directory] [int: MAGIC]
+ * <p>
+ * The directory keeps the first device id, the offset and the size of each page, so a reader finds
+ * the only page that may contain a device by a binary search and reads just that page. Files
+ * The directory also keeps the sorted measurement ids of the file, so a query of a measurement that
+ * is not in the file is answered without reading any page. Files
+ * without the index have no MAGIC in front of their <code>TsFileMetaData</code> and are read
+ * through the device map of <code>TsFileMetaData</code> as before.
+ */
+public class DeviceIndexDirectory {
+
+  public static final int MAGIC = 0x54534449;
+  /**
+   * size of the offset of the directory and MAGIC.
+   */
+  public static final int TAIL_SIZE = Long.BYTES + Integer.BYTES;
+
+  private String[] firstDeviceIds;
+  private long[] pageOffsets;
+  private int[] pageSizes;
+  private String[] measurementIds;
+
+  /**
+   * construct function for DeviceIndexDirectory.
+   *
+   * @param firstDeviceIds -the first device id of each page, in ascending order
+   * @param pageOffsets -the offset of each page in the file
+   * @param pageSizes -the serialized size of each page
+   * @param measurementIds -all measurement ids of the file, in ascending order
+   */
+  public DeviceIndexDirectory(String[] firstDeviceIds, long[] pageOffsets, int[] pageSizes,
+      String[] measurementIds) {
+    this.firstDeviceIds = firstDeviceIds;
+    this.pageOffsets = pageOffsets;
+    this.pageSizes = pageSizes;
+    this.measurementIds = measurementIds;
+  }
+
+  /**
+   * find the page that may contain the given device.
+   *
+   * @param deviceId -device to look up
+   * @return -the number of the page, or -1 if the device is before all pages
+   */
+  public int findPage(String deviceId) {
+    int low = 0;
+    int high = firstDeviceIds.length - 1;
+    // the last page whose first device id is not larger than deviceId
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (firstDeviceIds[mid].compareTo(deviceId) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high;
+  }
+
+  public boolean containsMeasurement(String measurementId) {
+    return Arrays.binarySearch(measurementIds, measurementId) >= 0;
+  }
+
+  public int getPageNum() {
+    return firstDeviceIds.length;
+  }
+
+  public long getPageOffset(int page) {
+    return pageOffsets[page];
+  }
+
+  public int getPageSize(int page) {
+    return pageSizes[page];
+  }
+
+  /**
+   * use the given outputStream to serialize.
+   *
+   * @param outputStream -output stream to determine byte length
+   * @return -byte length
+   */
+  public int serializeTo(OutputStream outputStream) throws IOException {
+    int byteLen = ReadWriteIOUtils.write(firstDeviceIds.length, outputStream);
+    for (int i = 0; i < firstDeviceIds.length; i++) {
+      byteLen += ReadWriteIOUtils.write(firstDeviceIds[i], outputStream);
+      byteLen += ReadWriteIOUtils.write(pageOffsets[i], outputStream);
+      byteLen += ReadWriteIOUtils.write(pageSizes[i], outputStream);
+    }
+    byteLen += ReadWriteIOUtils.write(measurementIds.length, outputStream);
+    for (String measurementId : measurementIds) {
+      byteLen += ReadWriteIOUtils.write(measurementId, outputStream);
+    }
+    return byteLen;
+  }
+
+  /**
+   * deserialize data from the buffer.
+   *
+   * @param buffer -buffer use to deserialize
+   * @return -a instance of DeviceIndexDirectory
+   */
+  public static DeviceIndexDirectory deserializeFrom(ByteBuffer buffer) {
+    int pageNum = ReadWriteIOUtils.readInt(buffer);
+    String[] firstDeviceIds = new String[pageNum];
+    long[] pageOffsets = new long[pageNum];
+    int[] pageSizes = new int[pageNum];
+    for (int i = 0; i < pageNum; i++) {
+      firstDeviceIds[i] = ReadWriteIOUtils.readString(buffer);
+      pageOffsets[i] = ReadWriteIOUtils.readLong(buffer);
+      pageSizes[i] = ReadWriteIOUtils.readInt(buffer);
+    }
+    String[] measurementIds = new String[ReadWriteIOUtils.readInt(buffer)];
+    for (int i = 0; i < measurementIds.length; i++) {
+      measurementIds[i] = ReadWriteIOUtils.readString(buffer);
+    }
+    return new DeviceIndexDirectory(firstDeviceIds, pageOffsets, pageSizes, measurementIds);
+  }
+}
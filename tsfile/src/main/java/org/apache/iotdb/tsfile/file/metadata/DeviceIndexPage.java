@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.file.metadata;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * One page of the sorted device index at the end of a TsFile. It holds the
+ * <code>TsDeviceMetadataIndex</code> of a run of consecutive devices in the string order of their
+ * ids, so that one device is looked up by a binary search.
+ */
+public class DeviceIndexPage {
+
+  private String[] deviceIds;
+  private TsDeviceMetadataIndex[] indexes;
+
+  /**
+   * construct function for DeviceIndexPage.
+   *
+   * @param deviceIds -device ids in ascending order
+   * @param indexes -the index of each device in deviceIds
+   */
+  public DeviceIndexPage(String[] deviceIds, TsDeviceMetadataIndex[] indexes) {
+    this.deviceIds = deviceIds;
+    this.indexes = indexes;
+  }
+
+  /**
+   * get the index of the given device.
+   *
+   * @param deviceId -device to look up
+   * @return -the index or null if the device is not in this page
+   */
+  public TsDeviceMetadataIndex get(String deviceId) {
+    int pos = Arrays.binarySearch(deviceIds, deviceId);
+    return pos < 0 ? null : indexes[pos];
+  }
+
+  public String[] getDeviceIds() {
+    return deviceIds;
+  }
+
+  public int size() {
+    return deviceIds.length;
+  }
+
+  /**
+   * use the given outputStream to serialize.
+   *
+   * @param outputStream -output stream to determine byte length
+   * @return -byte length
+   */
+  public int serializeTo(OutputStream outputStream) throws IOException {
+    int byteLen = ReadWriteIOUtils.write(deviceIds.length, outputStream);
+    for (int i = 0; i < deviceIds.length; i++) {
+      byteLen += ReadWriteIOUtils.write(deviceIds[i], outputStream);
+      byteLen += indexes[i].serializeTo(outputStream);
+    }
+    return byteLen;
+  }
+
+  /**
+   * deserialize data from the buffer.
+   *
+   * @param buffer -buffer use to deserialize
+   * @return -a instance of DeviceIndexPage
+   */
+  public static DeviceIndexPage deserializeFrom(ByteBuffer buffer) {
+    int size = ReadWriteIOUtils.readInt(buffer);
+    String[] deviceIds = new String[size];
+    TsDeviceMetadataIndex[] indexes = new TsDeviceMetadataIndex[size];
+    for (int i = 0; i < size; i++) {
+      deviceIds[i] = ReadWriteIOUtils.readString(buffer);
+      indexes[i] = TsDeviceMetadataIndex.deserializeFrom(buffer);
+    }
+    return new DeviceIndexPage(deviceIds, indexes);
+  }
+}
@@ -112,16 +112,27 @@ public class BinaryStatistics extends Statistics<Binary> {
   }
 
   @Override
-  public void updateStats(Binary[] values) {
-    for (Binary value : values) {
-      if (isEmpty) {
-        initializeStats(value, value, value, value, 0);
-        isEmpty = false;
-      } else {
-        updateStats(value, value, value, value, 0);
-        isEmpty = false;
+  public void updateStats(Binary[] values, int offset, int length) {
+    if (length <= 0) {
+      return;
+    }
+    Binary minValue = values[offset];
+    Binary maxValue = values[offset];
+    for (int i = offset; i < offset + length; i++) {
+      Binary value = values[i];
+      if (value.compareTo(minValue) < 0) {
+        minValue = value;
+      }
+      if (value.compareTo(maxValue) > 0) {
+        maxValue = value;
       }
     }
+    if (isEmpty) {
+      initializeStats(minValue, maxValue, values[offset], values[offset + length - 1], 0);
+      isEmpty = false;
+    } else {
+      updateStats(minValue, maxValue, values[offset], values[offset + length - 1], 0);
+    }
   }
 
   private void updateStats(Binary minValue, Binary maxValue, Binary firstValue, Binary lastValue,
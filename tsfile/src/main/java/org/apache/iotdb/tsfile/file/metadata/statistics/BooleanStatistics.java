@@ -55,15 +55,22 @@ public class BooleanStatistics extends Statistics<Boolean> {
   }
 
   @Override
-  public void updateStats(boolean[] values) {
-    for (boolean value : values) {
-      if (isEmpty) {
-        initializeStats(value, value, value, value, 0);
-        isEmpty = false;
-      } else {
-        updateStats(value, value, value, value, 0);
-        isEmpty = false;
-      }
+  public void updateStats(boolean[] values, int offset, int length) {
+    if (length <= 0) {
+      return;
+    }
+    boolean minValue = values[offset];
+    boolean maxValue = values[offset];
+    for (int i = offset; i < offset + length; i++) {
+      boolean value = values[i];
+      minValue &= value;
+      maxValue |= value;
+    }
+    if (isEmpty) {
+      initializeStats(minValue, maxValue, values[offset], values[offset + length - 1], 0);
+      isEmpty = false;
+    } else {
+      updateStats(minValue, maxValue, values[offset], values[offset + length - 1], 0);
     }
   }
 
@@ -54,14 +54,28 @@ public class DoubleStatistics extends Statistics<Double> {
   }
 
   @Override
-  public void updateStats(double[] values) {
-    for (double value : values) {
-      if (this.isEmpty) {
-        initializeStats(value, value, value, value, value);
-        isEmpty = false;
-      } else {
-        updateStats(value, value, value, value, value);
+  public void updateStats(double[] values, int offset, int length) {
+    if (length <= 0) {
+      return;
+    }
+    double minValue = values[offset];
+    double maxValue = values[offset];
+    double sumValue = 0;
+    for (int i = offset; i < offset + length; i++) {
+      double value = values[i];
+      if (value < minValue) {
+        minValue = value;
+      }
+      if (value > maxValue) {
+        maxValue = value;
       }
+      sumValue += value;
+    }
+    if (isEmpty) {
+      initializeStats(minValue, maxValue, values[offset], values[offset + length - 1], sumValue);
+      isEmpty = false;
+    } else {
+      updateStats(minValue, maxValue, values[offset], values[offset + length - 1], sumValue);
     }
   }
 
@@ -54,14 +54,28 @@ public class FloatStatistics extends Statistics<Float> {
   }
 
   @Override
-  public void updateStats(float[] values) {
-    for (float value : values) {
-      if (this.isEmpty) {
-        initializeStats(value, value, value, value, value);
-        isEmpty = false;
-      } else {
-        updateStats(value, value, value, value, value);
+  public void updateStats(float[] values, int offset, int length) {
+    if (length <= 0) {
+      return;
+    }
+    float minValue = values[offset];
+    float maxValue = values[offset];
+    double sumValue = 0;
+    for (int i = offset; i < offset + length; i++) {
+      float value = values[i];
+      if (value < minValue) {
+        minValue = value;
+      }
+      if (value > maxValue) {
+        maxValue = value;
       }
+      sumValue += value;
+    }
+    if (isEmpty) {
+      initializeStats(minValue, maxValue, values[offset], values[offset + length - 1], sumValue);
+      isEmpty = false;
+    } else {
+      updateStats(minValue, maxValue, values[offset], values[offset + length - 1], sumValue);
     }
   }
 
@@ -55,15 +55,28 @@ public class IntegerStatistics extends Statistics<Integer> {
   }
 
   @Override
-  public void updateStats(int[] values) {
-    for (int value : values) {
-      if (isEmpty) {
-        initializeStats(value, value, value, value, value);
-        isEmpty = false;
-      } else {
-        updateStats(value, value, value, value, value);
-        isEmpty = false;
+  public void updateStats(int[] values, int offset, int length) {
+    if (length <= 0) {
+      return;
+    }
+    int minValue = values[offset];
+    int maxValue = values[offset];
+    double sumValue = 0;
+    for (int i = offset; i < offset + length; i++) {
+      int value = values[i];
+      if (value < minValue) {
+        minValue = value;
+      }
+      if (value > maxValue) {
+        maxValue = value;
       }
+      sumValue += value;
+    }
+    if (isEmpty) {
+      initializeStats(minValue, maxValue, values[offset], values[offset + length - 1], sumValue);
+      isEmpty = false;
+    } else {
+      updateStats(minValue, maxValue, values[offset], values[offset + length - 1], sumValue);
     }
   }
 
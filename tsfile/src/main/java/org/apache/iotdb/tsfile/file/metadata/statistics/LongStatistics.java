@@ -79,14 +79,28 @@ public class LongStatistics extends Statistics<Long> {
   }
 
   @Override
-  public void updateStats(long[] values) {
-    for (long value : values) {
-      if (isEmpty) {
-        initializeStats(value, value, value, value, value);
-        isEmpty = false;
-      } else {
-        updateStats(value, value, value, value, value);
+  public void updateStats(long[] values, int offset, int length) {
+    if (length <= 0) {
+      return;
+    }
+    long minValue = values[offset];
+    long maxValue = values[offset];
+    double sumValue = 0;
+    for (int i = offset; i < offset + length; i++) {
+      long value = values[i];
+      if (value < minValue) {
+        minValue = value;
+      }
+      if (value > maxValue) {
+        maxValue = value;
       }
+      sumValue += value;
+    }
+    if (isEmpty) {
+      initializeStats(minValue, maxValue, values[offset], values[offset + length - 1], sumValue);
+      isEmpty = false;
+    } else {
+      updateStats(minValue, maxValue, values[offset], values[offset + length - 1], sumValue);
     }
   }
 
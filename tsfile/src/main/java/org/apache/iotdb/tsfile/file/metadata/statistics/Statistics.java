@@ -205,30 +205,62 @@ public abstract class Statistics<T> {
   }
 
   public void updateStats(boolean[] values) {
-    throw new UnsupportedOperationException();
+    updateStats(values, 0, values.length);
   }
 
   public void updateStats(int[] values) {
-    throw new UnsupportedOperationException();
+    updateStats(values, 0, values.length);
   }
 
   public void updateStats(long[] values) {
-    throw new UnsupportedOperationException();
+    updateStats(values, 0, values.length);
   }
 
   public void updateStats(float[] values) {
-    throw new UnsupportedOperationException();
+    updateStats(values, 0, values.length);
   }
 
   public void updateStats(double[] values) {
-    throw new UnsupportedOperationException();
+    updateStats(values, 0, values.length);
   }
 
   public void updateStats(BigDecimal[] values) {
-    throw new UnsupportedOperationException();
+    updateStats(values, 0, values.length);
   }
 
   public void updateStats(Binary[] values) {
+    updateStats(values, 0, values.length);
+  }
+
+  /**
+   * update the statistics with values[offset, offset + length) in one pass, so that a batch of
+   * points merges its min, max and sum into the statistics only once.
+   */
+  public void updateStats(boolean[] values, int offset, int length) {
+    throw new UnsupportedOperationException();
+  }
+
+  public void updateStats(int[] values, int offset, int length) {
+    throw new UnsupportedOperationException();
+  }
+
+  public void updateStats(long[] values, int offset, int length) {
+    throw new UnsupportedOperationException();
+  }
+
+  public void updateStats(float[] values, int offset, int length) {
+    throw new UnsupportedOperationException();
+  }
+
+  public void updateStats(double[] values, int offset, int length) {
+    throw new UnsupportedOperationException();
+  }
+
+  public void updateStats(BigDecimal[] values, int offset, int length) {
+    throw new UnsupportedOperationException();
+  }
+
+  public void updateStats(Binary[] values, int offset, int length) {
     throw new UnsupportedOperationException();
   }
 
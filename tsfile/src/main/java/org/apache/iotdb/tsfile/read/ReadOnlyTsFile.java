@@ -19,6 +19,7 @@
 package org.apache.iotdb.tsfile.read;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 import org.apache.iotdb.tsfile.read.controller.IChunkLoader;
 import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
 import org.apache.iotdb.tsfile.read.controller.IMetadataQuerier;
@@ -44,6 +45,23 @@ public class ReadOnlyTsFile implements AutoCloseable {
     tsFileExecutor = new TsFileExecutor(metadataQuerier, chunkLoader);
   }
 
+  /**
+   * constructor, create ReadOnlyTsFile that decodes the selected series of a query concurrently
+   * on readPool. Queries with a value filter are still executed sequentially.
+   *
+   * @param fileReader reader of the file, which must be opened by the file name
+   * @param readPool pool to decode series, owned by the caller
+   * @param maxBufferedBatchNum max number of decoded batches buffered per series
+   */
+  public ReadOnlyTsFile(TsFileSequenceReader fileReader, ExecutorService readPool,
+      int maxBufferedBatchNum) throws IOException {
+    this.fileReader = fileReader;
+    this.metadataQuerier = new MetadataQuerierByFileImpl(fileReader);
+    this.chunkLoader = new ChunkLoaderImpl(fileReader);
+    tsFileExecutor = new TsFileExecutor(metadataQuerier, chunkLoader, fileReader, readPool,
+        maxBufferedBatchNum);
+  }
+
   public QueryDataSet query(QueryExpression queryExpression) throws IOException {
     return tsFileExecutor.execute(queryExpression);
   }
@@ -53,7 +71,15 @@ public class ReadOnlyTsFile implements AutoCloseable {
     return tsFileExecutor.execute(queryExpression, partitionStartOffset, partitionEndOffset);
   }
 
+  /**
+   * this function is only for Test.
+   */
+  int getParallelReaderNum() {
+    return tsFileExecutor.getParallelReaderNum();
+  }
+
   public void close() throws IOException {
+    tsFileExecutor.close();
     fileReader.close();
   }
 }
@@ -39,6 +39,8 @@ import org.apache.iotdb.tsfile.file.header.ChunkHeader;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.DeviceIndexDirectory;
+import org.apache.iotdb.tsfile.file.metadata.DeviceIndexPage;
 import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadata;
 import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadataIndex;
 import org.apache.iotdb.tsfile.file.metadata.TsDigest;
@@ -69,6 +71,8 @@ public class TsFileSequenceReader implements AutoCloseable {
   private ByteBuffer markerBuffer = ByteBuffer.allocate(Byte.BYTES);
   private int totalChunkNum;
   private TsFileMetaData tsFileMetaData;
+  private DeviceIndexDirectory deviceIndexDirectory;
+  private boolean deviceIndexDirectoryRead = false;
 
   private boolean cacheDeviceMetadata = false;
   private Map<TsDeviceMetadataIndex, TsDeviceMetadata> deviceMetadataMap;
@@ -158,6 +162,19 @@ public class TsFileSequenceReader implements AutoCloseable {
     this.fileMetadataSize = fileMetadataSize;
   }
 
+  /**
+   * open another reader of the same file with its own channel, so that positional reads issued by
+   * several threads do not contend on one channel. The file metadata is not read again.
+   *
+   * @return a new reader which should be closed by the caller
+   */
+  public TsFileSequenceReader openAnotherReader() throws IOException {
+    TsFileSequenceReader reader = new TsFileSequenceReader(
+        FileInputFactory.INSTANCE.getTsFileInput(file), fileMetadataPos, fileMetadataSize);
+    reader.file = file;
+    return reader;
+  }
+
   public void loadMetadataSize() throws IOException {
     ByteBuffer metadataSize = ByteBuffer.allocate(Integer.BYTES);
     tsFileInput.read(metadataSize,
@@ -234,6 +251,56 @@ public class TsFileSequenceReader implements AutoCloseable {
     return tsFileMetaData;
   }
 
+  /**
+   * read the directory of the sorted device index, see {@link DeviceIndexDirectory}. This function
+   * does not modify the position of the file reader.
+   *
+   * @return the directory, or null if the file has no device index
+   */
+  public DeviceIndexDirectory readDeviceIndexDirectory() throws IOException {
+    if (!deviceIndexDirectoryRead) {
+      long tailPos = fileMetadataPos - DeviceIndexDirectory.TAIL_SIZE;
+      if (tailPos > TSFileConfig.MAGIC_STRING.length()) {
+        ByteBuffer tail = readData(tailPos, DeviceIndexDirectory.TAIL_SIZE);
+        long directoryOffset = ReadWriteIOUtils.readLong(tail);
+        int magic = ReadWriteIOUtils.readInt(tail);
+        if (magic == DeviceIndexDirectory.MAGIC
+            && directoryOffset >= TSFileConfig.MAGIC_STRING.length()
+            && directoryOffset < tailPos) {
+          deviceIndexDirectory = DeviceIndexDirectory.deserializeFrom(
+              readData(directoryOffset, (int) (tailPos - directoryOffset)));
+        }
+      }
+      deviceIndexDirectoryRead = true;
+    }
+    return deviceIndexDirectory;
+  }
+
+  /**
+   * read one page of the sorted device index. This function does not modify the position of the
+   * file reader.
+   */
+  public DeviceIndexPage readDeviceIndexPage(DeviceIndexDirectory directory, int page)
+      throws IOException {
+    return DeviceIndexPage.deserializeFrom(
+        readData(directory.getPageOffset(page), directory.getPageSize(page)));
+  }
+
+  /**
+   * get the TsDeviceMetadataIndex of a device. Only the page of the device index that may contain
+   * the device is read if the file has a device index and TsFileMetaData is not loaded yet.
+   *
+   * @return the index, or null if the device is not in the file
+   */
+  public TsDeviceMetadataIndex readDeviceMetadataIndex(String deviceId) throws IOException {
+    DeviceIndexDirectory directory = tsFileMetaData == null ? readDeviceIndexDirectory() : null;
+    if (directory == null) {
+      return readFileMetadata().getDeviceMetadataIndex(deviceId);
+    }
+    int page = directory.findPage(deviceId);
+    return page < 0 ? null : readDeviceIndexPage(directory, page).get(deviceId);
+  }
+
   /**
    * @return get the position after the last chunk group in the file
    */
@@ -321,7 +388,7 @@ public class TsFileSequenceReader implements AutoCloseable {
    * @param position the file offset of this chunk's header
    * @param markerRead true if the offset does not contains the marker , otherwise false
    */
-  private ChunkHeader readChunkHeader(long position, boolean markerRead) throws IOException {
+  public ChunkHeader readChunkHeader(long position, boolean markerRead) throws IOException {
     return ChunkHeader.deserializeFrom(tsFileInput, position, markerRead);
   }
 
@@ -659,16 +726,12 @@ public class TsFileSequenceReader implements AutoCloseable {
   }
 
   public List<ChunkMetaData> getChunkMetadataList(Path path) throws IOException {
-    if (tsFileMetaData == null) {
-      readFileMetadata();
-    }
-    if (!tsFileMetaData.containsDevice(path.getDevice())) {
+    // get the index information of TsDeviceMetadata
+    TsDeviceMetadataIndex index = readDeviceMetadataIndex(path.getDevice());
+    if (index == null) {
       return new ArrayList<>();
     }
 
-    // get the index information of TsDeviceMetadata
-    TsDeviceMetadataIndex index = tsFileMetaData.getDeviceMetadataIndex(path.getDevice());
-
     // read TsDeviceMetadata from file
     TsDeviceMetadata tsDeviceMetadata = readTsDeviceMetaData(index);
 
@@ -0,0 +1,254 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+
+/**
+ * Read the chunks of one series ahead of their consumer.
+ * <p>
+ * The list of chunks to be read is known when the loader is built. Each time a chunk is asked
+ * for, the following <code>prefetchNum</code> chunks are submitted to an IO pool so that decoding
+ * the current chunk overlaps with reading the next ones. Chunks of one submission whose byte
+ * ranges are adjacent in the file (or separated by no more than <code>maxMergeGap</code> bytes)
+ * are fetched with a single read.
+ * <p>
+ * A chunk that is not in the list, or that is asked for before its prefetch was submitted, is read
+ * synchronously. This class is not thread-safe and is expected to serve one series reader.
+ */
+public class PrefetchChunkLoader implements IChunkLoader {
+
+  public static final int DEFAULT_MAX_MERGE_GAP = 0;
+
+  private TsFileSequenceReader reader;
+  private List<ChunkMetaData> chunkMetaDataList;
+  private ExecutorService ioPool;
+  private int prefetchNum;
+  private int maxMergeGap;
+
+  /**
+   * index of the first chunk in chunkMetaDataList that may still be asked for.
+   */
+  private int cursor = 0;
+  /**
+   * index of the first chunk in chunkMetaDataList that has not been submitted.
+   */
+  private int nextToSubmit = 0;
+  /**
+   * chunks submitted but not consumed yet, keyed by their index in chunkMetaDataList.
+   */
+  private Map<Integer, CompletableFuture<Chunk>> pendingChunks = new HashMap<>();
+  private List<Future<?>> ioTasks = new ArrayList<>();
+
+  public PrefetchChunkLoader(TsFileSequenceReader reader, List<ChunkMetaData> chunkMetaDataList,
+      ExecutorService ioPool, int prefetchNum) {
+    this(reader, chunkMetaDataList, ioPool, prefetchNum, DEFAULT_MAX_MERGE_GAP);
+  }
+
+  /**
+   * constructor of PrefetchChunkLoader.
+   *
+   * @param reader reader of the file the chunks belong to, positional reads are used on it
+   * @param chunkMetaDataList the chunks in the order they will be asked for
+   * @param ioPool the pool that performs the asynchronous reads
+   * @param prefetchNum how many chunks are read ahead of the current one
+   * @param maxMergeGap max bytes between two chunks that are still fetched by one read
+   */
+  public PrefetchChunkLoader(TsFileSequenceReader reader, List<ChunkMetaData> chunkMetaDataList,
+      ExecutorService ioPool, int prefetchNum, int maxMergeGap) {
+    this.reader = reader;
+    this.chunkMetaDataList = chunkMetaDataList;
+    this.ioPool = ioPool;
+    this.prefetchNum = prefetchNum;
+    this.maxMergeGap = maxMergeGap;
+  }
+
+  @Override
+  public Chunk getChunk(ChunkMetaData chunkMetaData) throws IOException {
+    int index = indexOf(chunkMetaData);
+    if (index < 0) {
+      return reader.readMemChunk(chunkMetaData);
+    }
+    // the chunks before index are skipped by the consumer
+    for (int i = cursor; i < index; i++) {
+      CompletableFuture<Chunk> skipped = pendingChunks.remove(i);
+      if (skipped != null) {
+        skipped.cancel(false);
+      }
+    }
+    cursor = index + 1;
+
+    CompletableFuture<Chunk> future = pendingChunks.remove(index);
+    if (future == null) {
+      // the consumer is ahead of the prefetching, restart it after this chunk
+      nextToSubmit = Math.max(nextToSubmit, index + 1);
+      prefetch(index);
+      return reader.readMemChunk(chunkMetaData);
+    }
+    prefetch(index);
+    return waitFor(future);
+  }
+
+  /**
+   * submit a new batch of chunks when less than half of the read-ahead window remains, so that
+   * each batch is large enough to merge adjacent reads.
+   */
+  private void prefetch(int currentIndex) {
+    int windowEnd = Math.min(currentIndex + 1 + prefetchNum, chunkMetaDataList.size());
+    int ahead = nextToSubmit - currentIndex - 1;
+    if (ahead > prefetchNum / 2 || nextToSubmit >= windowEnd) {
+      return;
+    }
+    List<Integer> batch = new ArrayList<>();
+    Map<Integer, CompletableFuture<Chunk>> batchFutures = new HashMap<>();
+    for (int i = nextToSubmit; i < windowEnd; i++) {
+      CompletableFuture<Chunk> future = new CompletableFuture<>();
+      batch.add(i);
+      batchFutures.put(i, future);
+      pendingChunks.put(i, future);
+    }
+    nextToSubmit = windowEnd;
+    ioTasks.removeIf(Future::isDone);
+    ioTasks.add(ioPool.submit(() -> loadBatch(batch, batchFutures)));
+  }
+
+  private void loadBatch(List<Integer> batch,
+      Map<Integer, CompletableFuture<Chunk>> batchFutures) {
+    try {
+      List<ChunkRange> ranges = new ArrayList<>();
+      for (int index : batch) {
+        ChunkMetaData metaData = chunkMetaDataList.get(index);
+        ChunkHeader header = reader.readChunkHeader(metaData.getOffsetOfChunkHeader(), false);
+        ranges.add(new ChunkRange(index, metaData, header));
+      }
+      ranges.sort(Comparator.comparingLong(r -> r.start));
+
+      int groupStart = 0;
+      while (groupStart < ranges.size()) {
+        int groupEnd = groupStart + 1;
+        long end = ranges.get(groupStart).end;
+        while (groupEnd < ranges.size() && ranges.get(groupEnd).start - end <= maxMergeGap) {
+          end = Math.max(end, ranges.get(groupEnd).end);
+          groupEnd++;
+        }
+        readGroup(ranges.subList(groupStart, groupEnd), end, batchFutures);
+        groupStart = groupEnd;
+      }
+    } catch (IOException | RuntimeException e) {
+      for (CompletableFuture<Chunk> future : batchFutures.values()) {
+        future.completeExceptionally(e);
+      }
+    }
+  }
+
+  /**
+   * read the byte range covering all chunks of the group at once and slice it into chunks.
+   */
+  private void readGroup(List<ChunkRange> group, long end,
+      Map<Integer, CompletableFuture<Chunk>> batchFutures) throws IOException {
+    long start = group.get(0).start;
+    int size = (int) (end - start);
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    if (reader.readRaw(start, size, buffer) != size) {
+      throw new IOException("reach the end of the data");
+    }
+    buffer.flip();
+    for (ChunkRange range : group) {
+      ByteBuffer data = buffer.duplicate();
+      int dataStart = (int) (range.start - start) + range.header.getSerializedSize();
+      data.position(dataStart);
+      data.limit(dataStart + range.header.getDataSize());
+      batchFutures.get(range.index).complete(
+          new Chunk(range.header, data.slice(), range.metaData.getDeletedAt()));
+    }
+  }
+
+  private Chunk waitFor(Future<Chunk> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for a prefetched chunk", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  private int indexOf(ChunkMetaData chunkMetaData) {
+    for (int i = cursor; i < chunkMetaDataList.size(); i++) {
+      if (chunkMetaDataList.get(i) == chunkMetaData) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public void close() throws IOException {
+    clear();
+    reader.close();
+  }
+
+  /**
+   * drop all chunks not consumed yet. The running reads are not interrupted because interrupting
+   * a thread blocked on a FileChannel closes the channel, which is shared with other readers.
+   */
+  @Override
+  public void clear() {
+    for (Future<?> task : ioTasks) {
+      task.cancel(false);
+    }
+    ioTasks.clear();
+    pendingChunks.clear();
+  }
+
+  private static class ChunkRange {
+
+    private int index;
+    private ChunkMetaData metaData;
+    private ChunkHeader header;
+    private long start;
+    private long end;
+
+    private ChunkRange(int index, ChunkMetaData metaData, ChunkHeader header) {
+      this.index = index;
+      this.metaData = metaData;
+      this.header = header;
+      this.start = metaData.getOffsetOfChunkHeader();
+      this.end = start + header.getSerializedSize() + header.getDataSize();
+    }
+  }
+}
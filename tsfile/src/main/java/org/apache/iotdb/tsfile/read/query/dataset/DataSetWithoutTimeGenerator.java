@@ -30,14 +30,14 @@ import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Field;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.common.RowRecord;
-import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReader;
+import org.apache.iotdb.tsfile.read.reader.IBatchReader;
 
 /**
  * multi-way merging data set, no need to use TimeGenerator.
  */
 public class DataSetWithoutTimeGenerator extends QueryDataSet {
 
-  private List<FileSeriesReader> readers;
+  private List<? extends IBatchReader> readers;
 
   private List<BatchData> batchDataList;
 
@@ -59,7 +59,7 @@ public class DataSetWithoutTimeGenerator extends QueryDataSet {
    * @throws IOException IOException
    */
   public DataSetWithoutTimeGenerator(List<Path> paths, List<TSDataType> dataTypes,
-      List<FileSeriesReader> readers)
+      List<? extends IBatchReader> readers)
       throws IOException {
     super(paths, dataTypes);
     this.readers = readers;
@@ -73,7 +73,7 @@ public class DataSetWithoutTimeGenerator extends QueryDataSet {
     timeSet = new HashSet<>();
 
     for (int i = 0; i < paths.size(); i++) {
-      FileSeriesReader reader = readers.get(i);
+      IBatchReader reader = readers.get(i);
       if (!reader.hasNextBatch()) {
         batchDataList.add(new BatchData());
         hasDataRemaining.add(false);
@@ -118,7 +118,7 @@ public class DataSetWithoutTimeGenerator extends QueryDataSet {
         data.next();
 
         if (!data.hasNext()) {
-          FileSeriesReader reader = readers.get(i);
+          IBatchReader reader = readers.get(i);
           if (reader.hasNextBatch()) {
             data = reader.nextBatch();
             if (data.hasNext()) {
@@ -22,12 +22,15 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
 import org.apache.iotdb.tsfile.exception.write.NoMeasurementException;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.common.TimeRange;
+import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
 import org.apache.iotdb.tsfile.read.controller.IChunkLoader;
 import org.apache.iotdb.tsfile.read.controller.IMetadataQuerier;
 import org.apache.iotdb.tsfile.read.expression.IExpression;
@@ -37,21 +40,52 @@ import org.apache.iotdb.tsfile.read.expression.impl.GlobalTimeExpression;
 import org.apache.iotdb.tsfile.read.expression.util.ExpressionOptimizer;
 import org.apache.iotdb.tsfile.read.query.dataset.DataSetWithoutTimeGenerator;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.read.reader.IBatchReader;
 import org.apache.iotdb.tsfile.read.reader.series.EmptyFileSeriesReader;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReader;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReaderWithFilter;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReaderWithoutFilter;
+import org.apache.iotdb.tsfile.read.reader.series.ParallelFileSeriesReader;
 
 public class TsFileExecutor implements QueryExecutor {
 
   private IMetadataQuerier metadataQuerier;
   private IChunkLoader chunkLoader;
 
+  /**
+   * the following fields are only set in parallel mode.
+   */
+  private TsFileSequenceReader fileReader;
+  private ExecutorService readPool;
+  private int maxBufferedBatchNum;
+  /**
+   * the parallel readers that may still hold their channels. The finished ones are dropped when
+   * a query is executed, the others are closed with the executor.
+   */
+  private List<ParallelFileSeriesReader> parallelReaders = new ArrayList<>();
+
   public TsFileExecutor(IMetadataQuerier metadataQuerier, IChunkLoader chunkLoader) {
     this.metadataQuerier = metadataQuerier;
     this.chunkLoader = chunkLoader;
   }
 
+  /**
+   * constructor of TsFileExecutor in parallel mode. When no filter or only a global time filter is
+   * given, the selected series are decoded concurrently on readPool, each through a channel of
+   * its own, and merged by time.
+   *
+   * @param fileReader reader of the queried file, the file must be opened by its name
+   * @param readPool the pool that decodes the series, it is not shut down by the executor
+   * @param maxBufferedBatchNum max number of decoded batches kept ahead of the merge per series
+   */
+  public TsFileExecutor(IMetadataQuerier metadataQuerier, IChunkLoader chunkLoader,
+      TsFileSequenceReader fileReader, ExecutorService readPool, int maxBufferedBatchNum) {
+    this(metadataQuerier, chunkLoader);
+    this.fileReader = fileReader;
+    this.readPool = readPool;
+    this.maxBufferedBatchNum = maxBufferedBatchNum;
+  }
+
   @Override
   public QueryDataSet execute(QueryExpression queryExpression) throws IOException {
     metadataQuerier.loadChunkMetaDatas(queryExpression.getSelectedSeries());
@@ -153,27 +187,90 @@ public class TsFileExecutor implements QueryExecutor {
   private QueryDataSet executeMayAttachTimeFiler(List<Path> selectedPathList,
       GlobalTimeExpression timeFilter)
       throws IOException, NoMeasurementException {
-    List<FileSeriesReader> readersOfSelectedSeries = new ArrayList<>();
+    List<IBatchReader> readersOfSelectedSeries = new ArrayList<>();
     List<TSDataType> dataTypes = new ArrayList<>();
-
-    for (Path path : selectedPathList) {
-      List<ChunkMetaData> chunkMetaDataList = metadataQuerier.getChunkMetaDataList(path);
-      FileSeriesReader seriesReader;
-      if (chunkMetaDataList.isEmpty()) {
-        seriesReader = new EmptyFileSeriesReader();
-        dataTypes.add(metadataQuerier.getDataType(path.getMeasurement()));
-      } else {
-        if (timeFilter == null) {
-          seriesReader = new FileSeriesReaderWithoutFilter(chunkLoader, chunkMetaDataList);
+    boolean parallel = isParallel(selectedPathList);
+    // the parallel readers on the channels opened for this query, they are closed if the query
+    // cannot be built
+    List<ParallelFileSeriesReader> openedReaders = new ArrayList<>();
+    try {
+      for (Path path : selectedPathList) {
+        List<ChunkMetaData> chunkMetaDataList = metadataQuerier.getChunkMetaDataList(path);
+        IBatchReader seriesReader;
+        if (chunkMetaDataList.isEmpty()) {
+          seriesReader = new EmptyFileSeriesReader();
+          dataTypes.add(metadataQuerier.getDataType(path.getMeasurement()));
+        } else if (parallel) {
+          TsFileSequenceReader anotherReader = fileReader.openAnotherReader();
+          FileSeriesReader fileSeriesReader;
+          try {
+            fileSeriesReader = createSeriesReader(new ChunkLoaderImpl(anotherReader),
+                chunkMetaDataList, timeFilter);
+          } catch (RuntimeException e) {
+            anotherReader.close();
+            throw e;
+          }
+          ParallelFileSeriesReader parallelReader = new ParallelFileSeriesReader(fileSeriesReader,
+              readPool, maxBufferedBatchNum);
+          openedReaders.add(parallelReader);
+          seriesReader = parallelReader;
+          dataTypes.add(chunkMetaDataList.get(0).getTsDataType());
         } else {
-          seriesReader = new FileSeriesReaderWithFilter(chunkLoader, chunkMetaDataList,
-              timeFilter.getFilter());
+          seriesReader = createSeriesReader(chunkLoader, chunkMetaDataList, timeFilter);
+          dataTypes.add(chunkMetaDataList.get(0).getTsDataType());
         }
-        dataTypes.add(chunkMetaDataList.get(0).getTsDataType());
+        readersOfSelectedSeries.add(seriesReader);
+      }
+      QueryDataSet dataSet = new DataSetWithoutTimeGenerator(selectedPathList, dataTypes,
+          readersOfSelectedSeries);
+      synchronized (parallelReaders) {
+        parallelReaders.removeIf(ParallelFileSeriesReader::isFinished);
+        parallelReaders.addAll(openedReaders);
+      }
+      return dataSet;
+    } catch (IOException | NoMeasurementException | RuntimeException e) {
+      for (ParallelFileSeriesReader reader : openedReaders) {
+        try {
+          reader.close();
+        } catch (IOException closeException) {
+          e.addSuppressed(closeException);
+        }
+      }
+      throw e;
+    }
+  }
+
+  private FileSeriesReader createSeriesReader(IChunkLoader loader,
+      List<ChunkMetaData> chunkMetaDataList, GlobalTimeExpression timeFilter) {
+    if (timeFilter == null) {
+      return new FileSeriesReaderWithoutFilter(loader, chunkMetaDataList);
+    }
+    return new FileSeriesReaderWithFilter(loader, chunkMetaDataList, timeFilter.getFilter());
+  }
+
+  private boolean isParallel(List<Path> selectedPathList) {
+    return readPool != null && fileReader.getFileName() != null && selectedPathList.size() > 1;
+  }
+
+  /**
+   * stop the series still being decoded in parallel mode and release their channels.
+   */
+  public void close() throws IOException {
+    synchronized (parallelReaders) {
+      for (ParallelFileSeriesReader reader : parallelReaders) {
+        reader.close();
       }
-      readersOfSelectedSeries.add(seriesReader);
+      parallelReaders.clear();
+    }
+  }
+
+  /**
+   * this function is only for Test.
+   */
+  public int getParallelReaderNum() {
+    synchronized (parallelReaders) {
+      return parallelReaders.size();
     }
-    return new DataSetWithoutTimeGenerator(selectedPathList, dataTypes, readersOfSelectedSeries);
   }
 
 }
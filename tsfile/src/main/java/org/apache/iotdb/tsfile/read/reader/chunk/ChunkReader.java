@@ -111,6 +111,7 @@ public abstract class ChunkReader {
   public BatchData nextBatch() throws IOException {
     PageReader pageReader = constructPageReaderForNextPage(pageHeader.getCompressedSize());
     hasCachedPageHeader = false;
+    initPageReader(pageReader);
     if (pageReader.hasNextBatch()) {
       data = pageReader.nextBatch();
       return data;
@@ -126,6 +127,24 @@ public abstract class ChunkReader {
     return pageHeader;
   }
 
+  /**
+   * read the data of the next page without uncompressing or decoding it, so it can be copied to
+   * another chunk as a whole.
+   */
+  public ByteBuffer readPageDataWithoutUncompressing() throws IOException {
+    int compressedPageBodyLength = pageHeader.getCompressedSize();
+    if (compressedPageBodyLength > chunkDataBuffer.remaining()) {
+      throw new IOException(
+          "unexpected byte read length when read compressedPageBody. Expected:"
+              + compressedPageBodyLength + ". Actual:" + chunkDataBuffer.remaining());
+    }
+    ByteBuffer pageData = chunkDataBuffer.slice();
+    pageData.limit(compressedPageBodyLength);
+    skipBytesInStreamByLength(compressedPageBodyLength);
+    hasCachedPageHeader = false;
+    return pageData;
+  }
+
   public void skipPageData() {
     skipBytesInStreamByLength(pageHeader.getCompressedSize());
     hasCachedPageHeader = false;
@@ -137,6 +156,13 @@ public abstract class ChunkReader {
 
   public abstract boolean pageSatisfied(PageHeader pageHeader);
 
+  /**
+   * prepare the reader of the next page before its data is decoded.
+   */
+  protected void initPageReader(PageReader pageReader) {
+    // nothing to prepare by default
+  }
+
   private PageReader constructPageReaderForNextPage(int compressedPageBodyLength)
       throws IOException {
     byte[] compressedPageBody = new byte[compressedPageBodyLength];
@@ -20,6 +20,7 @@ package org.apache.iotdb.tsfile.read.reader.chunk;
 
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.reader.page.PageReader;
 
 public class ChunkReaderByTimestamp extends ChunkReader {
 
@@ -36,6 +37,14 @@ public class ChunkReaderByTimestamp extends ChunkReader {
     return maxTimestamp >= currentTimestamp && maxTimestamp > deletedAt;
   }
 
+  /**
+   * points before currentTimestamp will not be looked up, skip them if the page has a time index.
+   */
+  @Override
+  protected void initPageReader(PageReader pageReader) {
+    pageReader.skipToCheckpoint(currentTimestamp);
+  }
+
   public void setCurrentTimestamp(long currentTimestamp) {
     this.currentTimestamp = currentTimestamp;
   }
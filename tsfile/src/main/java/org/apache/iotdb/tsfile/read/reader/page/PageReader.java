@@ -21,6 +21,7 @@ package org.apache.iotdb.tsfile.read.reader.page;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -28,6 +29,7 @@ import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 
 public class PageReader {
 
@@ -45,6 +47,14 @@ public class PageReader {
   /** value column in memory */
   private ByteBuffer valueBuffer;
 
+  /** size of time column, the value column starts after it in valueBuffer */
+  private int timeBufferLength;
+
+  /** sparse time index: first timestamp and column offsets of each checkpoint, null if absent */
+  private long[] checkpointTimes;
+  private int[] checkpointTimeOffsets;
+  private int[] checkpointValueOffsets;
+
   private BatchData data = null;
 
   private Filter filter = null;
@@ -70,10 +80,16 @@ public class PageReader {
    * split pageContent into two stream: time and value
    *
    * @param pageData
-   *            uncompressed bytes size of time column, time column, value column
+   *            uncompressed bytes size of time column, time column, value column, optionally
+   *            preceded by 0 and a sparse time index
    */
   private void splitDataToTimeStampAndValue(ByteBuffer pageData) {
-    int timeBufferLength = ReadWriteForEncodingUtils.readUnsignedVarInt(pageData);
+    timeBufferLength = ReadWriteForEncodingUtils.readUnsignedVarInt(pageData);
+    if (timeBufferLength == 0) {
+      // a page has at least one point, so an empty time column marks a sparse time index
+      readTimeIndex(pageData);
+      timeBufferLength = ReadWriteForEncodingUtils.readUnsignedVarInt(pageData);
+    }
 
     timeBuffer = pageData.slice();
     timeBuffer.limit(timeBufferLength);
@@ -82,6 +98,41 @@ public class PageReader {
     valueBuffer.position(timeBufferLength);
   }
 
+  private void readTimeIndex(ByteBuffer pageData) {
+    int size = ReadWriteForEncodingUtils.readUnsignedVarInt(pageData);
+    checkpointTimes = new long[size];
+    checkpointTimeOffsets = new int[size];
+    checkpointValueOffsets = new int[size];
+    for (int i = 0; i < size; i++) {
+      checkpointTimes[i] = ReadWriteIOUtils.readLong(pageData);
+      checkpointTimeOffsets[i] = ReadWriteForEncodingUtils.readUnsignedVarInt(pageData);
+      checkpointValueOffsets[i] = ReadWriteForEncodingUtils.readUnsignedVarInt(pageData);
+    }
+  }
+
+  /**
+   * Use the sparse time index to skip the points before the last checkpoint whose time is not
+   * larger than the given timestamp, so that decoding starts near it. Must be called before any
+   * point of the page is decoded. Does nothing if the page has no time index.
+   */
+  public void skipToCheckpoint(long timestamp) {
+    if (checkpointTimes == null) {
+      return;
+    }
+    int pos = Arrays.binarySearch(checkpointTimes, timestamp);
+    if (pos < 0) {
+      // the last checkpoint before the insertion point
+      pos = -pos - 2;
+    }
+    if (pos < 0) {
+      return;
+    }
+    timeBuffer.position(checkpointTimeOffsets[pos]);
+    valueBuffer.position(timeBufferLength + checkpointValueOffsets[pos]);
+    timeDecoder.reset();
+    valueDecoder.reset();
+  }
+
   public boolean hasNextBatch() throws IOException {
     return timeDecoder.hasNext(timeBuffer);
   }
@@ -25,12 +25,13 @@ import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.controller.IChunkLoader;
+import org.apache.iotdb.tsfile.read.reader.IBatchReader;
 import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
 
 /**
  * Series reader is used to query one series of one tsfile.
  */
-public abstract class FileSeriesReader {
+public abstract class FileSeriesReader implements IBatchReader {
 
   protected IChunkLoader chunkLoader;
   protected List<ChunkMetaData> chunkMetaDataList;
@@ -53,6 +54,7 @@ public abstract class FileSeriesReader {
    *
    * @return True if current chunk has next batch data
    */
+  @Override
   public boolean hasNextBatch() throws IOException {
 
     // current chunk has additional batch
@@ -79,11 +81,13 @@ public abstract class FileSeriesReader {
   /**
    * get next batch data.
    */
+  @Override
   public BatchData nextBatch() throws IOException {
     data = chunkReader.nextBatch();
     return data;
   }
 
+  @Override
   public BatchData currentBatch() {
     return data;
   }
@@ -100,6 +104,7 @@ public abstract class FileSeriesReader {
 
   protected abstract boolean chunkSatisfied(ChunkMetaData chunkMetaData);
 
+  @Override
   public void close() throws IOException {
     chunkLoader.close();
   }
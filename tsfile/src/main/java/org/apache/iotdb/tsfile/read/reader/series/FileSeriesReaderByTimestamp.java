@@ -93,6 +93,7 @@ public class FileSeriesReaderByTimestamp {
         }
         return null;
       } else {
+        ((ChunkReaderByTimestamp) chunkReader).setCurrentTimestamp(timestamp);
         if (chunkReader.hasNextBatch()) {
           data = chunkReader.nextBatch();
         } else if (!constructNextSatisfiedChunkReader()) {
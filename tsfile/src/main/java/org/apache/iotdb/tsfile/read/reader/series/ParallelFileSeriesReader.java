@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader.series;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.reader.IBatchReader;
+
+/**
+ * Decode one series on a worker thread ahead of its consumer.
+ * <p>
+ * The wrapped reader should own its chunk loader and file channel, so that several series of one
+ * file can be decoded concurrently without contending on one channel. Decoded batches are buffered
+ * up to <code>maxBufferedBatchNum</code>; the worker stops when the buffer is full and is
+ * resubmitted when the consumer takes a batch, so a slow consumer never holds a pool thread. The
+ * wrapped reader is closed as soon as the series is exhausted.
+ */
+public class ParallelFileSeriesReader implements IBatchReader {
+
+  private final IBatchReader reader;
+  private final ExecutorService pool;
+  private final int maxBufferedBatchNum;
+
+  private final Deque<BatchData> buffer = new ArrayDeque<>();
+  private BatchData data;
+  private boolean running = false;
+  private boolean finished = false;
+  private boolean closed = false;
+  private IOException error;
+
+  /**
+   * constructor of ParallelFileSeriesReader, which starts decoding at once.
+   *
+   * @param reader the reader of the series, it is only used by the worker
+   * @param pool the pool that decodes the series
+   * @param maxBufferedBatchNum max number of decoded batches kept ahead of the consumer
+   */
+  public ParallelFileSeriesReader(IBatchReader reader, ExecutorService pool,
+      int maxBufferedBatchNum) {
+    this.reader = reader;
+    this.pool = pool;
+    this.maxBufferedBatchNum = Math.max(1, maxBufferedBatchNum);
+    synchronized (this) {
+      schedule();
+    }
+  }
+
+  @Override
+  public synchronized boolean hasNextBatch() throws IOException {
+    if (!buffer.isEmpty()) {
+      return true;
+    }
+    schedule();
+    while (buffer.isEmpty() && !finished) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for a decoded batch", e);
+      }
+    }
+    if (error != null) {
+      throw error;
+    }
+    return !buffer.isEmpty();
+  }
+
+  @Override
+  public synchronized BatchData nextBatch() throws IOException {
+    if (!hasNextBatch()) {
+      throw new IOException("no more batch data");
+    }
+    data = buffer.poll();
+    schedule();
+    return data;
+  }
+
+  @Override
+  public BatchData currentBatch() {
+    return data;
+  }
+
+  /**
+   * submit the worker if it is not running and the buffer has room. Must hold the lock.
+   */
+  private void schedule() {
+    if (running || finished || closed || buffer.size() >= maxBufferedBatchNum) {
+      return;
+    }
+    running = true;
+    try {
+      pool.submit(this::decode);
+    } catch (RejectedExecutionException e) {
+      // finish() clears running and wakes up the consumer and close()
+      finish(new IOException("Cannot submit the decoding of a series", e));
+    }
+  }
+
+  private void decode() {
+    try {
+      while (true) {
+        synchronized (this) {
+          if (closed || buffer.size() >= maxBufferedBatchNum) {
+            running = false;
+            notifyAll();
+            return;
+          }
+        }
+        // decode without holding the lock, the consumer keeps reading the buffered batches
+        BatchData batchData = reader.hasNextBatch() ? reader.nextBatch() : null;
+        synchronized (this) {
+          if (batchData == null) {
+            finish(null);
+            return;
+          }
+          buffer.add(batchData);
+          notifyAll();
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      synchronized (this) {
+        finish(e instanceof IOException ? (IOException) e : new IOException(e));
+      }
+    }
+  }
+
+  /**
+   * mark the series exhausted and release its channel. Must hold the lock.
+   */
+  private void finish(IOException e) {
+    error = e;
+    finished = true;
+    running = false;
+    closeReader();
+    notifyAll();
+  }
+
+  private void closeReader() {
+    try {
+      reader.close();
+    } catch (IOException e) {
+      if (error == null) {
+        error = e;
+      }
+    }
+  }
+
+  /**
+   * @return whether the series is exhausted or the reader is closed, so its channel is released.
+   */
+  public synchronized boolean isFinished() {
+    return finished;
+  }
+
+  /**
+   * stop decoding and release the channel once the running decoding step returns.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    closed = true;
+    while (running) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while closing a series reader", e);
+      }
+    }
+    buffer.clear();
+    if (!finished) {
+      finished = true;
+      closeReader();
+    }
+  }
+}
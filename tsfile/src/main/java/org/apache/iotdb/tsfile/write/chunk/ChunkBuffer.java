@@ -158,6 +158,43 @@ public class ChunkBuffer {
     return headerSize + uncompressedSize;
   }
 
+  /**
+   * write a page that is already compressed, e.g., a page copied from another chunk, into the
+   * buffer without uncompressing or encoding it again.
+   *
+   * @param data the compressed data of the page
+   * @param header the header of the page
+   * @return byte size of the page header and compressed data in the page body.
+   */
+  public int writePageHeaderAndDataIntoBuff(ByteBuffer data, PageHeader header)
+      throws PageException {
+    numOfPages++;
+
+    if (this.minTimestamp == -1) {
+      this.minTimestamp = header.getMinTimestamp();
+    }
+    this.maxTimestamp = header.getMaxTimestamp();
+
+    int headerSize;
+    int compressedSize = data.remaining();
+    try {
+      headerSize = header.getSerializedSize();
+      header.serializeTo(pageBuffer);
+    } catch (IOException e) {
+      resetTimeStamp();
+      throw new PageException(
+          "IO Exception in writeDataPageHeader,ignore this page", e);
+    }
+    this.totalValueCount += header.getNumOfValues();
+
+    try (WritableByteChannel channel = Channels.newChannel(pageBuffer)) {
+      channel.write(data);
+    } catch (IOException e) {
+      throw new PageException(e);
+    }
+    return headerSize + compressedSize;
+  }
+
   private void resetTimeStamp() {
     if (totalValueCount == 0) {
       minTimestamp = -1;
@@ -20,9 +20,11 @@ package org.apache.iotdb.tsfile.write.chunk;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.exception.write.PageException;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.utils.Binary;
@@ -199,85 +201,108 @@ public class ChunkWriterImpl implements IChunkWriter {
 
   @Override
   public void write(long[] timestamps, int[] values, int batchSize) {
-    this.time = timestamps[batchSize - 1];
-    valueCountInOnePage += batchSize;
-    if (minTimestamp == Long.MIN_VALUE) {
-      minTimestamp = timestamps[0];
+    int offset = 0;
+    while (offset < batchSize) {
+      int length = nextSliceLength(batchSize - offset);
+      dataPageWriter.write(timestamps, values, offset, length);
+      pageStatistics.updateStats(values, offset, length);
+      sliceWritten(timestamps, offset, length);
+      offset += length;
     }
-    dataPageWriter.write(timestamps, values, batchSize);
-    pageStatistics.updateStats(values);
-    checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long[] timestamps, long[] values, int batchSize) {
-    this.time = timestamps[batchSize - 1];
-    valueCountInOnePage += batchSize;
-    if (minTimestamp == Long.MIN_VALUE) {
-      minTimestamp = timestamps[0];
+    int offset = 0;
+    while (offset < batchSize) {
+      int length = nextSliceLength(batchSize - offset);
+      dataPageWriter.write(timestamps, values, offset, length);
+      pageStatistics.updateStats(values, offset, length);
+      sliceWritten(timestamps, offset, length);
+      offset += length;
     }
-    dataPageWriter.write(timestamps, values, batchSize);
-    pageStatistics.updateStats(values);
-    checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long[] timestamps, boolean[] values, int batchSize) {
-    this.time = timestamps[batchSize - 1];
-    valueCountInOnePage += batchSize;
-    if (minTimestamp == Long.MIN_VALUE) {
-      minTimestamp = timestamps[0];
+    int offset = 0;
+    while (offset < batchSize) {
+      int length = nextSliceLength(batchSize - offset);
+      dataPageWriter.write(timestamps, values, offset, length);
+      pageStatistics.updateStats(values, offset, length);
+      sliceWritten(timestamps, offset, length);
+      offset += length;
     }
-    dataPageWriter.write(timestamps, values, batchSize);
-    pageStatistics.updateStats(values);
-    checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long[] timestamps, float[] values, int batchSize) {
-    this.time = timestamps[batchSize - 1];
-    valueCountInOnePage += batchSize;
-    if (minTimestamp == Long.MIN_VALUE) {
-      minTimestamp = timestamps[0];
+    int offset = 0;
+    while (offset < batchSize) {
+      int length = nextSliceLength(batchSize - offset);
+      dataPageWriter.write(timestamps, values, offset, length);
+      pageStatistics.updateStats(values, offset, length);
+      sliceWritten(timestamps, offset, length);
+      offset += length;
     }
-    dataPageWriter.write(timestamps, values, batchSize);
-    pageStatistics.updateStats(values);
-    checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long[] timestamps, double[] values, int batchSize) {
-    this.time = timestamps[batchSize - 1];
-    valueCountInOnePage += batchSize;
-    if (minTimestamp == Long.MIN_VALUE) {
-      minTimestamp = timestamps[0];
+    int offset = 0;
+    while (offset < batchSize) {
+      int length = nextSliceLength(batchSize - offset);
+      dataPageWriter.write(timestamps, values, offset, length);
+      pageStatistics.updateStats(values, offset, length);
+      sliceWritten(timestamps, offset, length);
+      offset += length;
     }
-    dataPageWriter.write(timestamps, values, batchSize);
-    pageStatistics.updateStats(values);
-    checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long[] timestamps, BigDecimal[] values, int batchSize) {
-    this.time = timestamps[batchSize - 1];
-    valueCountInOnePage += batchSize;
-    if (minTimestamp == Long.MIN_VALUE) {
-      minTimestamp = timestamps[0];
+    int offset = 0;
+    while (offset < batchSize) {
+      int length = nextSliceLength(batchSize - offset);
+      dataPageWriter.write(timestamps, values, offset, length);
+      pageStatistics.updateStats(values, offset, length);
+      sliceWritten(timestamps, offset, length);
+      offset += length;
     }
-    dataPageWriter.write(timestamps, values, batchSize);
-    pageStatistics.updateStats(values);
-    checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long[] timestamps, Binary[] values, int batchSize) {
-    this.time = timestamps[batchSize - 1];
-    valueCountInOnePage += batchSize;
+    int offset = 0;
+    while (offset < batchSize) {
+      int length = nextSliceLength(batchSize - offset);
+      dataPageWriter.write(timestamps, values, offset, length);
+      pageStatistics.updateStats(values, offset, length);
+      sliceWritten(timestamps, offset, length);
+      offset += length;
+    }
+  }
+
+  /**
+   * the number of points of a batch that go into the current page before its size has to be
+   * checked again, so that a batch is cut into slices at the page boundaries instead of being
+   * written into one oversized page.
+   */
+  private int nextSliceLength(int remaining) {
+    int untilNextCheck =
+        Math.min(pageCountUpperBound, valueCountInOnePageForNextCheck) - valueCountInOnePage;
+    return Math.max(1, Math.min(remaining, untilNextCheck));
+  }
+
+  /**
+   * update the page state after timestamps[offset, offset + length) are written into the page.
+   */
+  private void sliceWritten(long[] timestamps, int offset, int length) {
+    this.time = timestamps[offset + length - 1];
+    valueCountInOnePage += length;
     if (minTimestamp == Long.MIN_VALUE) {
-      minTimestamp = timestamps[0];
+      minTimestamp = timestamps[offset];
     }
-    dataPageWriter.write(timestamps, values, batchSize);
-    pageStatistics.updateStats(values);
     checkPageSizeAndMayOpenANewPage();
   }
 
@@ -286,7 +311,7 @@ public class ChunkWriterImpl implements IChunkWriter {
    * OutputStream.
    */
   private void checkPageSizeAndMayOpenANewPage() {
-    if (valueCountInOnePage == pageCountUpperBound) {
+    if (valueCountInOnePage >= pageCountUpperBound) {
       LOG.debug("current line count reaches the upper bound, write page {}", measurementSchema);
       writePage();
     } else if (valueCountInOnePage
@@ -367,6 +392,13 @@ public class ChunkWriterImpl implements IChunkWriter {
     }
   }
 
+  @Override
+  public void writePage(ByteBuffer data, PageHeader header) throws PageException {
+    sealCurrentPage();
+    chunkBuffer.writePageHeaderAndDataIntoBuff(data, header);
+    this.chunkStatistics.mergeStatistics(header.getStatistics());
+  }
+
   @Override
   public int getNumOfPages() {
     return chunkBuffer.getNumOfPages();
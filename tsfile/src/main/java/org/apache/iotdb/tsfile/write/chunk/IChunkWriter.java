@@ -20,6 +20,9 @@ package org.apache.iotdb.tsfile.write.chunk;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.exception.write.PageException;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
@@ -123,6 +126,12 @@ public interface IChunkWriter {
    */
   void sealCurrentPage();
 
+  /**
+   * seal the current page and append a page that is already compressed with the same compressor
+   * and encoding, its statistics are merged into those of the chunk.
+   */
+  void writePage(ByteBuffer data, PageHeader header) throws PageException;
+
   int getNumOfPages();
 
   TSDataType getDataType();
@@ -21,10 +21,16 @@ package org.apache.iotdb.tsfile.write.page;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.encoding.encoder.DeltaBinaryEncoder;
 import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.PlainEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.RleEncoder;
+import org.apache.iotdb.tsfile.exception.encoding.TsFileEncodingException;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.utils.PublicBAOS;
 import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 
 /**
@@ -41,6 +47,10 @@ public class PageWriter {
   // value
   private Encoder valueEncoder;
   private PublicBAOS valueOut;
+  // sparse time index, one entry every TSFileConfig.pageTimeIndexInterval points
+  private PublicBAOS timeIndexOut;
+  private int timeIndexSize;
+  private int pointNum;
 
   public PageWriter() {
     this(null, null);
@@ -53,6 +63,7 @@ public class PageWriter {
   public PageWriter(Encoder timeEncoder, Encoder valueEncoder) {
     this.timeOut = new PublicBAOS();
     this.valueOut = new PublicBAOS();
+    this.timeIndexOut = new PublicBAOS();
     this.timeEncoder = timeEncoder;
     this.valueEncoder = valueEncoder;
   }
@@ -61,6 +72,7 @@ public class PageWriter {
    * write a time value pair into encoder
    */
   public void write(long time, boolean value) {
+    checkpoint(time);
     timeEncoder.encode(time, timeOut);
     valueEncoder.encode(value, valueOut);
   }
@@ -69,6 +81,7 @@ public class PageWriter {
    * write a time value pair into encoder
    */
   public void write(long time, short value) {
+    checkpoint(time);
     timeEncoder.encode(time, timeOut);
     valueEncoder.encode(value, valueOut);
   }
@@ -77,6 +90,7 @@ public class PageWriter {
    * write a time value pair into encoder
    */
   public void write(long time, int value) {
+    checkpoint(time);
     timeEncoder.encode(time, timeOut);
     valueEncoder.encode(value, valueOut);
   }
@@ -85,6 +99,7 @@ public class PageWriter {
    * write a time value pair into encoder
    */
   public void write(long time, long value) {
+    checkpoint(time);
     timeEncoder.encode(time, timeOut);
     valueEncoder.encode(value, valueOut);
   }
@@ -93,6 +108,7 @@ public class PageWriter {
    * write a time value pair into encoder
    */
   public void write(long time, float value) {
+    checkpoint(time);
     timeEncoder.encode(time, timeOut);
     valueEncoder.encode(value, valueOut);
   }
@@ -101,6 +117,7 @@ public class PageWriter {
    * write a time value pair into encoder
    */
   public void write(long time, double value) {
+    checkpoint(time);
     timeEncoder.encode(time, timeOut);
     valueEncoder.encode(value, valueOut);
   }
@@ -109,6 +126,7 @@ public class PageWriter {
    * write a time value pair into encoder
    */
   public void write(long time, BigDecimal value) {
+    checkpoint(time);
     timeEncoder.encode(time, timeOut);
     valueEncoder.encode(value, valueOut);
   }
@@ -117,80 +135,122 @@ public class PageWriter {
    * write a time value pair into encoder
    */
   public void write(long time, Binary value) {
+    checkpoint(time);
     timeEncoder.encode(time, timeOut);
     valueEncoder.encode(value, valueOut);
   }
 
   /**
-   * write time series into encoder
+   * write timestamps[offset, offset + length) and the values at the same positions into encoder
    */
-  public void write(long[] timestamps, boolean[] values, int batchSize) {
-    for (int i = 0; i < batchSize; i++) {
+  public void write(long[] timestamps, boolean[] values, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      checkpoint(timestamps[i]);
       timeEncoder.encode(timestamps[i], timeOut);
       valueEncoder.encode(values[i], valueOut);
     }
   }
 
   /**
-   * write time series into encoder
+   * write timestamps[offset, offset + length) and the values at the same positions into encoder
    */
-  public void write(long[] timestamps, int[] values, int batchSize) {
-    for (int i = 0; i < batchSize; i++) {
+  public void write(long[] timestamps, int[] values, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      checkpoint(timestamps[i]);
       timeEncoder.encode(timestamps[i], timeOut);
       valueEncoder.encode(values[i], valueOut);
     }
   }
 
   /**
-   * write time series into encoder
+   * write timestamps[offset, offset + length) and the values at the same positions into encoder
    */
-  public void write(long[] timestamps, long[] values, int batchSize) {
-    for (int i = 0; i < batchSize; i++) {
+  public void write(long[] timestamps, long[] values, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      checkpoint(timestamps[i]);
       timeEncoder.encode(timestamps[i], timeOut);
       valueEncoder.encode(values[i], valueOut);
     }
   }
 
   /**
-   * write time series into encoder
+   * write timestamps[offset, offset + length) and the values at the same positions into encoder
    */
-  public void write(long[] timestamps, float[] values, int batchSize) {
-    for (int i = 0; i < batchSize; i++) {
+  public void write(long[] timestamps, float[] values, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      checkpoint(timestamps[i]);
       timeEncoder.encode(timestamps[i], timeOut);
       valueEncoder.encode(values[i], valueOut);
     }
   }
 
   /**
-   * write time series into encoder
+   * write timestamps[offset, offset + length) and the values at the same positions into encoder
    */
-  public void write(long[] timestamps, double[] values, int batchSize) {
-    for (int i = 0; i < batchSize; i++) {
+  public void write(long[] timestamps, double[] values, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      checkpoint(timestamps[i]);
       timeEncoder.encode(timestamps[i], timeOut);
       valueEncoder.encode(values[i], valueOut);
     }
   }
 
   /**
-   * write time series into encoder
+   * write timestamps[offset, offset + length) and the values at the same positions into encoder
    */
-  public void write(long[] timestamps, BigDecimal[] values, int batchSize) {
-    for (int i = 0; i < batchSize; i++) {
+  public void write(long[] timestamps, BigDecimal[] values, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      checkpoint(timestamps[i]);
       timeEncoder.encode(timestamps[i], timeOut);
       valueEncoder.encode(values[i], valueOut);
     }
   }
 
   /**
-   * write time series into encoder
+   * write timestamps[offset, offset + length) and the values at the same positions into encoder
    */
-  public void write(long[] timestamps, Binary[] values, int batchSize) {
-    for (int i = 0; i < batchSize; i++) {
+  public void write(long[] timestamps, Binary[] values, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      checkpoint(timestamps[i]);
       timeEncoder.encode(timestamps[i], timeOut);
       valueEncoder.encode(values[i], valueOut);
     }
   }
 
+  /**
+   * Every TSFileConfig.pageTimeIndexInterval points, flush both encoders so that decoding can
+   * restart from the next point, and record the time of that point with the offsets in both
+   * columns where it starts.
+   */
+  private void checkpoint(long time) {
+    if (pointNum > 0 && TSFileConfig.pageTimeIndexInterval > 0
+        && pointNum % TSFileConfig.pageTimeIndexInterval == 0 && isTimeIndexSupported()) {
+      try {
+        prepareEndWriteOnePage();
+        ReadWriteIOUtils.write(time, timeIndexOut);
+        ReadWriteForEncodingUtils.writeUnsignedVarInt(timeOut.size(), timeIndexOut);
+        ReadWriteForEncodingUtils.writeUnsignedVarInt(valueOut.size(), timeIndexOut);
+      } catch (IOException e) {
+        throw new TsFileEncodingException("Cannot write a time index checkpoint", e);
+      }
+      timeIndexSize++;
+    }
+    pointNum++;
+  }
+
+  /**
+   * Decoding can only restart at a flush boundary if the decoders read the concatenated output of
+   * several flushes as one stream, which is not true for FloatEncoder or GorillaEncoder.
+   */
+  private boolean isTimeIndexSupported() {
+    return isRestartable(timeEncoder) && isRestartable(valueEncoder);
+  }
+
+  private static boolean isRestartable(Encoder encoder) {
+    return encoder instanceof PlainEncoder || encoder instanceof DeltaBinaryEncoder
+        || encoder instanceof RleEncoder;
+  }
+
   /**
    * flush all data remained in encoders.
    */
@@ -201,13 +261,22 @@ public class PageWriter {
 
   /**
    * getUncompressedBytes return data what it has been written in form of
-   * <code>size of time list, time list, value list</code>
+   * <code>size of time list, time list, value list</code>. If the page has a sparse time index,
+   * it is preceded by <code>0, number of index entries, index entries</code>, as the size of the
+   * time list of a page is never 0.
    *
    * @return a new readable ByteBuffer whose position is 0.
    */
   public ByteBuffer getUncompressedBytes() throws IOException {
     prepareEndWriteOnePage();
-    ByteBuffer buffer = ByteBuffer.allocate(timeOut.size() + valueOut.size() + 4);
+    int timeIndexBytes = timeIndexSize == 0 ? 0 : 1 + 5 + timeIndexOut.size();
+    ByteBuffer buffer = ByteBuffer
+        .allocate(timeIndexBytes + timeOut.size() + valueOut.size() + 5);
+    if (timeIndexSize > 0) {
+      ReadWriteForEncodingUtils.writeUnsignedVarInt(0, buffer);
+      ReadWriteForEncodingUtils.writeUnsignedVarInt(timeIndexSize, buffer);
+      buffer.put(timeIndexOut.getBuf(), 0, timeIndexOut.size());
+    }
     ReadWriteForEncodingUtils.writeUnsignedVarInt(timeOut.size(), buffer);
     buffer.put(timeOut.getBuf(), 0, timeOut.size());
     buffer.put(valueOut.getBuf(), 0, valueOut.size());
@@ -222,8 +291,8 @@ public class PageWriter {
    * @return allocated size in time, value and outputStream
    */
   public long estimateMaxMemSize() {
-    return timeOut.size() + valueOut.size() + timeEncoder.getMaxByteSize() + valueEncoder
-        .getMaxByteSize();
+    return timeOut.size() + valueOut.size() + timeIndexOut.size() + timeEncoder.getMaxByteSize()
+        + valueEncoder.getMaxByteSize();
   }
 
   /**
@@ -232,6 +301,9 @@ public class PageWriter {
   public void reset() {
     timeOut.reset();
     valueOut.reset();
+    timeIndexOut.reset();
+    timeIndexSize = 0;
+    pointNum = 0;
   }
 
   public void setTimeEncoder(Encoder encoder) {
@@ -23,11 +23,13 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
@@ -37,6 +39,8 @@ import org.apache.iotdb.tsfile.file.footer.ChunkGroupFooter;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.DeviceIndexDirectory;
+import org.apache.iotdb.tsfile.file.metadata.DeviceIndexPage;
 import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadata;
 import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadataIndex;
 import org.apache.iotdb.tsfile.file.metadata.TsDigest;
@@ -264,6 +268,9 @@ public class TsFileIOWriter {
 
     Map<String, TsDeviceMetadataIndex> tsDeviceMetadataIndexMap = flushTsDeviceMetaDataAndGetIndex(
         this.chunkGroupMetaDataList);
+    if (TSFileConfig.deviceIndexPageSize > 0 && !tsDeviceMetadataIndexMap.isEmpty()) {
+      flushDeviceIndex(tsDeviceMetadataIndexMap, schemaDescriptors.keySet());
+    }
 
     TsFileMetaData tsFileMetaData = new TsFileMetaData(tsDeviceMetadataIndexMap, schemaDescriptors,
         TSFileConfig.CURRENT_VERSION);
@@ -323,6 +330,42 @@ public class TsFileIOWriter {
     return tsDeviceMetadataIndexMap;
   }
 
+  /**
+   * flush the device index in pages of TSFileConfig.deviceIndexPageSize devices sorted by device
+   * id, then the directory of the pages and its offset, see {@code DeviceIndexDirectory}.
+   *
+   * @param tsDeviceMetadataIndexMap TsDeviceMetadataIndex of all devices
+   * @param measurementIds all measurement ids of this TsFile
+   */
+  private void flushDeviceIndex(Map<String, TsDeviceMetadataIndex> tsDeviceMetadataIndexMap,
+      Set<String> measurementIds) throws IOException {
+    String[] deviceIds = tsDeviceMetadataIndexMap.keySet().toArray(new String[0]);
+    Arrays.sort(deviceIds);
+    int pageSize = TSFileConfig.deviceIndexPageSize;
+    int pageNum = (deviceIds.length + pageSize - 1) / pageSize;
+    String[] firstDeviceIds = new String[pageNum];
+    long[] pageOffsets = new long[pageNum];
+    int[] pageSizes = new int[pageNum];
+    for (int i = 0; i < pageNum; i++) {
+      String[] pageDeviceIds = Arrays.copyOfRange(deviceIds, i * pageSize,
+          Math.min(deviceIds.length, (i + 1) * pageSize));
+      TsDeviceMetadataIndex[] indexes = new TsDeviceMetadataIndex[pageDeviceIds.length];
+      for (int j = 0; j < pageDeviceIds.length; j++) {
+        indexes[j] = tsDeviceMetadataIndexMap.get(pageDeviceIds[j]);
+      }
+      firstDeviceIds[i] = pageDeviceIds[0];
+      pageOffsets[i] = out.getPosition();
+      pageSizes[i] = new DeviceIndexPage(pageDeviceIds, indexes).serializeTo(out.wrapAsStream());
+    }
+    String[] sortedMeasurementIds = measurementIds.toArray(new String[0]);
+    Arrays.sort(sortedMeasurementIds);
+    long directoryOffset = out.getPosition();
+    new DeviceIndexDirectory(firstDeviceIds, pageOffsets, pageSizes, sortedMeasurementIds)
+        .serializeTo(out.wrapAsStream());
+    ReadWriteIOUtils.write(directoryOffset, out.wrapAsStream());
+    ReadWriteIOUtils.write(DeviceIndexDirectory.MAGIC, out.wrapAsStream());
+  }
+
   /**
    * group all chunk group metadata by device.
    *
@@ -416,7 +459,8 @@ public class TsFileIOWriter {
   }
 
   /**
-   * Remove such ChunkMetadata that its startTime is not in chunkStartTimes
+   * Remove such ChunkMetadata that its startTime is not in chunkStartTimes. The chunks of the
+   * series not in chunkStartTimes are kept.
    * @param chunkStartTimes
    */
   public void filterChunks(Map<Path, List<Long>> chunkStartTimes) {
@@ -433,7 +477,10 @@ public class TsFileIOWriter {
       while (chunkMetaDataIterator.hasNext()) {
         ChunkMetaData chunkMetaData = chunkMetaDataIterator.next();
         Path path = new Path(deviceId, chunkMetaData.getMeasurementUid());
-        int startTimeIdx = startTimeIdxes.get(path);
+        Integer startTimeIdx = startTimeIdxes.get(path);
+        if (startTimeIdx == null) {
+          continue;
+        }
         List<Long> pathChunkStartTimes = chunkStartTimes.get(path);
         boolean chunkValid = startTimeIdx < pathChunkStartTimes.size()
             && pathChunkStartTimes.get(startTimeIdx) == chunkMetaData.getStartTime();
@@ -18,11 +18,14 @@
  */
 package org.apache.iotdb.tsfile.compress;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.utils.PublicBAOS;
 import org.junit.After;
 import org.junit.Before;
@@ -73,6 +76,28 @@ public class CompressTest {
     assertEquals(inputString, result);
   }
 
+  @Test
+  public void gzipCompressorTest() throws IOException {
+    PublicBAOS out = new PublicBAOS();
+    for (int i = 0; i < 100; i++) {
+      out.write(inputString.getBytes(StandardCharsets.UTF_8));
+    }
+    ICompressor compressor = ICompressor.getCompressor(CompressionType.GZIP);
+    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(CompressionType.GZIP);
+    byte[] compressed = new byte[compressor.getMaxBytesForCompression(out.size())];
+    int size = compressor.compress(out.getBuf(), 0, out.size(), compressed);
+    assertTrue(size < out.size());
+    byte[] bytes = Arrays.copyOfRange(compressed, 0, size);
+    assertEquals(out.size(), unCompressor.getUncompressedLength(bytes, 0, bytes.length));
+
+    byte[] uncompressed = new byte[out.size() + 1];
+    assertEquals(out.size(),
+        unCompressor.uncompress(bytes, 0, bytes.length, uncompressed, 1));
+    assertArrayEquals(Arrays.copyOf(out.getBuf(), out.size()),
+        Arrays.copyOfRange(uncompressed, 1, uncompressed.length));
+    assertArrayEquals(Arrays.copyOf(out.getBuf(), out.size()), unCompressor.uncompress(bytes));
+  }
+
   @Test
   public void snappyTest() throws IOException {
     byte[] compressed = Snappy.compress(inputString.getBytes(StandardCharsets.UTF_8));
@@ -39,6 +39,23 @@ public class IntegerStatisticsTest {
     assertEquals(2, (int) intStats.getLast());
   }
 
+  @Test
+  public void testUpdateBatch() {
+    Statistics<Integer> intStats = new IntegerStatistics();
+    int[] values = new int[]{100, 3, 7, -2, 5, 100};
+    intStats.updateStats(values, 1, 3);
+    assertEquals(7, (int) intStats.getMax());
+    assertEquals(-2, (int) intStats.getMin());
+    assertEquals(3, (int) intStats.getFirst());
+    assertEquals(8, (int) intStats.getSum());
+    assertEquals(-2, (int) intStats.getLast());
+    intStats.updateStats(values, 4, 1);
+    assertEquals(7, (int) intStats.getMax());
+    assertEquals(3, (int) intStats.getFirst());
+    assertEquals(13, (int) intStats.getSum());
+    assertEquals(5, (int) intStats.getLast());
+  }
+
   @Test
   public void testMerge() {
     Statistics<Integer> intStats1 = new IntegerStatistics();
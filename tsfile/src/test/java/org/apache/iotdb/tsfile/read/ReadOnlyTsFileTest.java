@@ -20,6 +20,10 @@ package org.apache.iotdb.tsfile.read;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
 import org.apache.iotdb.tsfile.read.common.Path;
@@ -108,6 +112,80 @@ public class ReadOnlyTsFileTest {
     Assert.assertEquals(101, count);
   }
 
+  @Test
+  public void testParallel() throws InterruptedException, WriteProcessException, IOException {
+    int minRowCount = 1000, maxRowCount = 100000;
+    TSFileDescriptor.getInstance().getConfig().timeEncoder = "TS_2DIFF";
+    TsFileGeneratorForTest.generateFile(minRowCount, maxRowCount, 16 * 1024 * 1024, 10000);
+    ExecutorService readPool = Executors.newFixedThreadPool(2);
+    fileReader = new TsFileSequenceReader(FILE_PATH);
+    // a small buffer makes the workers stop and resume many times
+    tsFile = new ReadOnlyTsFile(fileReader, readPool, 2);
+    queryTest2();
+
+    List<Path> paths = Arrays.asList(new Path("d1.s1"), new Path("d1.s6"), new Path("d2.s1"));
+    TsFileSequenceReader sequentialReader = new TsFileSequenceReader(FILE_PATH);
+    ReadOnlyTsFile sequentialTsFile = new ReadOnlyTsFile(sequentialReader);
+    QueryDataSet expected = sequentialTsFile.query(QueryExpression.create(paths, null));
+    QueryDataSet actual = tsFile.query(QueryExpression.create(paths, null));
+    while (expected.hasNext()) {
+      Assert.assertTrue(actual.hasNext());
+      Assert.assertEquals(expected.next().toString(), actual.next().toString());
+    }
+    Assert.assertFalse(actual.hasNext());
+
+    // close before the series are exhausted
+    tsFile.query(QueryExpression.create(paths, null)).next();
+    sequentialTsFile.close();
+    tsFile.close();
+    readPool.shutdown();
+    TsFileGeneratorForTest.after();
+  }
+
+  @Test
+  public void testParallelReadersReleased() throws InterruptedException, WriteProcessException,
+      IOException {
+    TSFileDescriptor.getInstance().getConfig().timeEncoder = "TS_2DIFF";
+    TsFileGeneratorForTest.generateFile(1000, 10000, 16 * 1024 * 1024, 10000);
+    ExecutorService readPool = Executors.newFixedThreadPool(2);
+    fileReader = new TsFileSequenceReader(FILE_PATH);
+    tsFile = new ReadOnlyTsFile(fileReader, readPool, 2);
+    List<Path> paths = Arrays.asList(new Path("d1.s1"), new Path("d1.s6"), new Path("d2.s1"));
+    // the readers of the exhausted queries are dropped by the following ones
+    for (int i = 0; i < 20; i++) {
+      QueryDataSet dataSet = tsFile.query(QueryExpression.create(paths, null));
+      while (dataSet.hasNext()) {
+        dataSet.next();
+      }
+      Assert.assertTrue(tsFile.getParallelReaderNum() <= 2 * paths.size());
+    }
+    tsFile.close();
+    Assert.assertEquals(0, tsFile.getParallelReaderNum());
+    readPool.shutdown();
+    TsFileGeneratorForTest.after();
+  }
+
+  @Test
+  public void testParallelRejected() throws InterruptedException, WriteProcessException,
+      IOException {
+    TSFileDescriptor.getInstance().getConfig().timeEncoder = "TS_2DIFF";
+    TsFileGeneratorForTest.generateFile(1000, 10000, 16 * 1024 * 1024, 10000);
+    ExecutorService readPool = Executors.newFixedThreadPool(2);
+    readPool.shutdown();
+    fileReader = new TsFileSequenceReader(FILE_PATH);
+    tsFile = new ReadOnlyTsFile(fileReader, readPool, 2);
+    List<Path> paths = Arrays.asList(new Path("d1.s1"), new Path("d1.s6"), new Path("d2.s1"));
+    // the decoding cannot be submitted, the query fails instead of waiting forever
+    try {
+      tsFile.query(QueryExpression.create(paths, null));
+      Assert.fail();
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("Cannot submit"));
+    }
+    tsFile.close();
+    TsFileGeneratorForTest.after();
+  }
+
   @Test
   public void test2() throws InterruptedException, WriteProcessException, IOException {
     int minRowCount = 1000, maxRowCount=100000;
@@ -19,11 +19,15 @@
 
 package org.apache.iotdb.tsfile.read;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
 import org.apache.iotdb.tsfile.file.MetaMarker;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
@@ -32,8 +36,15 @@ import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
 import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadata;
 import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadataIndex;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.utils.TsFileGeneratorForTest;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -103,5 +114,45 @@ public class TsFileSequenceReaderTest {
     reader.close();
   }
 
+  @Test
+  public void testReadDeviceIndex() throws IOException, WriteProcessException {
+    String path = "deviceIndex.tsfile";
+    int deviceIndexPageSize = TSFileConfig.deviceIndexPageSize;
+    try {
+      for (int pageSize : new int[]{16, 0}) {
+        TSFileConfig.deviceIndexPageSize = pageSize;
+        writeDevices(path, 300);
+        try (TsFileSequenceReader reader = new TsFileSequenceReader(path)) {
+          Assert.assertEquals(pageSize > 0, reader.readDeviceIndexDirectory() != null);
+          for (int i = 0; i < 300; i++) {
+            TsDeviceMetadataIndex index = reader.readDeviceMetadataIndex("d" + i);
+            Assert.assertNotNull(index);
+            Assert.assertEquals(i, reader.readTsDeviceMetaData(index).getStartTime());
+          }
+          // before the first device, between two devices and after the last device
+          Assert.assertNull(reader.readDeviceMetadataIndex("a"));
+          Assert.assertNull(reader.readDeviceMetadataIndex("d10_"));
+          Assert.assertNull(reader.readDeviceMetadataIndex("e"));
+          Assert.assertEquals(1,
+              reader.getChunkMetadataList(new Path("d100", "s1")).size());
+        }
+      }
+    } finally {
+      TSFileConfig.deviceIndexPageSize = deviceIndexPageSize;
+      Files.deleteIfExists(Paths.get(path));
+    }
+  }
 
-}
\ No newline at end of file
+  private void writeDevices(String path, int deviceNum) throws IOException, WriteProcessException {
+    File file = new File(path);
+    Files.deleteIfExists(file.toPath());
+    try (TsFileWriter writer = new TsFileWriter(file)) {
+      writer.addMeasurement(new MeasurementSchema("s1", TSDataType.INT64, TSEncoding.RLE));
+      for (int i = 0; i < deviceNum; i++) {
+        TSRecord record = new TSRecord(i, "d" + i);
+        record.addTuple(new LongDataPoint("s1", i));
+        writer.write(record);
+      }
+    }
+  }
+}
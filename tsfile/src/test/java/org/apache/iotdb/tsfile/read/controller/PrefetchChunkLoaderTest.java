@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.TsFileGeneratorForTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrefetchChunkLoaderTest {
+
+  private static final String FILE_PATH = TsFileGeneratorForTest.outputDataFile;
+  private TsFileSequenceReader fileReader;
+  private ExecutorService ioPool;
+
+  @Before
+  public void before() throws InterruptedException, WriteProcessException, IOException {
+    TsFileGeneratorForTest.generateFile(1000000, 1024 * 1024, 10000);
+    fileReader = new TsFileSequenceReader(FILE_PATH);
+    ioPool = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void after() throws IOException {
+    ioPool.shutdownNow();
+    fileReader.close();
+    TsFileGeneratorForTest.after();
+  }
+
+  @Test
+  public void testSequentialRead() throws IOException {
+    List<ChunkMetaData> chunkMetaDataList = new MetadataQuerierByFileImpl(fileReader)
+        .getChunkMetaDataList(new Path("d2.s1"));
+    Assert.assertTrue(chunkMetaDataList.size() > 1);
+
+    // a large gap makes every batch fetched by one read
+    for (int maxMergeGap : new int[]{0, Integer.MAX_VALUE}) {
+      PrefetchChunkLoader prefetchLoader = new PrefetchChunkLoader(fileReader,
+          chunkMetaDataList, ioPool, 3, maxMergeGap);
+      for (ChunkMetaData chunkMetaData : chunkMetaDataList) {
+        assertSameChunk(fileReader.readMemChunk(chunkMetaData),
+            prefetchLoader.getChunk(chunkMetaData));
+      }
+      prefetchLoader.clear();
+    }
+  }
+
+  @Test
+  public void testSkipChunks() throws IOException {
+    List<ChunkMetaData> chunkMetaDataList = new MetadataQuerierByFileImpl(fileReader)
+        .getChunkMetaDataList(new Path("d1.s1"));
+    PrefetchChunkLoader prefetchLoader = new PrefetchChunkLoader(fileReader,
+        chunkMetaDataList, ioPool, 2);
+    for (int i = 0; i < chunkMetaDataList.size(); i += 3) {
+      ChunkMetaData chunkMetaData = chunkMetaDataList.get(i);
+      assertSameChunk(fileReader.readMemChunk(chunkMetaData),
+          prefetchLoader.getChunk(chunkMetaData));
+    }
+    // a chunk that is not in the list is read directly
+    ChunkMetaData first = chunkMetaDataList.get(0);
+    assertSameChunk(fileReader.readMemChunk(first), prefetchLoader.getChunk(first));
+    prefetchLoader.clear();
+  }
+
+  private void assertSameChunk(Chunk expected, Chunk actual) {
+    Assert.assertEquals(expected.getHeader().getMeasurementID(),
+        actual.getHeader().getMeasurementID());
+    Assert.assertEquals(expected.getHeader().getDataSize(), actual.getData().remaining());
+    Assert.assertEquals(expected.getData(), actual.getData());
+    Assert.assertEquals(expected.getDeletedAt(), actual.getDeletedAt());
+  }
+}
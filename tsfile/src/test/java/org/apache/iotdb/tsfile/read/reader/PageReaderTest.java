@@ -20,6 +20,7 @@ package org.apache.iotdb.tsfile.read.reader;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.encoding.common.EndianType;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
 import org.apache.iotdb.tsfile.encoding.decoder.DeltaBinaryDecoder;
@@ -142,6 +143,53 @@ public class PageReaderTest {
     test.test();
   }
 
+  @Test
+  public void testTimeIndex() throws IOException {
+    int interval = TSFileConfig.pageTimeIndexInterval;
+    TSFileConfig.pageTimeIndexInterval = 1000;
+    try {
+      int count = 100000;
+      PageWriter pageWriter = new PageWriter();
+      pageWriter.setTimeEncoder(new DeltaBinaryEncoder.LongDeltaEncoder());
+      pageWriter.setValueEncoder(new LongRleEncoder(EndianType.BIG_ENDIAN));
+      for (int i = 0; i < count; i++) {
+        pageWriter.write(i * 2L, (long) i % 7);
+      }
+      ByteBuffer page = pageWriter.getUncompressedBytes();
+
+      // all points can still be read from the page start
+      PageReader pageReader = new PageReader(page.duplicate(), TSDataType.INT64,
+          new LongRleDecoder(EndianType.BIG_ENDIAN), new DeltaBinaryDecoder.LongDeltaDecoder());
+      BatchData data = pageReader.nextBatch();
+      for (int i = 0; i < count; i++) {
+        Assert.assertEquals(i * 2L, data.currentTime());
+        Assert.assertEquals((long) i % 7, data.getLong());
+        data.next();
+      }
+      Assert.assertFalse(data.hasNext());
+
+      // decoding starts at the last checkpoint not after the timestamp
+      pageReader = new PageReader(page.duplicate(), TSDataType.INT64,
+          new LongRleDecoder(EndianType.BIG_ENDIAN), new DeltaBinaryDecoder.LongDeltaDecoder());
+      pageReader.skipToCheckpoint(55555 * 2L);
+      data = pageReader.nextBatch();
+      for (int i = 55000; i < count; i++) {
+        Assert.assertEquals(i * 2L, data.currentTime());
+        Assert.assertEquals((long) i % 7, data.getLong());
+        data.next();
+      }
+      Assert.assertFalse(data.hasNext());
+
+      // a timestamp before the first checkpoint reads from the page start
+      pageReader = new PageReader(page.duplicate(), TSDataType.INT64,
+          new LongRleDecoder(EndianType.BIG_ENDIAN), new DeltaBinaryDecoder.LongDeltaDecoder());
+      pageReader.skipToCheckpoint(1);
+      Assert.assertEquals(0, pageReader.nextBatch().currentTime());
+    } finally {
+      TSFileConfig.pageTimeIndexInterval = interval;
+    }
+  }
+
   private abstract static class LoopWriteReadTest {
 
     private Encoder encoder;
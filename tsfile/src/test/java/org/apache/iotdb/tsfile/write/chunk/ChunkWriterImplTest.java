@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write.chunk;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChunkWriterImplTest {
+
+  private int maxNumberOfPointsInPage;
+
+  @Before
+  public void setUp() {
+    maxNumberOfPointsInPage = TSFileConfig.maxNumberOfPointsInPage;
+    TSFileConfig.maxNumberOfPointsInPage = 1000;
+  }
+
+  @After
+  public void tearDown() {
+    TSFileConfig.maxNumberOfPointsInPage = maxNumberOfPointsInPage;
+  }
+
+  @Test
+  public void testBatchSplitIntoPages() {
+    ChunkWriterImpl chunkWriter = new ChunkWriterImpl(new ChunkBuffer(
+        new MeasurementSchema("s1", TSDataType.INT64, TSEncoding.TS_2DIFF)),
+        TSFileConfig.pageSizeInByte);
+    long[] times = new long[3000];
+    long[] values = new long[3000];
+    for (int i = 0; i < times.length; i++) {
+      times[i] = i;
+      values[i] = i * 10L;
+    }
+    // only the first 2500 points of the arrays belong to the batch
+    chunkWriter.write(times, values, 2500);
+    assertEquals(2, chunkWriter.getNumOfPages());
+    for (int i = 0; i < times.length; i++) {
+      times[i] += 2500;
+    }
+    chunkWriter.write(times, values, 700);
+    assertEquals(3, chunkWriter.getNumOfPages());
+    chunkWriter.sealCurrentPage();
+    assertEquals(4, chunkWriter.getNumOfPages());
+  }
+}